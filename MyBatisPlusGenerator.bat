@@ -0,0 +1,10 @@
+@echo off
+rem Launch the generator with the bundled jre/.
+rem If the AppCDS archive built at packaging time (mvn -P app-cds package) exists, its classes are
+rem mapped directly instead of being loaded and verified. AutoCreateSharedArchive regenerates the
+rem archive on exit when it does not match the runtime or the jar.
+setlocal
+cd /d "%~dp0"
+set APP_JAR=target\MyBatisPlusGenerator-1.0-SNAPSHOT.jar
+set CDS_ARCHIVE=target\app-cds.jsa
+start "" "jre\bin\javaw.exe" -XX:SharedArchiveFile="%CDS_ARCHIVE%" -XX:+AutoCreateSharedArchive -Xshare:auto -cp "%APP_JAR%" GUI.SQLGeneratorGUI %*
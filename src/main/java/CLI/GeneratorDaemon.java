@@ -0,0 +1,695 @@
+package CLI;
+
+import Generator.BatchCodeWriter;
+import Generator.GenerationContext;
+import Generator.GenerationResult;
+import Generator.TemplateRegistry;
+import Global.FileConfigurationReadingUtils;
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.ParallelSchemaParser;
+import utils.ParseCache;
+import utils.ParseDiagnostic;
+import utils.ParseReport;
+import utils.StreamingSchemaParser;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 常驻的本地生成服务，只监听回环地址
+ * 解析器、类型转换和生成器在进程中保持预热，IDE 插件或脚本每次请求只需几毫秒，不再付出 JVM 启动和冷 JIT 的代价。
+ * <pre>
+ * java -cp MyBatisPlusGenerator.jar CLI.GeneratorDaemon [--port 端口] [--config 文件] [--threads 线程数]
+ *                                                       [--root 目录] [--token-file 文件]
+ *
+ * POST /generate?mapperPackage=...&amp;...      请求体为建表语句（可以是 gzip/zip），返回渲染的文件
+ * POST /generate?path=schema.sql&amp;...         解析 --root 目录下的文件（按 parserThreads 并行解析）
+ * POST /generate?write=true&amp;projectPath=...   写入 --root 目录下的项目，返回写入和跳过的文件数
+ * GET  /stats                                 请求数和延迟百分位
+ * POST /shutdown                              停止服务
+ * </pre>
+ * 查询参数与配置文件中的键同名，覆盖启动时读取的 generator_config.properties。响应为 UTF-8 JSON。
+ * <p>
+ * 回环地址上的其他程序和浏览器中的网页同样能访问服务，因此每个请求都要通过以下校验：
+ * <ul>
+ * <li>启动时生成随机令牌，写入只有当前用户可读的令牌文件（默认为 ~/.mybatisplus-generator/daemon-端口.token），
+ *     请求必须在 X-Generator-Token 请求头中带上令牌，否则返回 401；</li>
+ * <li>Host 必须是回环地址和服务端口，带 Origin 时也必须是回环地址，防止 DNS 重绑定和跨站请求，否则返回 403；</li>
+ * <li>/generate 的 Content-Type 必须是 application/sql、application/octet-stream、application/gzip 或 application/zip，
+ *     网页不经预检就能发出的 text/plain、表单等类型返回 415；</li>
+ * <li>path、projectPath 和 templateDirectory 参数只能指向 --root 目录之内（解析符号链接之后），未指定 --root 时不接受这些参数。</li>
+ * </ul>
+ */
+public class GeneratorDaemon implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 17890;
+
+    /** 携带令牌的请求头 */
+    public static final String TOKEN_HEADER = "X-Generator-Token";
+
+    // /generate 接受的请求体类型
+    private static final List<String> BODY_TYPES = Arrays.asList(
+            "application/sql", "application/octet-stream", "application/gzip", "application/x-gzip", "application/zip");
+
+    private static final List<String> LOOPBACK_HOSTS = Arrays.asList("127.0.0.1", "localhost", "[::1]");
+
+    // 保留最近多少次请求的耗时用于计算百分位
+    private static final int LATENCY_WINDOW = 8192;
+
+    private static final String WARM_UP_SQL = "CREATE TABLE `warm_up_order` (\n"
+            + "  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键',\n"
+            + "  `order_no` varchar(64) NOT NULL COMMENT '订单号',\n"
+            + "  `amount` decimal(10,2) DEFAULT NULL COMMENT '金额',\n"
+            + "  `status` tinyint DEFAULT '0' COMMENT '状态',\n"
+            + "  `created_at` datetime DEFAULT NULL COMMENT '创建时间',\n"
+            + "  PRIMARY KEY (`id`),\n"
+            + "  UNIQUE KEY `uk_order_no` (`order_no`),\n"
+            + "  KEY `idx_status_created` (`status`, `created_at`)\n"
+            + ") COMMENT='预热用的订单表';";
+
+    private final GenerationConfig defaults;
+    // path、projectPath 和 templateDirectory 参数允许的目录（真实路径），为 null 时不接受这些参数
+    private final Path root;
+    private final Path tokenFile;
+    private final String token;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyRecorder latency = new LatencyRecorder(LATENCY_WINDOW);
+    private final long startedAt = System.nanoTime();
+
+    /**
+     * 不接受 path 和 projectPath 参数，令牌写入默认的令牌文件
+     * @param port 监听的回环端口，0 表示由系统分配
+     * @param defaults 请求中没有给出的配置项使用的值
+     * @param threads 处理请求的线程数
+     */
+    public GeneratorDaemon(int port, GenerationConfig defaults, int threads) throws IOException {
+        this(port, defaults, threads, null, null);
+    }
+
+    /**
+     * @param port 监听的回环端口，0 表示由系统分配
+     * @param defaults 请求中没有给出的配置项使用的值
+     * @param threads 处理请求的线程数
+     * @param root path 和 projectPath 参数允许的目录，为 null 时不接受这两个参数
+     * @param tokenFile 令牌文件，为 null 时使用 ~/.mybatisplus-generator/daemon-端口.token
+     */
+    public GeneratorDaemon(int port, GenerationConfig defaults, int threads, Path root, Path tokenFile) throws IOException {
+        this.defaults = defaults;
+        this.root = root != null ? root.toRealPath() : null;
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        StringBuilder hex = new StringBuilder(random.length * 2);
+        for (byte b : random) {
+            hex.append(String.format("%02x", b & 0xFF));
+        }
+        this.token = hex.toString();
+        // 响应头和响应体分两次写出，开启 Nagle 算法时第二次写出要等客户端的延迟确认，每个请求多等约 40 ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "generator-daemon");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        this.tokenFile = tokenFile != null ? tokenFile
+                : Paths.get(System.getProperty("user.home"), ".mybatisplus-generator", "daemon-" + getPort() + ".token");
+        server.createContext("/generate", this::handleGenerate);
+        server.createContext("/stats", this::handleStats);
+        server.createContext("/shutdown", this::handleShutdown);
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String configFile = null;
+        Path root = null;
+        Path tokenFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--config")) {
+                configFile = args[i + 1];
+            } else if (args[i].equals("--root")) {
+                root = Paths.get(args[i + 1]);
+            } else if (args[i].equals("--token-file")) {
+                tokenFile = Paths.get(args[i + 1]);
+            } else {
+                System.err.println("未知参数: " + args[i]);
+                System.err.println("用法: java -cp <classpath> CLI.GeneratorDaemon [--port 端口] [--config 文件] [--threads 线程数]"
+                        + " [--root 目录] [--token-file 文件]");
+                System.exit(SQLGeneratorCLI.EXIT_USAGE);
+            }
+        }
+        if (configFile != null) {
+            if (!FileConfigurationReadingUtils.loadConfiguration(new File(configFile))) {
+                System.exit(SQLGeneratorCLI.EXIT_USAGE);
+            }
+        } else {
+            FileConfigurationReadingUtils.loadConfiguration();
+        }
+        GeneratorDaemon daemon = new GeneratorDaemon(port, GenerationConfig.from(GlobalTableInfo.getInstance()), threads, root, tokenFile);
+        daemon.warmUp(200);
+        daemon.start();
+        System.out.println("生成服务已启动: http://127.0.0.1:" + daemon.getPort() + "/");
+        System.out.println("令牌文件: " + daemon.getTokenFile());
+        System.out.println(daemon.root != null ? "path 和 projectPath 限定在: " + daemon.root : "未指定 --root，不接受 path 和 projectPath 参数");
+    }
+
+    /**
+     * 写入令牌文件后开始接受请求
+     * @throws IOException 令牌文件无法写入
+     */
+    public void start() throws IOException {
+        writeTokenFile(tokenFile, token);
+        server.start();
+    }
+
+    /**
+     * 请求需要在 {@link #TOKEN_HEADER} 中携带的令牌，供同一进程中的调用方使用；其他进程从令牌文件读取
+     */
+    public String getToken() {
+        return token;
+    }
+
+    public Path getTokenFile() {
+        return tokenFile;
+    }
+
+    /**
+     * 实际监听的端口
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 反复解析并渲染一张示例表，让解析器和生成器在第一个请求到来前完成 JIT 编译
+     * @param rounds 渲染次数
+     */
+    public void warmUp(int rounds) {
+        long begin = System.nanoTime();
+        GenerationConfig config = new GenerationConfig(null, "warm.entity", "warm.mapper", "warm.service",
+                "warm.service.impl", "warm.controller", 0);
+        byte[] sql = WARM_UP_SQL.getBytes(StandardCharsets.UTF_8);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                // 不使用缓存，确保每次都经过解析器
+                List<TableInfo> tables = new ArrayList<>();
+                StreamingSchemaParser.parse(new ByteArrayInputStream(sql), null, tables::add, null);
+                for (TableInfo table : tables) {
+                    GenerationResult.renderConcurrently(new GenerationContext(table, config));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("预热失败: " + e.getMessage());
+        }
+        System.out.println("预热完成: " + rounds + " 次，" + (System.nanoTime() - begin) / 1000000 + " ms");
+    }
+
+    /**
+     * 最近请求的延迟统计
+     */
+    public LatencyStats getLatencyStats() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            System.err.println("删除令牌文件失败: " + tokenFile + "，" + e.getMessage());
+        }
+        ParseCache.getInstance().save();
+    }
+
+    /**
+     * 校验 Host、Origin 和令牌，未通过时发送错误响应；未通过校验的请求不计入统计
+     * @return 是否通过
+     */
+    private boolean authorize(HttpExchange exchange) throws IOException {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null || !isLoopback(host, false)) {
+            send(exchange, 403, error("Host 不是本机回环地址: " + host));
+            return false;
+        }
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        if (origin != null && !isLoopback(origin, true)) {
+            send(exchange, 403, error("不接受来自其他站点的请求: " + origin));
+            return false;
+        }
+        String presented = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        // 按固定时间比较，不泄露令牌前缀是否匹配
+        if (presented == null || !MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            send(exchange, 401, error("缺少或错误的令牌，请在 " + TOKEN_HEADER + " 请求头中携带令牌文件中的内容"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 判断 Host（如 127.0.0.1:17890）或 Origin（如 http://localhost:17890）是否为回环地址和本服务的端口
+     */
+    private boolean isLoopback(String value, boolean origin) {
+        String authority = value.trim().toLowerCase(Locale.ROOT);
+        if (origin) {
+            if (!authority.startsWith("http://")) {
+                return false;
+            }
+            authority = authority.substring("http://".length());
+        }
+        int portStart = authority.lastIndexOf(':');
+        if (portStart < authority.lastIndexOf(']')) {
+            portStart = -1;
+        }
+        String hostName = portStart >= 0 ? authority.substring(0, portStart) : authority;
+        String port = portStart >= 0 ? authority.substring(portStart + 1) : "80";
+        return LOOPBACK_HOSTS.contains(hostName) && port.equals(String.valueOf(getPort()));
+    }
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        if (!authorize(exchange)) {
+            return;
+        }
+        long begin = System.nanoTime();
+        int status;
+        String body;
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String mediaType = contentType == null ? "" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("只支持 POST 请求");
+            } else if (!BODY_TYPES.contains(mediaType)) {
+                status = 415;
+                body = error("Content-Type 必须是 " + String.join("、", BODY_TYPES) + " 之一: " + contentType);
+            } else {
+                body = generate(parseQuery(exchange.getRequestURI().getRawQuery()), exchange.getRequestBody());
+                status = 200;
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (SecurityException e) {
+            status = 403;
+            body = error(e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            status = 500;
+            body = error(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        latency.record(System.nanoTime() - begin, status == 200);
+        send(exchange, status, body);
+    }
+
+    /**
+     * 解析请求中的建表语句，渲染或写入所有表
+     * @return JSON 响应
+     */
+    private String generate(Map<String, String> query, InputStream requestBody) throws IOException {
+        long begin = System.nanoTime();
+        boolean write = Boolean.parseBoolean(query.get("write"));
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : query.entrySet()) {
+            if (entry.getKey().equals("projectPath") || entry.getKey().equals("templateDirectory")) {
+                overrides.put(entry.getKey(), confine(entry.getKey(), entry.getValue()).toString());
+            } else if (SQLGeneratorCLI.isConfigKey(entry.getKey())) {
+                overrides.put(entry.getKey(), entry.getValue());
+            } else if (!entry.getKey().equals("write") && !entry.getKey().equals("path")) {
+                throw new IllegalArgumentException("未知参数: " + entry.getKey());
+            }
+        }
+        GenerationConfig config = SQLGeneratorCLI.applyOverrides(defaults, overrides, write);
+
+        List<TableInfo> tables = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        String path = query.get("path");
+        if (path != null) {
+            // 服务端的文件可能很大，按 parserThreads 并行解析
+            try (ParallelSchemaParser parser = SQLGeneratorCLI.newParser(config, ParseCache.getInstance())) {
+                ParseReport report = parser.parseFileRecovering(confine("path", path));
+                tables.addAll(report.getTables());
+                diagnostics.addAll(report.getDiagnostics());
+            }
+        } else {
+            StreamingSchemaParser.parse(requestBody, ParseCache.getInstance(), tables::add, diagnostics::add);
+        }
+
+        StringBuilder json = new StringBuilder(tables.size() * 8192 + 256);
+        json.append('{');
+        boolean ok = diagnostics.isEmpty() && !tables.isEmpty();
+        if (write) {
+            BatchCodeWriter.Result result = new BatchCodeWriter(config).write(tables);
+            List<String[]> failures = new ArrayList<>();
+            for (BatchCodeWriter.Failure failure : result.getFailures()) {
+                failures.add(new String[]{failure.getTableName(), failure.getMessage()});
+            }
+            ok &= failures.isEmpty();
+            json.append("\"written\":").append(result.getWrittenFiles())
+                    .append(",\"skipped\":").append(result.getSkippedFiles());
+            appendFailures(json, failures);
+        } else {
+            // 表名和错误信息
+            List<String[]> failures = new ArrayList<>();
+            // 一个请求中的所有表使用同一版本的模板
+            TemplateRegistry.Snapshot templates = TemplateRegistry.forConfig(config).snapshot();
+            json.append("\"tables\":[");
+            boolean first = true;
+            for (TableInfo table : tables) {
+                GenerationResult result;
+                try {
+                    result = GenerationResult.renderConcurrently(new GenerationContext(table, config, templates));
+                } catch (IOException | RuntimeException e) {
+                    failures.add(new String[]{table.getTableName(), e.getMessage() != null ? e.getMessage() : e.toString()});
+                    continue;
+                }
+                json.append(first ? "" : ",");
+                first = false;
+                appendResult(json, result);
+            }
+            json.append(']');
+            ok &= failures.isEmpty();
+            appendFailures(json, failures);
+        }
+        json.append(",\"diagnostics\":[");
+        for (int i = 0; i < diagnostics.size(); i++) {
+            json.append(i > 0 ? "," : "");
+            appendString(json, diagnostics.get(i).toString());
+        }
+        json.append("],\"ok\":").append(ok)
+                .append(",\"elapsedMicros\":").append((System.nanoTime() - begin) / 1000)
+                .append('}');
+        return json.toString();
+    }
+
+    /**
+     * 把请求中的路径解析为 --root 目录之内的真实路径，相对路径相对于 --root；
+     * 路径尚不存在时（如新的项目目录）检查它最近的已存在的上级目录，符号链接不能指向目录之外
+     * @throws SecurityException 未指定 --root，或路径在 --root 之外
+     */
+    private Path confine(String name, String value) throws IOException {
+        if (root == null) {
+            throw new SecurityException("服务启动时未指定 --root，不接受 " + name + " 参数");
+        }
+        Path resolved = root.resolve(value).normalize();
+        Path existing = resolved;
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        Path real = existing != null ? existing.toRealPath().resolve(existing.relativize(resolved)) : resolved;
+        if (!real.startsWith(root)) {
+            throw new SecurityException(name + " 不在允许的目录 " + root + " 之内: " + value);
+        }
+        return real;
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!authorize(exchange)) {
+            return;
+        }
+        LatencyStats stats = latency.snapshot();
+        String body = "{\"requests\":" + stats.getCount()
+                + ",\"errors\":" + stats.getErrors()
+                + ",\"p50Micros\":" + stats.getPercentileMicros(50)
+                + ",\"p90Micros\":" + stats.getPercentileMicros(90)
+                + ",\"p99Micros\":" + stats.getPercentileMicros(99)
+                + ",\"maxMicros\":" + stats.getMaxMicros()
+                + ",\"uptimeSeconds\":" + (System.nanoTime() - startedAt) / 1000000000L + "}";
+        send(exchange, 200, body);
+    }
+
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        if (!authorize(exchange)) {
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("只支持 POST 请求"));
+            return;
+        }
+        send(exchange, 200, "{\"ok\":true}");
+        // 在另一个线程中停止，等待当前请求的响应发送完毕
+        Thread stopper = new Thread(() -> {
+            close();
+            System.out.println("生成服务已停止");
+        }, "generator-daemon-stop");
+        // 请求线程是守护线程，新线程会继承；停止线程必须执行完，保存解析缓存后虚拟机才退出
+        stopper.setDaemon(false);
+        stopper.start();
+    }
+
+    /**
+     * 先写入同目录下只有当前用户可读写的临时文件，再原子替换为令牌文件，其他用户任何时候都读不到令牌
+     */
+    private static void writeTokenFile(Path file, String token) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(directory)) {
+            if (posix) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(directory);
+            }
+        }
+        Path temp;
+        if (posix) {
+            temp = Files.createTempFile(directory, "daemon", ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            temp = Files.createTempFile(directory, "daemon", ".tmp");
+            AclFileAttributeView acl = Files.getFileAttributeView(temp, AclFileAttributeView.class);
+            if (acl == null) {
+                Files.delete(temp);
+                throw new IOException("无法限制令牌文件的访问权限: " + file);
+            }
+            // 只保留文件所有者一项，去掉从目录继承的其他用户的权限
+            acl.setAcl(Collections.singletonList(AclEntry.newBuilder()
+                    .setType(AclEntryType.ALLOW)
+                    .setPrincipal(Files.getOwner(temp))
+                    .setPermissions(EnumSet.allOf(AclEntryPermission.class))
+                    .build()));
+        }
+        try {
+            Files.write(temp, token.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void appendResult(StringBuilder json, GenerationResult result) {
+        json.append("{\"table\":");
+        appendString(json, result.getContext().getTableName());
+        json.append(",\"renderMicros\":").append(result.getRenderNanos() / 1000)
+                .append(",\"elapsedMicros\":").append(result.getElapsedNanos() / 1000).append(",\"stages\":{");
+        boolean firstStage = true;
+        for (Map.Entry<String, Long> stage : result.getStageNanos().entrySet()) {
+            json.append(firstStage ? "" : ",");
+            firstStage = false;
+            appendString(json, stage.getKey());
+            json.append(':').append(stage.getValue() / 1000);
+        }
+        json.append("},\"files\":[");
+        List<GenerationResult.Artifact> artifacts = result.getArtifacts();
+        for (int i = 0; i < artifacts.size(); i++) {
+            GenerationResult.Artifact artifact = artifacts.get(i);
+            json.append(i > 0 ? ",{\"kind\":" : "{\"kind\":");
+            appendString(json, artifact.getKind());
+            json.append(",\"path\":");
+            appendString(json, "src/main/java/" + artifact.getPackagePath() + "/" + artifact.getFileName());
+            json.append(",\"renderMicros\":").append(artifact.getRenderNanos() / 1000).append(",\"content\":");
+            appendString(json, artifact.getContent());
+            json.append('}');
+        }
+        json.append("]}");
+    }
+
+    /**
+     * @param failures 失败的表名和错误信息
+     */
+    private static void appendFailures(StringBuilder json, List<String[]> failures) {
+        json.append(",\"failures\":[");
+        for (int i = 0; i < failures.size(); i++) {
+            json.append(i > 0 ? "," : "").append("{\"table\":");
+            appendString(json, failures.get(i)[0]);
+            json.append(",\"message\":");
+            appendString(json, failures.get(i)[1]);
+            json.append('}');
+        }
+        json.append(']');
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"ok\":false,\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    /**
+     * 追加 JSON 字符串，null 写为 null
+     */
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 最近请求的延迟统计快照
+     */
+    public static final class LatencyStats {
+        private final long count;
+        private final long errors;
+        // 窗口内的耗时，升序
+        private final long[] sortedNanos;
+
+        LatencyStats(long count, long errors, long[] sortedNanos) {
+            this.count = count;
+            this.errors = errors;
+            this.sortedNanos = sortedNanos;
+        }
+
+        /** 启动以来的请求数 */
+        public long getCount() { return count; }
+        /** 启动以来失败的请求数 */
+        public long getErrors() { return errors; }
+
+        /**
+         * 最近请求耗时的百分位（最近邻取值），没有请求时为 0
+         * @param percentile 0 到 100
+         */
+        public long getPercentileMicros(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+            return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, rank - 1))] / 1000;
+        }
+
+        public long getMaxMicros() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1] / 1000;
+        }
+    }
+
+    /**
+     * 固定大小的环形缓冲区，记录最近的请求耗时
+     */
+    private static final class LatencyRecorder {
+        private final long[] window;
+        private long count;
+        private long errors;
+
+        LatencyRecorder(int size) {
+            this.window = new long[size];
+        }
+
+        synchronized void record(long nanos, boolean success) {
+            window[(int) (count % window.length)] = nanos;
+            count++;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        LatencyStats snapshot() {
+            long[] copy;
+            long snapshotCount;
+            long snapshotErrors;
+            synchronized (this) {
+                snapshotCount = count;
+                snapshotErrors = errors;
+                copy = Arrays.copyOf(window, (int) Math.min(count, window.length));
+            }
+            Arrays.sort(copy);
+            return new LatencyStats(snapshotCount, snapshotErrors, copy);
+        }
+    }
+}
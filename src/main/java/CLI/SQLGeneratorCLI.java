@@ -0,0 +1,392 @@
+package CLI;
+
+import Generator.BatchCodeWriter;
+import Generator.StreamingPipeline;
+import Generator.ZipCodeWriter;
+import Global.FileConfigurationReadingUtils;
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import utils.JdbcSchemaReader;
+import utils.MigrationReplayer;
+import utils.ParallelSchemaParser;
+import utils.ParseCache;
+import utils.ParseDiagnostic;
+import utils.ParseReport;
+import utils.StreamingSchemaParser;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 无界面的命令行批量生成入口，用于 CI 等没有显示器的环境
+ * 不加载任何 Swing/AWT 类：读取 generator_config.properties（或 --config 指定的文件）中的配置，
+ * 命令行参数覆盖同名的配置项，解析所有建表文件（或通过 JDBC 读取数据库中的表、重放迁移脚本）后为每张表生成代码。
+ * <pre>
+ * java -cp MyBatisPlusGenerator.jar CLI.SQLGeneratorCLI [选项] 建表文件...
+ * java -cp MyBatisPlusGenerator.jar:驱动.jar CLI.SQLGeneratorCLI --jdbc 连接地址 [--user 用户名 --password 密码] [选项]
+ *   --config 文件               配置文件，默认为当前目录下的 generator_config.properties
+ *   --projectPath 路径          项目路径
+ *   --entityOrdomainPackage 包名 / --mapperPackage / --servicePackage / --implPackage / --controllerPackage
+ *   --generatorThreads 线程数   批量生成使用的线程数
+ *   --parserThreads 线程数      解析建表文件使用的线程数
+ *   --zip 文件                  写入 ZIP/JAR 压缩包而不是项目目录
+ *   --no-cache                  不读写解析缓存
+ *   --max-in-flight 表数量      流式生成，内存中最多同时有这么多张表，用于很大的建表文件；
+ *                               单独的 CREATE INDEX 语句全部保留在内存中，"-" 先转存到临时文件
+ *   --jdbc 连接地址             从数据库读取表结构（MySQL / MariaDB / H2），可以与建表文件同时使用
+ *   --user 用户名 / --password 密码 / --schema 库名
+ *   --migrations 目录           按版本顺序重放目录中的 Flyway 风格迁移脚本（V1__init.sql ...），为最终的表结构生成代码
+ * </pre>
+ * 建表文件可以是 .sql、.sql.gz 或 .zip 导出，"-" 表示从标准输入读取。
+ * 使用 --jdbc 时数据库驱动需要在 classpath 中。重放迁移脚本时每个目录的快照保存在当前目录下，
+ * 见 {@link MigrationReplayer#snapshotFileFor(Path)}，--no-cache 时不读写快照。
+ * 退出码：0 全部成功；1 有语句解析失败、文件无法读取或表生成失败；2 参数或配置错误。
+ */
+public class SQLGeneratorCLI {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+
+    // 可以在命令行中覆盖的配置项，与配置文件中的键同名
+    private static final String[] CONFIG_KEYS = {"projectPath", "entityOrdomainPackage", "mapperPackage",
+            "servicePackage", "implPackage", "controllerPackage", "generatorThreads", "parserThreads", "templateDirectory"};
+
+    public static void main(String[] args) {
+        // 生成代码不需要图形环境，即使间接用到 AWT 也不连接显示器
+        System.setProperty("java.awt.headless", "true");
+        System.exit(run(args));
+    }
+
+    /**
+     * 执行一次命令行生成，不退出虚拟机
+     * @param args 命令行参数
+     * @return 退出码
+     */
+    public static int run(String... args) {
+        long begin = System.nanoTime();
+        Map<String, String> overrides = new LinkedHashMap<>();
+        List<String> inputs = new ArrayList<>();
+        String configFile = null;
+        Path archive = null;
+        boolean useCache = true;
+        int maxInFlight = 0;
+        String jdbcUrl = null;
+        String jdbcUser = null;
+        String jdbcPassword = null;
+        String jdbcSchema = null;
+        List<Path> migrationDirectories = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-h") || arg.equals("--help")) {
+                printUsage();
+                return EXIT_OK;
+            } else if (arg.equals("--no-cache")) {
+                useCache = false;
+            } else if (arg.startsWith("--") && arg.length() > 2) {
+                if (i + 1 >= args.length) {
+                    return usageError("参数 " + arg + " 缺少值");
+                }
+                String key = arg.substring(2);
+                String value = args[++i];
+                if (key.equals("config")) {
+                    configFile = value;
+                } else if (key.equals("zip")) {
+                    archive = Paths.get(value);
+                } else if (key.equals("max-in-flight")) {
+                    try {
+                        maxInFlight = Integer.parseInt(value.trim());
+                    } catch (NumberFormatException e) {
+                        maxInFlight = -1;
+                    }
+                    if (maxInFlight < 1) {
+                        return usageError("--max-in-flight 必须是正整数: " + value);
+                    }
+                } else if (key.equals("jdbc")) {
+                    jdbcUrl = value;
+                } else if (key.equals("user")) {
+                    jdbcUser = value;
+                } else if (key.equals("password")) {
+                    jdbcPassword = value;
+                } else if (key.equals("schema")) {
+                    jdbcSchema = value;
+                } else if (key.equals("migrations")) {
+                    migrationDirectories.add(Paths.get(value));
+                } else if (isConfigKey(key)) {
+                    overrides.put(key, value);
+                } else {
+                    return usageError("未知参数: " + arg);
+                }
+            } else {
+                inputs.add(arg);
+            }
+        }
+        if (inputs.isEmpty() && jdbcUrl == null && migrationDirectories.isEmpty()) {
+            return usageError("请指定至少一个建表文件、--jdbc 连接地址或 --migrations 目录");
+        }
+        if (jdbcUrl == null && (jdbcUser != null || jdbcPassword != null || jdbcSchema != null)) {
+            return usageError("--user、--password 和 --schema 需要与 --jdbc 同时使用");
+        }
+
+        GenerationConfig config;
+        try {
+            config = loadConfig(configFile, overrides, archive == null);
+        } catch (IllegalArgumentException e) {
+            return usageError(e.getMessage());
+        }
+        if (maxInFlight > 0) {
+            if (archive != null) {
+                return usageError("--max-in-flight 不能与 --zip 同时使用");
+            }
+            if (jdbcUrl != null || !migrationDirectories.isEmpty()) {
+                return usageError("--max-in-flight 不能与 --jdbc、--migrations 同时使用");
+            }
+            return runStreaming(config, inputs, maxInFlight, begin);
+        }
+
+        // 解析所有文件，解析失败的语句被跳过并在最后汇总
+        ParseCache cache = useCache ? ParseCache.getInstance() : null;
+        List<TableInfo> tables = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        int unreadable = 0;
+        try (ParallelSchemaParser parser = newParser(config, cache)) {
+            for (String input : inputs) {
+                try {
+                    int before = tables.size();
+                    if (input.equals("-")) {
+                        StreamingSchemaParser.parse(System.in, cache, tables::add, diagnostic -> diagnostics.add(diagnostic.withSource("<stdin>")));
+                    } else {
+                        Path file = Paths.get(input);
+                        String source = file.getFileName() != null ? file.getFileName().toString() : input;
+                        ParseReport report = parser.parseFileRecovering(file);
+                        tables.addAll(report.getTables());
+                        for (ParseDiagnostic diagnostic : report.getDiagnostics()) {
+                            diagnostics.add(diagnostic.withSource(source));
+                        }
+                    }
+                    System.out.println("已解析 " + input + "：" + (tables.size() - before) + " 张表");
+                } catch (IOException | RuntimeException e) {
+                    unreadable++;
+                    System.err.println("无法读取建表文件 " + input + ": " + e.getMessage());
+                }
+            }
+        }
+        if (cache != null) {
+            cache.save();
+        }
+        if (jdbcUrl != null) {
+            try {
+                List<TableInfo> read = JdbcSchemaReader.read(jdbcUrl, jdbcUser, jdbcPassword, jdbcSchema);
+                tables.addAll(read);
+                System.out.println("已从数据库读取 " + read.size() + " 张表");
+            } catch (SQLException | RuntimeException e) {
+                unreadable++;
+                System.err.println("无法从数据库读取表结构 " + jdbcUrl + ": " + e.getMessage());
+            }
+        }
+        for (Path directory : migrationDirectories) {
+            try {
+                MigrationReplayer.Result result = (useCache ? new MigrationReplayer() : new MigrationReplayer(null)).replayDirectory(directory);
+                tables.addAll(result.getTables());
+                diagnostics.addAll(result.getDiagnostics());
+                System.out.println("已重放 " + directory + "：" + result.getScriptCount() + " 个迁移脚本（实际重放 "
+                        + result.getReplayedCount() + " 个），" + result.getTables().size() + " 张表");
+            } catch (IOException | RuntimeException e) {
+                unreadable++;
+                System.err.println("无法重放迁移目录 " + directory + ": " + e.getMessage());
+            }
+        }
+        for (ParseDiagnostic diagnostic : diagnostics) {
+            System.err.println("跳过无法解析的语句: " + diagnostic);
+        }
+
+        int failures;
+        if (tables.isEmpty()) {
+            System.err.println("没有可生成的表");
+            failures = 1;
+        } else if (archive != null) {
+            try {
+                ZipCodeWriter.Result result = new ZipCodeWriter(config).write(tables, archive);
+                failures = result.getFailures().size();
+            } catch (IOException e) {
+                System.err.println("写入压缩包 " + archive + " 时发生错误: " + e.getMessage());
+                failures = tables.size();
+            }
+        } else {
+            failures = new BatchCodeWriter(config).write(tables).getFailures().size();
+        }
+
+        boolean ok = failures == 0 && diagnostics.isEmpty() && unreadable == 0;
+        System.out.println(String.format("=== 命令行生成%s: %d 个文件，%d 张表，%d 条语句解析失败，%d 张表生成失败，共 %d ms ===",
+                ok ? "完成" : "结束（有错误）", inputs.size(), tables.size(), diagnostics.size(), failures,
+                (System.nanoTime() - begin) / 1000000));
+        return ok ? EXIT_OK : EXIT_FAILED;
+    }
+
+    /**
+     * 流式生成：逐个文件边读边生成，最多 maxInFlight 张表同时在内存中，不使用解析缓存
+     */
+    private static int runStreaming(GenerationConfig config, List<String> inputs, int maxInFlight, long begin) {
+        StreamingPipeline pipeline = new StreamingPipeline(config, maxInFlight);
+        int tables = 0;
+        int diagnostics = 0;
+        int failures = 0;
+        int unreadable = 0;
+        for (String input : inputs) {
+            try {
+                StreamingPipeline.Result result = input.equals("-") ? pipeline.run(System.in) : pipeline.run(Paths.get(input));
+                tables += result.getTableCount();
+                diagnostics += result.getDiagnostics().size();
+                failures += result.getFailures().size();
+            } catch (IOException | RuntimeException e) {
+                unreadable++;
+                System.err.println("无法读取建表文件 " + input + ": " + e.getMessage());
+            }
+        }
+        boolean ok = tables > 0 && failures == 0 && diagnostics == 0 && unreadable == 0;
+        if (tables == 0) {
+            System.err.println("没有可生成的表");
+        }
+        System.out.println(String.format("=== 命令行流式生成%s: %d 个文件，%d 张表，%d 条语句解析失败，%d 张表生成失败，共 %d ms ===",
+                ok ? "完成" : "结束（有错误）", inputs.size(), tables, diagnostics, failures,
+                (System.nanoTime() - begin) / 1000000));
+        return ok ? EXIT_OK : EXIT_FAILED;
+    }
+
+    /**
+     * 按配置中的线程数创建并行解析器，未配置时使用 CPU 核数
+     * @param cache 解析缓存，为 null 时不使用缓存
+     */
+    static ParallelSchemaParser newParser(GenerationConfig config, ParseCache cache) {
+        int threads = config.getParserThreads();
+        return new ParallelSchemaParser(threads > 0 ? threads : ParallelSchemaParser.defaultThreads(), cache);
+    }
+
+    /**
+     * 读取配置文件并应用命令行中的覆盖项
+     * @param configFile --config 指定的文件，为 null 时读取当前目录下的默认配置文件（可以不存在）
+     * @param overrides 命令行中的配置项
+     * @param needProjectPath 写入项目目录时必须有项目路径
+     * @throws IllegalArgumentException 配置文件无法读取、线程数不是整数或缺少配置项
+     */
+    static GenerationConfig loadConfig(String configFile, Map<String, String> overrides, boolean needProjectPath) {
+        if (configFile != null) {
+            File file = new File(configFile);
+            if (!file.isFile() || !FileConfigurationReadingUtils.loadConfiguration(file)) {
+                throw new IllegalArgumentException("无法读取配置文件: " + configFile);
+            }
+        } else {
+            FileConfigurationReadingUtils.loadConfiguration();
+        }
+        return applyOverrides(GenerationConfig.from(GlobalTableInfo.getInstance()), overrides, needProjectPath);
+    }
+
+    /**
+     * 用命令行或请求中的配置项覆盖已有的配置
+     * @param base 配置文件中的配置
+     * @param overrides 与配置文件中的键同名的配置项
+     * @param needProjectPath 写入项目目录时必须有项目路径
+     * @throws IllegalArgumentException 线程数不是整数或缺少配置项
+     */
+    static GenerationConfig applyOverrides(GenerationConfig base, Map<String, String> overrides, boolean needProjectPath) {
+        GenerationConfig config = new GenerationConfig(
+                override(overrides, "projectPath", base.getProjectPath()),
+                override(overrides, "entityOrdomainPackage", base.getEntityOrdomainPackage()),
+                override(overrides, "mapperPackage", base.getMapperPackage()),
+                override(overrides, "servicePackage", base.getServicePackage()),
+                override(overrides, "implPackage", base.getImplPackage()),
+                override(overrides, "controllerPackage", base.getControllerPackage()),
+                overrideThreads(overrides, "generatorThreads", base.getGeneratorThreads()),
+                overrideThreads(overrides, "parserThreads", base.getParserThreads()),
+                override(overrides, "templateDirectory", base.getTemplateDirectory()));
+
+        List<String> missing = new ArrayList<>();
+        if (needProjectPath && isBlank(config.getProjectPath())) {
+            missing.add("projectPath");
+        }
+        String[] packages = {config.getEntityOrdomainPackage(), config.getMapperPackage(), config.getServicePackage(),
+                config.getImplPackage(), config.getControllerPackage()};
+        for (int i = 0; i < packages.length; i++) {
+            if (isBlank(packages[i])) {
+                missing.add(CONFIG_KEYS[i + 1]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("缺少配置项: " + String.join(", ", missing));
+        }
+        if (needProjectPath && !Files.isDirectory(Paths.get(config.getProjectPath()))) {
+            throw new IllegalArgumentException("项目路径不存在: " + config.getProjectPath());
+        }
+        return config;
+    }
+
+    private static String override(Map<String, String> overrides, String key, String value) {
+        String override = overrides.get(key);
+        return override != null ? override.trim() : value;
+    }
+
+    private static int overrideThreads(Map<String, String> overrides, String key, int value) {
+        String override = overrides.get(key);
+        if (override == null) {
+            return value;
+        }
+        try {
+            return Integer.parseInt(override.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " 不是整数: " + override);
+        }
+    }
+
+    static boolean isConfigKey(String key) {
+        for (String configKey : CONFIG_KEYS) {
+            if (configKey.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static int usageError(String message) {
+        System.err.println("错误: " + message);
+        printUsage();
+        return EXIT_USAGE;
+    }
+
+    private static void printUsage() {
+        System.err.println("用法: java -cp <classpath> CLI.SQLGeneratorCLI [选项] 建表文件...");
+        System.err.println("  --config 文件                 配置文件，默认为当前目录下的 generator_config.properties");
+        System.err.println("  --projectPath 路径            项目路径");
+        System.err.println("  --entityOrdomainPackage 包名  Entity或Domain包名");
+        System.err.println("  --mapperPackage 包名          Mapper包名");
+        System.err.println("  --servicePackage 包名         Service包名");
+        System.err.println("  --implPackage 包名            Impl包名");
+        System.err.println("  --controllerPackage 包名      Controller包名");
+        System.err.println("  --generatorThreads 线程数     批量生成使用的线程数");
+        System.err.println("  --parserThreads 线程数        解析建表文件使用的线程数，默认为 CPU 核数");
+        System.err.println("  --templateDirectory 目录      用户模板目录，默认为项目路径下的 .mpgenerator/templates");
+        System.err.println("  --zip 文件                    写入 ZIP/JAR 压缩包而不是项目目录");
+        System.err.println("  --no-cache                    不读写解析缓存");
+        System.err.println("  --max-in-flight 表数量        流式生成，最多这么多张表同时在内存中（不能与 --zip、--jdbc、--migrations 同时使用）；");
+        System.err.println("                                单独的 CREATE INDEX 语句全部保留在内存中，标准输入先转存到临时目录，需要同样大小的磁盘空间");
+        System.err.println("  --jdbc 连接地址               从数据库读取表结构（MySQL / MariaDB / H2），驱动需要在 classpath 中");
+        System.err.println("  --user 用户名                 数据库用户名");
+        System.err.println("  --password 密码               数据库密码");
+        System.err.println("  --schema 库名                 要读取的库，默认为连接的当前库");
+        System.err.println("  --migrations 目录             重放目录中的 Flyway 风格迁移脚本（V1__init.sql ...），为最终的表结构生成代码，可以指定多次");
+        System.err.println("建表文件可以是 .sql、.sql.gz 或 .zip 导出，- 表示从标准输入读取；使用 --jdbc 或 --migrations 时可以不指定建表文件");
+        System.err.println("退出码: 0 成功，1 有解析或生成失败，2 参数或配置错误");
+    }
+}
@@ -1,22 +1,77 @@
 package GUI;
 
+import Generator.BatchCodeWriter;
+import Generator.CodeFileWriter;
+import Generator.GenerationContext;
+import Generator.GenerationResult;
+import Generator.SchemaWatcher;
+import Generator.ZipCodeWriter;
 import Global.FileConfigurationReadingUtils;
+import Global.GenerationConfig;
 import Global.GlobalTableInfo;
 import utils.AutomaticSearchPathUtils;
+import utils.IncrementalSqlParser;
+import utils.ParseCache;
+import utils.SchemaDiff;
+import utils.SqlStatementScanner.StatementKind;
+import utils.StreamingSchemaParser;
 import utils.TableFieldExtractor;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class SQLGeneratorGUI extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    // 打包时生成 AppCDS 归档的训练运行参数
+    static final String CDS_TRAINING_ARG = "--cds-training";
+    private static final String CDS_TRAINING_SQL = "CREATE TABLE `cds_training` (\n"
+            + "  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键',\n"
+            + "  `name` varchar(64) NOT NULL COMMENT '名称',\n"
+            + "  `created_at` datetime DEFAULT NULL COMMENT '创建时间',\n"
+            + "  PRIMARY KEY (`id`),\n"
+            + "  KEY `idx_name` (`name`)\n"
+            + ") COMMENT='训练用的表';";
+    private static final GenerationConfig CDS_TRAINING_CONFIG = new GenerationConfig(null, "cds.entity", "cds.mapper",
+            "cds.service", "cds.service.impl", "cds.controller", 0);
+
     private JTextArea sqlInputArea;
     private JTextArea logOutputArea;
     private JButton generateButton;
+    private JButton generateAllButton;
+    private JButton generateChangedButton;
+    private JButton exportZipButton;
+    private JButton watchButton;
+    private JButton importSqlButton;
     private JButton smartMatchButton;
     private JButton saveConfigButton;
+    private JLabel parseStatusLabel;
+    // 路径配置面板的容器，面板在首帧显示后才创建
+    private JPanel pathConfigContainer;
+    // 随输入增量维护的解析结果，生成代码时直接使用
+    private final IncrementalSqlParser sqlParser = new IncrementalSqlParser(ParseCache.getInstance());
+    // 正在运行的目录监听，未监听时为 null
+    private SchemaWatcher schemaWatcher;
 
     public SQLGeneratorGUI() {
         initializeComponents();
@@ -36,6 +91,8 @@ public class SQLGeneratorGUI extends JFrame {
     private JButton serviceBrowseButton;
     private JButton controllerBrowseButton;
     private JButton implBrowseButton;
+    // 浏览路径使用的文件选择框，第一次浏览时创建
+    private JFileChooser folderChooser;
     // 控制是否允许弹出“创建包路径”提示，默认在启动阶段关闭，点击按钮时再开启
     private boolean allowCreatePrompt = false;
 
@@ -55,10 +112,37 @@ public class SQLGeneratorGUI extends JFrame {
         sqlInputArea.setWrapStyleWord(true);
         sqlInputArea.setText("-- 请在此输入SQL建表语句\n-- 例如：\n-- CREATE TABLE user (\n--     id BIGINT PRIMARY KEY AUTO_INCREMENT,\n--     name VARCHAR(50) NOT NULL,\n--     email VARCHAR(100)\n-- );");
 
+        parseStatusLabel = new JLabel(" ");
+        parseStatusLabel.setFont(new Font("Microsoft YaHei", Font.PLAIN, 10));
+
         generateButton = new JButton("生成代码");
         generateButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
         generateButton.setPreferredSize(new Dimension(80, 28));
 
+        generateAllButton = new JButton("生成全部表");
+        generateAllButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
+        generateAllButton.setPreferredSize(new Dimension(100, 28));
+        generateAllButton.setToolTipText("在多个线程中同时为输入区中的所有表写入代码文件");
+
+        generateChangedButton = new JButton("生成变更表");
+        generateChangedButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
+        generateChangedButton.setPreferredSize(new Dimension(100, 28));
+        generateChangedButton.setToolTipText("对比上次写入时的表结构，只为输入区中新增或修改过的表写入代码文件");
+
+        exportZipButton = new JButton("导出ZIP");
+        exportZipButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
+        exportZipButton.setPreferredSize(new Dimension(90, 28));
+        exportZipButton.setToolTipText("把输入区中所有表的代码文件写入一个 ZIP 压缩包，不写入项目目录");
+
+        watchButton = new JButton("监听SQL目录");
+        watchButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
+        watchButton.setPreferredSize(new Dimension(100, 28));
+        watchButton.setToolTipText("监听目录中的 .sql 文件，保存后自动重新生成其中变化了的表");
+
+        importSqlButton = new JButton("导入SQL文件");
+        importSqlButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
+        importSqlButton.setPreferredSize(new Dimension(100, 28));
+
         smartMatchButton = new JButton("智能匹配");
         smartMatchButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
         smartMatchButton.setPreferredSize(new Dimension(80, 28));
@@ -67,8 +151,6 @@ public class SQLGeneratorGUI extends JFrame {
         saveConfigButton.setFont(new Font("Microsoft YaHei", Font.PLAIN, 12));
         saveConfigButton.setPreferredSize(new Dimension(100, 28));
 
-        initializePathComponents();
-
         logOutputArea = new JTextArea();
         logOutputArea.setFont(textFont);
         logOutputArea.setEditable(false);
@@ -136,18 +218,30 @@ public class SQLGeneratorGUI extends JFrame {
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
 
         leftPanel.add(scrollPane, BorderLayout.CENTER);
+        leftPanel.add(parseStatusLabel, BorderLayout.SOUTH);
 
-        JPanel pathConfigPanel = createPathConfigPanel();
-
-        JPanel rightWrapperPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
-        rightWrapperPanel.add(pathConfigPanel);
+        // 路径配置面板在首帧显示后由 installPathConfigPanel 创建，先占住同样大小的位置
+        pathConfigContainer = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        JPanel placeholder = new JPanel();
+        placeholder.setPreferredSize(new Dimension(300, 380));
+        pathConfigContainer.add(placeholder);
 
         JPanel southContainer = new JPanel(new BorderLayout());
         southContainer.setPreferredSize(new Dimension(0, 200));
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        buttonPanel.add(importSqlButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
         buttonPanel.add(generateButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(generateAllButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(generateChangedButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(exportZipButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(watchButton);
         southContainer.add(buttonPanel, BorderLayout.NORTH);
 
         JPanel logPanel = new JPanel(new BorderLayout());
@@ -158,7 +252,7 @@ public class SQLGeneratorGUI extends JFrame {
         southContainer.add(logPanel, BorderLayout.CENTER);
 
         add(leftPanel, BorderLayout.WEST);
-        add(rightWrapperPanel, BorderLayout.CENTER);
+        add(pathConfigContainer, BorderLayout.CENTER);
         add(southContainer, BorderLayout.SOUTH);
     }
 
@@ -256,9 +350,159 @@ public class SQLGeneratorGUI extends JFrame {
 
     private void setupEventHandlers() {
         generateButton.addActionListener(e -> generateCode());
+        generateAllButton.addActionListener(e -> generateAllTables());
+        generateChangedButton.addActionListener(e -> generateChangedTables());
+        exportZipButton.addActionListener(e -> exportZip());
+        watchButton.addActionListener(e -> toggleSchemaWatcher());
+        importSqlButton.addActionListener(e -> importSqlFile());
         smartMatchButton.addActionListener(e -> smartMatchAndUpdateUI());
         saveConfigButton.addActionListener(e -> saveAndPrintGlobalConfig());
+        setupIncrementalParsing();
+        // 配置文件在后台读取，读取完成前不能生成或保存配置，否则会使用或覆盖默认路径
+        setConfigActionsEnabled(false);
+    }
+
+    /**
+     * 首帧显示后再创建路径配置面板和浏览按钮，缩短启动时间
+     */
+    private void installPathConfigPanel() {
+        initializePathComponents();
         setupBrowseButtonEvents();
+        pathConfigContainer.removeAll();
+        pathConfigContainer.add(createPathConfigPanel());
+        pathConfigContainer.revalidate();
+        pathConfigContainer.repaint();
+    }
+
+    /**
+     * 配置文件读取完成后填入路径，并启用依赖配置的按钮
+     */
+    private void applyLoadedConfiguration() {
+        updateUIFromGlobalConfig();
+        setConfigActionsEnabled(true);
+    }
+
+    private void setConfigActionsEnabled(boolean enabled) {
+        generateButton.setEnabled(enabled);
+        generateAllButton.setEnabled(enabled);
+        generateChangedButton.setEnabled(enabled);
+        exportZipButton.setEnabled(enabled);
+        watchButton.setEnabled(enabled);
+        smartMatchButton.setEnabled(enabled);
+        saveConfigButton.setEnabled(enabled);
+    }
+
+    /**
+     * 监听输入区的编辑，只重新解析被修改的语句，并在状态栏显示校验结果
+     */
+    private void setupIncrementalParsing() {
+        Document document = sqlInputArea.getDocument();
+        sqlParser.reset(documentText(document));
+        updateParseStatus();
+        document.addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                sqlParser.update(documentText(e.getDocument()), e.getOffset(), e.getLength(), 0);
+                updateParseStatus();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                sqlParser.update(documentText(e.getDocument()), e.getOffset(), 0, e.getLength());
+                updateParseStatus();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // 仅属性变化，文本未改变
+            }
+        });
+        sqlInputArea.addCaretListener(e -> updateParseStatus());
+    }
+
+    /**
+     * 以 Segment 的形式读取文档内容，避免每次编辑都创建一个完整的字符串
+     */
+    private CharSequence documentText(Document document) {
+        Segment segment = new Segment();
+        try {
+            document.getText(0, document.getLength(), segment);
+        } catch (BadLocationException e) {
+            return "";
+        }
+        return segment;
+    }
+
+    private void updateParseStatus() {
+        String error = sqlParser.getFirstError();
+        String timing = String.format("%.1f ms", sqlParser.getLastUpdateNanos() / 1e6);
+        if (error != null) {
+            parseStatusLabel.setForeground(Color.RED);
+            parseStatusLabel.setText("解析错误：" + error);
+            return;
+        }
+        parseStatusLabel.setForeground(Color.DARK_GRAY);
+        int tableCount = sqlParser.getTables().size();
+        if (tableCount == 0) {
+            parseStatusLabel.setText("未识别到建表语句（" + timing + "）");
+            return;
+        }
+        TableFieldExtractor.TableInfo current = sqlParser.getTableAt(sqlInputArea.getCaretPosition());
+        parseStatusLabel.setText("已识别 " + tableCount + " 张表，当前: " + current.getTableName()
+                + "（" + current.getFields().size() + " 个字段，" + timing + "）");
+    }
+
+    /**
+     * 从 .sql / .sql.gz / .zip 导出中提取建表语句填入输入框。
+     * 在后台线程中边解压边扫描，INSERT 等数据语句不会被读入内存。
+     */
+    private void importSqlFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("选择SQL导出文件");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("SQL导出文件 (*.sql, *.sql.gz, *.zip)", "sql", "gz", "zip"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File selectedFile = fileChooser.getSelectedFile();
+        importSqlButton.setEnabled(false);
+        System.out.println("正在导入: " + selectedFile.getAbsolutePath());
+
+        new SwingWorker<String, Void>() {
+            private int tableCount;
+
+            @Override
+            protected String doInBackground() throws Exception {
+                StringBuilder sql = new StringBuilder();
+                try (InputStream in = Files.newInputStream(selectedFile.toPath())) {
+                    StreamingSchemaParser.extractSchemaStatements(in, statement -> {
+                        sql.append(statement.getSql().trim()).append("\n\n");
+                        if (statement.getKind() == StatementKind.CREATE_TABLE) {
+                            tableCount++;
+                        }
+                    });
+                }
+                return sql.toString();
+            }
+
+            @Override
+            protected void done() {
+                importSqlButton.setEnabled(true);
+                try {
+                    String sql = get();
+                    if (tableCount == 0) {
+                        JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "文件中未找到建表语句！", "提示", JOptionPane.WARNING_MESSAGE);
+                        return;
+                    }
+                    sqlInputArea.setText(sql);
+                    sqlInputArea.setCaretPosition(0);
+                    System.out.println("导入完成，共 " + tableCount + " 条建表语句");
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("导入SQL文件失败: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "导入SQL文件失败：" + cause.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     private void generateCode() {
@@ -268,69 +512,53 @@ public class SQLGeneratorGUI extends JFrame {
             return;
         }
         
-        // 更新全局配置
-        updateGlobalInfoFromPaths();
-
-        // 仅在点击生成代码时，允许按需创建包并更新UI路径
-        this.allowCreatePrompt = true;
-        GlobalTableInfo tmpInfoForPathEnsure = GlobalTableInfo.getInstance();
-        updatePathFieldFromPackage(entityPathField, tmpInfoForPathEnsure.entityOrdomainPackage, "Entity/Domain");
-        updatePathFieldFromPackage(mapperPathField, tmpInfoForPathEnsure.mapperPackage, "Mapper");
-        updatePathFieldFromPackage(servicePathField, tmpInfoForPathEnsure.servicePackage, "Service");
-        updatePathFieldFromPackage(implPathField, tmpInfoForPathEnsure.implPackage, "Impl");
-        updatePathFieldFromPackage(controllerPathField, tmpInfoForPathEnsure.controllerPackage, "Controller");
+        prepareGeneration();
         
         try {
             System.out.println("=== 开始代码生成流程 ===");
             
-            // 1. 先执行字段解析
+            // 1. 取光标所在的表（输入区的解析结果已由增量解析器维护，无需重新解析）
             System.out.println("=== 步骤1: 解析SQL ===");
-            TableFieldExtractor.TableInfo tableInfo = TableFieldExtractor.parseSql(sqlContent);
+            TableFieldExtractor.TableInfo tableInfo = sqlParser.getTableAt(sqlInputArea.getCaretPosition());
+            if (tableInfo == null) {
+                String error = sqlParser.getFirstError();
+                throw new IllegalArgumentException(error != null ? error : "未检测到有效的 CREATE TABLE 语句，请检查粘贴的 SQL 表语句。");
+            }
             TableFieldExtractor.printCoreInfo(tableInfo);
+            // 保存解析缓存，下次启动粘贴同样的建表语句时不必重新解析
+            ParseCache.getInstance().saveLater();
             
             // 2. 执行所有生成器
             System.out.println("\n=== 步骤2: 生成代码模板 ===");
-            GlobalTableInfo globalInfo = GlobalTableInfo.getInstance();
-            
-            // 生成 Entity
-            System.out.println("\n--- 生成 Entity 实体类 ---");
-            Generator.entityGenerator entityGen = new Generator.entityGenerator();
-            entityGen.generateEntityTemplate(globalInfo);
-            
-            // 生成 Mapper
-            System.out.println("\n--- 生成 Mapper 接口 ---");
-            Generator.MapperGenerator mapperGen = new Generator.MapperGenerator();
-            mapperGen.generateMapperTemplate(globalInfo);
-            
-            // 生成 Service 和 ServiceImpl
-            System.out.println("\n--- 生成 Service 接口和实现类 ---");
-            Generator.ServiceGenerator serviceGen = new Generator.ServiceGenerator();
-            serviceGen.generateServiceAndImplTemplates(globalInfo);
+            // 表结构和当前的包路径配置组成生成上下文，之后修改界面上的配置不影响本次生成
+            GenerationContext context = new GenerationContext(tableInfo, GenerationConfig.from(GlobalTableInfo.getInstance()));
             
-            // 生成 Controller
-            System.out.println("\n--- 生成 Controller 控制器 ---");
-            Generator.ControllerGenerator controllerGen = new Generator.ControllerGenerator();
-            controllerGen.generateControllerTemplate(globalInfo);
+            // 渲染一次，预览和写入使用同一份结果
+            GenerationResult result = GenerationResult.renderConcurrently(context);
+            for (GenerationResult.Artifact artifact : result.getArtifacts()) {
+                System.out.println(artifact.getKind() + " 代码生成完毕: " + artifact.getFileName());
+            }
+            System.out.println("渲染耗时: " + result.summary());
             
             System.out.println("\n=== 代码生成完成 ===");
             
-            // 询问是否写入文件
+            // 预览将要写入的内容，询问是否写入文件
             int choice = JOptionPane.showConfirmDialog(this, 
-                "代码生成完成！\n表名: " + tableInfo.getTableName() + 
-                "\n字段数: " + tableInfo.getFields().size() + 
-                "\n已生成: Entity, Mapper, Service, ServiceImpl, Controller" +
-                "\n\n是否要将代码写入到文件？", 
+                createPreviewPanel(result, "代码生成完成！表名: " + tableInfo.getTableName() + 
+                    "，字段数: " + tableInfo.getFields().size() + "。是否要将以下代码写入到文件？"), 
                 "写入文件", 
-                JOptionPane.YES_NO_OPTION);
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
 
             if (choice == JOptionPane.YES_OPTION) {
                 try {
                     System.out.println("\n=== 开始写入代码文件 ===");
-                    Generator.CodeFileWriter.writeAllCodeFiles(globalInfo);
+                    Generator.CodeFileWriter.writeAllCodeFiles(result);
                     JOptionPane.showMessageDialog(this, "代码文件写入完成！", "成功", JOptionPane.INFORMATION_MESSAGE);
                 } catch (Exception fileEx) {
+                    // 写入在事务中进行，失败时已回滚
                     System.out.println("错误：写入文件时发生异常：" + fileEx.getMessage());
-                    JOptionPane.showMessageDialog(this, "写入文件时发生错误：" + fileEx.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                    JOptionPane.showMessageDialog(this, "写入文件时发生错误，已有的文件保持不变：\n" + fileEx.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
                     fileEx.printStackTrace();
                 }
             } else {
@@ -344,6 +572,222 @@ public class SQLGeneratorGUI extends JFrame {
         }
     }
 
+    /**
+     * 生成结果的预览：每个文件一个只读的标签页，显示的就是将要写入文件的内容
+     */
+    private JComponent createPreviewPanel(GenerationResult result, String message) {
+        JTabbedPane tabs = new JTabbedPane();
+        for (GenerationResult.Artifact artifact : result.getArtifacts()) {
+            JTextArea area = new JTextArea(artifact.getContent());
+            area.setEditable(false);
+            area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            area.setCaretPosition(0);
+            tabs.addTab(artifact.getFileName(), new JScrollPane(area));
+        }
+        tabs.setPreferredSize(new Dimension(700, 400));
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.add(new JLabel(message), BorderLayout.NORTH);
+        panel.add(tabs, BorderLayout.CENTER);
+        panel.add(new JLabel("渲染耗时: " + result.summary()), BorderLayout.SOUTH);
+        return panel;
+    }
+
+    /**
+     * 更新全局配置，并在点击生成时允许按需创建包、更新UI路径
+     */
+    private void prepareGeneration() {
+        // 更新全局配置
+        updateGlobalInfoFromPaths();
+
+        // 仅在点击生成代码时，允许按需创建包并更新UI路径
+        this.allowCreatePrompt = true;
+        GlobalTableInfo tmpInfoForPathEnsure = GlobalTableInfo.getInstance();
+        updatePathFieldFromPackage(entityPathField, tmpInfoForPathEnsure.entityOrdomainPackage, "Entity/Domain");
+        updatePathFieldFromPackage(mapperPathField, tmpInfoForPathEnsure.mapperPackage, "Mapper");
+        updatePathFieldFromPackage(servicePathField, tmpInfoForPathEnsure.servicePackage, "Service");
+        updatePathFieldFromPackage(implPathField, tmpInfoForPathEnsure.implPackage, "Impl");
+        updatePathFieldFromPackage(controllerPathField, tmpInfoForPathEnsure.controllerPackage, "Controller");
+    }
+
+    /**
+     * 在线程池中为输入区中的所有表写入代码文件
+     */
+    private void generateAllTables() {
+        List<TableFieldExtractor.TableInfo> tables = sqlParser.getTables();
+        if (tables.isEmpty()) {
+            String error = sqlParser.getFirstError();
+            JOptionPane.showMessageDialog(this, error != null ? error : "请输入有效的SQL建表语句！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        prepareGeneration();
+        GlobalTableInfo globalInfo = GlobalTableInfo.getInstance();
+        if (globalInfo.projectPath == null || globalInfo.projectPath.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请先设置项目路径！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        GenerationConfig config = GenerationConfig.from(globalInfo);
+        generateAllButton.setEnabled(false);
+        System.out.println("=== 开始批量生成，共 " + tables.size() + " 张表 ===");
+
+        new SwingWorker<BatchCodeWriter.Result, Void>() {
+            @Override
+            protected BatchCodeWriter.Result doInBackground() {
+                BatchCodeWriter.Result result = new BatchCodeWriter(config).write(tables);
+                ParseCache.getInstance().saveLater();
+                return result;
+            }
+
+            @Override
+            protected void done() {
+                generateAllButton.setEnabled(true);
+                try {
+                    BatchCodeWriter.Result result = get();
+                    if (result.getFailures().isEmpty()) {
+                        JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "批量生成完成！\n" + result.summary(), "成功", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "批量生成完成，部分表失败（详见日志）：\n" + result.summary(), "警告", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("批量生成失败: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "批量生成时发生错误：" + cause.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 把输入区中所有表的代码文件写入用户选择的 ZIP 压缩包
+     */
+    private void exportZip() {
+        List<TableFieldExtractor.TableInfo> tables = sqlParser.getTables();
+        if (tables.isEmpty()) {
+            String error = sqlParser.getFirstError();
+            JOptionPane.showMessageDialog(this, error != null ? error : "请输入有效的SQL建表语句！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("导出为 ZIP 压缩包");
+        chooser.setFileFilter(new FileNameExtensionFilter("ZIP/JAR 压缩包 (*.zip, *.jar)", "zip", "jar"));
+        chooser.setSelectedFile(new File("generated-sources.zip"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File selected = chooser.getSelectedFile();
+        String name = selected.getName().toLowerCase();
+        File archive = name.endsWith(".zip") || name.endsWith(".jar") ? selected : new File(selected.getPath() + ".zip");
+        updateGlobalInfoFromPaths();
+        GenerationConfig config = GenerationConfig.from(GlobalTableInfo.getInstance());
+        exportZipButton.setEnabled(false);
+        System.out.println("=== 开始导出压缩包，共 " + tables.size() + " 张表 ===");
+
+        new SwingWorker<ZipCodeWriter.Result, Void>() {
+            @Override
+            protected ZipCodeWriter.Result doInBackground() throws IOException {
+                return new ZipCodeWriter(config).write(tables, archive.toPath());
+            }
+
+            @Override
+            protected void done() {
+                exportZipButton.setEnabled(true);
+                try {
+                    ZipCodeWriter.Result result = get();
+                    if (result.getFailures().isEmpty()) {
+                        JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "导出完成！\n" + archive + "\n" + result.summary(), "成功", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "导出完成，部分表失败（详见日志）：\n" + result.summary(), "警告", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("导出压缩包失败: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "导出压缩包时发生错误：" + cause.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 为输入区中所有与上次写入时相比新增或修改过的表写入代码文件，未变化的表跳过
+     */
+    private void generateChangedTables() {
+        List<TableFieldExtractor.TableInfo> tables = sqlParser.getTables();
+        if (tables.isEmpty()) {
+            String error = sqlParser.getFirstError();
+            JOptionPane.showMessageDialog(this, error != null ? error : "请输入有效的SQL建表语句！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        prepareGeneration();
+        GlobalTableInfo globalInfo = GlobalTableInfo.getInstance();
+        if (globalInfo.projectPath == null || globalInfo.projectPath.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请先设置项目路径！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        GenerationConfig config = GenerationConfig.from(globalInfo);
+        generateChangedButton.setEnabled(false);
+        System.out.println("=== 开始增量生成，共 " + tables.size() + " 张表 ===");
+
+        new SwingWorker<SchemaDiff, Void>() {
+            @Override
+            protected SchemaDiff doInBackground() {
+                SchemaDiff diff = CodeFileWriter.writeChangedCodeFiles(tables, config);
+                ParseCache.getInstance().saveLater();
+                return diff;
+            }
+
+            @Override
+            protected void done() {
+                generateChangedButton.setEnabled(true);
+                try {
+                    SchemaDiff diff = get();
+                    JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "增量生成完成！\n" + diff.summary()
+                            + "\n已重新生成 " + diff.getRegenerated().size() + " 张表的代码文件", "成功", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("增量生成失败: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(SQLGeneratorGUI.this, "增量生成时发生错误：" + cause.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 开始或停止监听SQL目录，监听期间文件保存后自动写入变化了的表的代码文件
+     */
+    private void toggleSchemaWatcher() {
+        if (schemaWatcher != null) {
+            try {
+                schemaWatcher.close();
+            } catch (IOException e) {
+                System.err.println("停止监听时发生错误: " + e.getMessage());
+            }
+            schemaWatcher = null;
+            watchButton.setText("监听SQL目录");
+            System.out.println("已停止监听SQL目录");
+            return;
+        }
+        prepareGeneration();
+        GlobalTableInfo globalInfo = GlobalTableInfo.getInstance();
+        if (globalInfo.projectPath == null || globalInfo.projectPath.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请先设置项目路径！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("选择要监听的SQL目录");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            // 使用开始监听时的配置，之后在界面中修改路径需要重新开始监听
+            schemaWatcher = new SchemaWatcher(chooser.getSelectedFile().toPath(), GenerationConfig.from(globalInfo));
+            schemaWatcher.start();
+            watchButton.setText("停止监听");
+        } catch (IOException e) {
+            System.err.println("监听SQL目录失败: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "监听SQL目录失败：" + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void smartMatchAndUpdateUI() {
         String projectPath = projectPathField.getText().trim();
         // 点击智能匹配时才允许提示创建包
@@ -503,7 +947,11 @@ public class SQLGeneratorGUI extends JFrame {
     }
 
     private void selectFolder(JTextField pathField, boolean isProjectPath, String title) {
-        JFileChooser fileChooser = new JFileChooser();
+        // 第一次浏览时才创建文件选择框，之后复用同一个，不再重新加载系统图标和目录
+        if (folderChooser == null) {
+            folderChooser = new JFileChooser();
+        }
+        JFileChooser fileChooser = folderChooser;
         fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
         fileChooser.setDialogTitle(title);
         fileChooser.setApproveButtonText("打开");
@@ -607,20 +1055,35 @@ public class SQLGeneratorGUI extends JFrame {
     }
 
     public static void main(String[] args) {
+        long mainStart = System.nanoTime();
         System.setProperty("file.encoding", "UTF-8");
         System.setProperty("sun.jnu.encoding", "UTF-8");
+        boolean cdsTraining = Arrays.asList(args).contains(CDS_TRAINING_ARG);
 
-        FileConfigurationReadingUtils.loadConfiguration();
-
-        try {
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            e.printStackTrace();
+        // 配置文件在后台读取，与界面的初始化同时进行
+        CompletableFuture<Void> configLoaded = CompletableFuture.runAsync(FileConfigurationReadingUtils::loadConfiguration);
+        if (cdsTraining && GraphicsEnvironment.isHeadless()) {
+            configLoaded.join();
+            runHeadlessCdsTraining();
+            return;
         }
 
         SwingUtilities.invokeLater(() -> {
+            try {
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
             SQLGeneratorGUI gui = new SQLGeneratorGUI();
-            gui.updateUIFromGlobalConfig();
+            gui.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    long uptime = processUptimeMillis();
+                    System.out.println("首帧耗时: " + (System.nanoTime() - mainStart) / 1000000 + " ms（从 main 开始）"
+                            + (uptime >= 0 ? "，进程启动后 " + uptime + " ms" : ""));
+                }
+            });
             gui.setVisible(true);
 
             TextAreaOutputStream outStream = new TextAreaOutputStream(gui.logOutputArea, false);
@@ -636,9 +1099,70 @@ public class SQLGeneratorGUI extends JFrame {
 
             System.out.println("MyBatis Plus 代码生成器已启动。");
             System.out.println("日志输出已重定向到此区域。");
+
+            // 首帧之后再创建路径配置面板；配置读取完成后填入路径（排在面板创建之后执行）
+            // 读取线程结束前依赖配置的按钮保持禁用，界面线程不会在读取过程中访问 GlobalTableInfo
+            SwingUtilities.invokeLater(gui::installPathConfigPanel);
+            configLoaded.whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    System.err.println("读取配置文件时出错: " + cause);
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(gui, "读取配置文件失败，请检查路径配置后重新保存：\n" + cause,
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+                gui.applyLoadedConfiguration();
+                if (cdsTraining) {
+                    gui.runCdsTraining();
+                }
+            }));
         });
     }
 
+    /**
+     * 打包时生成 AppCDS 归档的训练运行：走一遍常用功能加载相关的类后退出，
+     * 由 -XX:ArchiveClassesAtExit 把加载过的类写入归档，见 pom.xml 中的 app-cds profile
+     */
+    private void runCdsTraining() {
+        sqlInputArea.setText(CDS_TRAINING_SQL);
+        try {
+            createPreviewPanel(GenerationResult.render(new GenerationContext(sqlParser.getTables().get(0), CDS_TRAINING_CONFIG)), "");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("训练运行生成代码失败: " + e.getMessage());
+        }
+        new JFileChooser();
+        dispose();
+        System.exit(0);
+    }
+
+    /**
+     * 没有图形环境（如构建服务器）时的训练运行：只走一遍解析和生成，归档中不含界面相关的类
+     */
+    private static void runHeadlessCdsTraining() {
+        try {
+            GenerationResult.render(new GenerationContext(TableFieldExtractor.parseAll(CDS_TRAINING_SQL).get(0), CDS_TRAINING_CONFIG));
+            new IncrementalSqlParser().reset(CDS_TRAINING_SQL);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("训练运行生成代码失败: " + e.getMessage());
+        }
+        System.out.println("没有图形环境，训练运行只加载了解析和生成相关的类");
+    }
+
+    /**
+     * 进程启动到现在的毫秒数。运行在 Java 9 及以上（如自带的运行时）时通过 ProcessHandle 取得进程的启动时间，
+     * 包含 JVM 自身的启动；取不到时返回 -1
+     */
+    private static long processUptimeMillis() {
+        try {
+            Class<?> handle = Class.forName("java.lang.ProcessHandle");
+            Object info = handle.getMethod("info").invoke(handle.getMethod("current").invoke(null));
+            Optional<?> start = (Optional<?>) Class.forName("java.lang.ProcessHandle$Info").getMethod("startInstant").invoke(info);
+            return start.isPresent() ? System.currentTimeMillis() - ((Instant) start.get()).toEpochMilli() : -1;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
     static class TextAreaOutputStream extends java.io.OutputStream {
         private final JTextArea textArea;
         private final java.io.ByteArrayOutputStream buffer = new java.io.ByteArrayOutputStream();
@@ -0,0 +1,453 @@
+package Generator;
+
+import Generator.IndexFinderMethods.TableFinders;
+import Global.GenerationConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 一张表的代码文件依赖图
+ * 图中的节点分两类：
+ * 1. 派生节点：计算多个文件共用的数据，如类名和字段映射（{@link #NAMES}）、按索引查询的方法和导入，每张表只计算一次；
+ * 2. 文件节点：用依赖的派生数据渲染一个代码文件。
+ * 节点只能依赖先加入图的派生节点，因此图中不会有环。互不依赖的节点可以交给线程池同时执行，
+ * 每个节点的耗时记录在 {@link GenerationResult} 中。
+ * 自定义的文件生成器用 {@link #extend()} 加入内置的图，与五个内置文件一起预览和写入。
+ */
+public final class ArtifactGraph {
+
+    /**
+     * 类名、路径和字段映射，不依赖其他节点；计算前检查生成所需的表名、字段和包路径，每张表只检查一次
+     */
+    public static final Key<TableNames> NAMES = new Key<>("名称");
+
+    /**
+     * 按索引查询的方法和导入，Mapper、Service 和 ServiceImpl 共用
+     */
+    static final Key<TableFinders> FINDERS = new Key<>("查询方法");
+
+    private static final ArtifactGraph STANDARD = createStandard();
+
+    // 按加入顺序排列，也是一种拓扑顺序
+    private final List<Node> nodes;
+
+    private ArtifactGraph(List<Node> nodes) {
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    /**
+     * 内置的图：Entity、Mapper、Service、ServiceImpl、Controller 五个文件
+     */
+    public static ArtifactGraph standard() {
+        return STANDARD;
+    }
+
+    private static ArtifactGraph createStandard() {
+        entityGenerator entity = new entityGenerator();
+        MapperGenerator mapper = new MapperGenerator();
+        ServiceGenerator service = new ServiceGenerator();
+        ControllerGenerator controller = new ControllerGenerator();
+        return new Builder(Collections.emptyList())
+                .derive(NAMES, ArtifactGraph::deriveNames)
+                .derive(FINDERS, inputs -> IndexFinderMethods.derive(inputs.getContext().getTable(), inputs.get(NAMES)), NAMES)
+                .artifact("Entity", inputs -> {
+                    TableNames names = inputs.get(NAMES);
+                    return new GeneratedFile(inputs.getConfig().getEntityOrdomainPackage(), names.getEntityName() + ".java",
+                            entity.render(inputs.getContext(), names));
+                }, NAMES)
+                .artifact("Mapper", inputs -> {
+                    TableNames names = inputs.get(NAMES);
+                    return new GeneratedFile(inputs.getConfig().getMapperPackage(), names.getMapperName() + ".java",
+                            mapper.render(inputs.getContext(), names, inputs.get(FINDERS)));
+                }, NAMES, FINDERS)
+                .artifact("Service", inputs -> {
+                    TableNames names = inputs.get(NAMES);
+                    return new GeneratedFile(inputs.getConfig().getServicePackage(), names.getServiceName() + ".java",
+                            service.renderService(inputs.getContext(), names, inputs.get(FINDERS)));
+                }, NAMES, FINDERS)
+                .artifact("ServiceImpl", inputs -> {
+                    TableNames names = inputs.get(NAMES);
+                    return new GeneratedFile(inputs.getConfig().getImplPackage(), names.getServiceImplName() + ".java",
+                            service.renderServiceImpl(inputs.getContext(), names, inputs.get(FINDERS)));
+                }, NAMES, FINDERS)
+                .artifact("Controller", inputs -> {
+                    TableNames names = inputs.get(NAMES);
+                    return new GeneratedFile(inputs.getConfig().getControllerPackage(), names.getControllerName() + ".java",
+                            controller.render(inputs.getContext(), names));
+                }, NAMES)
+                .build();
+    }
+
+    /**
+     * 检查五个文件共同需要的配置并派生类名，缺少的配置项只输出一次
+     */
+    private static TableNames deriveNames(Inputs inputs) throws IOException {
+        GenerationContext context = inputs.getContext();
+        GenerationConfig config = context.getConfig();
+        List<String> missing = new ArrayList<>();
+        if (context.getEntityName() == null) {
+            missing.add("表名");
+        }
+        if (context.getTable().getColumnCount() == 0) {
+            missing.add("字段");
+        }
+        requirePackage(missing, "entityOrdomainPackage", config.getEntityOrdomainPackage());
+        requirePackage(missing, "mapperPackage", config.getMapperPackage());
+        requirePackage(missing, "servicePackage", config.getServicePackage());
+        requirePackage(missing, "implPackage", config.getImplPackage());
+        requirePackage(missing, "controllerPackage", config.getControllerPackage());
+        if (!missing.isEmpty()) {
+            System.out.println("错误：生成代码所需的以下信息未设置: " + String.join("、", missing));
+            throw new IOException("表 " + context.getTableName() + " 的代码生成失败，缺少: " + String.join("、", missing));
+        }
+        return TableNames.of(context);
+    }
+
+    private static void requirePackage(List<String> missing, String name, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            missing.add(name);
+        }
+    }
+
+    /**
+     * 在内置的图（或这个图）的基础上加入自定义节点
+     */
+    public Builder extend() {
+        return new Builder(nodes);
+    }
+
+    /**
+     * 图中文件节点的类型，按加入顺序排列
+     */
+    public List<String> getArtifactKinds() {
+        List<String> kinds = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.generator != null) {
+                kinds.add(node.name);
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * 在当前线程中按加入顺序依次执行全部节点
+     * @throws IOException 缺少配置项或某个文件无法生成
+     */
+    public GenerationResult render(GenerationContext context) throws IOException {
+        return render(context, null);
+    }
+
+    /**
+     * 执行全部节点，依赖都已完成的节点交给线程池同时执行
+     * 节点之间只通过 CompletableFuture 衔接，不在线程池中等待，线程池被占满时也不会死锁。
+     * @param executor 线程池，为 null 时在当前线程中依次执行
+     * @throws IOException 缺少配置项或某个文件无法生成
+     */
+    public GenerationResult render(GenerationContext context, Executor executor) throws IOException {
+        long start = System.nanoTime();
+        Object[] values = new Object[nodes.size()];
+        long[] nanos = new long[nodes.size()];
+        if (executor == null) {
+            for (int i = 0; i < nodes.size(); i++) {
+                values[i] = run(i, context, values, nanos);
+            }
+        } else {
+            runConcurrently(context, executor, values, nanos);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Long> stageNanos = new LinkedHashMap<>();
+        List<GenerationResult.Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            stageNanos.put(node.name, nanos[i]);
+            if (node.generator != null) {
+                GeneratedFile file = (GeneratedFile) values[i];
+                artifacts.add(new GenerationResult.Artifact(node.name, TableNames.packagePath(file.packageName),
+                        file.fileName, file.content, nanos[i]));
+            }
+        }
+        return new GenerationResult(context, artifacts, stageNanos, elapsed);
+    }
+
+    private void runConcurrently(GenerationContext context, Executor executor, Object[] values, long[] nanos) throws IOException {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            int index = i;
+            List<Integer> dependencies = nodes.get(i).dependencyIndexes;
+            CompletableFuture<?>[] upstream = new CompletableFuture<?>[dependencies.size()];
+            for (int d = 0; d < upstream.length; d++) {
+                upstream[d] = futures.get(dependencies.get(d));
+            }
+            // 依赖失败时这个节点不执行，异常沿依赖传递
+            futures.add(CompletableFuture.allOf(upstream).thenRunAsync(() -> {
+                try {
+                    values[index] = run(index, context, values, nanos);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 执行一个节点，只能读取它声明的依赖；依赖的值在 CompletableFuture 完成之前已写入 values
+     */
+    private Object run(int index, GenerationContext context, Object[] values, long[] nanos) throws IOException {
+        Node node = nodes.get(index);
+        Map<Key<?>, Object> dependencies = new HashMap<>();
+        for (int d : node.dependencyIndexes) {
+            dependencies.put(nodes.get(d).key, values[d]);
+        }
+        Inputs inputs = new Inputs(context, dependencies);
+        long start = System.nanoTime();
+        Object value;
+        if (node.generator != null) {
+            GeneratedFile file = node.generator.generate(inputs);
+            if (file == null || file.content == null || file.packageName == null || file.fileName == null) {
+                // 生成器已输出缺少的配置项
+                throw new IOException((file != null ? file.fileName : node.name) + " 的代码生成失败");
+            }
+            value = file;
+        } else {
+            value = node.stage.compute(inputs);
+        }
+        nanos[index] = System.nanoTime() - start;
+        return value;
+    }
+
+    /**
+     * 同一张表的文件同时渲染使用的线程池（守护线程），单核时返回 null，依次渲染
+     * 供一次只生成一张表的调用方使用（界面预览、生成服务）；批量生成已经按表并行，不再在表内并行。
+     */
+    static Executor sharedExecutor() {
+        return SharedExecutor.EXECUTOR;
+    }
+
+    private static final class SharedExecutor {
+        static final ExecutorService EXECUTOR = create();
+
+        private static ExecutorService create() {
+            int threads = Math.min(Runtime.getRuntime().availableProcessors(), STANDARD.getArtifactKinds().size());
+            if (threads < 2) {
+                return null;
+            }
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "artifact-render");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 派生节点的键，值的类型为 T；按对象比较，名称用于耗时统计
+     */
+    public static final class Key<T> {
+        private final String name;
+
+        public Key(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+
+        @Override
+        public String toString() { return name; }
+    }
+
+    /**
+     * 派生节点的计算
+     */
+    @FunctionalInterface
+    public interface Stage<T> {
+        T compute(Inputs inputs) throws IOException;
+    }
+
+    /**
+     * 文件节点的渲染，如自定义的 DTO 或 Mapper XML 生成器
+     */
+    @FunctionalInterface
+    public interface ArtifactGenerator {
+        /**
+         * @return 渲染完成的文件；返回 null 或内容为 null 时整张表生成失败
+         */
+        GeneratedFile generate(Inputs inputs) throws IOException;
+    }
+
+    /**
+     * 文件节点渲染出的文件
+     */
+    public static final class GeneratedFile {
+        private final String packageName;
+        private final String fileName;
+        private final String content;
+
+        /**
+         * @param packageName 以 . 分隔的包名，如 com.example.entity
+         * @param fileName 文件名
+         * @param content 文件内容；任何一项为 null 表示无法生成
+         */
+        public GeneratedFile(String packageName, String fileName, String content) {
+            this.packageName = packageName;
+            this.fileName = fileName;
+            this.content = content;
+        }
+    }
+
+    /**
+     * 节点的输入：生成上下文和声明的依赖的值
+     */
+    public static final class Inputs {
+        private final GenerationContext context;
+        private final Map<Key<?>, Object> values;
+
+        private Inputs(GenerationContext context, Map<Key<?>, Object> values) {
+            this.context = context;
+            this.values = values;
+        }
+
+        public GenerationContext getContext() { return context; }
+        public GenerationConfig getConfig() { return context.getConfig(); }
+
+        /**
+         * 依赖的派生节点的值
+         * @throws IllegalStateException 节点没有声明对 key 的依赖
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(Key<T> key) {
+            if (!values.containsKey(key)) {
+                throw new IllegalStateException("节点没有声明对 " + key + " 的依赖");
+            }
+            return (T) values.get(key);
+        }
+    }
+
+    /**
+     * 逐个加入节点，节点只能依赖已加入的派生节点
+     */
+    public static final class Builder {
+        private final List<Node> nodes;
+        private final Map<Key<?>, Integer> keys = new HashMap<>();
+        private final Set<String> names = new HashSet<>();
+
+        private Builder(List<Node> existing) {
+            this.nodes = new ArrayList<>(existing);
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                if (node.key != null) {
+                    keys.put(node.key, i);
+                }
+                names.add(node.name);
+            }
+        }
+
+        /**
+         * 加入一个派生节点
+         * @param key 节点的键，依赖它的节点用这个键读取值
+         * @param stage 计算
+         * @param dependencies 依赖的派生节点
+         */
+        public <T> Builder derive(Key<T> key, Stage<T> stage, Key<?>... dependencies) {
+            if (keys.containsKey(key)) {
+                throw new IllegalArgumentException("派生节点已存在: " + key);
+            }
+            Node node = new Node(key.getName(), key, indexesOf(key.getName(), dependencies), stage, null);
+            addNode(node);
+            keys.put(key, nodes.size() - 1);
+            return this;
+        }
+
+        /**
+         * 加入一个文件节点
+         * @param kind 文件类型，如 "Dto"，用于日志和耗时统计
+         * @param generator 渲染
+         * @param dependencies 依赖的派生节点
+         */
+        public Builder artifact(String kind, ArtifactGenerator generator, Key<?>... dependencies) {
+            addNode(new Node(kind, null, indexesOf(kind, dependencies), null, generator));
+            return this;
+        }
+
+        public ArtifactGraph build() {
+            return new ArtifactGraph(nodes);
+        }
+
+        private void addNode(Node node) {
+            if (!names.add(node.name)) {
+                throw new IllegalArgumentException("节点名称重复: " + node.name);
+            }
+            nodes.add(node);
+        }
+
+        private List<Integer> indexesOf(String name, Key<?>[] dependencies) {
+            List<Integer> indexes = new ArrayList<>(dependencies.length);
+            for (Key<?> dependency : dependencies) {
+                Integer index = keys.get(dependency);
+                if (index == null) {
+                    throw new IllegalArgumentException("节点 " + name + " 依赖的 " + dependency + " 尚未加入图中");
+                }
+                indexes.add(index);
+            }
+            return Collections.unmodifiableList(indexes);
+        }
+    }
+
+    private static final class Node {
+        final String name;
+        // 派生节点的键，文件节点为 null
+        final Key<?> key;
+        final List<Integer> dependencyIndexes;
+        final Stage<?> stage;
+        final ArtifactGenerator generator;
+
+        Node(String name, Key<?> key, List<Integer> dependencyIndexes, Stage<?> stage, ArtifactGenerator generator) {
+            this.name = name;
+            this.key = key;
+            this.dependencyIndexes = dependencyIndexes;
+            this.stage = stage;
+            this.generator = generator;
+        }
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        for (Node node : nodes) {
+            List<String> dependencies = new ArrayList<>();
+            for (int d : node.dependencyIndexes) {
+                dependencies.add(nodes.get(d).name);
+            }
+            parts.add(node.name + (dependencies.isEmpty() ? "" : " <- " + String.join(", ", dependencies)));
+        }
+        return parts.toString();
+    }
+}
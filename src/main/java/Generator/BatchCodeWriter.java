@@ -0,0 +1,259 @@
+package Generator;
+
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import utils.TableColumns;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static utils.FieldProcessorUtils.capitalizeFirstLetter;
+import static utils.FieldProcessorUtils.toCamelCase;
+
+/**
+ * 多表批量生成器：在线程池中同时为多张表渲染并写入代码文件
+ * 每张表是一个独立的任务，一张表失败（如写入失败、模板错误）不影响其他表，失败的表和原因在结果中列出。
+ * 生成的类名相同的表（如表名只有大小写不同）只保留最后一张，与依次生成时后写入的覆盖先写入的一致，
+ * 因此无论线程如何调度，写入的文件内容都是确定的。
+ * 内容与磁盘上相同的文件不写入（见 {@link GenerationManifest}）。
+ * 每张表的文件先写入暂存区，全部成功后一起移动到目标位置，失败的表的已有文件保持不变（见 {@link StagingArea}）；
+ * 所有表结束后对写入过文件的每个包目录同步一次。
+ * 批量生成时不逐个文件输出日志，只在结束时输出一行汇总。
+ */
+public class BatchCodeWriter {
+
+    // 本次生成使用的配置
+    private final Supplier<GenerationConfig> config;
+    private final int threads;
+
+    /**
+     * 批量生成的结果
+     */
+    public static class Result {
+        private final int tableCount;
+        private final int duplicateCount;
+        private final int threads;
+        private final long elapsedNanos;
+        private final List<Failure> failures;
+        private final int writtenFiles;
+        private final int skippedFiles;
+
+        Result(int tableCount, int duplicateCount, int threads, long elapsedNanos, List<Failure> failures,
+               int writtenFiles, int skippedFiles) {
+            this.tableCount = tableCount;
+            this.duplicateCount = duplicateCount;
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            this.failures = failures;
+            this.writtenFiles = writtenFiles;
+            this.skippedFiles = skippedFiles;
+        }
+
+        /** 实际生成的表数量（不含被同名表覆盖的表） */
+        public int getTableCount() { return tableCount; }
+        /** 因生成的类名相同而被后面的表覆盖的表数量 */
+        public int getDuplicateCount() { return duplicateCount; }
+        public int getSucceeded() { return tableCount - failures.size(); }
+        /** 失败的表，按输入顺序排列 */
+        public List<Failure> getFailures() { return failures; }
+        public int getThreads() { return threads; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * 成功生成的文件数量（包括内容未变化而跳过写入的文件）
+         */
+        public int getFileCount() {
+            return writtenFiles + skippedFiles;
+        }
+
+        /** 实际写入磁盘的文件数量 */
+        public int getWrittenFiles() { return writtenFiles; }
+        /** 内容与磁盘上相同、跳过写入的文件数量 */
+        public int getSkippedFiles() { return skippedFiles; }
+
+        /**
+         * 吞吐量：每秒生成的表数量
+         */
+        public double getTablesPerSecond() {
+            return elapsedNanos > 0 ? getSucceeded() * 1e9 / elapsedNanos : 0;
+        }
+
+        /**
+         * 一行汇总，如 "生成 1500 张表（写入 5 个文件，跳过 7495 个未变化的文件），失败 0 张，耗时 812 ms，1847 张/秒，8 个线程"
+         */
+        public String summary() {
+            return String.format("生成 %d 张表（写入 %d 个文件，跳过 %d 个未变化的文件），失败 %d 张，耗时 %d ms，%.0f 张/秒，%d 个线程",
+                    getSucceeded(), writtenFiles, skippedFiles, failures.size(), elapsedNanos / 1000000, getTablesPerSecond(), threads);
+        }
+    }
+
+    /**
+     * 一张失败的表
+     */
+    public static class Failure {
+        private final int index;
+        private final String tableName;
+        private final Throwable error;
+
+        Failure(int index, String tableName, Throwable error) {
+            this.index = index;
+            this.tableName = tableName;
+            this.error = error;
+        }
+
+        /** 表在输入列表中的下标 */
+        public int getIndex() { return index; }
+        public String getTableName() { return tableName; }
+        public Throwable getError() { return error; }
+
+        public String getMessage() {
+            return error.getMessage() != null ? error.getMessage() : error.toString();
+        }
+    }
+
+    /**
+     * 使用配置中的线程数，未配置时使用默认线程数
+     * 每次调用 {@link #write(List)} 时复制全局配置中当时的项目路径和包路径
+     */
+    public BatchCodeWriter(GlobalTableInfo config) {
+        this(config, config.generatorThreads);
+    }
+
+    /**
+     * @param config 提供项目路径和包路径的全局配置，每次调用 {@link #write(List)} 时复制
+     * @param threads 线程数，小于 1 时使用默认线程数
+     */
+    public BatchCodeWriter(GlobalTableInfo config, int threads) {
+        this.config = () -> GenerationConfig.from(config);
+        this.threads = threads > 0 ? threads : defaultThreads();
+    }
+
+    /**
+     * 使用配置中的线程数，未配置时使用默认线程数
+     */
+    public BatchCodeWriter(GenerationConfig config) {
+        this(config, config.getGeneratorThreads());
+    }
+
+    /**
+     * @param config 项目路径和包路径配置
+     * @param threads 线程数，小于 1 时使用默认线程数
+     */
+    public BatchCodeWriter(GenerationConfig config, int threads) {
+        this.config = () -> config;
+        this.threads = threads > 0 ? threads : defaultThreads();
+    }
+
+    /**
+     * 默认线程数：CPU 核数，至少 4 个。写入文件时线程有相当一部分时间在等待 I/O，单核机器上多线程同样有效
+     */
+    public static int defaultThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 为所有表写入代码文件，返回时所有任务都已结束
+     * 开始时取一次模板，所有表使用同一版本的模板
+     * @param tables 要生成的表，如 TableInfo 或 SchemaModel 中的表
+     */
+    public Result write(List<? extends TableColumns> tables) {
+        return write(tables, null);
+    }
+
+    /**
+     * @param templates 本次生成使用的模板，为 null 时取配置对应的模板目录中当前的模板
+     */
+    Result write(List<? extends TableColumns> tables, TemplateRegistry.Snapshot templates) {
+        long begin = System.nanoTime();
+        // 生成的类名 -> 最后一张同名表的下标，保持输入顺序
+        Map<String, Integer> latest = new LinkedHashMap<>();
+        for (int i = 0; i < tables.size(); i++) {
+            String tableName = tables.get(i).getTableName();
+            String className = tableName != null ? capitalizeFirstLetter(toCamelCase(tableName)) : "";
+            latest.remove(className);
+            latest.put(className, i);
+        }
+        List<Integer> indexes = new ArrayList<>(latest.values());
+        Collections.sort(indexes);
+
+        int poolSize = Math.max(1, Math.min(threads, indexes.size()));
+        // 所有表使用同一份配置，生成期间修改全局配置不影响本次生成
+        GenerationConfig config = this.config.get();
+        TemplateRegistry.Snapshot snapshot = templates != null ? templates : TemplateRegistry.forConfig(config).snapshot();
+        GenerationManifest manifest = GenerationManifest.load(config);
+        List<Failure> failures = new ArrayList<>();
+        StagingArea staging;
+        try {
+            staging = StagingArea.create(config);
+        } catch (IOException e) {
+            // 无法在项目中创建暂存目录时所有表都无法写入
+            for (int index : indexes) {
+                failures.add(new Failure(index, tables.get(index).getTableName(), e));
+            }
+            System.err.println("创建暂存目录时发生错误: " + e.getMessage());
+            return new Result(indexes.size(), tables.size() - indexes.size(), 0, System.nanoTime() - begin, failures, 0, 0);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, new WorkerFactory());
+        try {
+            List<Future<?>> futures = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                GenerationContext context = new GenerationContext(tables.get(index), config, snapshot);
+                futures.add(executor.submit(() -> {
+                    CodeFileWriter.writeCodeFiles(context, manifest, staging, false);
+                    return null;
+                }));
+            }
+            // 按输入顺序收集结果，失败列表的顺序与调度无关
+            for (int i = 0; i < futures.size(); i++) {
+                int index = indexes.get(i);
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failures.add(new Failure(index, tables.get(index).getTableName(), e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(new Failure(index, tables.get(index).getTableName(), e));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            staging.close();
+            manifest.save();
+        }
+        Result result = new Result(indexes.size(), tables.size() - indexes.size(), poolSize, System.nanoTime() - begin, failures,
+                manifest.getWrittenCount(), manifest.getSkippedCount());
+        for (Failure failure : failures) {
+            System.err.println("写入 " + failure.getTableName() + " 的代码文件时发生错误: " + failure.getMessage());
+        }
+        if (result.getDuplicateCount() > 0) {
+            System.out.println("有 " + result.getDuplicateCount() + " 张表与后面的表生成的类名相同，只生成最后一张");
+        }
+        System.out.println("=== 批量生成完成: " + result.summary() + " ===");
+        return result;
+    }
+
+    /**
+     * 工作线程设为守护线程，不阻止程序退出
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "code-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
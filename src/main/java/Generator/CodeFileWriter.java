@@ -1,15 +1,22 @@
 package Generator;
 
+import Global.GenerationConfig;
 import Global.GlobalTableInfo;
-import java.io.File;
-import java.io.FileWriter;
+import utils.SchemaDiff;
+import utils.TableColumns;
+import utils.TableFieldExtractor.TableInfo;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-
-import static utils.FieldProcessorUtils.capitalizeFirstLetter;
-import static utils.FieldProcessorUtils.toCamelCase;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 代码文件写入器
@@ -20,118 +27,186 @@ public class CodeFileWriter {
     /**
      * 写入所有生成的代码文件
      * @param tableInfo 全局表信息
+     * @throws IOException 渲染或写入失败，已有的文件保持不变
+     */
+    public static void writeAllCodeFiles(GlobalTableInfo tableInfo) throws IOException {
+        writeAllCodeFiles(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 写入所有生成的代码文件
+     * @param table 表结构，如 TableInfo 或 SchemaModel 中的表
+     * @param tableInfo 提供项目路径和包路径的全局配置
+     * @throws IOException 渲染或写入失败，已有的文件保持不变
+     */
+    public static void writeAllCodeFiles(TableColumns table, GlobalTableInfo tableInfo) throws IOException {
+        writeAllCodeFiles(GenerationContext.of(table, tableInfo));
+    }
+
+    /**
+     * 写入所有生成的代码文件
+     * @param context 表结构和项目路径、包路径配置
+     * @throws IOException 渲染或写入失败，已有的文件保持不变
+     */
+    public static void writeAllCodeFiles(GenerationContext context) throws IOException {
+        writeAllCodeFiles(context, null);
+    }
+
+    /**
+     * 写入已渲染的代码文件（如预览过的结果），不重新渲染
+     * @param result 渲染结果，写入的内容与其中的内容完全相同
+     * @throws IOException 写入失败，已有的文件保持不变
      */
-    public static void writeAllCodeFiles(GlobalTableInfo tableInfo) {
+    public static void writeAllCodeFiles(GenerationResult result) throws IOException {
+        writeAllCodeFiles(result.getContext(), result);
+    }
+
+    private static void writeAllCodeFiles(GenerationContext context, GenerationResult rendered) throws IOException {
+        GenerationConfig config = context.getConfig();
+        GenerationManifest manifest = GenerationManifest.load(config);
+        StagingArea staging = null;
         try {
             System.out.println("=== 开始写入代码文件 ===");
+            GenerationResult result = rendered != null ? rendered : GenerationResult.render(context);
+            staging = StagingArea.create(config);
+            writeCodeFiles(result, manifest, staging, true);
+            System.out.println("=== 所有代码文件写入完成: 写入 " + manifest.getWrittenCount() + " 个文件，跳过 "
+                    + manifest.getSkippedCount() + " 个未变化的文件 ===");
             
-            // 写入 Entity 文件
-            writeEntityFile(tableInfo);
-            
-            // 写入 Mapper 文件
-            writeMapperFile(tableInfo);
-            
-            // 写入 Service 文件
-            writeServiceFile(tableInfo);
-            
-            // 写入 ServiceImpl 文件
-            writeServiceImplFile(tableInfo);
-            
-            // 写入 Controller 文件
-            writeControllerFile(tableInfo);
-            
-            System.out.println("=== 所有代码文件写入完成 ===");
-            
-        } catch (Exception e) {
-            System.err.println("写入代码文件时发生错误: " + e.getMessage());
-            e.printStackTrace();
+        } catch (IOException | RuntimeException e) {
+            // 事务已回滚，交给调用方提示用户
+            System.err.println("写入代码文件时发生错误，已有的文件保持不变: " + e.getMessage());
+            throw e;
+        } finally {
+            if (staging != null) {
+                staging.close();
+            }
+            manifest.save();
         }
     }
-    
-    /**
-     * 写入 Entity 实体类文件
-     */
-    private static void writeEntityFile(GlobalTableInfo tableInfo) throws IOException {
-        entityGenerator generator = new entityGenerator();
-        String content = generator.generateEntityContent(tableInfo);
-        
-        String entityName = capitalizeFirstLetter(toCamelCase(tableInfo.tableName));
-        String fileName = entityName + ".java";
-        String packagePath = tableInfo.entityOrdomainPackage.replace('.', '/');
-        
-        writeToFile(tableInfo.projectPath, packagePath, fileName, content);
-        System.out.println("Entity 文件已写入: " + fileName);
-    }
-    
+
     /**
-     * 写入 Mapper 接口文件
+     * 只为与上次写入时相比新增或修改过的表写入代码文件
+     * 上次写入时的表结构保存在 <项目路径>/.mpgenerator/ 下，与本次的表逐表对比，
+     * 未变化的表不重新生成；已删除的表只在日志中列出，不删除已有的代码文件（其中可能有手写的代码）。
+     * 写入失败的表保留上次的表结构，下次仍会重新生成。
+     * @param tables 本次的全部表
+     * @param tableInfo 提供项目路径和包路径的全局配置
+     * @return 本次与上次的差异
      */
-    private static void writeMapperFile(GlobalTableInfo tableInfo) throws IOException {
-        MapperGenerator generator = new MapperGenerator();
-        String content = generator.generateMapperContent(tableInfo);
-        
-        String entityName = capitalizeFirstLetter(toCamelCase(tableInfo.tableName));
-        String fileName = entityName + "Mapper.java";
-        String packagePath = tableInfo.mapperPackage.replace('.', '/');
-        
-        writeToFile(tableInfo.projectPath, packagePath, fileName, content);
-        System.out.println("Mapper 文件已写入: " + fileName);
+    public static SchemaDiff writeChangedCodeFiles(List<? extends TableInfo> tables, GlobalTableInfo tableInfo) {
+        return writeChangedCodeFiles(tables, GenerationConfig.from(tableInfo));
     }
-    
+
     /**
-     * 写入 Service 接口文件
+     * 只为与上次写入时相比新增或修改过的表写入代码文件，见 {@link #writeChangedCodeFiles(List, GlobalTableInfo)}
+     * @param tables 本次的全部表
+     * @param config 项目路径和包路径配置
+     * @return 本次与上次的差异
      */
-    private static void writeServiceFile(GlobalTableInfo tableInfo) throws IOException {
-        ServiceGenerator generator = new ServiceGenerator();
-        String content = generator.generateServiceContent(tableInfo);
-        
-        String entityName = capitalizeFirstLetter(toCamelCase(tableInfo.tableName));
-        String fileName = entityName + "Service.java";
-        String packagePath = tableInfo.servicePackage.replace('.', '/');
-        
-        writeToFile(tableInfo.projectPath, packagePath, fileName, content);
-        System.out.println("Service 文件已写入: " + fileName);
+    public static SchemaDiff writeChangedCodeFiles(List<? extends TableInfo> tables, GenerationConfig config) {
+        // 对比和生成使用同一份模板，生成期间修改模板文件不会使快照与写入的代码不符
+        TemplateRegistry.Snapshot templates = TemplateRegistry.forConfig(config).snapshot();
+        GenerationSnapshot previous = GenerationSnapshot.load(config, templates);
+        SchemaDiff diff = SchemaDiff.compare(previous, tables);
+        System.out.println("=== 表结构对比: " + diff.summary() + " ===");
+
+        // 新增和修改的表交给批量生成器并行写入
+        List<TableInfo> regenerated = new ArrayList<>();
+        for (SchemaDiff.TableDiff table : diff.getTables()) {
+            if (table.getChangeType() == SchemaDiff.ChangeType.REMOVED) {
+                System.out.println(table.describe() + "，保留已有的代码文件");
+            } else if (table.needsRegeneration()) {
+                System.out.println(table.describe());
+                regenerated.add(table.getCurrent());
+            }
+        }
+        Set<TableInfo> failedTables = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!regenerated.isEmpty()) {
+            for (BatchCodeWriter.Failure failure : new BatchCodeWriter(config).write(regenerated, templates).getFailures()) {
+                failedTables.add(regenerated.get(failure.getIndex()));
+            }
+        }
+
+        List<TableInfo> snapshot = new ArrayList<>(tables.size());
+        for (SchemaDiff.TableDiff table : diff.getTables()) {
+            if (table.getChangeType() == SchemaDiff.ChangeType.REMOVED) {
+                continue;
+            }
+            if (!failedTables.contains(table.getCurrent())) {
+                snapshot.add(table.getCurrent());
+            } else if (table.getPrevious() != null) {
+                // 写入失败的表保留上次的表结构
+                snapshot.add(table.getPrevious());
+            }
+        }
+        int failed = failedTables.size();
+        if (!previous.isPresent() || !diff.getRegenerated().isEmpty() || diff.count(SchemaDiff.ChangeType.REMOVED) > 0) {
+            try {
+                previous.save(config, snapshot);
+            } catch (IOException e) {
+                System.err.println("保存表结构快照时发生错误: " + e.getMessage());
+            }
+        }
+        System.out.println("=== 增量写入完成: 重新生成 " + (diff.getRegenerated().size() - failed) + " 张表"
+                + (failed > 0 ? "，失败 " + failed + " 张" : "") + " ===");
+        return diff;
     }
-    
+
     /**
-     * 写入 ServiceImpl 实现类文件
+     * 渲染并写入一张表的五个代码文件，见 {@link #writeCodeFiles(GenerationResult, GenerationManifest, StagingArea, boolean)}
      */
-    private static void writeServiceImplFile(GlobalTableInfo tableInfo) throws IOException {
-        ServiceGenerator generator = new ServiceGenerator();
-        String content = generator.generateServiceImplContent(tableInfo);
-        
-        String entityName = capitalizeFirstLetter(toCamelCase(tableInfo.tableName));
-        String fileName = entityName + "ServiceImpl.java";
-        String packagePath = tableInfo.implPackage.replace('.', '/');
-        
-        writeToFile(tableInfo.projectPath, packagePath, fileName, content);
-        System.out.println("ServiceImpl 文件已写入: " + fileName);
+    static void writeCodeFiles(GenerationContext context, GenerationManifest manifest, StagingArea staging,
+                               boolean verbose) throws IOException {
+        writeCodeFiles(GenerationResult.render(context), manifest, staging, verbose);
     }
-    
+
     /**
-     * 写入 Controller 控制器文件
+     * 写入一张表的五个代码文件：依次写入暂存区，全部成功后一起移动到目标位置
+     * 任何一个文件写入失败时，五个文件都保持原来的内容
+     * @param result 已渲染的文件
+     * @param manifest 生成文件清单，内容未变化的文件不写入，提交后记录写入的文件
+     * @param staging 本次生成的暂存区
+     * @param verbose 是否逐个文件输出日志，批量生成时关闭
      */
-    private static void writeControllerFile(GlobalTableInfo tableInfo) throws IOException {
-        ControllerGenerator generator = new ControllerGenerator();
-        String content = generator.generateControllerContent(tableInfo);
-        
-        String entityName = capitalizeFirstLetter(toCamelCase(tableInfo.tableName));
-        String fileName = entityName + "Controller.java";
-        String packagePath = tableInfo.controllerPackage.replace('.', '/');
-        
-        writeToFile(tableInfo.projectPath, packagePath, fileName, content);
-        System.out.println("Controller 文件已写入: " + fileName);
+    static void writeCodeFiles(GenerationResult result, GenerationManifest manifest, StagingArea staging,
+                               boolean verbose) throws IOException {
+        String projectPath = result.getContext().getConfig().getProjectPath();
+        StagingArea.Transaction transaction = staging.begin();
+        // 已暂存的文件 -> 内容，提交后记入清单
+        Map<Path, byte[]> staged = new LinkedHashMap<>();
+        try {
+            for (GenerationResult.Artifact artifact : result.getArtifacts()) {
+                boolean written = stageFile(projectPath, artifact, manifest, transaction, staged, verbose);
+                if (verbose) {
+                    System.out.println(artifact.getKind() + " 文件" + (written ? "已暂存: " : "未变化: ") + artifact.getFileName());
+                }
+            }
+            transaction.commit();
+        } catch (IOException | RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+        for (Map.Entry<Path, byte[]> file : staged.entrySet()) {
+            manifest.recordWritten(file.getKey(), file.getValue());
+            if (verbose) {
+                System.out.println("文件已写入: " + file.getKey());
+            }
+        }
     }
     
     /**
-    /**
-     * 创建文件并写入内容
+     * 创建目录并把文件内容写入暂存区，内容与磁盘上的文件相同时不写入
      * @param projectPath 项目根路径
-     * @param packagePath 包路径
-     * @param fileName 文件名
-     * @param content 文件内容
+     * @param artifact 已渲染的文件
+     * @param manifest 生成文件清单
+     * @param transaction 这张表的写入事务
+     * @param staged 已暂存的文件，暂存后加入
+     * @param verbose 是否输出每一步的日志
+     * @return 是否暂存了文件
      */
-    private static void writeToFile(String projectPath, String packagePath, String fileName, String content) throws IOException {
+    private static boolean stageFile(String projectPath, GenerationResult.Artifact artifact, GenerationManifest manifest,
+                                     StagingArea.Transaction transaction, Map<Path, byte[]> staged, boolean verbose) throws IOException {
         // 确保项目路径以正确的分隔符结尾
         String normalizedProjectPath = projectPath.replace('\\', '/');
         if (!normalizedProjectPath.endsWith("/")) {
@@ -139,33 +214,36 @@ public class CodeFileWriter {
         }
         
         // 构建完整的目录路径：项目路径 + src/main/java + 包路径
-        String fullDirPath = normalizedProjectPath + "src/main/java/" + packagePath;
+        String fullDirPath = normalizedProjectPath + "src/main/java/" + artifact.getPackagePath();
         Path dirPath = Paths.get(fullDirPath);
         
-        System.out.println("准备创建目录: " + dirPath.toString());
+        if (verbose) {
+            System.out.println("准备创建目录: " + dirPath.toString());
+        }
         
         // 创建目录（如果不存在）
         Files.createDirectories(dirPath);
-        System.out.println("目录创建成功: " + dirPath.toString());
+        if (verbose) {
+            System.out.println("目录创建成功: " + dirPath.toString());
+        }
         
         // 构建完整的文件路径
+        String fileName = artifact.getFileName();
         Path filePath = dirPath.resolve(fileName);
-        System.out.println("准备创建文件: " + filePath.toString());
         
-        // 创建文件并写入内容
-        File file = filePath.toFile();
-        if (file.exists()) {
-            System.out.println("文件已存在，将覆盖: " + filePath.toString());
-        } else {
-            System.out.println("创建新文件: " + filePath.toString());
+        // 内容未变化时不写入，文件的修改时间保持不变
+        byte[] bytes = artifact.bytes();
+        if (manifest.isUnchanged(filePath, bytes)) {
+            if (verbose) {
+                System.out.println("文件内容未变化，跳过写入: " + filePath.toString());
+            }
+            return false;
         }
-        
-        // 创建文件并写入内容
-        try (FileWriter writer = new FileWriter(file, false)) {
-            writer.write(content);
-            writer.flush();
+        transaction.stage(filePath, bytes);
+        staged.put(filePath, bytes);
+        if (verbose) {
+            System.out.println("文件已暂存: " + fileName + (Files.exists(filePath) ? "（将覆盖已有文件）" : ""));
         }
-        
-        System.out.println("文件创建成功: " + fileName + " 位置: " + filePath.toString());
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,16 @@
 
 package Generator;
 
+import Global.GenerationConfig;
 import Global.GlobalTableInfo;
+import utils.TableColumns;
 
-import static utils.FieldProcessorUtils.capitalizeFirstLetter;
-import static utils.FieldProcessorUtils.toCamelCase;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Controller 代码生成器。
- * 根据 GlobalTableInfo 中的配置生成相应的模板。
+ * 根据 GenerationContext 中的表结构和包路径配置生成相应的模板，不读取可变的全局变量。
  */
 public class ControllerGenerator {
 
@@ -18,7 +20,26 @@ public class ControllerGenerator {
      * @return 生成的 Controller 代码字符串
      */
     public String generateControllerContent(GlobalTableInfo tableInfo) {
-        return buildControllerCode(tableInfo);
+        return buildControllerCode(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Controller 类的代码内容（用于文件写入）
+     * @param table 表结构，如 TableInfo 或 SchemaModel 中的表
+     * @param config 提供包路径的全局配置实例。
+     * @return 生成的 Controller 代码字符串
+     */
+    public String generateControllerContent(TableColumns table, GlobalTableInfo config) {
+        return buildControllerCode(GenerationContext.of(table, config));
+    }
+
+    /**
+     * 生成 Controller 类的代码内容（用于文件写入）
+     * @param context 表结构和包路径配置
+     * @return 生成的 Controller 代码字符串
+     */
+    public String generateControllerContent(GenerationContext context) {
+        return buildControllerCode(context);
     }
 
     /**
@@ -26,7 +47,15 @@ public class ControllerGenerator {
      * @param tableInfo 包含所有路径和表信息的全局配置实例。
      */
     public void generateControllerTemplate(GlobalTableInfo tableInfo) {
-        String content = buildControllerCode(tableInfo);
+        generateControllerTemplate(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Controller 类的代码模板（用于控制台打印）
+     * @param context 表结构和包路径配置
+     */
+    public void generateControllerTemplate(GenerationContext context) {
+        String content = buildControllerCode(context);
         if (content != null) {
             System.out.println("Controller 控制器代码生成完毕");
         }
@@ -34,15 +63,16 @@ public class ControllerGenerator {
 
     /**
      * 构建 Controller 类的代码
-     * @param tableInfo 包含所有路径和表信息的全局配置实例。
+     * @param context 表结构和包路径配置
      * @return 生成的代码字符串
      */
-    private String buildControllerCode(GlobalTableInfo tableInfo) {
-        // 1. 从全局配置中获取所需信息
-        String tableName = tableInfo.tableName;
-        String controllerPackage = tableInfo.controllerPackage;
-        String servicePackage = tableInfo.servicePackage;
-        String entityOrdomainPackage = tableInfo.entityOrdomainPackage;
+    private String buildControllerCode(GenerationContext context) {
+        GenerationConfig config = context.getConfig();
+        // 1. 从生成上下文中获取所需信息
+        String tableName = context.getTableName();
+        String controllerPackage = config.getControllerPackage();
+        String servicePackage = config.getServicePackage();
+        String entityOrdomainPackage = config.getEntityOrdomainPackage();
 
         // 2. 检查关键信息是否缺失
         if (tableName == null || tableName.trim().isEmpty() ||
@@ -54,36 +84,29 @@ public class ControllerGenerator {
         }
 
         // 3. 根据表名派生出相关的类名和路径
-        // 3. 根据表名派生出相关的类名和路径
-        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
-        String serviceName = entityName + "Service";
-        String controllerName = entityName + "Controller";
-        String requestMappingPath = toCamelCase(tableName); // e.g., user_info -> userInfo
-        // 正确的驼峰命名：首字母小写
-        String serviceInstanceName = Character.toLowerCase(serviceName.charAt(0)) + serviceName.substring(1);
-
-        // 4. 构建 Controller 类的代码模板
-        String controllerTemplate = String.format(
-            "package %s;\n\n" +
-            "import %s.%s;\n" +
-            "import %s.%s;\n" +
-            "import org.springframework.web.bind.annotation.*;\n" +
-            "import jakarta.annotation.Resource;\n\n" +
-            "@RestController\n" +
-            "@RequestMapping(\"/%s\")\n" +
-            "public class %s {\n\n" +
-            "    @Resource\n" +
-            "    private %s %s;\n\n" +
-            "    // 可在此处添加基本的CRUD方法\n" +
-            "}\n",
-            controllerPackage,
-            entityOrdomainPackage, entityName,
-            servicePackage, serviceName,
-            requestMappingPath,
-            controllerName,
-            serviceName, serviceInstanceName
-        );
+        return render(context, TableNames.of(context));
+    }
 
-        return controllerTemplate;
+    /**
+     * 用已派生的类名和路径渲染 Controller 类，配置已由调用方检查（见 ArtifactGraph）
+     * @param context 表结构和包路径配置
+     * @param names 这张表派生出的类名和路径
+     * @return 生成的代码字符串
+     */
+    String render(GenerationContext context, TableNames names) {
+        GenerationConfig config = context.getConfig();
+        // 4. 使用模板生成 Controller 类
+        Map<String, Object> model = new HashMap<>();
+        model.put("package", config.getControllerPackage());
+        model.put("entityPackage", config.getEntityOrdomainPackage());
+        model.put("servicePackage", config.getServicePackage());
+        model.put("entityName", names.getEntityName());
+        model.put("serviceName", names.getServiceName());
+        model.put("controllerName", names.getControllerName());
+        // e.g., user_info -> userInfo
+        model.put("requestMappingPath", names.getRequestMappingPath());
+        // 正确的驼峰命名：首字母小写
+        model.put("serviceInstanceName", names.getServiceInstanceName());
+        return context.getTemplates().get(TemplateRegistry.CONTROLLER).render(model);
     }
 }
\ No newline at end of file
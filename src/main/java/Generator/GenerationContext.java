@@ -0,0 +1,67 @@
+package Generator;
+
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import utils.TableColumns;
+import utils.TableFieldExtractor.TableInfo;
+import utils.TableInfoCodec;
+
+import static utils.FieldProcessorUtils.capitalizeFirstLetter;
+import static utils.FieldProcessorUtils.toCamelCase;
+
+/**
+ * 生成一张表的代码所需的全部输入：表结构、包路径配置和代码模板
+ * 生成器只从这里读取数据，不读取 GlobalTableInfo，因此多个线程可以同时为不同的表、不同的项目生成代码。
+ * 表结构在生成期间必须保持不变：TableInfo 的字段和索引列表随时可以被修改，因此复制一份；
+ * SchemaModel 中的表和 {@link TableColumns#of(GlobalTableInfo)} 的结果本身不会变化，直接使用。
+ */
+public final class GenerationContext {
+
+    private final TableColumns table;
+    private final GenerationConfig config;
+    private final TemplateRegistry.Snapshot templates;
+    // 表名为空时为 null，由生成器给出错误提示
+    private final String entityName;
+
+    /**
+     * 使用配置对应的模板目录中当前的模板，适合单张表的生成和预览
+     */
+    public GenerationContext(TableColumns table, GenerationConfig config) {
+        this(table, config, TemplateRegistry.forConfig(config).snapshot());
+    }
+
+    /**
+     * @param templates 本次生成使用的模板，一批表共用同一个快照
+     */
+    public GenerationContext(TableColumns table, GenerationConfig config, TemplateRegistry.Snapshot templates) {
+        this.templates = templates;
+        this.table = table instanceof TableInfo ? TableInfoCodec.copy((TableInfo) table) : table;
+        this.config = config;
+        String tableName = table.getTableName();
+        this.entityName = tableName != null && !tableName.trim().isEmpty() ? capitalizeFirstLetter(toCamelCase(tableName)) : null;
+    }
+
+    /**
+     * 兼容旧接口：复制全局配置中当前的表结构和包路径
+     */
+    public static GenerationContext of(GlobalTableInfo tableInfo) {
+        return new GenerationContext(TableColumns.of(tableInfo), GenerationConfig.from(tableInfo));
+    }
+
+    /**
+     * 兼容旧接口：复制全局配置中当前的包路径
+     */
+    public static GenerationContext of(TableColumns table, GlobalTableInfo config) {
+        return new GenerationContext(table, GenerationConfig.from(config));
+    }
+
+    public TableColumns getTable() { return table; }
+    public GenerationConfig getConfig() { return config; }
+    public TemplateRegistry.Snapshot getTemplates() { return templates; }
+    public String getTableName() { return table.getTableName(); }
+
+    /**
+     * 由表名派生的实体类名，如 user_info -> UserInfo
+     */
+    public String getEntityName() { return entityName; }
+}
@@ -0,0 +1,232 @@
+package Generator;
+
+import Global.GenerationConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 生成文件清单，存储在目标项目的 .mpgenerator 目录下
+ * 记录每个生成的文件上次写入时的内容哈希、大小和修改时间。再次生成时内容与磁盘上的文件相同则不写入，
+ * 文件的修改时间保持不变，IDE 不会重新索引，增量编译和 Spring DevTools 也不会因此重启。
+ * 文件的大小和修改时间与清单一致时只比较哈希，不读取文件；不一致（如被手动修改过）或清单中没有该文件时
+ * 读取磁盘上的内容逐字节比较。
+ * 清单文件是追加写入的记录，同一文件的后一条记录覆盖前一条，保存时只追加本次变化的记录；
+ * 过期的记录过多时在保存时整体重写。
+ * 一次生成（可能在多个线程中）共用一个实例，结束时调用 {@link #save()}。
+ */
+class GenerationManifest {
+
+    static final String FILE_NAME = "manifest.bin";
+
+    private static final int MAGIC = 0x4D50474D; // "MPGM"
+    private static final int VERSION = 1;
+
+    private final Path projectRoot;
+    private final Path file;
+    // 相对于项目路径的文件路径（以 / 分隔） -> 上次写入时的状态
+    private final Map<String, Entry> entries;
+    // 上次保存之后变化的记录
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    // 清单文件中的记录数量，为 -1 时文件不存在或不完整，保存时整体重写
+    private int recordCount;
+
+    private GenerationManifest(Path projectRoot, Path file, Map<String, Entry> entries, int recordCount) {
+        this.projectRoot = projectRoot;
+        this.file = file;
+        this.entries = entries;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * 读取项目的生成文件清单，不存在或已损坏时返回空清单
+     */
+    static GenerationManifest load(GenerationConfig config) {
+        Path projectRoot = Paths.get(config.getProjectPath() != null ? config.getProjectPath() : "").toAbsolutePath().normalize();
+        Path file = projectRoot.resolve(GenerationSnapshot.DIRECTORY_NAME).resolve(FILE_NAME);
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        int recordCount = -1;
+        if (Files.isRegularFile(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+                    int count = 0;
+                    while (true) {
+                        in.mark(1);
+                        if (in.read() < 0) {
+                            recordCount = count;
+                            break;
+                        }
+                        in.reset();
+                        // 最后一条记录不完整（写入时被中断）时抛出 EOFException，之前的记录仍然有效
+                        entries.put(in.readUTF(), new Entry(in.readLong(), in.readLong(), in.readLong()));
+                        count++;
+                    }
+                }
+            } catch (EOFException e) {
+                // 文件不完整，保存时整体重写
+            } catch (IOException e) {
+                System.err.println("生成文件清单已损坏，将逐个比较文件内容: " + e.getMessage());
+                entries.clear();
+            }
+        }
+        return new GenerationManifest(projectRoot, file, entries, recordCount);
+    }
+
+    /**
+     * 判断磁盘上的文件内容是否与要写入的内容相同，相同时计为跳过
+     * @param target 目标文件
+     * @param content 文件内容
+     * @return 内容相同时返回 true，文件不需要写入
+     */
+    boolean isUnchanged(Path target, byte[] content) throws IOException {
+        BasicFileAttributes attributes = attributes(target);
+        if (attributes == null || !attributes.isRegularFile() || attributes.size() != content.length) {
+            return false;
+        }
+        String key = key(target);
+        long hash = hash(content);
+        Entry entry = entries.get(key);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        boolean unchanged = entry != null && entry.size == content.length && entry.lastModified == lastModified
+                ? entry.hash == hash
+                : Arrays.equals(Files.readAllBytes(target), content);
+        if (unchanged) {
+            if (entry == null || entry.hash != hash || entry.lastModified != lastModified) {
+                put(key, new Entry(hash, content.length, lastModified));
+            }
+            skipped.incrementAndGet();
+        }
+        return unchanged;
+    }
+
+    /**
+     * 记录已写入（提交）的文件
+     * @param target 目标文件
+     * @param content 写入的内容
+     */
+    void recordWritten(Path target, byte[] content) throws IOException {
+        put(key(target), new Entry(hash(content), content.length, Files.getLastModifiedTime(target).toMillis()));
+        written.incrementAndGet();
+    }
+
+    /**
+     * 本次写入的文件数量
+     */
+    int getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * 本次因内容未变化而跳过的文件数量
+     */
+    int getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * 保存清单：只追加上次保存之后变化的记录；文件不存在、不完整或过期记录过多时先写临时文件再整体替换
+     */
+    synchronized void save() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Entry> changes = new TreeMap<>(pending);
+        try {
+            GenerationSnapshot.createDirectory(file.getParent());
+            if (recordCount < 0 || recordCount + changes.size() > 2 * entries.size() + 1024) {
+                Path tempFile = file.resolveSibling(FILE_NAME + ".tmp");
+                // 按路径排序，内容相同的清单写出的文件也相同
+                Map<String, Entry> sorted = new TreeMap<>(entries);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    writeRecords(out, sorted);
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                recordCount = sorted.size();
+            } else {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(file, StandardOpenOption.APPEND)))) {
+                    writeRecords(out, changes);
+                }
+                recordCount += changes.size();
+            }
+            for (Map.Entry<String, Entry> change : changes.entrySet()) {
+                pending.remove(change.getKey(), change.getValue());
+            }
+        } catch (IOException e) {
+            // 清单只用于加速比较，保存失败时下次逐个比较文件内容
+            recordCount = -1;
+            System.err.println("保存生成文件清单时发生错误: " + e.getMessage());
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        pending.put(key, entry);
+    }
+
+    private static void writeRecords(DataOutputStream out, Map<String, Entry> records) throws IOException {
+        for (Map.Entry<String, Entry> record : records.entrySet()) {
+            out.writeUTF(record.getKey());
+            out.writeLong(record.getValue().hash);
+            out.writeLong(record.getValue().size);
+            out.writeLong(record.getValue().lastModified);
+        }
+    }
+
+    private String key(Path target) {
+        Path absolute = target.toAbsolutePath().normalize();
+        Path relative = absolute.startsWith(projectRoot) ? projectRoot.relativize(absolute) : absolute;
+        return relative.toString().replace('\\', '/');
+    }
+
+    private static BasicFileAttributes attributes(Path target) throws IOException {
+        try {
+            return Files.readAttributes(target, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static long hash(byte[] content) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : content) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 一个文件上次写入时的状态
+     */
+    private static final class Entry {
+        final long hash;
+        final long size;
+        final long lastModified;
+
+        Entry(long hash, long size, long lastModified) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
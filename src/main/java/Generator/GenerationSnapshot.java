@@ -0,0 +1,269 @@
+package Generator;
+
+import Global.GenerationConfig;
+import utils.SchemaDiff;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+import utils.TableInfoCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 上次写入代码文件时的表结构快照，存储在目标项目的 .mpgenerator 目录下
+ * 文件开头是每张表的名称、指纹和编码长度，之后是各表的编码内容。
+ * 对比时只读取开头的目录，指纹与本次相同的表不解码；保存时未变化的表直接复制上次的编码，
+ * 因此一次增量生成的开销只与变化的表有关。
+ * 快照同时记录各个包名和代码模板的指纹，包名或模板变化后上次的结果不再可用，所有表都会重新生成。
+ */
+class GenerationSnapshot implements SchemaDiff.Baseline {
+
+    static final String DIRECTORY_NAME = ".mpgenerator";
+    static final String FILE_NAME = "schema_snapshot.bin";
+
+    // 创建 .mpgenerator 目录时写入的 .gitignore：清单、快照和暂存区不提交，templates/ 中的自定义模板可以提交
+    private static final String GITIGNORE = "# MyBatis Plus 代码生成器自动生成\n"
+            + "*.bin\n"
+            + "*.tmp\n"
+            + "staging/\n";
+
+    // 生成的代码格式变化时递增，使已有项目中的所有表重新生成
+    static final int GENERATOR_VERSION = 1;
+
+    private static final int MAGIC = 0x4D505347; // "MPSG"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final boolean present;
+    private final byte[] data;
+    // 小写表名 -> 目录项，按上次的顺序排列
+    private final Map<String, Entry> entries;
+    // 本次生成使用的模板的指纹，保存时写入
+    private final long templateFingerprint;
+    // 本次各表的指纹，对比和保存时共用
+    private final Map<TableInfo, Long> fingerprints = new IdentityHashMap<>();
+
+    private GenerationSnapshot(boolean present, byte[] data, Map<String, Entry> entries, long templateFingerprint) {
+        this.present = present;
+        this.data = data;
+        this.entries = entries;
+        this.templateFingerprint = templateFingerprint;
+    }
+
+    /**
+     * 快照文件位置：<项目路径>/.mpgenerator/schema_snapshot.bin
+     */
+    static Path location(GenerationConfig config) {
+        return Paths.get(config.getProjectPath(), DIRECTORY_NAME, FILE_NAME);
+    }
+
+    /**
+     * 创建项目中的 .mpgenerator 目录；由本程序创建时同时写入 .gitignore，已存在的目录不做改动
+     * @param directory &lt;项目路径&gt;/.mpgenerator
+     */
+    static void createDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try {
+            Files.write(directory.resolve(".gitignore"), GITIGNORE.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW);
+        } catch (FileAlreadyExistsException e) {
+            // 另一个线程或进程同时创建了目录
+        }
+    }
+
+    /**
+     * 读取上次的快照
+     * @param templates 本次生成使用的模板，与上次的模板不同时所有表都视为新增
+     * @return 快照不存在、已损坏或与当前配置不符时返回空快照，所有表都视为新增
+     */
+    static GenerationSnapshot load(GenerationConfig config, TemplateRegistry.Snapshot templates) {
+        long templateFingerprint = templates.fingerprint();
+        GenerationSnapshot empty = new GenerationSnapshot(false, new byte[0], new LinkedHashMap<>(), templateFingerprint);
+        Path file = location(config);
+        if (!Files.isRegularFile(file)) {
+            return empty;
+        }
+        try {
+            byte[] data = Files.readAllBytes(file);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC
+                    || in.readInt() != SNAPSHOT_VERSION
+                    || in.readInt() != TableInfoCodec.FORMAT_VERSION
+                    || in.readInt() != TableFieldExtractor.PARSER_VERSION
+                    || in.readInt() != GENERATOR_VERSION) {
+                return empty;
+            }
+            for (String value : packages(config)) {
+                if (!in.readUTF().equals(value)) {
+                    System.out.println("包路径配置已变化，所有表将重新生成");
+                    return empty;
+                }
+            }
+            if (in.readLong() != templateFingerprint) {
+                System.out.println("代码模板已变化，所有表将重新生成");
+                return empty;
+            }
+            // 每个目录项为表名、指纹和编码长度
+            int tableCount = TableInfoCodec.readCount(in, in.available() / (2 + 8 + 4));
+            List<Entry> list = new ArrayList<>(tableCount);
+            for (int i = 0; i < tableCount; i++) {
+                list.add(new Entry(in.readUTF(), in.readLong(), 0, in.readInt()));
+            }
+            int offset = data.length - in.available();
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (Entry entry : list) {
+                if (entry.length < 0 || entry.length > data.length - offset) {
+                    throw new IOException("表 " + entry.name + " 的内容不完整");
+                }
+                entries.put(key(entry.name), new Entry(entry.name, entry.fingerprint, offset, entry.length));
+                offset += entry.length;
+            }
+            return new GenerationSnapshot(true, data, entries, templateFingerprint);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("表结构快照已损坏，所有表将重新生成: " + e);
+            return empty;
+        }
+    }
+
+    /**
+     * 快照文件是否存在且可用
+     */
+    boolean isPresent() {
+        return present;
+    }
+
+    @Override
+    public List<String> getTableNames() {
+        List<String> names = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            names.add(entry.name);
+        }
+        return names;
+    }
+
+    @Override
+    public TableInfo getTable(String tableName) {
+        Entry entry = entries.get(key(tableName));
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return TableInfoCodec.read(new DataInputStream(new ByteArrayInputStream(data, entry.offset, entry.length)));
+        } catch (IOException | RuntimeException e) {
+            // 无法解码时视为新增，重新生成该表
+            System.err.println("表结构快照中 " + tableName + " 的内容已损坏: " + e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isUnchanged(TableInfo current) {
+        Entry entry = entries.get(key(current.getTableName()));
+        return entry != null && entry.name.equals(current.getTableName()) && entry.fingerprint == fingerprint(current);
+    }
+
+    /**
+     * 保存本次的表结构，先写临时文件再替换，写入中断不会留下损坏的快照
+     */
+    void save(GenerationConfig config, List<TableInfo> tables) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(Math.max(data.length, 1024));
+        DataOutputStream contentOut = new DataOutputStream(content);
+        long[] tableFingerprints = new long[tables.size()];
+        int[] lengths = new int[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            TableInfo table = tables.get(i);
+            tableFingerprints[i] = fingerprint(table);
+            int start = content.size();
+            Entry entry = entries.get(key(table.getTableName()));
+            if (entry != null && entry.name.equals(table.getTableName()) && entry.fingerprint == tableFingerprints[i]) {
+                // 未变化的表直接复制上次的编码
+                content.write(data, entry.offset, entry.length);
+            } else {
+                TableInfoCodec.write(contentOut, table);
+            }
+            lengths[i] = content.size() - start;
+        }
+
+        Path file = location(config);
+        createDirectory(file.getParent());
+        Path tempFile = file.resolveSibling(FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(TableInfoCodec.FORMAT_VERSION);
+            out.writeInt(TableFieldExtractor.PARSER_VERSION);
+            out.writeInt(GENERATOR_VERSION);
+            for (String value : packages(config)) {
+                out.writeUTF(value);
+            }
+            out.writeLong(templateFingerprint);
+            out.writeInt(tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                out.writeUTF(tables.get(i).getTableName());
+                out.writeLong(tableFingerprints[i]);
+                out.writeInt(lengths[i]);
+            }
+            content.writeTo(out);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private long fingerprint(TableInfo table) {
+        Long fingerprint = fingerprints.get(table);
+        if (fingerprint == null) {
+            fingerprint = TableInfoCodec.fingerprint(table);
+            fingerprints.put(table, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static String key(String tableName) {
+        return tableName.toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] packages(GenerationConfig config) {
+        return new String[]{
+                nullToEmpty(config.getEntityOrdomainPackage()), nullToEmpty(config.getMapperPackage()),
+                nullToEmpty(config.getServicePackage()), nullToEmpty(config.getImplPackage()), nullToEmpty(config.getControllerPackage())
+        };
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * 快照目录中的一张表
+     */
+    private static final class Entry {
+        final String name;
+        final long fingerprint;
+        final int offset;
+        final int length;
+
+        Entry(String name, long fingerprint, int offset, int length) {
+            this.name = name;
+            this.fingerprint = fingerprint;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
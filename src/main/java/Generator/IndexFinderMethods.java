@@ -0,0 +1,240 @@
+package Generator;
+
+import utils.TableColumns;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static utils.FieldProcessorUtils.capitalizeFirstLetter;
+import static utils.FieldProcessorUtils.toCamelCase;
+
+/**
+ * 根据表的索引推导按索引查询的方法（Mapper 和 Service 共用）
+ * 每个索引按最左前缀依次生成查询条件：索引 (user_id, status) 生成 ByUserId 和 ByUserIdAndStatus，
+ * WHERE 条件中的字段顺序与索引中的顺序一致，保证查询能够使用该索引。
+ * 条件覆盖了唯一索引的全部字段时查询返回单个实体，否则返回列表。
+ */
+class IndexFinderMethods {
+
+    // BaseMapper 中已有的同名方法，避免生成的方法与其重载
+    private static final List<String> RESERVED_SUFFIXES = Arrays.asList("Id", "Map", "BatchIds");
+
+    // 无法作为查询参数使用的类型
+    private static final List<String> UNSUPPORTED_TYPES = Arrays.asList("Object", "Geometry", "Point", "Polygon");
+
+    /**
+     * 一个按索引查询的方法
+     */
+    static final class Finder {
+        final String suffix;
+        String indexName;
+        final String[] columnNames;
+        final String[] fieldNames;
+        final String[] javaTypes;
+        boolean unique;
+
+        Finder(String suffix, String indexName, String[] columnNames, String[] fieldNames, String[] javaTypes, boolean unique) {
+            this.suffix = suffix;
+            this.indexName = indexName;
+            this.columnNames = columnNames;
+            this.fieldNames = fieldNames;
+            this.javaTypes = javaTypes;
+            this.unique = unique;
+        }
+
+        /**
+         * 方法参数列表，如 "Long userId, Integer status"
+         */
+        String parameters() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < fieldNames.length; i++) {
+                sb.append(i == 0 ? "" : ", ").append(javaTypes[i]).append(' ').append(fieldNames[i]);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * 调用参数列表，如 "userId, status"
+         */
+        String arguments() {
+            return String.join(", ", fieldNames);
+        }
+
+        /**
+         * 方法注释中说明使用的索引，如 "idx_user_status (user_id, status)"
+         */
+        String description() {
+            return indexName + " (" + String.join(", ", columnNames) + ")";
+        }
+    }
+
+    /**
+     * 推导表的全部查询方法，按索引定义的顺序排列，字段组合相同的只保留一个
+     */
+    static List<Finder> of(TableColumns table) {
+        return of(table, null);
+    }
+
+    /**
+     * 推导表的全部查询方法，字段名和 Java 类型取自已派生的 names，为 null 时逐个转换
+     */
+    static List<Finder> of(TableColumns table, TableNames names) {
+        Map<String, Finder> finders = new LinkedHashMap<>();
+        int indexCount = table.getIndexCount();
+        for (int i = 0; i < indexCount; i++) {
+            String indexName = table.getIndexName(i);
+            int columnCount = table.getIndexColumnCount(i);
+            // 单字段主键已有 BaseMapper.selectById
+            if ("PRIMARY".equals(indexName) && columnCount == 1) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder();
+            StringBuilder suffix = new StringBuilder();
+            for (int prefix = 1; prefix <= columnCount; prefix++) {
+                int column = findColumn(table, table.getIndexColumnName(i, prefix - 1));
+                if (column < 0 || UNSUPPORTED_TYPES.contains(javaType(table, names, column))) {
+                    // 之后的前缀都包含这个字段，同样无法生成
+                    break;
+                }
+                String columnName = table.getColumnName(column);
+                key.append(columnName.toLowerCase(Locale.ROOT)).append(',');
+                suffix.append(prefix == 1 ? "" : "And").append(capitalizeFirstLetter(fieldName(table, names, column)));
+                boolean unique = table.isUniqueIndex(i) && prefix == columnCount;
+
+                Finder existing = finders.get(key.toString());
+                if (existing != null) {
+                    if (unique && !existing.unique) {
+                        // 同样的字段组合上有唯一索引，改为返回单个实体
+                        existing.unique = true;
+                        existing.indexName = indexName;
+                    }
+                    continue;
+                }
+                if (RESERVED_SUFFIXES.contains(suffix.toString())) {
+                    continue;
+                }
+                String[] columnNames = new String[prefix];
+                String[] fieldNames = new String[prefix];
+                String[] javaTypes = new String[prefix];
+                for (int p = 0; p < prefix; p++) {
+                    int c = findColumn(table, table.getIndexColumnName(i, p));
+                    columnNames[p] = table.getColumnName(c);
+                    fieldNames[p] = fieldName(table, names, c);
+                    javaTypes[p] = javaType(table, names, c);
+                }
+                finders.put(key.toString(), new Finder(suffix.toString(), indexName, columnNames, fieldNames, javaTypes, unique));
+            }
+        }
+        return new ArrayList<>(finders.values());
+    }
+
+    /**
+     * 一张表的查询方法的模板数据和导入，每张表只推导一次，由 Mapper、Service 和 ServiceImpl 共用
+     * 推导完成后不再修改，多个文件可以同时读取
+     */
+    static final class TableFinders {
+        final List<String> javaImports;
+        final List<Map<String, Object>> templateModels;
+
+        private TableFinders(List<String> javaImports, List<Map<String, Object>> templateModels) {
+            this.javaImports = Collections.unmodifiableList(javaImports);
+            this.templateModels = Collections.unmodifiableList(templateModels);
+        }
+    }
+
+    /**
+     * 推导表的查询方法、导入和模板数据
+     */
+    static TableFinders derive(TableColumns table, TableNames names) {
+        List<Finder> finders = of(table, names);
+        return new TableFinders(new ArrayList<>(javaImports(finders)), templateModels(finders, names.getEntityName()));
+    }
+
+    /**
+     * 参数类型和返回类型需要的 java.* 导入，按字母顺序排列
+     */
+    static TreeSet<String> javaImports(List<Finder> finders) {
+        TreeSet<String> imports = new TreeSet<>();
+        for (Finder finder : finders) {
+            if (!finder.unique) {
+                imports.add("java.util.List");
+            }
+            for (String type : finder.javaTypes) {
+                switch (type) {
+                    case "BigDecimal":
+                    case "BigInteger":
+                        imports.add("java.math." + type);
+                        break;
+                    case "LocalDate":
+                    case "LocalDateTime":
+                    case "LocalTime":
+                    case "Year":
+                        imports.add("java.time." + type);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return imports;
+    }
+
+    /**
+     * 查询方法的返回类型
+     */
+    static String returnType(Finder finder, String entityName) {
+        return finder.unique ? entityName : "List<" + entityName + ">";
+    }
+
+    /**
+     * 查询方法的模板数据，变量说明见 mapper.java.tpl
+     */
+    static List<Map<String, Object>> templateModels(List<Finder> finders, String entityName) {
+        List<Map<String, Object>> models = new ArrayList<>(finders.size());
+        for (Finder finder : finders) {
+            List<Map<String, Object>> conditions = new ArrayList<>(finder.fieldNames.length);
+            for (String fieldName : finder.fieldNames) {
+                Map<String, Object> condition = new HashMap<>(4);
+                condition.put("getter", capitalizeFirstLetter(fieldName));
+                condition.put("field", fieldName);
+                conditions.add(condition);
+            }
+            Map<String, Object> model = new HashMap<>(16);
+            model.put("suffix", finder.suffix);
+            model.put("returnType", returnType(finder, entityName));
+            model.put("parameters", finder.parameters());
+            model.put("arguments", finder.arguments());
+            model.put("description", finder.description());
+            model.put("indexKind", finder.unique ? "唯一索引" : "索引");
+            model.put("unique", finder.unique);
+            model.put("firstGetter", capitalizeFirstLetter(finder.fieldNames[0]));
+            model.put("conditions", conditions);
+            models.add(model);
+        }
+        return models;
+    }
+
+    private static String fieldName(TableColumns table, TableNames names, int column) {
+        return names != null ? names.getFieldName(column) : toCamelCase(table.getColumnName(column));
+    }
+
+    private static String javaType(TableColumns table, TableNames names, int column) {
+        return names != null ? names.getJavaType(column) : table.getJavaType(column);
+    }
+
+    private static int findColumn(TableColumns table, String columnName) {
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            if (table.getColumnName(i).equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,9 +1,12 @@
 package Generator;
 
+import Generator.IndexFinderMethods.TableFinders;
+import Global.GenerationConfig;
 import Global.GlobalTableInfo;
+import utils.TableColumns;
 
-import static utils.FieldProcessorUtils.capitalizeFirstLetter;
-import static utils.FieldProcessorUtils.toCamelCase;
+import java.util.HashMap;
+import java.util.Map;
 
 public class MapperGenerator {
     
@@ -13,7 +16,26 @@ public class MapperGenerator {
      * @return 生成的 Mapper 代码字符串
      */
     public String generateMapperContent(GlobalTableInfo tableInfo) {
-        return buildMapperCode(tableInfo);
+        return buildMapperCode(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Mapper 接口的代码内容（用于文件写入）
+     * @param table 表结构，如 TableInfo 或 SchemaModel 中的表
+     * @param config 提供包路径的全局配置实例。
+     * @return 生成的 Mapper 代码字符串
+     */
+    public String generateMapperContent(TableColumns table, GlobalTableInfo config) {
+        return buildMapperCode(GenerationContext.of(table, config));
+    }
+
+    /**
+     * 生成 Mapper 接口的代码内容（用于文件写入）
+     * @param context 表结构和包路径配置
+     * @return 生成的 Mapper 代码字符串
+     */
+    public String generateMapperContent(GenerationContext context) {
+        return buildMapperCode(context);
     }
     
     /**
@@ -21,7 +43,15 @@ public class MapperGenerator {
      * @param tableInfo 全局表信息
      */
     public void generateMapperTemplate(GlobalTableInfo tableInfo) {
-        String content = buildMapperCode(tableInfo);
+        generateMapperTemplate(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Mapper 接口的代码模板（用于控制台打印）
+     * @param context 表结构和包路径配置
+     */
+    public void generateMapperTemplate(GenerationContext context) {
+        String content = buildMapperCode(context);
         if (content != null) {
             System.out.println("Mapper 接口代码生成完毕");
         }
@@ -29,13 +59,15 @@ public class MapperGenerator {
     
     /**
      * 构建 Mapper 接口的代码
-     * @param tableInfo 全局表信息
+     * @param context 表结构和包路径配置
      * @return 生成的代码字符串
      */
-    private String buildMapperCode(GlobalTableInfo tableInfo) {
-        String tableName = tableInfo.tableName;
-        String mapperPackage = tableInfo.mapperPackage;
-        String entityOrdomainPackage = tableInfo.entityOrdomainPackage;
+    private String buildMapperCode(GenerationContext context) {
+        TableColumns table = context.getTable();
+        GenerationConfig config = context.getConfig();
+        String tableName = context.getTableName();
+        String mapperPackage = config.getMapperPackage();
+        String entityOrdomainPackage = config.getEntityOrdomainPackage();
 
         if (tableName == null || tableName.trim().isEmpty() ||
             mapperPackage == null || mapperPackage.trim().isEmpty() ||
@@ -45,22 +77,29 @@ public class MapperGenerator {
         }
 
         // 1. 从表名生成实体名 (e.g., user_info -> UserInfo)
-        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
+        TableNames names = TableNames.of(context);
 
-        // 2. 构建 Mapper 接口模板
-        String template = String.format(
-                "package %s;\n\n" +
-                "import com.baomidou.mybatisplus.core.mapper.BaseMapper;\n" +
-                "import %s.%s;\n" +
-                "import org.apache.ibatis.annotations.Mapper;\n\n" +
-                "@Mapper\n" +
-                "public interface %sMapper extends BaseMapper<%s> {\n" +
-                "}\n",
-                mapperPackage,
-                entityOrdomainPackage, entityName,
-                entityName, entityName
-        );
+        // 2. 根据索引推导按索引查询的方法
+        return render(context, names, IndexFinderMethods.derive(table, names));
+    }
 
-        return template;
+    /**
+     * 用已派生的类名和查询方法渲染 Mapper 接口，配置已由调用方检查（见 ArtifactGraph）
+     * @param context 表结构和包路径配置
+     * @param names 这张表派生出的类名
+     * @param finders 这张表的查询方法和导入
+     * @return 生成的代码字符串
+     */
+    String render(GenerationContext context, TableNames names, TableFinders finders) {
+        GenerationConfig config = context.getConfig();
+        // 3. 使用模板生成 Mapper 接口
+        Map<String, Object> model = new HashMap<>();
+        model.put("package", config.getMapperPackage());
+        model.put("entityPackage", config.getEntityOrdomainPackage());
+        model.put("entityName", names.getEntityName());
+        model.put("mapperName", names.getMapperName());
+        model.put("javaImports", finders.javaImports);
+        model.put("finders", finders.templateModels);
+        return context.getTemplates().get(TemplateRegistry.MAPPER).render(model);
     }
 }
\ No newline at end of file
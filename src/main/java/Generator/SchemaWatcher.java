@@ -0,0 +1,315 @@
+package Generator;
+
+import Global.FileConfigurationReadingUtils;
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import utils.IncrementalSqlParser;
+import utils.ParseCache;
+import utils.TableFieldExtractor.TableInfo;
+import utils.TableInfoCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 监听目录中的 .sql 文件，文件保存后自动重新生成其中变化了的表
+ * 一次保存通常会连续触发多个文件事件（编辑器先写临时文件再改名等），
+ * 最后一个事件之后安静 {@link #DEFAULT_DEBOUNCE_MILLIS} 毫秒才处理这一批变化。
+ * 只重新解析变化了的文件；每个文件保留自己的增量解析器，未修改的语句直接命中解析缓存，
+ * 文件中定义未变化的表也不会重新写入。
+ * 删除 .sql 文件或其中的表时不删除已有的代码文件（其中可能有手写的代码）。
+ */
+public class SchemaWatcher implements Closeable {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    private final Path directory;
+    private final GenerationConfig config;
+    private final long debounceMillis;
+    private final ParseCache cache;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, WatchedFile> files = new HashMap<>();
+    private volatile Consumer<List<TableInfo>> listener;
+    private volatile boolean closed;
+
+    /**
+     * 每个 .sql 文件的解析状态
+     */
+    private static final class WatchedFile {
+        final IncrementalSqlParser parser;
+        // 小写表名 -> 上次的指纹
+        Map<String, Long> fingerprints = new HashMap<>();
+
+        WatchedFile(ParseCache cache) {
+            this.parser = new IncrementalSqlParser(cache);
+        }
+    }
+
+    /**
+     * 使用默认的防抖时间和全局解析缓存
+     */
+    public SchemaWatcher(Path directory, GenerationConfig config) throws IOException {
+        this(directory, config, DEFAULT_DEBOUNCE_MILLIS, ParseCache.getInstance());
+    }
+
+    /**
+     * @param directory 要监听的目录，子目录同样被监听
+     * @param config 项目路径和包路径配置，监听期间修改界面中的配置不影响这里
+     * @param debounceMillis 最后一个文件事件之后等待多久才开始处理
+     * @param cache 解析缓存，为 null 时不使用缓存
+     */
+    public SchemaWatcher(Path directory, GenerationConfig config, long debounceMillis, ParseCache cache) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("目录不存在: " + directory);
+        }
+        this.directory = directory.toAbsolutePath().normalize();
+        this.config = config;
+        this.debounceMillis = debounceMillis;
+        this.cache = cache;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * 每批变化处理完后接收重新生成的表，在监听线程中调用
+     */
+    public void setListener(Consumer<List<TableInfo>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 在后台线程中开始监听，先解析目录中已有的文件（不生成代码）
+     * @return 监听线程
+     */
+    public Thread start() {
+        Thread thread = new Thread(() -> {
+            try {
+                scan();
+                run();
+            } catch (IOException e) {
+                System.err.println("监听目录时发生错误: " + e.getMessage());
+            }
+        }, "schema-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * 注册目录监听并解析已有的 .sql 文件，作为之后比较的基准，不生成代码
+     * @return 已有文件中的表数量
+     */
+    public int scan() throws IOException {
+        long begin = System.nanoTime();
+        List<Path> sqlFiles = register(directory);
+        int tableCount = 0;
+        for (Path file : sqlFiles) {
+            tableCount += reparse(file, null);
+        }
+        if (cache != null) {
+            cache.saveLater();
+        }
+        System.out.println("开始监听 " + directory + "：" + sqlFiles.size() + " 个SQL文件，" + tableCount + " 张表，耗时 "
+                + (System.nanoTime() - begin) / 1000000 + " ms");
+        return tableCount;
+    }
+
+    /**
+     * 在当前线程中处理文件事件，直到 close 被调用
+     */
+    public void run() {
+        try {
+            while (!closed) {
+                WatchKey key = watchService.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collect(key, changed);
+                // 防抖：直到一段时间内没有新事件才开始处理
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+                if (overflow) {
+                    // 事件过多被丢弃，重新检查所有文件
+                    changed.addAll(files.keySet());
+                    changed.addAll(register(directory));
+                }
+                process(changed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close 被调用，正常结束
+        } catch (IOException e) {
+            System.err.println("监听目录时发生错误: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    /**
+     * 处理一批变化了的文件
+     */
+    private void process(Set<Path> changed) {
+        long begin = System.nanoTime();
+        List<TableInfo> regenerated = new ArrayList<>();
+        for (Path file : changed) {
+            if (Files.isRegularFile(file)) {
+                reparse(file, regenerated);
+            } else if (files.remove(file) != null) {
+                System.out.println("SQL文件已删除: " + file + "，保留已有的代码文件");
+            }
+        }
+        if (!regenerated.isEmpty()) {
+            new BatchCodeWriter(config).write(regenerated);
+        }
+        if (cache != null) {
+            cache.saveLater();
+        }
+        if (!regenerated.isEmpty()) {
+            System.out.println("监听: " + changed.size() + " 个文件变化，重新生成 " + regenerated.size() + " 张表，耗时 "
+                    + (System.nanoTime() - begin) / 1000000 + " ms");
+        }
+        Consumer<List<TableInfo>> current = listener;
+        if (current != null) {
+            current.accept(regenerated);
+        }
+    }
+
+    /**
+     * 重新解析一个文件
+     * @param regenerated 接收定义发生变化的表，为 null 时只记录基准
+     * @return 文件中的表数量
+     */
+    private int reparse(Path file, List<TableInfo> regenerated) {
+        String text;
+        try {
+            text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // 文件可能正在被写入，下一个事件会再次触发
+            System.err.println("读取SQL文件失败: " + file + "，" + e.getMessage());
+            return 0;
+        }
+        if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            text = text.substring(1);
+        }
+        WatchedFile state = files.computeIfAbsent(file, f -> new WatchedFile(cache));
+        state.parser.reset(text);
+        String error = state.parser.getFirstError();
+        if (error != null) {
+            System.err.println(directory.relativize(file) + ": " + error);
+        }
+
+        List<TableInfo> tables = state.parser.getTables();
+        Map<String, Long> fingerprints = new HashMap<>();
+        for (TableInfo table : tables) {
+            String key = table.getTableName().toLowerCase(Locale.ROOT);
+            long fingerprint = TableInfoCodec.fingerprint(table);
+            Long previous = state.fingerprints.get(key);
+            if (regenerated != null && (previous == null || previous != fingerprint)) {
+                regenerated.add(table);
+            }
+            fingerprints.put(key, fingerprint);
+        }
+        state.fingerprints = fingerprints;
+        return tables.size();
+    }
+
+    /**
+     * 读取一个目录的事件
+     * @return 是否发生了事件溢出
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) throws IOException {
+        Path dir = watchedDirectories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                overflow = true;
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                changed.addAll(register(child));
+            } else if (isSqlFile(child)) {
+                changed.add(child);
+            }
+        }
+        if (!key.reset()) {
+            // 目录已被删除，其中的文件按删除处理
+            watchedDirectories.remove(key);
+            for (Path file : files.keySet()) {
+                if (dir != null && file.startsWith(dir)) {
+                    changed.add(file);
+                }
+            }
+        }
+        return overflow;
+    }
+
+    /**
+     * 监听目录及其所有子目录
+     * @return 其中的 .sql 文件
+     */
+    private List<Path> register(Path root) throws IOException {
+        List<Path> sqlFiles = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path)) {
+                    if (!watchedDirectories.containsValue(path)) {
+                        watchedDirectories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), path);
+                    }
+                } else if (isSqlFile(path)) {
+                    sqlFiles.add(path);
+                }
+            }
+        }
+        return sqlFiles;
+    }
+
+    private static boolean isSqlFile(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".sql");
+    }
+
+    /**
+     * 命令行监听：java -cp ... Generator.SchemaWatcher <SQL目录>
+     * 项目路径和包路径从配置文件读取
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法: SchemaWatcher <SQL目录>");
+            System.exit(1);
+        }
+        FileConfigurationReadingUtils.loadConfiguration();
+        GenerationConfig config = GenerationConfig.from(GlobalTableInfo.getInstance());
+        if (config.getProjectPath() == null || config.getProjectPath().isEmpty()) {
+            System.err.println("配置文件中未设置项目路径");
+            System.exit(1);
+        }
+        SchemaWatcher watcher = new SchemaWatcher(Paths.get(args[0]), config);
+        watcher.scan();
+        watcher.run();
+    }
+}
@@ -1,12 +1,17 @@
 package Generator;
 
+import Generator.IndexFinderMethods.TableFinders;
+import Global.GenerationConfig;
 import Global.GlobalTableInfo;
-import static utils.FieldProcessorUtils.capitalizeFirstLetter;
-import static utils.FieldProcessorUtils.toCamelCase;
+import utils.TableColumns;
+
+import java.util.HashMap;
+import java.util.Map;
+
 
 /**
  * Service 和 ServiceImpl 代码生成器。
- * 根据 GlobalTableInfo 中的配置生成相应的模板。
+ * 根据 GenerationContext 中的表结构和包路径配置生成相应的模板，不读取可变的全局变量。
  */
 public class ServiceGenerator {
 
@@ -16,7 +21,26 @@ public class ServiceGenerator {
      * @return 生成的 Service 代码字符串
      */
     public String generateServiceContent(GlobalTableInfo tableInfo) {
-        return buildServiceCode(tableInfo);
+        return buildServiceCode(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Service 接口的代码内容（用于文件写入）
+     * @param table 表结构，如 TableInfo 或 SchemaModel 中的表
+     * @param config 提供包路径的全局配置实例。
+     * @return 生成的 Service 代码字符串
+     */
+    public String generateServiceContent(TableColumns table, GlobalTableInfo config) {
+        return buildServiceCode(GenerationContext.of(table, config));
+    }
+
+    /**
+     * 生成 Service 接口的代码内容（用于文件写入）
+     * @param context 表结构和包路径配置
+     * @return 生成的 Service 代码字符串
+     */
+    public String generateServiceContent(GenerationContext context) {
+        return buildServiceCode(context);
     }
 
     /**
@@ -25,7 +49,26 @@ public class ServiceGenerator {
      * @return 生成的 ServiceImpl 代码字符串
      */
     public String generateServiceImplContent(GlobalTableInfo tableInfo) {
-        return buildServiceImplCode(tableInfo);
+        return buildServiceImplCode(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 ServiceImpl 实现类的代码内容（用于文件写入）
+     * @param table 表结构，如 TableInfo 或 SchemaModel 中的表
+     * @param config 提供包路径的全局配置实例。
+     * @return 生成的 ServiceImpl 代码字符串
+     */
+    public String generateServiceImplContent(TableColumns table, GlobalTableInfo config) {
+        return buildServiceImplCode(GenerationContext.of(table, config));
+    }
+
+    /**
+     * 生成 ServiceImpl 实现类的代码内容（用于文件写入）
+     * @param context 表结构和包路径配置
+     * @return 生成的 ServiceImpl 代码字符串
+     */
+    public String generateServiceImplContent(GenerationContext context) {
+        return buildServiceImplCode(context);
     }
 
     /**
@@ -33,8 +76,16 @@ public class ServiceGenerator {
      * @param tableInfo 包含所有路径和表信息的全局配置实例。
      */
     public void generateServiceAndImplTemplates(GlobalTableInfo tableInfo) {
-        String serviceContent = buildServiceCode(tableInfo);
-        String serviceImplContent = buildServiceImplCode(tableInfo);
+        generateServiceAndImplTemplates(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Service 接口和 ServiceImpl 实现类的代码模板（用于控制台打印）
+     * @param context 表结构和包路径配置
+     */
+    public void generateServiceAndImplTemplates(GenerationContext context) {
+        String serviceContent = buildServiceCode(context);
+        String serviceImplContent = buildServiceImplCode(context);
         
         if (serviceContent != null && serviceImplContent != null) {
             System.out.println("Service 接口代码生成完毕");
@@ -44,14 +95,16 @@ public class ServiceGenerator {
 
     /**
      * 构建 Service 接口的代码
-     * @param tableInfo 包含所有路径和表信息的全局配置实例。
+     * @param context 表结构和包路径配置
      * @return 生成的代码字符串
      */
-    private String buildServiceCode(GlobalTableInfo tableInfo) {
-        // 1. 从全局配置中获取所需信息
-        String tableName = tableInfo.tableName;
-        String servicePackage = tableInfo.servicePackage;
-        String entityOrdomainPackage = tableInfo.entityOrdomainPackage;
+    private String buildServiceCode(GenerationContext context) {
+        TableColumns table = context.getTable();
+        GenerationConfig config = context.getConfig();
+        // 1. 从生成上下文中获取所需信息
+        String tableName = context.getTableName();
+        String servicePackage = config.getServicePackage();
+        String entityOrdomainPackage = config.getEntityOrdomainPackage();
 
         // 2. 检查关键信息是否缺失
         if (tableName == null || tableName.trim().isEmpty() ||
@@ -62,36 +115,45 @@ public class ServiceGenerator {
         }
 
         // 3. 根据表名派生出相关的类名
-        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
-        String serviceName = entityName + "Service";
-
-        // 4. 构建 Service 接口的代码模板
-        String serviceTemplate = String.format(
-            "package %s;\n\n" +
-            "import %s.%s;\n" +
-            "import com.baomidou.mybatisplus.extension.service.IService;\n\n" +
-            "public interface %s extends IService<%s> {\n" +
-            "}\n",
-            servicePackage,
-            entityOrdomainPackage, entityName,
-            serviceName, entityName
-        );
-
-        return serviceTemplate;
+        TableNames names = TableNames.of(context);
+
+        // 4. 根据索引推导按索引查询的方法
+        return renderService(context, names, IndexFinderMethods.derive(table, names));
+    }
+
+    /**
+     * 用已派生的类名和查询方法渲染 Service 接口，配置已由调用方检查（见 ArtifactGraph）
+     * @param context 表结构和包路径配置
+     * @param names 这张表派生出的类名
+     * @param finders 这张表的查询方法和导入，与 Mapper 共用
+     * @return 生成的代码字符串
+     */
+    String renderService(GenerationContext context, TableNames names, TableFinders finders) {
+        GenerationConfig config = context.getConfig();
+        // 5. 使用模板生成 Service 接口
+        Map<String, Object> model = new HashMap<>();
+        model.put("package", config.getServicePackage());
+        model.put("entityPackage", config.getEntityOrdomainPackage());
+        model.put("entityName", names.getEntityName());
+        model.put("serviceName", names.getServiceName());
+        putFinders(model, finders);
+        return context.getTemplates().get(TemplateRegistry.SERVICE).render(model);
     }
 
     /**
      * 构建 ServiceImpl 实现类的代码
-     * @param tableInfo 包含所有路径和表信息的全局配置实例。
+     * @param context 表结构和包路径配置
      * @return 生成的代码字符串
      */
-    private String buildServiceImplCode(GlobalTableInfo tableInfo) {
-        // 1. 从全局配置中获取所需信息
-        String tableName = tableInfo.tableName;
-        String implPackage = tableInfo.implPackage;
-        String entityOrdomainPackage = tableInfo.entityOrdomainPackage;
-        String mapperPackage = tableInfo.mapperPackage;
-        String servicePackage = tableInfo.servicePackage;
+    private String buildServiceImplCode(GenerationContext context) {
+        TableColumns table = context.getTable();
+        GenerationConfig config = context.getConfig();
+        // 1. 从生成上下文中获取所需信息
+        String tableName = context.getTableName();
+        String implPackage = config.getImplPackage();
+        String entityOrdomainPackage = config.getEntityOrdomainPackage();
+        String mapperPackage = config.getMapperPackage();
+        String servicePackage = config.getServicePackage();
 
         // 2. 检查关键信息是否缺失
         if (tableName == null || tableName.trim().isEmpty() ||
@@ -104,29 +166,40 @@ public class ServiceGenerator {
         }
 
         // 3. 根据表名派生出相关的类名
-        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
-        String serviceName = entityName + "Service";
-        String serviceImplName = serviceName + "Impl";
-        String mapperName = entityName + "Mapper";
-
-        // 4. 构建 ServiceImpl 实现类的代码模板
-        String serviceImplTemplate = String.format(
-            "package %s;\n\n" +
-            "import %s.%s;\n" +
-            "import %s.%s;\n" +
-            "import %s.%s;\n" +
-            "import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;\n" +
-            "import org.springframework.stereotype.Service;\n\n" +
-            "@Service\n" +
-            "public class %s extends ServiceImpl<%s, %s> implements %s {\n" +
-            "}\n",
-            implPackage,
-            entityOrdomainPackage, entityName,
-            mapperPackage, mapperName,
-            servicePackage, serviceName,
-            serviceImplName, mapperName, entityName, serviceName
-        );
-
-        return serviceImplTemplate;
+        TableNames names = TableNames.of(context);
+
+        // 4. 根据索引推导按索引查询的方法，实现委托给 Mapper 中的同名方法
+        return renderServiceImpl(context, names, IndexFinderMethods.derive(table, names));
+    }
+
+    /**
+     * 用已派生的类名和查询方法渲染 ServiceImpl 实现类，配置已由调用方检查（见 ArtifactGraph）
+     * @param context 表结构和包路径配置
+     * @param names 这张表派生出的类名
+     * @param finders 这张表的查询方法和导入，与 Mapper 共用
+     * @return 生成的代码字符串
+     */
+    String renderServiceImpl(GenerationContext context, TableNames names, TableFinders finders) {
+        GenerationConfig config = context.getConfig();
+        // 5. 使用模板生成 ServiceImpl 实现类
+        Map<String, Object> model = new HashMap<>();
+        model.put("package", config.getImplPackage());
+        model.put("entityPackage", config.getEntityOrdomainPackage());
+        model.put("mapperPackage", config.getMapperPackage());
+        model.put("servicePackage", config.getServicePackage());
+        model.put("entityName", names.getEntityName());
+        model.put("mapperName", names.getMapperName());
+        model.put("serviceName", names.getServiceName());
+        model.put("serviceImplName", names.getServiceImplName());
+        putFinders(model, finders);
+        return context.getTemplates().get(TemplateRegistry.SERVICE_IMPL).render(model);
+    }
+
+    /**
+     * 放入查询方法及其参数和返回类型需要的 java.* 导入
+     */
+    private void putFinders(Map<String, Object> model, TableFinders finders) {
+        model.put("javaImports", finders.javaImports);
+        model.put("finders", finders.templateModels);
     }
-}
\ No newline at end of file
+}
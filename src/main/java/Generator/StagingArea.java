@@ -0,0 +1,246 @@
+package Generator;
+
+import Global.GenerationConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 代码文件的暂存区，位于目标项目的 .mpgenerator/staging 目录下
+ * 生成的内容先写入暂存区，一张表的全部文件都暂存成功后在提交前集中同步到磁盘，再通过原子改名一起移动到目标位置；
+ * 每个目标文件只经过一次原子替换（ATOMIC_MOVE + REPLACE_EXISTING），任何时刻都存在且内容完整，
+ * 被替换的原文件事先以硬链接（不支持时复制）保留一份。移动过程中任何一步失败，
+ * 已移动的文件都会恢复为原来的内容（原来不存在的文件被删除），不会留下只生成了一半的表。
+ * 暂存区与项目在同一个文件系统中，改名不需要复制文件内容。
+ * 一次生成（可能在多个线程中）共用一个暂存区，每张表是一个 {@link Transaction}；
+ * 结束时 {@link #close()} 对每个写入过文件的目录同步一次，使改名本身持久化，并删除暂存区。
+ */
+class StagingArea {
+
+    static final String DIRECTORY_NAME = "staging";
+
+    // 程序中断后遗留的暂存目录，超过这个时间后删除
+    private static final long STALE_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private final Path directory;
+    private final AtomicLong counter = new AtomicLong();
+    // 本次有文件移入的目录
+    private final Set<Path> touchedDirectories = ConcurrentHashMap.newKeySet();
+
+    private StagingArea(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 在项目中创建本次生成的暂存目录
+     */
+    static StagingArea create(GenerationConfig config) throws IOException {
+        Path projectRoot = Paths.get(config.getProjectPath() != null ? config.getProjectPath() : "").toAbsolutePath().normalize();
+        Path parent = projectRoot.resolve(GenerationSnapshot.DIRECTORY_NAME).resolve(DIRECTORY_NAME);
+        GenerationSnapshot.createDirectory(parent.getParent());
+        Files.createDirectories(parent);
+        deleteStale(parent);
+        return new StagingArea(Files.createTempDirectory(parent, "run-"));
+    }
+
+    /**
+     * 开始一个事务
+     */
+    Transaction begin() {
+        return new Transaction();
+    }
+
+    /**
+     * 同步本次写入过文件的目录并删除暂存目录
+     */
+    void close() {
+        for (Path dir : touchedDirectories) {
+            syncDirectory(dir);
+        }
+        touchedDirectories.clear();
+        try {
+            deleteRecursively(directory);
+        } catch (IOException e) {
+            System.err.println("删除暂存目录失败: " + directory + "，" + e.getMessage());
+        }
+    }
+
+    /**
+     * 一组一起提交或一起回滚的文件
+     */
+    final class Transaction {
+        private final List<StagedFile> files = new ArrayList<>();
+
+        /**
+         * 把文件内容写入暂存区，暂不同步到磁盘；同步在 {@link #commit()} 中对所有暂存的文件一起进行
+         * @param target 提交后的目标文件，所在目录必须已存在
+         */
+        void stage(Path target, byte[] content) throws IOException {
+            if (Files.isDirectory(target)) {
+                throw new IOException("目标位置已存在同名目录: " + target);
+            }
+            Path staged = directory.resolve(counter.incrementAndGet() + ".tmp");
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            files.add(new StagedFile(target, staged));
+        }
+
+        /**
+         * 把所有暂存的文件同步到磁盘后移动到目标位置，改名之后断电也不会得到空文件或不完整的文件；
+         * 任何一步失败时恢复已移动的文件后抛出异常
+         */
+        void commit() throws IOException {
+            try {
+                // 全部文件写完后再逐个同步，操作系统可以在写入其余文件的同时回写前面的文件，等待的时间合并为一次
+                for (StagedFile file : files) {
+                    try (FileChannel channel = FileChannel.open(file.staged, StandardOpenOption.WRITE)) {
+                        channel.force(true);
+                    }
+                }
+                for (StagedFile file : files) {
+                    if (Files.isDirectory(file.target)) {
+                        throw new IOException("目标位置已存在同名目录: " + file.target);
+                    }
+                    if (Files.exists(file.target)) {
+                        // 原来的文件在暂存区中保留一份，回滚时替换回去；目标文件本身不移动，始终存在
+                        Path backup = directory.resolve(counter.incrementAndGet() + ".bak");
+                        keepCopy(file.target, backup);
+                        file.backup = backup;
+                    }
+                    move(file.staged, file.target);
+                    file.committed = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                rollback();
+                throw e;
+            }
+            for (StagedFile file : files) {
+                touchedDirectories.add(file.target.getParent());
+                if (file.backup != null) {
+                    Files.deleteIfExists(file.backup);
+                }
+            }
+            files.clear();
+        }
+
+        /**
+         * 放弃暂存的文件，已移动到目标位置的文件恢复为原来的内容
+         */
+        void rollback() {
+            for (int i = files.size() - 1; i >= 0; i--) {
+                StagedFile file = files.get(i);
+                try {
+                    if (file.committed) {
+                        if (file.backup != null) {
+                            move(file.backup, file.target);
+                        } else {
+                            Files.deleteIfExists(file.target);
+                        }
+                    } else {
+                        // 目标文件还没有被替换，只需清理暂存区
+                        if (file.backup != null) {
+                            Files.deleteIfExists(file.backup);
+                        }
+                        Files.deleteIfExists(file.staged);
+                    }
+                } catch (IOException e) {
+                    System.err.println("回滚文件失败: " + file.target + "，" + e.getMessage()
+                            + (file.backup != null ? "，原文件保存在 " + file.backup : ""));
+                }
+            }
+            files.clear();
+        }
+    }
+
+    /**
+     * 一个暂存的文件
+     */
+    private static final class StagedFile {
+        final Path target;
+        final Path staged;
+        // 被替换的原文件在暂存区中的位置，原来不存在时为 null
+        Path backup;
+        boolean committed;
+
+        StagedFile(Path target, Path staged) {
+            this.target = target;
+            this.staged = staged;
+        }
+    }
+
+    /**
+     * 在暂存区中保留原文件：优先建立硬链接，不复制内容；暂存区与目标不在同一个文件系统或不支持硬链接时复制
+     */
+    private static void keepCopy(Path source, Path backup) throws IOException {
+        try {
+            Files.createLink(backup, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.deleteIfExists(backup);
+            Files.copy(source, backup, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // 暂存区与目标不在同一个文件系统中（如目标目录是挂载点）
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 同步目录，使其中的改名在断电后仍然有效；不支持打开目录的平台（如 Windows）上忽略
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 不支持目录同步
+        }
+    }
+
+    private static void deleteStale(Path parent) {
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> runs = Files.newDirectoryStream(parent)) {
+            for (Path run : runs) {
+                if (now - Files.getLastModifiedTime(run).toMillis() > STALE_MILLIS) {
+                    deleteRecursively(run);
+                }
+            }
+        } catch (IOException e) {
+            // 遗留的暂存目录只占用空间，不影响本次生成
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,527 @@
+package Generator;
+
+import Global.GenerationConfig;
+import utils.ParseCache;
+import utils.ParseDiagnostic;
+import utils.StandaloneIndexes;
+import utils.StreamingSchemaParser;
+import utils.StreamingSchemaParser.RawStatement;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 从建表语句到代码文件的流式流水线：扫描 -> 解析 -> 渲染 -> 写入，各阶段之间是有界队列
+ * 扫描线程每取出一张表先申请一个许可，表写入完成（或失败）后才归还，
+ * 因此任意时刻最多只有 maxInFlight 张表的语句、表结构和渲染结果在内存中，峰值内存与表的总数无关。
+ * 解析和渲染在各自的线程池中并行执行；写入只有一个线程，并按表在输入中的顺序写入，
+ * 生成的类名相同的表与 {@link BatchCodeWriter} 一样由后面的表覆盖前面的表。
+ * 单独的 CREATE INDEX 语句可能出现在表之后很远的位置（如 pg_dump 把索引放在文件末尾），
+ * 因此开始前先读一遍输入只解析其中的索引语句，每张表解析后立即补充它的索引，再交给渲染线程。
+ * 每个阶段记录忙碌时间，运行结束后报告各阶段的利用率，利用率最高的阶段就是瓶颈。
+ * <p>
+ * maxInFlight 不限制以下两项：
+ * <ul>
+ * <li>预先读取的所有单独的 CREATE INDEX 语句（{@link StandaloneIndexes}）在整个运行期间都保存在内存中，
+ *     占用的内存与这类语句的数量成正比；表定义中内联的索引不受影响。</li>
+ * <li>{@link #run(InputStream)} 先把整个输入转存到系统临时目录，需要与输入（压缩输入按压缩后的大小）
+ *     相同的磁盘空间，转存完成后才开始生成；按文件处理时没有这一步。</li>
+ * </ul>
+ */
+public class StreamingPipeline {
+
+    // 默认同时在流水线中的表数量
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private final GenerationConfig config;
+    private final int maxInFlight;
+    private final int parseThreads;
+    private final int renderThreads;
+    private final ParseCache cache;
+
+    /**
+     * 解析和渲染各使用一半的 CPU 核数，不使用解析缓存（缓存中的表会随输入增长）
+     * @param config 项目路径和包路径配置
+     * @param maxInFlight 同时在流水线中的表数量上限
+     */
+    public StreamingPipeline(GenerationConfig config, int maxInFlight) {
+        this(config, maxInFlight, Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2), null);
+    }
+
+    /**
+     * @param config 项目路径和包路径配置
+     * @param maxInFlight 同时在流水线中的表数量上限
+     * @param parseThreads 解析线程数
+     * @param renderThreads 渲染线程数
+     * @param cache 解析缓存，为 null 时不使用缓存
+     */
+    public StreamingPipeline(GenerationConfig config, int maxInFlight, int parseThreads, int renderThreads, ParseCache cache) {
+        if (maxInFlight < 1 || parseThreads < 1 || renderThreads < 1) {
+            throw new IllegalArgumentException("表数量上限和线程数必须大于0: " + maxInFlight + ", " + parseThreads + ", " + renderThreads);
+        }
+        this.config = config;
+        this.maxInFlight = maxInFlight;
+        this.parseThreads = parseThreads;
+        this.renderThreads = renderThreads;
+        this.cache = cache;
+    }
+
+    /**
+     * 一个阶段的运行统计
+     */
+    public static class StageStats {
+        private final String name;
+        private final int threads;
+        private final long items;
+        private final long busyNanos;
+        private final long elapsedNanos;
+
+        StageStats(String name, int threads, long items, long busyNanos, long elapsedNanos) {
+            this.name = name;
+            this.threads = threads;
+            this.items = items;
+            this.busyNanos = busyNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getName() { return name; }
+        public int getThreads() { return threads; }
+        /** 处理的表数量 */
+        public long getItems() { return items; }
+        /** 所有线程处理表的时间之和，不含等待上游和等待许可的时间 */
+        public long getBusyNanos() { return busyNanos; }
+
+        /**
+         * 利用率：忙碌时间占该阶段所有线程运行时间的比例
+         */
+        public double getUtilization() {
+            return elapsedNanos > 0 ? Math.min(1.0, (double) busyNanos / ((double) elapsedNanos * threads)) : 0;
+        }
+    }
+
+    /**
+     * 一次运行的结果
+     */
+    public static class Result {
+        private final int tableCount;
+        private final List<ParseDiagnostic> diagnostics;
+        private final List<BatchCodeWriter.Failure> failures;
+        private final int writtenFiles;
+        private final int skippedFiles;
+        private final int peakInFlight;
+        private final long elapsedNanos;
+        private final List<StageStats> stages;
+
+        Result(int tableCount, List<ParseDiagnostic> diagnostics, List<BatchCodeWriter.Failure> failures, int writtenFiles,
+               int skippedFiles, int peakInFlight, long elapsedNanos, List<StageStats> stages) {
+            this.tableCount = tableCount;
+            this.diagnostics = Collections.unmodifiableList(diagnostics);
+            this.failures = Collections.unmodifiableList(failures);
+            this.writtenFiles = writtenFiles;
+            this.skippedFiles = skippedFiles;
+            this.peakInFlight = peakInFlight;
+            this.elapsedNanos = elapsedNanos;
+            this.stages = Collections.unmodifiableList(stages);
+        }
+
+        /** 扫描到的建表语句数量 */
+        public int getTableCount() { return tableCount; }
+        /** 无法解析的语句 */
+        public List<ParseDiagnostic> getDiagnostics() { return diagnostics; }
+        /** 生成或写入失败的表，下标为语句在输入中的序号 */
+        public List<BatchCodeWriter.Failure> getFailures() { return failures; }
+        public int getWrittenFiles() { return writtenFiles; }
+        public int getSkippedFiles() { return skippedFiles; }
+        /** 实际同时在流水线中的表数量的最大值 */
+        public int getPeakInFlight() { return peakInFlight; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        /** 扫描、解析、渲染、写入四个阶段的统计 */
+        public List<StageStats> getStages() { return stages; }
+
+        /**
+         * 利用率最高的阶段
+         */
+        public StageStats getBottleneck() {
+            StageStats bottleneck = stages.get(0);
+            for (StageStats stage : stages) {
+                if (stage.getUtilization() > bottleneck.getUtilization()) {
+                    bottleneck = stage;
+                }
+            }
+            return bottleneck;
+        }
+
+        public String summary() {
+            return String.format("%d 张表，%d 条语句解析失败，%d 张表生成失败，写入 %d 个文件，跳过 %d 个未变化的文件，"
+                            + "最多同时 %d 张表，耗时 %d ms，瓶颈: %s",
+                    tableCount, diagnostics.size(), failures.size(), writtenFiles, skippedFiles, peakInFlight,
+                    elapsedNanos / 1000000, getBottleneck().getName());
+        }
+
+        /**
+         * 各阶段的利用率报告，每个阶段一行
+         */
+        public String stageReport() {
+            StringBuilder sb = new StringBuilder();
+            for (StageStats stage : stages) {
+                sb.append(String.format("  %-4s %2d 个线程，处理 %6d 张表，忙碌 %7d ms，利用率 %5.1f%%%n",
+                        stage.getName(), stage.getThreads(), stage.getItems(), stage.getBusyNanos() / 1000000,
+                        stage.getUtilization() * 100));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 流式处理一个建表文件，.sql、.sql.gz 和 .zip 导出都边读边处理，返回时所有线程都已结束
+     * 文件会被读两遍：第一遍只解析单独的 CREATE INDEX 语句，第二遍生成代码。
+     * @throws IOException 读取输入失败；已经取出的表仍会处理完
+     */
+    public Result run(Path schemaFile) throws IOException {
+        long begin = System.nanoTime();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        StandaloneIndexes indexes;
+        try (InputStream in = Files.newInputStream(schemaFile)) {
+            indexes = StandaloneIndexes.scan(in, diagnostics::add);
+        }
+        try (InputStream in = Files.newInputStream(schemaFile)) {
+            return run(in, indexes, diagnostics, begin);
+        }
+    }
+
+    /**
+     * 流式处理输入中的所有建表语句，返回时所有线程都已结束
+     * 输入只能读一遍，而索引语句需要提前读取，因此先把输入原样转存到临时文件（压缩输入不解压），再按文件处理。
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入，由调用方关闭
+     * @throws IOException 读取输入失败；已经取出的表仍会处理完
+     */
+    public Result run(InputStream in) throws IOException {
+        Path spool = Files.createTempFile("generator-pipeline-", ".sql");
+        try {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            return run(spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * @param indexes 预先读取的单独的 CREATE INDEX 语句
+     * @param diagnostics 预先读取时无法解析的索引语句，解析失败的建表语句按输入顺序追加在后面
+     * @param begin 开始时间，包含预先读取的时间
+     */
+    private Result run(InputStream in, StandaloneIndexes indexes, List<ParseDiagnostic> diagnostics, long begin) throws IOException {
+        // 所有表使用同一版本的模板，生成期间修改模板文件不影响本次生成
+        TemplateRegistry.Snapshot templates = TemplateRegistry.forConfig(config).snapshot();
+        GenerationManifest manifest = GenerationManifest.load(config);
+        StagingArea staging = StagingArea.create(config);
+
+        Stage scan = new Stage("扫描", 1);
+        Stage parse = new Stage("解析", parseThreads);
+        Stage render = new Stage("渲染", renderThreads);
+        Stage write = new Stage("写入", 1);
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        // 许可限制了流水线中的表数量，各队列不会超过这个数量；写入队列额外放一个结束标记
+        BlockingQueue<Item> parseQueue = new ArrayBlockingQueue<>(maxInFlight);
+        BlockingQueue<Item> renderQueue = new ArrayBlockingQueue<>(maxInFlight);
+        BlockingQueue<Item> writeQueue = new ArrayBlockingQueue<>(maxInFlight + 1);
+        // 开始后只由写入线程按输入顺序添加
+        List<BatchCodeWriter.Failure> failures = new ArrayList<>();
+
+        ExecutorService workers = Executors.newFixedThreadPool(parseThreads + renderThreads + 1, new WorkerFactory());
+        // 解析和渲染线程只在被中断时结束，提前结束说明线程意外退出
+        List<Future<?>> stageWorkers = new ArrayList<>();
+        long sequence = 0;
+        IOException readError = null;
+        try {
+            for (int i = 0; i < parseThreads; i++) {
+                stageWorkers.add(workers.submit(() -> runStage(parse, parseQueue, item -> {
+                    try {
+                        item.table = item.statement.parse(cache);
+                        indexes.applyTo(item.table, item.sequence);
+                    } catch (RuntimeException e) {
+                        item.diagnostic = item.statement.diagnose(e);
+                    } catch (Throwable e) {
+                        // Error 也要交给写入线程记为失败，否则这张表的许可不会归还，流水线会一直等待
+                        item.error = e;
+                    }
+                    item.statement = null;
+                    (item.diagnostic != null || item.error != null ? writeQueue : renderQueue).put(item);
+                })));
+            }
+            for (int i = 0; i < renderThreads; i++) {
+                stageWorkers.add(workers.submit(() -> runStage(render, renderQueue, item -> {
+                    try {
+                        item.result = GenerationResult.render(new GenerationContext(item.table, config, templates));
+                    } catch (Throwable e) {
+                        item.error = e;
+                    }
+                    writeQueue.put(item);
+                })));
+            }
+            Future<?> writer = workers.submit(() -> {
+                writeInOrder(write, writeQueue, manifest, staging, diagnostics, failures, permits, inFlight);
+                return null;
+            });
+
+            // 扫描在调用线程中进行，每张表先取得许可再交给解析线程
+            long[] next = {0};
+            long[] waited = {0};
+            try {
+                StreamingSchemaParser.extractStatements(in, statement -> {
+                    Item item = new Item(next[0]++);
+                    item.statement = statement;
+                    try {
+                        long waitBegin = System.nanoTime();
+                        // 工作线程意外结束时不会再归还许可，不能一直等待
+                        while (!permits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                            if (writer.isDone() || firstDone(stageWorkers) != null) {
+                                throw new IllegalStateException("工作线程意外结束");
+                            }
+                        }
+                        waited[0] += System.nanoTime() - waitBegin;
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        parseQueue.put(item);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("流水线被中断", e);
+                    }
+                });
+            } catch (IOException e) {
+                readError = e;
+            }
+            sequence = next[0];
+            scan.items.set(sequence);
+            scan.busyNanos.set(System.nanoTime() - begin - waited[0]);
+            scan.finish();
+
+            try {
+                writeQueue.put(Item.end(sequence));
+                awaitWriter(writer, stageWorkers);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("流水线被中断", e);
+            }
+        } finally {
+            workers.shutdownNow();
+            staging.close();
+            manifest.save();
+        }
+        if (readError != null) {
+            throw readError;
+        }
+
+        long elapsed = System.nanoTime() - begin;
+        parse.finish();
+        render.finish();
+        List<StageStats> stages = Arrays.asList(scan.snapshot(), parse.snapshot(), render.snapshot(), write.snapshot());
+        Result result = new Result((int) sequence, diagnostics, failures, manifest.getWrittenCount(),
+                manifest.getSkippedCount(), peakInFlight.get(), elapsed, stages);
+        for (ParseDiagnostic diagnostic : diagnostics) {
+            System.err.println("跳过无法解析的语句: " + diagnostic);
+        }
+        for (BatchCodeWriter.Failure failure : failures) {
+            System.err.println("写入 " + failure.getTableName() + " 的代码文件时发生错误: " + failure.getMessage());
+        }
+        System.out.println("=== 流式生成完成: " + result.summary() + " ===");
+        System.out.print(result.stageReport());
+        return result;
+    }
+
+    /**
+     * 写入线程：按序号重新排序后依次写入，每处理完一张表（包括失败的表）归还一个许可
+     */
+    private void writeInOrder(Stage write, BlockingQueue<Item> writeQueue, GenerationManifest manifest, StagingArea staging,
+                              List<ParseDiagnostic> diagnostics, List<BatchCodeWriter.Failure> failures,
+                              Semaphore permits, AtomicInteger inFlight)
+            throws InterruptedException {
+        // 提前到达的表，最多 maxInFlight 张
+        Map<Long, Item> arrived = new HashMap<>();
+        long next = 0;
+        long end = -1;
+        while (end < 0 || next < end) {
+            Item item = writeQueue.take();
+            if (item.isEnd()) {
+                end = item.sequence;
+                continue;
+            }
+            arrived.put(item.sequence, item);
+            for (Item ready; (ready = arrived.remove(next)) != null; next++) {
+                long busyBegin = System.nanoTime();
+                if (ready.diagnostic != null) {
+                    diagnostics.add(ready.diagnostic);
+                } else if (ready.error != null) {
+                    failures.add(new BatchCodeWriter.Failure((int) ready.sequence, tableName(ready), ready.error));
+                } else {
+                    try {
+                        CodeFileWriter.writeCodeFiles(ready.result, manifest, staging, false);
+                    } catch (Throwable e) {
+                        failures.add(new BatchCodeWriter.Failure((int) ready.sequence, ready.table.getTableName(), e));
+                    }
+                }
+                write.busyNanos.addAndGet(System.nanoTime() - busyBegin);
+                write.items.incrementAndGet();
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+        write.finish();
+    }
+
+    /**
+     * 等待写入线程处理完所有表；解析或渲染线程意外结束时剩下的表不会再到达写入线程，立即失败
+     */
+    private static void awaitWriter(Future<?> writer, List<Future<?>> stageWorkers) throws IOException, InterruptedException {
+        while (true) {
+            try {
+                writer.get(100, TimeUnit.MILLISECONDS);
+                return;
+            } catch (ExecutionException e) {
+                throw new IOException("写入线程意外结束: " + e.getCause(), e.getCause());
+            } catch (TimeoutException e) {
+                Future<?> dead = firstDone(stageWorkers);
+                if (dead != null) {
+                    try {
+                        dead.get();
+                    } catch (ExecutionException failure) {
+                        throw new IOException("解析或渲染线程意外结束: " + failure.getCause(), failure.getCause());
+                    }
+                    throw new IOException("解析或渲染线程意外结束");
+                }
+            }
+        }
+    }
+
+    private static Future<?> firstDone(List<Future<?>> workers) {
+        for (Future<?> worker : workers) {
+            if (worker.isDone()) {
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析失败的表没有表结构，用序号代替表名
+     */
+    private static String tableName(Item item) {
+        return item.table != null ? item.table.getTableName() : "第 " + (item.sequence + 1) + " 条建表语句";
+    }
+
+    /**
+     * 解析和渲染线程的循环：从队列中取出表处理后交给下一个阶段，直到被中断
+     */
+    private static void runStage(Stage stage, BlockingQueue<Item> queue, ItemHandler handler) {
+        try {
+            while (true) {
+                Item item = queue.take();
+                long busyBegin = System.nanoTime();
+                handler.handle(item);
+                stage.busyNanos.addAndGet(System.nanoTime() - busyBegin);
+                stage.items.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            // 写入线程结束后由 shutdownNow 中断
+        }
+    }
+
+    private interface ItemHandler {
+        void handle(Item item) throws InterruptedException;
+    }
+
+    /**
+     * 流水线中的一张表，各阶段依次填入结果并释放上一阶段的数据
+     */
+    private static final class Item {
+        final long sequence;
+        RawStatement statement;
+        TableInfo table;
+        GenerationResult result;
+        // 语句无法解析时的诊断信息
+        ParseDiagnostic diagnostic;
+        // 解析时抛出 Error 或渲染失败的原因
+        Throwable error;
+        private boolean end;
+
+        Item(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * 结束标记，sequence 为表的总数
+         */
+        static Item end(long count) {
+            Item item = new Item(count);
+            item.end = true;
+            return item;
+        }
+
+        boolean isEnd() { return end; }
+    }
+
+    /**
+     * 一个阶段的计数器
+     */
+    private static final class Stage {
+        final String name;
+        final int threads;
+        final AtomicLong items = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        final long begin = System.nanoTime();
+        volatile long end;
+
+        Stage(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        void finish() {
+            if (end == 0) {
+                end = System.nanoTime();
+            }
+        }
+
+        StageStats snapshot() {
+            return new StageStats(name, threads, items.get(), busyNanos.get(), (end != 0 ? end : System.nanoTime()) - begin);
+        }
+    }
+
+    /**
+     * 工作线程设为守护线程，不阻止程序退出
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "generator-pipeline-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package Generator;
+
+import utils.TableColumns;
+
+import static utils.FieldProcessorUtils.toCamelCase;
+
+/**
+ * 一张表派生出的类名、路径和字段映射
+ * 每张表只计算一次，由五个代码文件（以及自定义的文件生成器）共用，
+ * 不再由每个生成器各自从表名推导类名、逐个字段转换驼峰名和 Java 类型。
+ */
+public final class TableNames {
+
+    private final String entityName;
+    private final String requestMappingPath;
+    private final String[] fieldNames;
+    private final String[] javaTypes;
+
+    private TableNames(String entityName, String requestMappingPath, String[] fieldNames, String[] javaTypes) {
+        this.entityName = entityName;
+        this.requestMappingPath = requestMappingPath;
+        this.fieldNames = fieldNames;
+        this.javaTypes = javaTypes;
+    }
+
+    /**
+     * 推导一张表的类名和字段映射，表名为空时类名为 null
+     */
+    public static TableNames of(GenerationContext context) {
+        TableColumns table = context.getTable();
+        int columnCount = table.getColumnCount();
+        String[] fieldNames = new String[columnCount];
+        String[] javaTypes = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            fieldNames[i] = toCamelCase(table.getColumnName(i));
+            javaTypes[i] = table.getJavaType(i);
+        }
+        String tableName = context.getTableName();
+        String requestMappingPath = context.getEntityName() != null ? toCamelCase(tableName) : null;
+        return new TableNames(context.getEntityName(), requestMappingPath, fieldNames, javaTypes);
+    }
+
+    /** 实体类名，如 user_info -> UserInfo */
+    public String getEntityName() { return entityName; }
+    public String getMapperName() { return entityName + "Mapper"; }
+    public String getServiceName() { return entityName + "Service"; }
+    public String getServiceImplName() { return entityName + "ServiceImpl"; }
+    public String getControllerName() { return entityName + "Controller"; }
+
+    /** Controller 的请求路径，如 user_info -> userInfo */
+    public String getRequestMappingPath() { return requestMappingPath; }
+
+    /** Controller 中 Service 字段的名称，如 userInfoService */
+    public String getServiceInstanceName() {
+        String serviceName = getServiceName();
+        return Character.toLowerCase(serviceName.charAt(0)) + serviceName.substring(1);
+    }
+
+    public int getColumnCount() { return fieldNames.length; }
+
+    /** 字段的驼峰名，如 user_id -> userId */
+    public String getFieldName(int column) { return fieldNames[column]; }
+
+    /** 字段的 Java 类型，如 Long */
+    public String getJavaType(int column) { return javaTypes[column]; }
+
+    /**
+     * 以 / 分隔的包路径，如 com.example.entity -> com/example/entity
+     */
+    public static String packagePath(String packageName) {
+        return packageName.replace('.', '/');
+    }
+}
@@ -0,0 +1,276 @@
+package Generator;
+
+import Global.GenerationConfig;
+import utils.CodeTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 代码模板注册表
+ * 内置模板位于 classpath 的 templates/ 目录下；用户模板目录中存在同名的 xxx.java.tpl 文件时使用该文件，
+ * 可以在不修改程序的情况下调整生成的代码。用户模板目录由配置项 templateDirectory 指定，
+ * 未指定时为项目路径下的 .mpgenerator/templates，见 {@link #forConfig(GenerationConfig)}。
+ * .mpgenerator 目录由生成器在项目中创建，除模板外还保存生成文件清单（manifest.bin）、
+ * 上次的表结构快照（schema_snapshot.bin）和写入过程中的暂存区（staging/）；
+ * 创建目录时同时写入 .gitignore 忽略 *.bin、*.tmp 和 staging/，自定义模板仍可以随项目提交，删除整个目录只会使下一次生成重新比较所有文件的内容。
+ * 模板只在首次使用和文件变化时编译，之后每张表的渲染都复用同一棵渲染树。
+ * 对用户模板文件的修改检查最多每 {@link #CHECK_INTERVAL_MILLIS} 毫秒一次，保存后无需重启即可生效；
+ * 修改后的模板有语法错误时保留上一个可用的版本。
+ * 一次生成在开始时用 {@link #snapshot()} 取得全部模板，生成期间修改模板文件只影响下一次生成。
+ * <p>
+ * 支持的语法（见 {@link CodeTemplate}）借用了 FreeMarker 的写法，但不是 FreeMarker，扩展名因此是 .tpl：
+ * <ul>
+ * <li>只有 ${变量}、&lt;#if&gt;/&lt;#else&gt;、&lt;#list 列表 as 变量&gt; 和 &lt;#-- 注释 --&gt;，
+ *     没有 &lt;#elseif&gt;、比较和运算（条件只能写作 变量 或 !变量）、默认值（变量!默认值）和 ?index、?has_next 以外的内建函数；</li>
+ * <li>&lt;#if&gt; 的条件不要求是布尔值：非空字符串、非空列表和非零数字为真，未定义的变量为假而不是报错；</li>
+ * <li>${ 没有转义写法（FreeMarker 的 ${r"${"} 和 &lt;#noparse&gt; 都不支持），模板中无法输出字面的 ${，
+ *     例如 Spring 的 @Value("${key}") 需要在生成后手动添加；</li>
+ * <li>${变量} 引用未定义的变量时报错，输出时不做任何转义。</li>
+ * </ul>
+ */
+public class TemplateRegistry {
+
+    public static final String ENTITY = "entity.java.tpl";
+    public static final String MAPPER = "mapper.java.tpl";
+    public static final String SERVICE = "service.java.tpl";
+    public static final String SERVICE_IMPL = "serviceImpl.java.tpl";
+    public static final String CONTROLLER = "controller.java.tpl";
+
+    // 内置模板在 classpath 中的目录，也是项目中默认的用户模板目录名
+    public static final String TEMPLATE_DIRECTORY = "templates";
+
+    // 两次检查用户模板文件是否变化的最小间隔
+    static final long CHECK_INTERVAL_MILLIS = 500;
+
+    private static final String[] NAMES = {ENTITY, MAPPER, SERVICE, SERVICE_IMPL, CONTROLLER};
+
+    // 没有用户模板目录时只使用内置模板
+    private static final TemplateRegistry BUILTIN = new TemplateRegistry(null);
+    // 用户模板目录 -> 注册表，同一目录的模板只编译一次
+    private static final ConcurrentHashMap<Path, TemplateRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 一个模板的当前版本
+     */
+    private static final class Entry {
+        final String name;
+        volatile CodeTemplate template;
+        // 当前版本来自用户文件时为文件的修改时间和大小，来自内置模板时为 -1
+        volatile long lastModified = -1;
+        volatile long size = -1;
+        // 模板内容的指纹，用于判断生成结果是否可能变化
+        volatile long fingerprint;
+        volatile long lastCheck;
+
+        Entry(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * @param directory 用户模板目录，为 null 时只使用内置模板
+     */
+    public TemplateRegistry(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 配置对应的注册表：用户模板目录为配置项 templateDirectory（相对路径相对于项目路径），
+     * 未配置时为 <项目路径>/.mpgenerator/templates，两者都没有时只使用内置模板
+     */
+    public static TemplateRegistry forConfig(GenerationConfig config) {
+        Path directory = templateDirectory(config);
+        return directory != null ? REGISTRIES.computeIfAbsent(directory, TemplateRegistry::new) : BUILTIN;
+    }
+
+    /**
+     * 配置对应的用户模板目录，没有时返回 null
+     */
+    static Path templateDirectory(GenerationConfig config) {
+        String projectPath = config.getProjectPath();
+        Path project = projectPath != null && !projectPath.trim().isEmpty() ? Paths.get(projectPath.trim()) : null;
+        String configured = config.getTemplateDirectory();
+        Path directory;
+        if (configured != null && !configured.trim().isEmpty()) {
+            directory = project != null ? project.resolve(configured.trim()) : Paths.get(configured.trim());
+        } else if (project != null) {
+            directory = project.resolve(GenerationSnapshot.DIRECTORY_NAME).resolve(TEMPLATE_DIRECTORY);
+        } else {
+            return null;
+        }
+        return directory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * 获取编译后的模板，用户模板文件变化时重新编译
+     * @param name 模板名，如 {@link #ENTITY}
+     * @throws CodeTemplate.TemplateException 模板不存在或首次编译失败时抛出
+     */
+    public CodeTemplate get(String name) {
+        Entry entry = entries.computeIfAbsent(name, Entry::new);
+        long now = System.currentTimeMillis();
+        if (entry.template == null || now - entry.lastCheck >= CHECK_INTERVAL_MILLIS) {
+            synchronized (entry) {
+                if (entry.template == null || now - entry.lastCheck >= CHECK_INTERVAL_MILLIS) {
+                    refresh(entry);
+                    entry.lastCheck = now;
+                }
+            }
+        }
+        return entry.template;
+    }
+
+    /**
+     * 取得全部模板的当前版本，之后模板文件的变化不影响返回的快照
+     */
+    public Snapshot snapshot() {
+        CodeTemplate[] templates = new CodeTemplate[NAMES.length];
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < NAMES.length; i++) {
+            get(NAMES[i]);
+            Entry entry = entries.get(NAMES[i]);
+            long fingerprint;
+            // 模板和指纹在同一把锁内更新，一起读取
+            synchronized (entry) {
+                templates[i] = entry.template;
+                fingerprint = entry.fingerprint;
+            }
+            hash = (hash ^ fingerprint) * 0x100000001b3L;
+        }
+        return new Snapshot(templates, hash);
+    }
+
+    /**
+     * 用户模板文件位置
+     */
+    public Path userTemplate(String name) {
+        return directory != null ? directory.resolve(name) : null;
+    }
+
+    /**
+     * 检查用户模板文件并在需要时重新编译
+     */
+    private void refresh(Entry entry) {
+        Path file = userTemplate(entry.name);
+        BasicFileAttributes attributes = null;
+        if (file != null) {
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // 没有用户模板，使用内置模板
+            }
+        }
+        if (attributes == null || !attributes.isRegularFile()) {
+            if (entry.template == null || entry.lastModified != -1) {
+                load(entry, builtinText(entry.name), -1, -1);
+            }
+            return;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        if (entry.template != null && lastModified == entry.lastModified && size == entry.size) {
+            return;
+        }
+        String text;
+        try {
+            text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("读取模板文件失败: " + file + "，" + e.getMessage());
+            if (entry.template == null) {
+                load(entry, builtinText(entry.name), -1, -1);
+            }
+            return;
+        }
+        if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            text = text.substring(1);
+        }
+        try {
+            load(entry, text, lastModified, size);
+            System.out.println("已加载模板: " + file.toAbsolutePath());
+        } catch (CodeTemplate.TemplateException e) {
+            System.err.println("模板文件有误，继续使用" + (entry.template != null ? "上一个版本" : "内置模板") + ": " + e.getMessage());
+            if (entry.template == null) {
+                load(entry, builtinText(entry.name), -1, -1);
+            }
+            // 记录文件状态，文件再次修改前不重复报错
+            entry.lastModified = lastModified;
+            entry.size = size;
+        }
+    }
+
+    /**
+     * 一次生成使用的全部模板，创建后不再变化
+     */
+    public static final class Snapshot {
+        private final CodeTemplate[] templates;
+        private final long fingerprint;
+
+        private Snapshot(CodeTemplate[] templates, long fingerprint) {
+            this.templates = templates;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * @param name 模板名，如 {@link #ENTITY}
+         * @throws CodeTemplate.TemplateException 不是内置的模板名
+         */
+        public CodeTemplate get(String name) {
+            for (int i = 0; i < NAMES.length; i++) {
+                if (NAMES[i].equals(name)) {
+                    return templates[i];
+                }
+            }
+            throw new CodeTemplate.TemplateException(name, 0, "找不到模板");
+        }
+
+        /**
+         * 全部模板内容的指纹，任一模板变化（包括新增或删除用户模板）时随之变化
+         */
+        public long fingerprint() {
+            return fingerprint;
+        }
+    }
+
+    private static void load(Entry entry, String text, long lastModified, long size) {
+        entry.template = CodeTemplate.compile(entry.name, text);
+        entry.fingerprint = fingerprint(text);
+        entry.lastModified = lastModified;
+        entry.size = size;
+    }
+
+    private static String builtinText(String name) {
+        try (InputStream in = TemplateRegistry.class.getResourceAsStream("/" + TEMPLATE_DIRECTORY + "/" + name)) {
+            if (in == null) {
+                throw new CodeTemplate.TemplateException(name, 0, "找不到内置模板");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new CodeTemplate.TemplateException(name, 0, "读取内置模板失败: " + e.getMessage());
+        }
+    }
+
+    private static long fingerprint(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
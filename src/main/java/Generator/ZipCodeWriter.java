@@ -0,0 +1,200 @@
+package Generator;
+
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import utils.TableColumns;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static utils.FieldProcessorUtils.capitalizeFirstLetter;
+import static utils.FieldProcessorUtils.toCamelCase;
+
+/**
+ * 把所有表的代码文件写入一个 ZIP（或 JAR）压缩包，不写入项目目录
+ * 用于把生成的代码交给其他团队或 CI 任务。所有文件按表的顺序依次写入同一个输出流，
+ * 不需要为每个文件创建目录和文件；每张表生成完立即写入，内存占用与表的数量无关。
+ * 压缩包内的路径与写入项目时相同，如 src/main/java/com/example/entity/User.java。
+ * 一张表生成失败时这张表的文件都不写入，其他表不受影响；生成的类名相同的表只保留最后一张。
+ * 先写入同目录下的临时文件，完成后改名为目标文件，不会留下不完整的压缩包。
+ */
+public class ZipCodeWriter {
+
+    // 每个文件较小、单独压缩，更高的压缩级别压缩率提高不多，耗时却成倍增加
+    private static final int COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Supplier<GenerationConfig> config;
+
+    /**
+     * 写入压缩包的结果
+     */
+    public static class Result {
+        private final Path archive;
+        private final int tableCount;
+        private final int duplicateCount;
+        private final List<BatchCodeWriter.Failure> failures;
+        private final int fileCount;
+        private final long sourceBytes;
+        private final long archiveBytes;
+        private final long elapsedNanos;
+
+        Result(Path archive, int tableCount, int duplicateCount, List<BatchCodeWriter.Failure> failures,
+               int fileCount, long sourceBytes, long archiveBytes, long elapsedNanos) {
+            this.archive = archive;
+            this.tableCount = tableCount;
+            this.duplicateCount = duplicateCount;
+            this.failures = failures;
+            this.fileCount = fileCount;
+            this.sourceBytes = sourceBytes;
+            this.archiveBytes = archiveBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getArchive() { return archive; }
+        /** 实际生成的表数量（不含被同名表覆盖的表） */
+        public int getTableCount() { return tableCount; }
+        /** 因生成的类名相同而被后面的表覆盖的表数量 */
+        public int getDuplicateCount() { return duplicateCount; }
+        public int getSucceeded() { return tableCount - failures.size(); }
+        /** 失败的表，按输入顺序排列 */
+        public List<BatchCodeWriter.Failure> getFailures() { return failures; }
+        /** 写入压缩包的文件数量 */
+        public int getFileCount() { return fileCount; }
+        /** 压缩前的文件总大小 */
+        public long getSourceBytes() { return sourceBytes; }
+        /** 压缩包的大小 */
+        public long getArchiveBytes() { return archiveBytes; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * 一行汇总，如 "生成 1500 张表（7500 个文件，12.3 MB 压缩为 2.1 MB），失败 0 张，耗时 812 ms"
+         */
+        public String summary() {
+            return String.format("生成 %d 张表（%d 个文件，%.1f MB 压缩为 %.1f MB），失败 %d 张，耗时 %d ms",
+                    getSucceeded(), fileCount, sourceBytes / 1048576.0, archiveBytes / 1048576.0, failures.size(), elapsedNanos / 1000000);
+        }
+    }
+
+    /**
+     * @param config 提供包路径的全局配置，每次调用 {@link #write(List, Path)} 时复制，不使用其中的项目路径
+     */
+    public ZipCodeWriter(GlobalTableInfo config) {
+        this.config = () -> GenerationConfig.from(config);
+    }
+
+    /**
+     * @param config 包路径配置，不使用其中的项目路径
+     */
+    public ZipCodeWriter(GenerationConfig config) {
+        this.config = () -> config;
+    }
+
+    /**
+     * 把所有表的代码文件写入压缩包，已存在的压缩包被替换
+     * @param tables 要生成的表，如 TableInfo 或 SchemaModel 中的表
+     * @param archive 压缩包路径，如 generated.zip 或 generated-sources.jar
+     */
+    public Result write(List<? extends TableColumns> tables, Path archive) throws IOException {
+        long begin = System.nanoTime();
+        // 生成的类名 -> 最后一张同名表的下标，与 BatchCodeWriter 相同
+        Map<String, Integer> latest = new LinkedHashMap<>();
+        for (int i = 0; i < tables.size(); i++) {
+            String tableName = tables.get(i).getTableName();
+            String className = tableName != null ? capitalizeFirstLetter(toCamelCase(tableName)) : "";
+            latest.remove(className);
+            latest.put(className, i);
+        }
+        List<Integer> indexes = new ArrayList<>(latest.values());
+        Collections.sort(indexes);
+        GenerationConfig config = this.config.get();
+        // 所有表使用同一版本的模板
+        TemplateRegistry.Snapshot templates = TemplateRegistry.forConfig(config).snapshot();
+
+        Path target = archive.toAbsolutePath().normalize();
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        List<BatchCodeWriter.Failure> failures = new ArrayList<>();
+        int fileCount = 0;
+        long sourceBytes = 0;
+        try {
+            try (ZipOutputStream zip = new ZipOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE), StandardCharsets.UTF_8)) {
+                zip.setLevel(COMPRESSION_LEVEL);
+                Set<String> directories = new HashSet<>();
+                for (int index : indexes) {
+                    TableColumns table = tables.get(index);
+                    // 先渲染这张表的全部文件，全部成功后再写入，失败的表不留下部分文件
+                    GenerationResult result;
+                    try {
+                        result = GenerationResult.render(new GenerationContext(table, config, templates));
+                    } catch (IOException | RuntimeException e) {
+                        failures.add(new BatchCodeWriter.Failure(index, table.getTableName(), e));
+                        continue;
+                    }
+                    for (GenerationResult.Artifact artifact : result.getArtifacts()) {
+                        String directory = "src/main/java/" + artifact.getPackagePath() + "/";
+                        if (directories.add(directory)) {
+                            addDirectories(zip, directories, directory);
+                        }
+                        byte[] bytes = artifact.bytes();
+                        zip.putNextEntry(new ZipEntry(directory + artifact.getFileName()));
+                        zip.write(bytes);
+                        zip.closeEntry();
+                        fileCount++;
+                        sourceBytes += bytes.length;
+                    }
+                }
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        Result result = new Result(target, indexes.size(), tables.size() - indexes.size(), failures, fileCount, sourceBytes,
+                Files.size(target), System.nanoTime() - begin);
+        for (BatchCodeWriter.Failure failure : failures) {
+            System.err.println("生成 " + failure.getTableName() + " 的代码文件时发生错误: " + failure.getMessage());
+        }
+        if (result.getDuplicateCount() > 0) {
+            System.out.println("有 " + result.getDuplicateCount() + " 张表与后面的表生成的类名相同，只生成最后一张");
+        }
+        System.out.println("=== 已写入压缩包 " + target + ": " + result.summary() + " ===");
+        return result;
+    }
+
+    /**
+     * 写入目录条目及其尚未写入的上级目录，解压工具和 IDE 按目录显示
+     * @param directory 以 / 结尾的目录路径，已加入 directories
+     */
+    private static void addDirectories(ZipOutputStream zip, Set<String> directories, String directory) throws IOException {
+        int parentEnd = directory.lastIndexOf('/', directory.length() - 2);
+        if (parentEnd > 0 && directories.add(directory.substring(0, parentEnd + 1))) {
+            addDirectories(zip, directories, directory.substring(0, parentEnd + 1));
+        }
+        zip.putNextEntry(new ZipEntry(directory));
+        zip.closeEntry();
+    }
+}
@@ -1,15 +1,17 @@
 package Generator;
 
+import Global.GenerationConfig;
 import Global.GlobalTableInfo;
-import utils.FieldProcessorUtils;
-import utils.TypeConverterUtils;
+import utils.TableColumns;
 
-import static utils.FieldProcessorUtils.capitalizeFirstLetter;
-import static utils.FieldProcessorUtils.toCamelCase;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Entity 实体类代码生成器。
- * 根据 GlobalTableInfo 中的配置生成相应的模板。
+ * 根据 GenerationContext 中的表结构和包路径配置生成相应的模板，不读取可变的全局变量。
  */
 public class entityGenerator {
 
@@ -19,7 +21,26 @@ public class entityGenerator {
      * @return 生成的 Entity 代码字符串
      */
     public String generateEntityContent(GlobalTableInfo tableInfo) {
-        return buildEntityCode(tableInfo);
+        return buildEntityCode(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Entity 类的代码内容（用于文件写入）
+     * @param table 表结构，如 TableInfo 或 SchemaModel 中的表
+     * @param config 提供包路径的全局配置实例。
+     * @return 生成的 Entity 代码字符串
+     */
+    public String generateEntityContent(TableColumns table, GlobalTableInfo config) {
+        return buildEntityCode(GenerationContext.of(table, config));
+    }
+
+    /**
+     * 生成 Entity 类的代码内容（用于文件写入）
+     * @param context 表结构和包路径配置
+     * @return 生成的 Entity 代码字符串
+     */
+    public String generateEntityContent(GenerationContext context) {
+        return buildEntityCode(context);
     }
 
     /**
@@ -27,89 +48,75 @@ public class entityGenerator {
      * @param tableInfo 包含所有路径和表信息的全局配置实例。
      */
     public void generateEntityTemplate(GlobalTableInfo tableInfo) {
-        String content = buildEntityCode(tableInfo);
+        generateEntityTemplate(GenerationContext.of(tableInfo));
+    }
+
+    /**
+     * 生成 Entity 类的代码模板（用于控制台打印）
+     * @param context 表结构和包路径配置
+     */
+    public void generateEntityTemplate(GenerationContext context) {
+        String content = buildEntityCode(context);
         System.out.println("Entity 实体类代码生成完毕");
     }
 
     /**
      * 构建 Entity 类的代码
-     * @param tableInfo 包含所有路径和表信息的全局配置实例。
+     * @param context 表结构和包路径配置
      * @return 生成的代码字符串
      */
-    private String buildEntityCode(GlobalTableInfo tableInfo) {
-        // 1. 从全局配置中获取所需信息
-        String tableName = tableInfo.tableName;
-        String entityOrdomainPackage = tableInfo.entityOrdomainPackage;
-        String[] fieldNames = tableInfo.fieldNames;
-        String[] fieldTypes = tableInfo.fieldTypes;
-        String[] fieldAnnotations = tableInfo.fieldAnnotations;
+    private String buildEntityCode(GenerationContext context) {
+        TableColumns table = context.getTable();
+        GenerationConfig config = context.getConfig();
+        // 1. 获取所需信息
+        String tableName = context.getTableName();
+        String entityOrdomainPackage = config.getEntityOrdomainPackage();
+        int fieldCount = table.getColumnCount();
 
         // 2. 检查关键信息是否缺失
         if (tableName == null || tableName.trim().isEmpty() ||
             entityOrdomainPackage == null || entityOrdomainPackage.trim().isEmpty() ||
-            fieldNames == null || fieldNames.length == 0 ||
-            fieldTypes == null || fieldTypes.length != fieldNames.length) {
+            fieldCount == 0) {
             System.out.println("错误：生成Entity所需的一个或多个关键信息（表名、包路径、字段名、字段类型）未在GlobalTableInfo中正确设置。");
             return null;
         }
 
-        // 3. 根据表名派生出实体类名
-        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
-
-        // 4. 构建实体类的代码
-        StringBuilder entityBuilder = new StringBuilder();
-        entityBuilder.append(String.format("package %s;\n\n", entityOrdomainPackage));
-        entityBuilder.append("import com.baomidou.mybatisplus.annotation.TableName;\n");
-        entityBuilder.append("import com.baomidou.mybatisplus.annotation.IdType;\n");
-        entityBuilder.append("import com.baomidou.mybatisplus.annotation.TableId;\n");
-        entityBuilder.append("import com.baomidou.mybatisplus.annotation.TableField;\n");
-        entityBuilder.append("\n"); 
-        entityBuilder.append("import java.io.Serial;\n");
-        entityBuilder.append("import java.io.Serializable;\n");
-        entityBuilder.append("import java.time.LocalDateTime;\n");
-        entityBuilder.append("import lombok.Getter;\n");
-        entityBuilder.append("import lombok.Setter;\n");
-        entityBuilder.append("import lombok.ToString;\n");
-        entityBuilder.append("import lombok.NoArgsConstructor;\n");
-        entityBuilder.append("import lombok.AllArgsConstructor;\n\n");
-
-        entityBuilder.append("@Getter\n");
-        entityBuilder.append("@Setter\n");
-        entityBuilder.append("@ToString\n");
-        entityBuilder.append("@NoArgsConstructor\n");
-        entityBuilder.append("@AllArgsConstructor\n");
-        entityBuilder.append(String.format("@TableName(\"%s\")\n", tableName));
-        entityBuilder.append(String.format("public class %s implements Serializable {\n\n", entityName));
-        entityBuilder.append("    @Serial\n");
-        entityBuilder.append("    private static final long serialVersionUID = 1L;\n\n");
-
-        // 5. 生成字段
-        for (int i = 0; i < fieldNames.length; i++) {
-            String dbFieldName = fieldNames[i];
-            String dbFieldType = fieldTypes[i];
-            String javaFieldName = toCamelCase(dbFieldName);
-            // 使用 TypeConverterUtils 进行类型转换
-            String javaFieldType = TypeConverterUtils.convertToJavaType(dbFieldType);
+        // 3. 根据表名派生出实体类名和字段映射
+        return render(context, TableNames.of(context));
+    }
 
-            // 添加字段注释（如果存在）
-            if (fieldAnnotations != null && i < fieldAnnotations.length && 
-                fieldAnnotations[i] != null && !fieldAnnotations[i].trim().isEmpty()) {
-                entityBuilder.append(String.format("    /**\n"));
-                entityBuilder.append(String.format("     * %s\n", fieldAnnotations[i]));
-                entityBuilder.append(String.format("     */\n"));
-            }
+    /**
+     * 用已派生的类名和字段映射渲染 Entity 类，配置已由调用方检查（见 ArtifactGraph）
+     * @param context 表结构和包路径配置
+     * @param names 这张表派生出的类名和字段映射
+     * @return 生成的代码字符串
+     */
+    String render(GenerationContext context, TableNames names) {
+        TableColumns table = context.getTable();
+        int fieldCount = table.getColumnCount();
 
+        // 4. 准备模板数据
+        List<Map<String, Object>> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            String fieldAnnotation = table.getColumnComment(i);
+            Map<String, Object> field = new HashMap<>(8);
+            field.put("columnName", table.getColumnName(i));
+            field.put("name", names.getFieldName(i));
+            // 使用 TypeConverterUtils 进行类型转换（列式模型中每种类型只转换一次）
+            field.put("type", names.getJavaType(i));
+            // 注释为空白时不生成注释块
+            field.put("comment", fieldAnnotation != null && !fieldAnnotation.trim().isEmpty() ? fieldAnnotation : "");
             // 假设第一个字段是主键
-            if (i == 0) {
-                entityBuilder.append(String.format("    @TableId(value = \"%s\", type = IdType.AUTO)\n", dbFieldName));
-            } else {
-                entityBuilder.append(String.format("    @TableField(\"%s\")\n", dbFieldName));
-            }
-            entityBuilder.append(String.format("    private %s %s;\n\n", javaFieldType, javaFieldName));
+            field.put("primary", i == 0);
+            fields.add(field);
         }
+        Map<String, Object> model = new HashMap<>();
+        model.put("package", context.getConfig().getEntityOrdomainPackage());
+        model.put("tableName", context.getTableName());
+        model.put("entityName", names.getEntityName());
+        model.put("fields", fields);
 
-        entityBuilder.append("}\n");
-
-        return entityBuilder.toString();
+        // 5. 使用模板生成实体类的代码
+        return context.getTemplates().get(TemplateRegistry.ENTITY).render(model);
     }
 }
\ No newline at end of file
@@ -31,6 +31,9 @@ public class FileConfigurationReadingUtils {
         props.setProperty("servicePackage", globalInfo.servicePackage != null ? globalInfo.servicePackage : "");
         props.setProperty("controllerPackage", globalInfo.controllerPackage != null ? globalInfo.controllerPackage : "");
         props.setProperty("implPackage", globalInfo.implPackage != null ? globalInfo.implPackage : "");
+        props.setProperty("generatorThreads", String.valueOf(globalInfo.generatorThreads));
+        props.setProperty("parserThreads", String.valueOf(globalInfo.parserThreads));
+        props.setProperty("templateDirectory", globalInfo.templateDirectory != null ? globalInfo.templateDirectory : "");
 
         // 使用try-with-resources语句确保流被正确关闭
         try (FileOutputStream fos = new FileOutputStream(CONFIG_FILE_NAME)) {
@@ -52,6 +55,15 @@ public class FileConfigurationReadingUtils {
             System.out.println("配置文件不存在，将使用默认设置。");
             return;
         }
+        loadConfiguration(configFile);
+    }
+
+    /**
+     * 从指定的.properties文件加载配置，如命令行中通过 --config 指定的文件。
+     * @param configFile 配置文件
+     * @return 是否加载成功
+     */
+    public static boolean loadConfiguration(File configFile) {
 
         Properties props = new Properties();
         // 使用try-with-resources语句确保流被正确关闭
@@ -68,11 +80,26 @@ public class FileConfigurationReadingUtils {
             globalInfo.servicePackage = props.getProperty("servicePackage", "");
             globalInfo.controllerPackage = props.getProperty("controllerPackage", "");
             globalInfo.implPackage = props.getProperty("implPackage", "");
+            globalInfo.templateDirectory = props.getProperty("templateDirectory", "");
+            try {
+                globalInfo.generatorThreads = Integer.parseInt(props.getProperty("generatorThreads", "0").trim());
+            } catch (NumberFormatException e) {
+                System.err.println("配置项 generatorThreads 不是整数，将使用默认线程数");
+                globalInfo.generatorThreads = 0;
+            }
+            try {
+                globalInfo.parserThreads = Integer.parseInt(props.getProperty("parserThreads", "0").trim());
+            } catch (NumberFormatException e) {
+                System.err.println("配置项 parserThreads 不是整数，将使用默认线程数");
+                globalInfo.parserThreads = 0;
+            }
 
             System.out.println("配置已从 " + configFile.getAbsolutePath() + " 加载。");
+            return true;
         } catch (IOException e) {
             System.err.println("加载配置文件时出错: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package Global;
+
+/**
+ * 生成代码使用的项目路径和包路径的不可变快照
+ * GlobalTableInfo 的字段随界面输入随时被修改，生成开始时用 {@link #from(GlobalTableInfo)} 复制一份，
+ * 之后在任意线程中读取都得到同样的值；不同项目的配置可以同时用于生成。
+ */
+public final class GenerationConfig {
+
+    private final String projectPath;
+    private final String entityOrdomainPackage;
+    private final String mapperPackage;
+    private final String servicePackage;
+    private final String implPackage;
+    private final String controllerPackage;
+    private final int generatorThreads;
+    private final int parserThreads;
+    // 用户模板目录，为 null 时使用项目路径下的 .mpgenerator/templates
+    private final String templateDirectory;
+
+    /**
+     * 不指定用户模板目录，使用项目路径下的 .mpgenerator/templates
+     */
+    public GenerationConfig(String projectPath, String entityOrdomainPackage, String mapperPackage, String servicePackage,
+                            String implPackage, String controllerPackage, int generatorThreads) {
+        this(projectPath, entityOrdomainPackage, mapperPackage, servicePackage, implPackage, controllerPackage,
+                generatorThreads, null);
+    }
+
+    /**
+     * @param projectPath 项目路径，只生成到压缩包时可以为 null
+     * @param entityOrdomainPackage Entity或Domain包名
+     * @param mapperPackage Mapper包名
+     * @param servicePackage Service包名
+     * @param implPackage Impl包名
+     * @param controllerPackage Controller包名
+     * @param generatorThreads 批量生成使用的线程数，0 表示使用默认值
+     * @param templateDirectory 用户模板目录，相对路径相对于项目路径；为 null 或空时使用项目路径下的 .mpgenerator/templates
+     */
+    public GenerationConfig(String projectPath, String entityOrdomainPackage, String mapperPackage, String servicePackage,
+                            String implPackage, String controllerPackage, int generatorThreads, String templateDirectory) {
+        this(projectPath, entityOrdomainPackage, mapperPackage, servicePackage, implPackage, controllerPackage,
+                generatorThreads, 0, templateDirectory);
+    }
+
+    /**
+     * @param generatorThreads 批量生成使用的线程数，0 表示使用默认值
+     * @param parserThreads 批量解析建表文件使用的线程数，0 表示使用默认值
+     * @param templateDirectory 用户模板目录，相对路径相对于项目路径；为 null 或空时使用项目路径下的 .mpgenerator/templates
+     * @see #GenerationConfig(String, String, String, String, String, String, int, String)
+     */
+    public GenerationConfig(String projectPath, String entityOrdomainPackage, String mapperPackage, String servicePackage,
+                            String implPackage, String controllerPackage, int generatorThreads, int parserThreads,
+                            String templateDirectory) {
+        this.projectPath = projectPath;
+        this.entityOrdomainPackage = entityOrdomainPackage;
+        this.mapperPackage = mapperPackage;
+        this.servicePackage = servicePackage;
+        this.implPackage = implPackage;
+        this.controllerPackage = controllerPackage;
+        this.generatorThreads = generatorThreads;
+        this.parserThreads = parserThreads;
+        this.templateDirectory = templateDirectory;
+    }
+
+    /**
+     * 复制全局配置中当前的项目路径、包路径、线程数和模板目录
+     */
+    public static GenerationConfig from(GlobalTableInfo info) {
+        return new GenerationConfig(info.projectPath, info.entityOrdomainPackage, info.mapperPackage, info.servicePackage,
+                info.implPackage, info.controllerPackage, info.generatorThreads, info.parserThreads, info.templateDirectory);
+    }
+
+    /**
+     * 项目路径不同、其他配置相同的副本
+     */
+    public GenerationConfig withProjectPath(String projectPath) {
+        return new GenerationConfig(projectPath, entityOrdomainPackage, mapperPackage, servicePackage,
+                implPackage, controllerPackage, generatorThreads, parserThreads, templateDirectory);
+    }
+
+    public String getProjectPath() { return projectPath; }
+    public String getEntityOrdomainPackage() { return entityOrdomainPackage; }
+    public String getMapperPackage() { return mapperPackage; }
+    public String getServicePackage() { return servicePackage; }
+    public String getImplPackage() { return implPackage; }
+    public String getControllerPackage() { return controllerPackage; }
+    public int getGeneratorThreads() { return generatorThreads; }
+    public int getParserThreads() { return parserThreads; }
+    public String getTemplateDirectory() { return templateDirectory; }
+}
@@ -1,5 +1,9 @@
 package Global;
 
+/**
+ * 界面上的表结构和路径配置的全局实例
+ * 字段随界面输入随时被修改，生成代码前用 {@link GenerationConfig#from(GlobalTableInfo)} 复制为不可变的配置。
+ */
 public class GlobalTableInfo {
 
     // 1. 唯一实例
@@ -10,6 +14,10 @@ public class GlobalTableInfo {
     public String[] fieldNames;
     public String[] fieldTypes;
     public String[] fieldAnnotations;
+    // 索引名（主键为 PRIMARY）、是否唯一索引、按最左前缀顺序排列的索引字段
+    public String[] indexNames;
+    public boolean[] indexUnique;
+    public String[][] indexColumns;
 
     // Project项目路径
     public String projectPath;
@@ -23,6 +31,12 @@ public class GlobalTableInfo {
     public String entityOrdomainPackage;
     // Impl包名
     public String implPackage;
+    // 批量生成使用的线程数，0 表示使用默认值（CPU 核数，至少 4 个）
+    public int generatorThreads;
+    // 批量解析建表文件使用的线程数，0 表示使用默认值（CPU 核数）
+    public int parserThreads;
+    // 用户模板目录，相对路径相对于项目路径；为空时使用项目路径下的 .mpgenerator/templates
+    public String templateDirectory;
     
 
     // 3. 私有构造，防止其他地方 new
@@ -0,0 +1,523 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的代码模板
+ * 模板文本只在 {@link #compile} 时解析一次，得到由文本、变量、条件和循环节点组成的渲染树，
+ * 之后每次渲染只是遍历这棵树并把结果直接追加到 StringBuilder / Writer 中，不再解析任何格式字符串。
+ *
+ * 语法借用 FreeMarker 的写法，与 FreeMarker 的差异见 {@link Generator.TemplateRegistry}：
+ * <pre>
+ *   ${entityName}  ${field.comment}             输出变量，点号访问 Map 中的值
+ *   &lt;#if field.primary&gt; ... &lt;#else&gt; ... &lt;/#if&gt;  条件，true、非空字符串和非空列表为真，可写作 !field.primary
+ *   &lt;#list fields as field&gt; ... &lt;/#list&gt;         循环，循环内可用 field?index 和 field?has_next
+ *   &lt;#-- 注释 --&gt;
+ * </pre>
+ * 只包含指令（和空白）的行整行删除，不会在输出中留下空行。
+ * 数据模型由 Map、字符串、布尔值、数字和列表组成，引用未定义的变量时抛出 {@link TemplateException}。
+ */
+public class CodeTemplate {
+
+    /**
+     * 模板语法错误或渲染时引用了未定义的变量
+     */
+    public static class TemplateException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final String templateName;
+        private final int line;
+
+        public TemplateException(String templateName, int line, String message) {
+            super(message + "（" + templateName + " 第 " + line + " 行）");
+            this.templateName = templateName;
+            this.line = line;
+        }
+
+        public String getTemplateName() { return templateName; }
+        public int getLine() { return line; }
+    }
+
+    private final String name;
+    private final Node[] nodes;
+
+    private CodeTemplate(String name, Node[] nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    /**
+     * 编译模板
+     * @param name 模板名，用于错误信息
+     * @param text 模板文本
+     * @throws TemplateException 模板语法错误时抛出
+     */
+    public static CodeTemplate compile(String name, String text) {
+        List<Token> tokens = stripDirectiveLines(tokenize(name, text));
+        Compiler compiler = new Compiler(name, tokens);
+        Node[] nodes = compiler.block(null);
+        return new CodeTemplate(name, nodes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 渲染为字符串
+     */
+    public String render(Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(1024);
+        render(model, out);
+        return out.toString();
+    }
+
+    /**
+     * 渲染并追加到 out（StringBuilder、Writer 等）
+     */
+    public void render(Map<String, ?> model, Appendable out) {
+        try {
+            renderNodes(nodes, model, null, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void renderNodes(Node[] nodes, Map<String, ?> model, Scope scope, Appendable out) throws IOException {
+        for (Node node : nodes) {
+            node.render(model, scope, out);
+        }
+    }
+
+    // ---------------------------------------------------------------- 渲染树
+
+    private interface Node {
+        void render(Map<String, ?> model, Scope scope, Appendable out) throws IOException;
+    }
+
+    /**
+     * 循环变量作用域
+     */
+    private static final class Scope {
+        final ListNode list;
+        final Object item;
+        final int index;
+        final boolean hasNext;
+        final Scope parent;
+
+        Scope(ListNode list, Object item, int index, boolean hasNext, Scope parent) {
+            this.list = list;
+            this.item = item;
+            this.index = index;
+            this.hasNext = hasNext;
+            this.parent = parent;
+        }
+    }
+
+    private static final class TextNode implements Node {
+        final String text;
+
+        TextNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Map<String, ?> model, Scope scope, Appendable out) throws IOException {
+            out.append(text);
+        }
+    }
+
+    /**
+     * 变量引用，如 field.comment
+     */
+    private static final class Reference {
+        final String templateName;
+        final int line;
+        final String expression;
+        final String[] path;
+
+        Reference(String templateName, int line, String expression) {
+            this.templateName = templateName;
+            this.line = line;
+            this.expression = expression;
+            this.path = expression.split("\\.", -1);
+            for (String part : path) {
+                if (!isIdentifier(part)) {
+                    throw new TemplateException(templateName, line, "无效的变量名: " + expression);
+                }
+            }
+        }
+
+        Object resolve(Map<String, ?> model, Scope scope) {
+            Object value = lookup(path[0], model, scope);
+            for (int i = 1; i < path.length && value != null; i++) {
+                value = value instanceof Map ? ((Map<?, ?>) value).get(path[i]) : null;
+            }
+            return value;
+        }
+
+        private static Object lookup(String name, Map<String, ?> model, Scope scope) {
+            for (Scope s = scope; s != null; s = s.parent) {
+                if (name.equals(s.list.itemName)) {
+                    return s.item;
+                }
+                if (name.equals(s.list.indexName)) {
+                    return s.index;
+                }
+                if (name.equals(s.list.hasNextName)) {
+                    return s.hasNext;
+                }
+            }
+            return model.get(name);
+        }
+
+        private static boolean isIdentifier(String part) {
+            if (part.isEmpty()) {
+                return false;
+            }
+            int question = part.indexOf('?');
+            String base = question < 0 ? part : part.substring(0, question);
+            if (question >= 0 && !part.endsWith("?index") && !part.endsWith("?has_next")) {
+                return false;
+            }
+            if (base.isEmpty() || !Character.isJavaIdentifierStart(base.charAt(0))) {
+                return false;
+            }
+            for (int i = 1; i < base.length(); i++) {
+                if (!Character.isJavaIdentifierPart(base.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class VariableNode implements Node {
+        final Reference reference;
+
+        VariableNode(Reference reference) {
+            this.reference = reference;
+        }
+
+        @Override
+        public void render(Map<String, ?> model, Scope scope, Appendable out) throws IOException {
+            Object value = reference.resolve(model, scope);
+            if (value == null) {
+                throw new TemplateException(reference.templateName, reference.line, "模板变量未定义: " + reference.expression);
+            }
+            if (value instanceof CharSequence) {
+                out.append((CharSequence) value);
+            } else {
+                out.append(String.valueOf(value));
+            }
+        }
+    }
+
+    private static final class IfNode implements Node {
+        final Reference condition;
+        final boolean negated;
+        Node[] thenNodes;
+        Node[] elseNodes = new Node[0];
+
+        IfNode(Reference condition, boolean negated) {
+            this.condition = condition;
+            this.negated = negated;
+        }
+
+        @Override
+        public void render(Map<String, ?> model, Scope scope, Appendable out) throws IOException {
+            boolean value = isTrue(condition.resolve(model, scope)) != negated;
+            renderNodes(value ? thenNodes : elseNodes, model, scope, out);
+        }
+
+        private static boolean isTrue(Object value) {
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            if (value instanceof CharSequence) {
+                return ((CharSequence) value).length() > 0;
+            }
+            if (value instanceof Collection) {
+                return !((Collection<?>) value).isEmpty();
+            }
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue() != 0;
+            }
+            return value != null;
+        }
+    }
+
+    private static final class ListNode implements Node {
+        final Reference source;
+        final String itemName;
+        final String indexName;
+        final String hasNextName;
+        Node[] body;
+
+        ListNode(Reference source, String itemName) {
+            this.source = source;
+            this.itemName = itemName;
+            this.indexName = itemName + "?index";
+            this.hasNextName = itemName + "?has_next";
+        }
+
+        @Override
+        public void render(Map<String, ?> model, Scope scope, Appendable out) throws IOException {
+            Object value = source.resolve(model, scope);
+            if (value == null) {
+                throw new TemplateException(source.templateName, source.line, "模板变量未定义: " + source.expression);
+            }
+            if (!(value instanceof List)) {
+                throw new TemplateException(source.templateName, source.line, "循环的变量不是列表: " + source.expression);
+            }
+            List<?> items = (List<?>) value;
+            int size = items.size();
+            for (int i = 0; i < size; i++) {
+                renderNodes(body, model, new Scope(this, items.get(i), i, i + 1 < size, scope), out);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- 词法分析
+
+    private enum TokenType {
+        TEXT, VARIABLE, IF, ELSE, END_IF, LIST, END_LIST, COMMENT
+    }
+
+    private static final class Token {
+        final TokenType type;
+        final String text;
+        final int line;
+
+        Token(TokenType type, String text, int line) {
+            this.type = type;
+            this.text = text;
+            this.line = line;
+        }
+
+        boolean isDirective() {
+            return type != TokenType.TEXT && type != TokenType.VARIABLE;
+        }
+    }
+
+    /**
+     * 切分为文本、变量和指令，文本在换行处断开，每个文本片段最多以一个换行结尾
+     */
+    private static List<Token> tokenize(String name, String text) {
+        List<Token> tokens = new ArrayList<>();
+        int line = 1;
+        int pos = 0;
+        int textStart = 0;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '\n') {
+                tokens.add(new Token(TokenType.TEXT, text.substring(textStart, pos + 1), line));
+                line++;
+                pos++;
+                textStart = pos;
+                continue;
+            }
+            int end;
+            Token token;
+            if (text.startsWith("${", pos)) {
+                end = text.indexOf('}', pos);
+                if (end < 0) {
+                    throw new TemplateException(name, line, "${ 缺少结束的 }");
+                }
+                token = new Token(TokenType.VARIABLE, text.substring(pos + 2, end).trim(), line);
+                end++;
+            } else if (text.startsWith("<#--", pos)) {
+                end = text.indexOf("-->", pos);
+                if (end < 0) {
+                    throw new TemplateException(name, line, "注释缺少结束的 -->");
+                }
+                end += 3;
+                token = new Token(TokenType.COMMENT, "", line);
+            } else if (text.startsWith("<#", pos) || text.startsWith("</#", pos)) {
+                end = text.indexOf('>', pos);
+                if (end < 0) {
+                    throw new TemplateException(name, line, "指令缺少结束的 >");
+                }
+                token = directive(name, line, text.substring(pos, end + 1));
+                end++;
+            } else {
+                pos++;
+                continue;
+            }
+            if (textStart < pos) {
+                tokens.add(new Token(TokenType.TEXT, text.substring(textStart, pos), line));
+            }
+            tokens.add(token);
+            for (int i = pos; i < end; i++) {
+                if (text.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            pos = end;
+            textStart = pos;
+        }
+        if (textStart < text.length()) {
+            tokens.add(new Token(TokenType.TEXT, text.substring(textStart), line));
+        }
+        return tokens;
+    }
+
+    private static Token directive(String name, int line, String tag) {
+        String body = tag.startsWith("</#") ? tag.substring(3, tag.length() - 1).trim() : tag.substring(2, tag.length() - 1).trim();
+        if (tag.startsWith("</#")) {
+            if (body.equals("if")) {
+                return new Token(TokenType.END_IF, "", line);
+            }
+            if (body.equals("list")) {
+                return new Token(TokenType.END_LIST, "", line);
+            }
+        } else if (body.equals("else")) {
+            return new Token(TokenType.ELSE, "", line);
+        } else if (body.startsWith("if ")) {
+            return new Token(TokenType.IF, body.substring(3).trim(), line);
+        } else if (body.startsWith("list ")) {
+            return new Token(TokenType.LIST, body.substring(5).trim(), line);
+        }
+        throw new TemplateException(name, line, "不支持的指令: " + tag);
+    }
+
+    /**
+     * 删除只包含指令的行中的空白和换行
+     */
+    private static List<Token> stripDirectiveLines(List<Token> tokens) {
+        List<Token> result = new ArrayList<>(tokens.size());
+        int lineStart = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            boolean lineEnd = i == tokens.size() - 1 || (token.type == TokenType.TEXT && token.text.endsWith("\n"));
+            if (!lineEnd) {
+                continue;
+            }
+            boolean hasDirective = false;
+            boolean onlyDirectives = true;
+            for (int j = lineStart; j <= i; j++) {
+                Token t = tokens.get(j);
+                if (t.isDirective()) {
+                    hasDirective = true;
+                } else if (t.type == TokenType.VARIABLE || !t.text.trim().isEmpty()) {
+                    onlyDirectives = false;
+                }
+            }
+            for (int j = lineStart; j <= i; j++) {
+                Token t = tokens.get(j);
+                if (!(hasDirective && onlyDirectives && t.type == TokenType.TEXT)) {
+                    result.add(t);
+                }
+            }
+            lineStart = i + 1;
+        }
+        return result;
+    }
+
+    // ---------------------------------------------------------------- 编译
+
+    private static final class Compiler {
+        final String name;
+        final List<Token> tokens;
+        int pos;
+
+        Compiler(String name, List<Token> tokens) {
+            this.name = name;
+            this.tokens = tokens;
+        }
+
+        /**
+         * 编译到 open 对应的结束指令为止，open 为 null 时编译到模板末尾
+         */
+        Node[] block(Token open) {
+            List<Node> nodes = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            while (pos < tokens.size()) {
+                Token token = tokens.get(pos);
+                if (token.type == TokenType.ELSE || token.type == TokenType.END_IF || token.type == TokenType.END_LIST) {
+                    boolean matches = open != null && (open.type == TokenType.IF
+                            ? token.type != TokenType.END_LIST : token.type == TokenType.END_LIST);
+                    if (!matches) {
+                        throw new TemplateException(name, token.line, "多余的 " + describe(token.type));
+                    }
+                    break;
+                }
+                pos++;
+                if (token.type == TokenType.TEXT) {
+                    // 相邻的文本合并为一个节点
+                    text.append(token.text);
+                    continue;
+                }
+                if (text.length() > 0) {
+                    nodes.add(new TextNode(text.toString()));
+                    text.setLength(0);
+                }
+                switch (token.type) {
+                    case VARIABLE:
+                        nodes.add(new VariableNode(new Reference(name, token.line, token.text)));
+                        break;
+                    case IF:
+                        nodes.add(ifNode(token));
+                        break;
+                    case LIST:
+                        nodes.add(listNode(token));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (pos >= tokens.size() && open != null) {
+                throw new TemplateException(name, open.line, (open.type == TokenType.IF ? "<#if>" : "<#list>") + " 缺少结束指令");
+            }
+            if (text.length() > 0) {
+                nodes.add(new TextNode(text.toString()));
+            }
+            return nodes.toArray(new Node[0]);
+        }
+
+        private Node ifNode(Token token) {
+            String expression = token.text;
+            boolean negated = expression.startsWith("!");
+            if (negated) {
+                expression = expression.substring(1).trim();
+            }
+            IfNode node = new IfNode(new Reference(name, token.line, expression), negated);
+            node.thenNodes = block(token);
+            if (tokens.get(pos).type == TokenType.ELSE) {
+                pos++;
+                node.elseNodes = block(token);
+                if (tokens.get(pos).type == TokenType.ELSE) {
+                    throw new TemplateException(name, tokens.get(pos).line, "一个 <#if> 只能有一个 <#else>");
+                }
+            }
+            pos++;
+            return node;
+        }
+
+        private Node listNode(Token token) {
+            String[] parts = token.text.split("\\s+");
+            if (parts.length != 3 || !parts[1].equals("as") || !Reference.isIdentifier(parts[2]) || parts[2].contains("?")) {
+                throw new TemplateException(name, token.line, "<#list> 的格式应为 <#list 列表 as 变量名>");
+            }
+            ListNode node = new ListNode(new Reference(name, token.line, parts[0]), parts[2]);
+            node.body = block(token);
+            pos++;
+            return node;
+        }
+
+        private static String describe(TokenType type) {
+            switch (type) {
+                case ELSE:
+                    return "<#else>";
+                case END_IF:
+                    return "</#if>";
+                default:
+                    return "</#list>";
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package utils;
+
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 把单独的 CREATE INDEX 语句补充到前面已经解析出的同名表上
+ * 规则与 {@link TableFieldExtractor#parseAll(CharSequence)} 相同：索引加到语句之前最后一张同名表上（表名不区分大小写），
+ * 找不到表时忽略。逐张交出表的解析器在交出后仍保留表对象，之后的索引语句直接补充到同一个对象上，
+ * 因此 pg_dump 等把索引放在文件末尾的导出也能得到完整的索引。
+ */
+final class CreateIndexRouter {
+
+    // 小写表名 -> 最后一张同名表
+    private final Map<String, TableInfo> tables = new HashMap<>();
+
+    /**
+     * 记录一张解析出的表，同名的表以后出现的为准
+     */
+    void add(TableInfo table) {
+        if (table.getTableName() != null) {
+            tables.put(table.getTableName().toLowerCase(Locale.ROOT), table);
+        }
+    }
+
+    /**
+     * 解析一条 CREATE INDEX 语句并加到同名表上
+     * @throws RuntimeException 语句无法解析
+     */
+    void apply(CharSequence sql, int from, int to) {
+        String[] tableName = new String[1];
+        IndexInfo index = TableFieldExtractor.parseCreateIndex(sql, from, to, tableName);
+        if (index == null) {
+            return;
+        }
+        TableInfo table = tables.get(tableName[0].toLowerCase(Locale.ROOT));
+        if (table != null) {
+            TableFieldExtractor.addIndex(table.getIndexes(), index);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package utils;
+
+import utils.SqlStatementScanner.Statement;
+import utils.SqlStatementScanner.StatementKind;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * mysqldump 文件解析器
+ * 通过内存映射的 FileChannel 分段扫描整个导出文件，提取其中的每一条 CREATE TABLE 语句，
+ * 单独的 CREATE INDEX 语句补充到前面的同名表上。
+ * INSERT 等数据语句只做边界扫描直接跳过，不会被读入字符串，
+ * 因此即使导出文件有数 GB，内存占用也只与单条建表语句的大小有关。
+ * .sql.gz 和 .zip 格式的导出交给 {@link StreamingSchemaParser} 边解压边扫描。
+ */
+public class DumpFileParser {
+
+    // 每次映射的窗口大小
+    static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * 解析导出文件中的所有建表语句
+     * @param dumpFile 导出文件路径
+     * @return 按文件中出现顺序排列的表信息
+     */
+    public static List<TableInfo> parseFile(Path dumpFile) throws IOException {
+        List<TableInfo> tables = parseFile(dumpFile, ParseCache.getInstance());
+        ParseCache.getInstance().saveLater();
+        return tables;
+    }
+
+    /**
+     * 解析导出文件中的所有建表语句
+     * @param dumpFile 导出文件路径
+     * @param cache 解析缓存，为 null 时不使用缓存
+     * @return 按文件中出现顺序排列的表信息
+     */
+    public static List<TableInfo> parseFile(Path dumpFile, ParseCache cache) throws IOException {
+        List<TableInfo> tables = new ArrayList<>();
+        parseFile(dumpFile, cache, tables::add);
+        return tables;
+    }
+
+    /**
+     * 解析导出文件中的所有建表语句，每解析出一张表就交给 consumer，调用方可以不保留整个列表。
+     * 表交出后，文件中后面的 CREATE INDEX 语句仍会补充到同一个表对象上，需要索引的调用方应在解析结束后再读取。
+     * @param dumpFile 导出文件路径
+     * @param cache 解析缓存，为 null 时不使用缓存
+     * @param consumer 按文件中出现顺序接收表信息
+     */
+    public static void parseFile(Path dumpFile, ParseCache cache, Consumer<TableInfo> consumer) throws IOException {
+        parseFile(dumpFile, cache, consumer, null);
+    }
+
+    /**
+     * 容错解析导出文件中的所有建表语句，解析失败的语句被跳过并记录诊断信息
+     * @param dumpFile 导出文件路径
+     * @return 解析成功的表和被跳过语句的诊断信息
+     */
+    public static ParseReport parseFileRecovering(Path dumpFile) throws IOException {
+        List<TableInfo> tables = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        parseFile(dumpFile, ParseCache.getInstance(), tables::add, diagnostics::add);
+        ParseCache.getInstance().saveLater();
+        return new ParseReport(tables, diagnostics);
+    }
+
+    /**
+     * 解析导出文件中的所有建表语句
+     * @param dumpFile 导出文件路径
+     * @param cache 解析缓存，为 null 时不使用缓存
+     * @param consumer 按文件中出现顺序接收表信息
+     * @param errors 接收解析失败语句的诊断信息；为 null 时遇到第一条错误语句即抛出异常
+     */
+    public static void parseFile(Path dumpFile, ParseCache cache, Consumer<TableInfo> consumer, Consumer<ParseDiagnostic> errors) throws IOException {
+        if (StreamingSchemaParser.isCompressed(dumpFile)) {
+            // 压缩文件无法按位置映射，改为边解压边扫描
+            try (InputStream in = Files.newInputStream(dumpFile)) {
+                StreamingSchemaParser.parse(in, cache, consumer, errors);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dumpFile, StandardOpenOption.READ)) {
+            List<Statement> pending = new ArrayList<>();
+            SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+                if (statement.getKind() == StatementKind.CREATE_TABLE || statement.getKind() == StatementKind.CREATE_INDEX) {
+                    pending.add(statement);
+                }
+            });
+            CreateIndexRouter indexes = new CreateIndexRouter();
+
+            // 扫描器中的位置从正文开始计数
+            long base = skipByteOrderMark(channel);
+            long size = channel.size();
+            for (long offset = base; offset < size; offset += MAP_WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_WINDOW_SIZE, size - offset));
+                scanner.feed(window);
+                // 每个窗口扫描完后再读取其中已经结束的建表语句
+                parsePending(channel, base, pending, indexes, consumer, errors, cache);
+            }
+            scanner.finish();
+            parsePending(channel, base, pending, indexes, consumer, errors, cache);
+        }
+    }
+
+    private static void parsePending(FileChannel channel, long base, List<Statement> pending, CreateIndexRouter indexes,
+                                     Consumer<TableInfo> consumer, Consumer<ParseDiagnostic> errors, ParseCache cache) throws IOException {
+        for (Statement statement : pending) {
+            String sql = readStatement(channel, base, statement);
+            TableInfo table;
+            try {
+                if (statement.getKind() == StatementKind.CREATE_INDEX) {
+                    indexes.apply(sql, 0, sql.length());
+                    continue;
+                }
+                table = parseStatement(sql, cache);
+            } catch (RuntimeException e) {
+                if (errors == null) {
+                    throw e;
+                }
+                // 跳过这条语句，从下一条语句继续
+                errors.accept(ParseDiagnostic.of(statement, sql, 0, sql.length(), e));
+                continue;
+            }
+            indexes.add(table);
+            consumer.accept(table);
+        }
+        pending.clear();
+    }
+
+    /**
+     * 解析一条建表语句，cache 为 null 时直接解析
+     */
+    static TableInfo parseStatement(String sql, ParseCache cache) {
+        return cache != null ? cache.parse(sql, 0, sql.length()) : TableFieldExtractor.parseCreateTable(sql);
+    }
+
+    /**
+     * 按位置读取一条语句的原始字节并解码为字符串
+     * @param base 扫描起点在文件中的偏移
+     */
+    static String readStatement(FileChannel channel, long base, Statement statement) throws IOException {
+        long length = statement.getEnd() - statement.getStart();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("单条语句过大，无法解析: 第 " + statement.getLine() + " 行");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        long position = base + statement.getStart();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("读取语句时文件意外结束: 第 " + statement.getLine() + " 行");
+            }
+            position += read;
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 跳过文件开头的 UTF-8 BOM
+     * @return 正文开始的位置
+     */
+    static long skipByteOrderMark(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(3);
+        channel.read(head, 0);
+        if (head.position() == 3 && (head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+}
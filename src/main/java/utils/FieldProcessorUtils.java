@@ -85,6 +85,7 @@ public class FieldProcessorUtils {
     /**
      * 直接处理GlobalTableInfo中的fieldNames数组
      * 将原数组中的下划线命名转换为驼峰命名并重新赋值
+     * 仅为兼容旧接口保留，对已创建的 GenerationContext 没有影响
      */
     public static void processGlobalTableInfo() {
         GlobalTableInfo globalTableInfo = GlobalTableInfo.getInstance();
@@ -0,0 +1,308 @@
+package utils;
+
+import utils.SqlStatementScanner.Statement;
+import utils.SqlStatementScanner.StatementKind;
+import utils.TableFieldExtractor.TableInfo;
+
+import utils.TableFieldExtractor.IndexInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 增量 SQL 解析器
+ * 记录输入文本中每条语句的边界和解析结果。文本被编辑时，只从受影响语句的起点重新扫描，
+ * 一旦新扫描出的语句边界与编辑点之后的旧边界重合就停止，其余语句的解析结果直接复用。
+ * 单独的 CREATE INDEX 语句在读取表时才补充到前面的同名表上，补充在副本上进行，
+ * 删除索引语句后复用的建表结果不会残留它的索引。
+ *
+ * 该类不依赖 Swing，由界面层在文档变化时调用 {@link #update}。
+ */
+public class IncrementalSqlParser {
+
+    // 每次送入扫描器的字符数，送完一段后检查是否已经与旧边界重合
+    private static final int SCAN_CHUNK = 4096;
+
+    /**
+     * 一条语句及其解析结果
+     */
+    public static final class ParsedStatement {
+        private int start;
+        private int end;
+        private final StatementKind kind;
+        private final TableInfo table;
+        // CREATE INDEX 语句的索引和所属表名，其余语句为 null
+        private final IndexInfo index;
+        private final String indexTable;
+        private final String error;
+
+        ParsedStatement(int start, int end, StatementKind kind, TableInfo table, String error) {
+            this(start, end, kind, table, null, null, error);
+        }
+
+        ParsedStatement(int start, int end, StatementKind kind, TableInfo table, IndexInfo index, String indexTable, String error) {
+            this.start = start;
+            this.end = end;
+            this.kind = kind;
+            this.table = table;
+            this.index = index;
+            this.indexTable = indexTable;
+            this.error = error;
+        }
+
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+        public StatementKind getKind() { return kind; }
+        /** 建表语句的解析结果，不含后面 CREATE INDEX 语句补充的索引；解析失败或不是建表语句时为 null */
+        public TableInfo getTable() { return table; }
+        /** 解析失败的原因（建表或建索引语句），成功时为 null */
+        public String getError() { return error; }
+    }
+
+    private final ParseCache cache;
+    private List<ParsedStatement> statements = new ArrayList<>();
+    // 与 statements 对应的、补充了索引的表，语句变化后重新计算
+    private TableInfo[] resolved;
+    private int lastReparsed;
+    private long lastUpdateNanos;
+
+    /**
+     * 不使用解析缓存
+     */
+    public IncrementalSqlParser() {
+        this(null);
+    }
+
+    /**
+     * @param cache 解析缓存，粘贴大段未变化的 schema 时可直接复用上次的结果；为 null 时不使用缓存
+     */
+    public IncrementalSqlParser(ParseCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * 丢弃已有结果，完整解析一遍文本
+     */
+    public void reset(CharSequence text) {
+        long begin = System.nanoTime();
+        statements = new ArrayList<>();
+        lastReparsed = rescan(text, 0, Integer.MAX_VALUE, Collections.<ParsedStatement>emptyList(), statements);
+        resolved = null;
+        lastUpdateNanos = System.nanoTime() - begin;
+    }
+
+    /**
+     * 文本在 offset 处发生编辑后更新解析结果
+     * @param text 编辑后的完整文本
+     * @param offset 编辑位置
+     * @param inserted 插入的字符数
+     * @param removed 删除的字符数
+     */
+    public void update(CharSequence text, int offset, int inserted, int removed) {
+        long begin = System.nanoTime();
+        int delta = inserted - removed;
+
+        // 从编辑点之前最后一条完整语句的末尾开始重新扫描，此处扫描器一定处于普通状态
+        int first = 0;
+        while (first < statements.size() && statements.get(first).end < offset) {
+            first++;
+        }
+        int rescanFrom = first == 0 ? 0 : statements.get(first - 1).end;
+
+        // 编辑点之后、未被编辑触及的旧语句，平移到新坐标后作为重合检查的候选
+        int tail = first;
+        while (tail < statements.size() && statements.get(tail).start < offset + removed) {
+            tail++;
+        }
+        List<ParsedStatement> reusable = new ArrayList<>(statements.subList(tail, statements.size()));
+        for (ParsedStatement statement : reusable) {
+            statement.start += delta;
+            statement.end += delta;
+        }
+
+        List<ParsedStatement> result = new ArrayList<>(statements.size() + 4);
+        result.addAll(statements.subList(0, first));
+        lastReparsed = rescan(text, rescanFrom, offset + inserted, reusable, result);
+        statements = result;
+        resolved = null;
+        lastUpdateNanos = System.nanoTime() - begin;
+    }
+
+    /**
+     * 从 from 开始扫描，直到新语句与某条可复用的旧语句边界完全一致
+     * @param editEnd 编辑区域在新文本中的结束位置，只有在它之后的语句才可能与旧语句重合
+     * @return 重新解析的语句数
+     */
+    private int rescan(CharSequence text, int from, int editEnd, List<ParsedStatement> reusable, List<ParsedStatement> result) {
+        int[] reparsed = new int[1];
+        int[] resumeAt = {-1};
+        SqlStatementScanner scanner = new SqlStatementScanner(new SqlStatementScanner.Listener() {
+            private int candidate;
+
+            @Override
+            public void onStatement(Statement statement) {
+                if (resumeAt[0] >= 0) {
+                    return;
+                }
+                int start = from + (int) statement.getStart();
+                int end = from + (int) statement.getEnd();
+                if (start >= editEnd) {
+                    while (candidate < reusable.size() && reusable.get(candidate).start < start) {
+                        candidate++;
+                    }
+                    if (candidate < reusable.size() && reusable.get(candidate).start == start && reusable.get(candidate).end == end) {
+                        resumeAt[0] = candidate;
+                        return;
+                    }
+                }
+                result.add(parse(text, start, end, statement.getKind()));
+                reparsed[0]++;
+            }
+        });
+
+        int length = text.length();
+        for (int position = from; position < length && resumeAt[0] < 0; position += SCAN_CHUNK) {
+            scanner.feed(text, position, Math.min(position + SCAN_CHUNK, length));
+        }
+        if (resumeAt[0] < 0) {
+            scanner.finish();
+        }
+        if (resumeAt[0] >= 0) {
+            result.addAll(reusable.subList(resumeAt[0], reusable.size()));
+        }
+        return reparsed[0];
+    }
+
+    private ParsedStatement parse(CharSequence text, int start, int end, StatementKind kind) {
+        if (kind == StatementKind.CREATE_INDEX) {
+            try {
+                String[] tableName = new String[1];
+                IndexInfo index = TableFieldExtractor.parseCreateIndex(text, start, end, tableName);
+                return new ParsedStatement(start, end, kind, null, index, tableName[0], null);
+            } catch (IllegalArgumentException e) {
+                return new ParsedStatement(start, end, kind, null, e.getMessage());
+            }
+        }
+        if (kind != StatementKind.CREATE_TABLE) {
+            return new ParsedStatement(start, end, kind, null, null);
+        }
+        try {
+            TableInfo table = cache != null ? cache.parse(text, start, end) : TableFieldExtractor.parseCreateTable(text, start, end);
+            return new ParsedStatement(start, end, kind, table, null);
+        } catch (IllegalArgumentException e) {
+            return new ParsedStatement(start, end, kind, null, e.getMessage());
+        }
+    }
+
+    /**
+     * 所有语句（按出现顺序）
+     */
+    public List<ParsedStatement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * 所有解析成功的表，单独的 CREATE INDEX 语句已补充到前面的同名表上
+     */
+    public List<TableInfo> getTables() {
+        List<TableInfo> tables = new ArrayList<>();
+        for (TableInfo table : resolveTables()) {
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 按语句顺序把 CREATE INDEX 补充到之前最后一张同名表上，规则与 {@link TableFieldExtractor#parseAll(CharSequence)} 相同。
+     * 有索引要补充的表先复制一份，语句中保存的解析结果保持不变，可以在下次编辑后继续复用。
+     */
+    private TableInfo[] resolveTables() {
+        if (resolved != null) {
+            return resolved;
+        }
+        TableInfo[] tables = new TableInfo[statements.size()];
+        // 小写表名 -> 最后一张同名表的下标
+        Map<String, Integer> latest = new HashMap<>();
+        for (int i = 0; i < tables.length; i++) {
+            ParsedStatement statement = statements.get(i);
+            if (statement.table != null) {
+                tables[i] = statement.table;
+                if (statement.table.getTableName() != null) {
+                    latest.put(statement.table.getTableName().toLowerCase(Locale.ROOT), i);
+                }
+            } else if (statement.index != null) {
+                Integer target = latest.get(statement.indexTable.toLowerCase(Locale.ROOT));
+                if (target == null) {
+                    continue;
+                }
+                if (tables[target] == statements.get(target).table) {
+                    tables[target] = TableInfoCodec.copy(tables[target]);
+                }
+                IndexInfo index = statement.index;
+                TableFieldExtractor.addIndex(tables[target].getIndexes(),
+                        new IndexInfo(index.getIndexName(), index.isUnique(), new ArrayList<>(index.getColumnNames())));
+            }
+        }
+        resolved = tables;
+        return tables;
+    }
+
+    /**
+     * 光标所在的表；光标不在任何建表语句内时取它之前最近的表，再找不到则取第一张表
+     * @param offset 文本位置
+     */
+    public TableInfo getTableAt(int offset) {
+        TableInfo[] tables = resolveTables();
+        TableInfo first = null;
+        TableInfo preceding = null;
+        for (int i = 0; i < tables.length; i++) {
+            ParsedStatement statement = statements.get(i);
+            if (tables[i] == null) {
+                continue;
+            }
+            if (first == null) {
+                first = tables[i];
+            }
+            if (statement.start > offset) {
+                break;
+            }
+            preceding = tables[i];
+            if (offset <= statement.end) {
+                return tables[i];
+            }
+        }
+        return preceding != null ? preceding : first;
+    }
+
+    /**
+     * 第一条解析失败的建表或建索引语句的错误信息，全部成功时返回 null
+     */
+    public String getFirstError() {
+        for (ParsedStatement statement : statements) {
+            if (statement.error != null) {
+                return statement.error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 最近一次更新中重新解析的语句数
+     */
+    public int getLastReparsedCount() {
+        return lastReparsed;
+    }
+
+    /**
+     * 最近一次更新的耗时（纳秒）
+     */
+    public long getLastUpdateNanos() {
+        return lastUpdateNanos;
+    }
+}
@@ -0,0 +1,333 @@
+package utils;
+
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 通过 JDBC 从数据库读取表结构，作为粘贴建表语句之外的另一种数据来源
+ * 表、字段和索引各用一条 INFORMATION_SCHEMA 查询一次性取出整个库的数据，
+ * 而不是对每张表分别调用 DatabaseMetaData，表再多也只有三次数据库往返。
+ * 三个结果集都按表名排序，读取时按表名依次合并，每凑齐一张表就交给调用方，
+ * 结果与解析建表语句得到的 TableInfo 完全相同，可以直接交给生成器。
+ * 支持 MySQL / MariaDB，以及可以嵌入运行的 H2（2.x）。
+ */
+public class JdbcSchemaReader {
+
+    // 每次从结果集读取的行数提示
+    private static final int FETCH_SIZE = 1000;
+
+    private final Connection connection;
+    private final Dialect dialect;
+
+    /**
+     * @param connection 数据库连接，由调用方关闭
+     * @throws SQLException 数据库类型不受支持时抛出
+     */
+    public JdbcSchemaReader(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.dialect = Dialect.of(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * 连接数据库并读取指定库中的所有表
+     * @param url JDBC 连接地址，对应的驱动需要在 classpath 中
+     * @param schema 库名（MySQL 的 database），为 null 时使用连接的当前库
+     * @return 按表名排序的表信息
+     */
+    public static List<TableInfo> read(String url, String user, String password, String schema) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            return new JdbcSchemaReader(connection).readTables(schema);
+        }
+    }
+
+    /**
+     * 读取指定库中的所有表
+     * @param schema 库名，为 null 时使用连接的当前库
+     * @return 按表名排序的表信息
+     */
+    public List<TableInfo> readTables(String schema) throws SQLException {
+        List<TableInfo> tables = new ArrayList<>();
+        readTables(schema, tables::add);
+        return tables;
+    }
+
+    /**
+     * 读取指定库中的所有表，每读完一张表就交给 consumer，调用方可以不保留整个列表
+     * @param schema 库名，为 null 时使用连接的当前库
+     * @param consumer 按表名顺序接收表信息
+     */
+    public void readTables(String schema, Consumer<TableInfo> consumer) throws SQLException {
+        String name = schema != null ? schema : dialect.currentSchema(connection);
+        try (PreparedStatement tableQuery = prepare(dialect.tableQuery(), name);
+             PreparedStatement columnQuery = prepare(dialect.columnQuery(), name);
+             PreparedStatement indexQuery = prepare(dialect.indexQuery(), name);
+             ResultSet tableRows = tableQuery.executeQuery();
+             ResultSet columnRows = columnQuery.executeQuery();
+             ResultSet indexRows = indexQuery.executeQuery()) {
+            Cursor columns = new Cursor(columnRows);
+            Cursor indexes = new Cursor(indexRows);
+            while (tableRows.next()) {
+                TableInfo table = new TableInfo();
+                table.setTableName(tableRows.getString(1));
+                table.setTableComment(nullToEmpty(tableRows.getString(2)));
+                // 三个结果集的排序方式相同，属于当前表的字段和索引都连续排在最前面
+                while (columns.isAt(table.getTableName())) {
+                    table.getFields().add(new FieldInfo(columnRows.getString(2), dialect.columnType(columnRows),
+                            nullToEmpty(columnRows.getString(dialect.columnCommentIndex()))));
+                    columns.next();
+                }
+                while (indexes.isAt(table.getTableName())) {
+                    readIndex(table, indexRows, indexes);
+                }
+                consumer.accept(table);
+            }
+        }
+    }
+
+    /**
+     * 读取一个索引的所有字段行，结束时停在下一个索引的第一行
+     */
+    private void readIndex(TableInfo table, ResultSet rows, Cursor cursor) throws SQLException {
+        String indexName = rows.getString(2);
+        boolean primary = dialect.isPrimary(rows);
+        boolean unique = primary || dialect.isUnique(rows);
+        List<String> columns = new ArrayList<>();
+        boolean functional = false;
+        do {
+            String column = rows.getString(4);
+            // 函数索引的字段名为空，无法按字段查询
+            functional |= column == null;
+            columns.add(column);
+            cursor.next();
+        } while (cursor.isAt(table.getTableName()) && indexName.equals(rows.getString(2)));
+        if (!functional) {
+            TableFieldExtractor.addIndex(table.getIndexes(), new IndexInfo(primary ? IndexInfo.PRIMARY : indexName, unique, columns));
+        }
+    }
+
+    private PreparedStatement prepare(String sql, String schema) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setFetchSize(FETCH_SIZE);
+        statement.setString(1, schema);
+        return statement;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * 结果集游标，记录当前是否还有数据行
+     */
+    private static final class Cursor {
+        private final ResultSet rows;
+        private boolean hasRow;
+
+        Cursor(ResultSet rows) throws SQLException {
+            this.rows = rows;
+            this.hasRow = rows.next();
+        }
+
+        boolean isAt(String tableName) throws SQLException {
+            return hasRow && tableName.equals(rows.getString(1));
+        }
+
+        void next() throws SQLException {
+            hasRow = rows.next();
+        }
+    }
+
+    /**
+     * 不同数据库的 INFORMATION_SCHEMA 查询。
+     * 表查询返回 (表名, 注释)；字段查询第 1、2 列为表名和字段名；
+     * 索引查询返回 (表名, 索引名, 唯一/类型标记, 字段名)，按表名、索引名和字段在索引中的顺序排列。
+     */
+    enum Dialect {
+        MYSQL {
+            @Override
+            String tableQuery() {
+                return "SELECT TABLE_NAME, TABLE_COMMENT FROM information_schema.TABLES"
+                        + " WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME";
+            }
+
+            @Override
+            String columnQuery() {
+                return "SELECT c.TABLE_NAME, c.COLUMN_NAME, c.COLUMN_TYPE, c.COLUMN_COMMENT"
+                        + " FROM information_schema.COLUMNS c JOIN information_schema.TABLES t"
+                        + " ON t.TABLE_SCHEMA = c.TABLE_SCHEMA AND t.TABLE_NAME = c.TABLE_NAME"
+                        + " WHERE c.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE'"
+                        + " ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION";
+            }
+
+            @Override
+            String indexQuery() {
+                return "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME FROM information_schema.STATISTICS"
+                        + " WHERE TABLE_SCHEMA = ? AND INDEX_TYPE NOT IN ('FULLTEXT', 'SPATIAL')"
+                        + " ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+            }
+
+            @Override
+            String currentSchema(Connection connection) throws SQLException {
+                return connection.getCatalog();
+            }
+
+            @Override
+            String columnType(ResultSet row) throws SQLException {
+                // COLUMN_TYPE 就是建表语句中的写法，如 varchar(64)、bigint unsigned
+                return row.getString(3);
+            }
+
+            @Override
+            int columnCommentIndex() {
+                return 4;
+            }
+
+            @Override
+            boolean isPrimary(ResultSet row) throws SQLException {
+                return IndexInfo.PRIMARY.equals(row.getString(2));
+            }
+
+            @Override
+            boolean isUnique(ResultSet row) throws SQLException {
+                return row.getInt(3) == 0;
+            }
+        },
+
+        H2 {
+            @Override
+            String tableQuery() {
+                return "SELECT TABLE_NAME, REMARKS FROM INFORMATION_SCHEMA.TABLES"
+                        + " WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME";
+            }
+
+            @Override
+            String columnQuery() {
+                return "SELECT c.TABLE_NAME, c.COLUMN_NAME, c.DATA_TYPE, c.CHARACTER_MAXIMUM_LENGTH,"
+                        + " c.NUMERIC_PRECISION, c.NUMERIC_SCALE, c.REMARKS"
+                        + " FROM INFORMATION_SCHEMA.COLUMNS c JOIN INFORMATION_SCHEMA.TABLES t"
+                        + " ON t.TABLE_SCHEMA = c.TABLE_SCHEMA AND t.TABLE_NAME = c.TABLE_NAME"
+                        + " WHERE c.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE'"
+                        + " ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION";
+            }
+
+            @Override
+            String indexQuery() {
+                return "SELECT ic.TABLE_NAME, ic.INDEX_NAME, i.INDEX_TYPE_NAME, ic.COLUMN_NAME"
+                        + " FROM INFORMATION_SCHEMA.INDEX_COLUMNS ic JOIN INFORMATION_SCHEMA.INDEXES i"
+                        + " ON i.INDEX_SCHEMA = ic.INDEX_SCHEMA AND i.INDEX_NAME = ic.INDEX_NAME"
+                        + " WHERE ic.TABLE_SCHEMA = ? AND i.INDEX_TYPE_NAME IN ('PRIMARY KEY', 'UNIQUE INDEX', 'INDEX')"
+                        + " ORDER BY ic.TABLE_NAME, ic.INDEX_NAME, ic.ORDINAL_POSITION";
+            }
+
+            @Override
+            String currentSchema(Connection connection) throws SQLException {
+                return connection.getSchema();
+            }
+
+            @Override
+            String columnType(ResultSet row) throws SQLException {
+                // 转换为 MySQL 写法，使 TypeConverterUtils 能识别
+                String type = row.getString(3).toUpperCase(Locale.ROOT);
+                long length = row.getLong(4);
+                boolean hasLength = !row.wasNull();
+                int precision = row.getInt(5);
+                int scale = row.getInt(6);
+                switch (type) {
+                    case "CHARACTER VARYING":
+                    case "VARCHAR_IGNORECASE":
+                        return "varchar(" + length + ")";
+                    case "CHARACTER":
+                        return "char(" + length + ")";
+                    case "CHARACTER LARGE OBJECT":
+                        return "text";
+                    case "BINARY VARYING":
+                        return "varbinary(" + length + ")";
+                    case "BINARY":
+                        return hasLength ? "binary(" + length + ")" : "binary";
+                    case "BINARY LARGE OBJECT":
+                        return "blob";
+                    case "NUMERIC":
+                    case "DECIMAL":
+                    case "DECFLOAT":
+                        return "decimal(" + precision + "," + scale + ")";
+                    case "DOUBLE PRECISION":
+                        return "double";
+                    case "REAL":
+                        return "float";
+                    case "TIMESTAMP":
+                        return "datetime";
+                    case "TIMESTAMP WITH TIME ZONE":
+                        return "timestamp";
+                    case "TIME WITH TIME ZONE":
+                        return "time";
+                    case "UUID":
+                        return "char(36)";
+                    default:
+                        return type.toLowerCase(Locale.ROOT);
+                }
+            }
+
+            @Override
+            int columnCommentIndex() {
+                return 7;
+            }
+
+            @Override
+            boolean isPrimary(ResultSet row) throws SQLException {
+                return "PRIMARY KEY".equals(row.getString(3));
+            }
+
+            @Override
+            boolean isUnique(ResultSet row) throws SQLException {
+                return "UNIQUE INDEX".equals(row.getString(3));
+            }
+        };
+
+        abstract String tableQuery();
+
+        abstract String columnQuery();
+
+        abstract String indexQuery();
+
+        abstract String currentSchema(Connection connection) throws SQLException;
+
+        /**
+         * 当前字段行对应的 MySQL 风格字段类型
+         */
+        abstract String columnType(ResultSet row) throws SQLException;
+
+        /**
+         * 字段查询中注释所在的列
+         */
+        abstract int columnCommentIndex();
+
+        abstract boolean isPrimary(ResultSet row) throws SQLException;
+
+        abstract boolean isUnique(ResultSet row) throws SQLException;
+
+        /**
+         * 按数据库产品名选择查询方式
+         */
+        static Dialect of(String productName) throws SQLException {
+            String name = productName != null ? productName.toLowerCase(Locale.ROOT) : "";
+            if (name.contains("mysql") || name.contains("mariadb")) {
+                return MYSQL;
+            }
+            if (name.equals("h2")) {
+                return H2;
+            }
+            throw new SQLException("不支持的数据库类型: " + productName);
+        }
+    }
+}
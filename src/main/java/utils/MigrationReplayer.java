@@ -0,0 +1,886 @@
+package utils;
+
+import utils.SqlLexer.TokenType;
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 迁移脚本重放器
+ * 按版本顺序执行 Flyway 风格的迁移脚本（V1__init.sql、V1.1__add_column.sql ...），
+ * 在内存中依次应用 CREATE TABLE、ALTER TABLE（ADD/MODIFY/CHANGE/DROP/RENAME COLUMN、ADD/DROP/RENAME INDEX、
+ * RENAME TO、COMMENT）、CREATE INDEX、DROP INDEX、RENAME TABLE 和 DROP TABLE，得到最终的表结构。
+ * INSERT 等其余语句直接跳过。
+ *
+ * 每重放 {@value #CHECKPOINT_INTERVAL} 个脚本以及全部结束时记录一次中间状态，并保存到快照文件。
+ * 再次重放时，与上次相同的脚本前缀直接从最近的中间状态恢复，新增一个脚本只需重放末尾的部分。
+ * 默认每个迁移目录使用各自的快照文件（见 {@link #snapshotFileFor(Path)}），交替重放多个目录时互不覆盖。
+ */
+public class MigrationReplayer {
+
+    // 快照文件名前缀（与配置文件一样存储在程序运行的根目录下），后面是迁移目录绝对路径的哈希
+    public static final String SNAPSHOT_FILE_PREFIX = "generator_replay_snapshot_";
+
+    // 每隔多少个脚本记录一次中间状态
+    static final int CHECKPOINT_INTERVAL = 100;
+
+    private static final int MAGIC = 0x4D505253; // "MPRS"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Path snapshotFile;
+    private final boolean snapshotPerDirectory;
+
+    /**
+     * 每个迁移目录使用各自的默认快照文件；直接调用 {@link #replay(List)} 时不使用快照
+     */
+    public MigrationReplayer() {
+        this.snapshotFile = null;
+        this.snapshotPerDirectory = true;
+    }
+
+    /**
+     * @param snapshotFile 快照文件路径，为 null 时每次都完整重放
+     */
+    public MigrationReplayer(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.snapshotPerDirectory = false;
+    }
+
+    /**
+     * 迁移目录的默认快照文件：程序运行的根目录下以目录绝对路径的哈希命名的文件
+     * @param directory 迁移脚本目录
+     */
+    public static Path snapshotFileFor(Path directory) {
+        String name = directory.toAbsolutePath().normalize().toString();
+        return Paths.get(String.format("%s%016x.bin", SNAPSHOT_FILE_PREFIX, hash(name.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * 重放结果
+     */
+    public static class Result {
+        private final List<TableInfo> tables;
+        private final List<ParseDiagnostic> diagnostics;
+        private final int scriptCount;
+        private final int replayedCount;
+
+        Result(List<TableInfo> tables, List<ParseDiagnostic> diagnostics, int scriptCount, int replayedCount) {
+            this.tables = Collections.unmodifiableList(tables);
+            this.diagnostics = Collections.unmodifiableList(diagnostics);
+            this.scriptCount = scriptCount;
+            this.replayedCount = replayedCount;
+        }
+
+        /** 最终的表结构（按创建顺序） */
+        public List<TableInfo> getTables() { return tables; }
+        /** 本次重放中无法应用的语句 */
+        public List<ParseDiagnostic> getDiagnostics() { return diagnostics; }
+        /** 脚本总数 */
+        public int getScriptCount() { return scriptCount; }
+        /** 本次实际重放的脚本数，其余脚本的结果来自快照 */
+        public int getReplayedCount() { return replayedCount; }
+
+        /**
+         * 转换为解析报告，便于输出被跳过的语句
+         */
+        public ParseReport getReport() {
+            return new ParseReport(new ArrayList<>(tables), new ArrayList<>(diagnostics));
+        }
+
+        /**
+         * 转换为列式 schema 模型，供生成器直接读取
+         */
+        public SchemaModel toSchemaModel() {
+            return SchemaModel.of(tables);
+        }
+    }
+
+    /**
+     * 列出目录中的版本化迁移脚本（V开头、.sql 结尾）并按版本号排序
+     */
+    public static List<Path> listMigrations(Path directory) throws IOException {
+        List<Path> scripts = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                if (isVersionedScript(path.getFileName().toString()) && Files.isRegularFile(path)) {
+                    scripts.add(path);
+                }
+            }
+        }
+        scripts.sort((a, b) -> {
+            String nameA = a.getFileName().toString();
+            String nameB = b.getFileName().toString();
+            int result = compareVersions(version(nameA), version(nameB));
+            return result != 0 ? result : nameA.compareTo(nameB);
+        });
+        return scripts;
+    }
+
+    static boolean isVersionedScript(String fileName) {
+        return fileName.length() > 5
+                && (fileName.charAt(0) == 'V' || fileName.charAt(0) == 'v')
+                && Character.isDigit(fileName.charAt(1))
+                && fileName.toLowerCase(Locale.ROOT).endsWith(".sql");
+    }
+
+    /**
+     * 文件名中的版本号：V1_2__desc.sql -> 1_2
+     */
+    static String version(String fileName) {
+        int end = fileName.indexOf("__");
+        if (end < 0) {
+            end = fileName.length() - 4;
+        }
+        return fileName.substring(1, end);
+    }
+
+    /**
+     * 按数值逐段比较版本号，段之间用 '.' 或 '_' 分隔，缺少的段视为 0
+     */
+    static int compareVersions(String a, String b) {
+        String[] partsA = a.split("[._]");
+        String[] partsB = b.split("[._]");
+        for (int i = 0; i < Math.max(partsA.length, partsB.length); i++) {
+            String partA = i < partsA.length ? stripLeadingZeros(partsA[i]) : "";
+            String partB = i < partsB.length ? stripLeadingZeros(partsB[i]) : "";
+            // 位数不限，时间戳形式的版本号也能正确比较
+            int result = partA.length() != partB.length() ? Integer.compare(partA.length(), partB.length()) : partA.compareTo(partB);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static String stripLeadingZeros(String part) {
+        int i = 0;
+        while (i < part.length() && part.charAt(i) == '0') {
+            i++;
+        }
+        return part.substring(i);
+    }
+
+    /**
+     * 重放目录中的全部迁移脚本
+     * @param directory 迁移脚本目录
+     */
+    public Result replayDirectory(Path directory) throws IOException {
+        return replay(listMigrations(directory), snapshotPerDirectory ? snapshotFileFor(directory) : snapshotFile);
+    }
+
+    /**
+     * 按给定顺序重放迁移脚本
+     * @param scripts 已排好序的脚本
+     */
+    public Result replay(List<Path> scripts) throws IOException {
+        return replay(scripts, snapshotFile);
+    }
+
+    private Result replay(List<Path> scripts, Path snapshotFile) throws IOException {
+        Snapshot previous = loadSnapshot(snapshotFile);
+
+        // 1. 计算每个脚本的指纹，找出与上次完全相同的前缀。大小和修改时间都没变时沿用上次的内容哈希
+        List<Fingerprint> fingerprints = new ArrayList<>(scripts.size());
+        byte[][] contents = new byte[scripts.size()][];
+        int prefix = 0;
+        boolean matching = previous != null;
+        for (int i = 0; i < scripts.size(); i++) {
+            Path script = scripts.get(i);
+            BasicFileAttributes attributes = Files.readAttributes(script, BasicFileAttributes.class);
+            String name = script.toAbsolutePath().normalize().toString();
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            Fingerprint old = previous != null && i < previous.fingerprints.size() ? previous.fingerprints.get(i) : null;
+            long hash;
+            if (old != null && old.name.equals(name) && old.size == size && old.modified == modified) {
+                hash = old.hash;
+            } else {
+                contents[i] = Files.readAllBytes(script);
+                hash = hash(contents[i]);
+            }
+            fingerprints.add(new Fingerprint(name, size, modified, hash));
+            matching = matching && old != null && old.name.equals(name) && old.hash == hash;
+            if (matching) {
+                prefix++;
+            }
+        }
+
+        // 2. 从不超过相同前缀的最近一个中间状态恢复
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        Map<String, TableInfo> state = new LinkedHashMap<>();
+        int from = 0;
+        if (previous != null) {
+            for (Checkpoint checkpoint : previous.checkpoints) {
+                if (checkpoint.applied <= prefix) {
+                    checkpoints.add(checkpoint);
+                    from = checkpoint.applied;
+                }
+            }
+            if (!checkpoints.isEmpty()) {
+                for (TableInfo table : checkpoints.get(checkpoints.size() - 1).tables) {
+                    state.put(key(table.getTableName()), TableInfoCodec.copy(table));
+                }
+            }
+        }
+
+        // 3. 重放其余脚本
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        for (int i = from; i < scripts.size(); i++) {
+            byte[] content = contents[i] != null ? contents[i] : Files.readAllBytes(scripts.get(i));
+            contents[i] = null;
+            applyScript(state, decode(content), scripts.get(i).getFileName().toString(), diagnostics);
+            int applied = i + 1;
+            if (applied % CHECKPOINT_INTERVAL == 0 || applied == scripts.size()) {
+                checkpoints.add(new Checkpoint(applied, copyTables(state)));
+            }
+        }
+
+        if (snapshotFile != null && (previous == null || !fingerprints.equals(previous.fingerprints))) {
+            saveSnapshot(snapshotFile, new Snapshot(fingerprints, checkpoints));
+        }
+        return new Result(new ArrayList<>(state.values()), diagnostics, scripts.size(), scripts.size() - from);
+    }
+
+    /**
+     * 依次应用一个脚本中的语句，无法应用的语句记录诊断信息后跳过
+     */
+    static void applyScript(Map<String, TableInfo> state, String sql, String source, List<ParseDiagnostic> diagnostics) {
+        SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+            int start = (int) statement.getStart();
+            int end = (int) statement.getEnd();
+            try {
+                switch (statement.getKind()) {
+                    case CREATE_TABLE:
+                        applyCreateTable(state, sql, start, end);
+                        break;
+                    case ALTER_TABLE:
+                        applyAlterTable(state, new SqlLexer(sql, start, end));
+                        break;
+                    case RENAME_TABLE:
+                        applyRenameTable(state, new SqlLexer(sql, start, end));
+                        break;
+                    case DROP_TABLE:
+                        applyDropTable(state, new SqlLexer(sql, start, end));
+                        break;
+                    case CREATE_INDEX:
+                        applyCreateIndex(state, sql, start, end);
+                        break;
+                    case DROP_INDEX:
+                        applyDropIndex(state, new SqlLexer(sql, start, end));
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                diagnostics.add(ParseDiagnostic.of(statement, sql, start, end, e).withSource(source));
+            }
+        });
+        scanner.feed(sql, 0, sql.length());
+        scanner.finish();
+    }
+
+    /**
+     * CREATE [TEMPORARY] TABLE [IF NOT EXISTS] name (...) / name LIKE other
+     */
+    private static void applyCreateTable(Map<String, TableInfo> state, String sql, int start, int end) {
+        SqlLexer lexer = new SqlLexer(sql, start, end);
+        lexer.next();
+        lexer.next();
+        if (lexer.isKeyword("temporary")) {
+            // 临时表不属于持久的表结构
+            return;
+        }
+        lexer.next();
+        boolean ifNotExists = false;
+        if (lexer.isKeyword("if")) {
+            lexer.next();
+            lexer.next();
+            lexer.next();
+            ifNotExists = true;
+        }
+        String name = readName(lexer);
+        if (ifNotExists && state.containsKey(key(name))) {
+            return;
+        }
+        TableInfo table;
+        if (lexer.isKeyword("like")) {
+            lexer.next();
+            table = TableInfoCodec.copy(requireTable(state, readName(lexer), lexer));
+            table.setTableName(name);
+        } else {
+            table = TableFieldExtractor.parseCreateTable(sql, start, end);
+        }
+        state.remove(key(name));
+        state.put(key(name), table);
+    }
+
+    /**
+     * ALTER [IGNORE|ONLINE|OFFLINE] TABLE name spec [, spec ...]
+     */
+    private static void applyAlterTable(Map<String, TableInfo> state, SqlLexer lexer) {
+        lexer.next();
+        while (lexer.next() != TokenType.EOF && !lexer.isKeyword("table")) {
+            // 跳过 IGNORE / ONLINE 等修饰词
+        }
+        lexer.next();
+        TableInfo table = requireTable(state, readName(lexer), lexer);
+        TokenType type = lexer.type();
+        while (type != TokenType.SEMICOLON && type != TokenType.EOF) {
+            applyAlterSpec(state, table, lexer);
+            type = lexer.type();
+            if (type == TokenType.COMMA) {
+                type = lexer.next();
+            }
+        }
+    }
+
+    /**
+     * 应用一个 ALTER TABLE 子句，结束时停在子句后的逗号、分号或语句结尾
+     */
+    private static void applyAlterSpec(Map<String, TableInfo> state, TableInfo table, SqlLexer lexer) {
+        List<FieldInfo> fields = table.getFields();
+        if (lexer.isKeyword("add")) {
+            lexer.next();
+            if (lexer.isKeyword("column")) {
+                lexer.next();
+            }
+            if (lexer.type() == TokenType.LEFT_PAREN) {
+                // ADD (a int, b int)
+                for (TokenType type = lexer.next(); type != TokenType.RIGHT_PAREN; type = lexer.next()) {
+                    if (type == TokenType.EOF) {
+                        throw error(lexer, "ALTER TABLE 语句括号不匹配，请检查SQL是否完整。");
+                    }
+                    if (type == TokenType.COMMA) {
+                        continue;
+                    }
+                    FieldInfo field = TableFieldExtractor.parseColumn(lexer, null, table.getIndexes());
+                    if (field == null) {
+                        throw error(lexer, "无法解析 ADD 子句中的字段定义。");
+                    }
+                    insertColumn(table, field, null, lexer);
+                    if (lexer.type() == TokenType.RIGHT_PAREN) {
+                        break;
+                    }
+                }
+                lexer.next();
+            } else if (isIndexKeyword(lexer)) {
+                // 外键、全文索引等无法用于查询的定义直接跳过
+                IndexInfo index = TableFieldExtractor.parseIndexDefinition(lexer);
+                if (index != null) {
+                    addIndex(table, index, lexer);
+                }
+            } else {
+                String[] placement = new String[1];
+                FieldInfo field = TableFieldExtractor.parseColumn(lexer, placement, table.getIndexes());
+                if (field != null) {
+                    insertColumn(table, field, placement[0], lexer);
+                }
+            }
+        } else if (lexer.isKeyword("modify")) {
+            lexer.next();
+            if (lexer.isKeyword("column")) {
+                lexer.next();
+            }
+            String[] placement = new String[1];
+            FieldInfo field = requireColumnDefinition(table, lexer, placement);
+            int index = requireColumn(table, field.getFieldName(), lexer);
+            fields.remove(index);
+            placeColumn(table, field, placement[0], index, lexer);
+        } else if (lexer.isKeyword("change")) {
+            lexer.next();
+            if (lexer.isKeyword("column")) {
+                lexer.next();
+            }
+            int index = requireColumn(table, lexer.identifier(), lexer);
+            lexer.next();
+            String[] placement = new String[1];
+            FieldInfo field = requireColumnDefinition(table, lexer, placement);
+            renameIndexColumn(table, fields.remove(index).getFieldName(), field.getFieldName());
+            placeColumn(table, field, placement[0], index, lexer);
+        } else if (lexer.isKeyword("drop")) {
+            lexer.next();
+            if (lexer.isKeyword("column")) {
+                lexer.next();
+            } else if (lexer.isKeyword("primary")) {
+                dropIndex(table, IndexInfo.PRIMARY, lexer);
+                skipSpec(lexer);
+                return;
+            } else if (lexer.isKeyword("index") || lexer.isKeyword("key")) {
+                lexer.next();
+                dropIndex(table, lexer.identifier(), lexer);
+                skipSpec(lexer);
+                return;
+            } else if (isIndexKeyword(lexer)) {
+                skipSpec(lexer);
+                return;
+            }
+            boolean ifExists = false;
+            if (lexer.isKeyword("if")) {
+                lexer.next();
+                lexer.next();
+                ifExists = true;
+            }
+            int index = indexOfColumn(table, lexer.identifier());
+            if (index >= 0) {
+                removeIndexColumn(table, fields.remove(index).getFieldName());
+            } else if (!ifExists) {
+                throw error(lexer, "要删除的字段不存在: " + table.getTableName() + "." + lexer.identifier());
+            }
+            lexer.next();
+        } else if (lexer.isKeyword("rename")) {
+            lexer.next();
+            if (lexer.isKeyword("column")) {
+                lexer.next();
+                int index = requireColumn(table, lexer.identifier(), lexer);
+                lexer.next();
+                lexer.next();
+                renameIndexColumn(table, fields.get(index).getFieldName(), lexer.identifier());
+                fields.get(index).setFieldName(lexer.identifier());
+                lexer.next();
+            } else if (lexer.isKeyword("index") || lexer.isKeyword("key")) {
+                // RENAME INDEX old TO new
+                lexer.next();
+                int index = requireIndex(table, lexer.identifier(), lexer);
+                lexer.next();
+                lexer.next();
+                table.getIndexes().get(index).setIndexName(lexer.identifier());
+                lexer.next();
+            } else if (!isIndexKeyword(lexer)) {
+                if (lexer.isKeyword("to") || lexer.isKeyword("as")) {
+                    lexer.next();
+                }
+                moveTable(state, table, readName(lexer));
+            }
+        } else if (lexer.isKeyword("comment")) {
+            if (lexer.next() == TokenType.EQUALS) {
+                lexer.next();
+            }
+            if (lexer.type() == TokenType.STRING) {
+                table.setTableComment(lexer.stringValue());
+                lexer.next();
+            }
+        }
+        skipSpec(lexer);
+    }
+
+    /**
+     * CREATE [UNIQUE] INDEX name ON table (...)
+     */
+    private static void applyCreateIndex(Map<String, TableInfo> state, String sql, int start, int end) {
+        String[] tableName = new String[1];
+        IndexInfo index = TableFieldExtractor.parseCreateIndex(sql, start, end, tableName);
+        if (index != null) {
+            SqlLexer lexer = new SqlLexer(sql, start, end);
+            addIndex(requireTable(state, tableName[0], lexer), index, lexer);
+        }
+    }
+
+    /**
+     * DROP INDEX name ON table
+     */
+    private static void applyDropIndex(Map<String, TableInfo> state, SqlLexer lexer) {
+        lexer.next();
+        lexer.next();
+        lexer.next();
+        String name = lexer.identifier();
+        lexer.next();
+        if (!lexer.isKeyword("on")) {
+            throw error(lexer, "DROP INDEX 语句缺少 ON。");
+        }
+        lexer.next();
+        dropIndex(requireTable(state, readName(lexer), lexer), name, lexer);
+    }
+
+    /**
+     * RENAME TABLE a TO b [, c TO d ...]
+     */
+    private static void applyRenameTable(Map<String, TableInfo> state, SqlLexer lexer) {
+        lexer.next();
+        lexer.next();
+        lexer.next();
+        while (true) {
+            TableInfo table = requireTable(state, readName(lexer), lexer);
+            if (!lexer.isKeyword("to")) {
+                throw error(lexer, "RENAME TABLE 语句缺少 TO。");
+            }
+            lexer.next();
+            moveTable(state, table, readName(lexer));
+            if (lexer.type() != TokenType.COMMA) {
+                return;
+            }
+            lexer.next();
+        }
+    }
+
+    /**
+     * DROP [TEMPORARY] TABLE [IF EXISTS] a [, b ...]
+     */
+    private static void applyDropTable(Map<String, TableInfo> state, SqlLexer lexer) {
+        lexer.next();
+        lexer.next();
+        if (lexer.isKeyword("temporary")) {
+            return;
+        }
+        lexer.next();
+        boolean ifExists = false;
+        if (lexer.isKeyword("if")) {
+            lexer.next();
+            lexer.next();
+            ifExists = true;
+        }
+        while (true) {
+            String name = readName(lexer);
+            if (state.remove(key(name)) == null && !ifExists) {
+                throw error(lexer, "要删除的表不存在: " + name);
+            }
+            if (lexer.type() != TokenType.COMMA) {
+                return;
+            }
+            lexer.next();
+        }
+    }
+
+    /**
+     * 读取表名，支持 `db`.`table` 形式（取最后一段），结束时停在表名后的记号
+     */
+    private static String readName(SqlLexer lexer) {
+        String name = null;
+        TokenType type = lexer.type();
+        while (type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER) {
+            name = lexer.identifier();
+            type = lexer.next();
+            if (type != TokenType.SYMBOL || lexer.input().charAt(lexer.start()) != '.') {
+                break;
+            }
+            type = lexer.next();
+        }
+        if (name == null) {
+            throw error(lexer, "语句缺少表名。");
+        }
+        return name;
+    }
+
+    private static boolean isIndexKeyword(SqlLexer lexer) {
+        return lexer.isKeyword("index") || lexer.isKeyword("key") || lexer.isKeyword("primary")
+                || lexer.isKeyword("foreign") || lexer.isKeyword("constraint") || lexer.isKeyword("check")
+                || lexer.isKeyword("unique") || lexer.isKeyword("fulltext") || lexer.isKeyword("spatial")
+                || lexer.isKeyword("partition");
+    }
+
+    /**
+     * 跳到当前子句结束处（顶层的逗号、分号或语句结尾）
+     */
+    private static void skipSpec(SqlLexer lexer) {
+        int depth = 0;
+        for (TokenType type = lexer.type(); ; type = lexer.next()) {
+            if (type == TokenType.EOF || depth == 0 && (type == TokenType.COMMA || type == TokenType.SEMICOLON)) {
+                return;
+            }
+            if (type == TokenType.LEFT_PAREN) {
+                depth++;
+            } else if (type == TokenType.RIGHT_PAREN) {
+                depth--;
+            }
+        }
+    }
+
+    private static FieldInfo requireColumnDefinition(TableInfo table, SqlLexer lexer, String[] placement) {
+        FieldInfo field = TableFieldExtractor.parseColumn(lexer, placement, table.getIndexes());
+        if (field == null) {
+            throw error(lexer, "无法解析字段定义。");
+        }
+        return field;
+    }
+
+    private static TableInfo requireTable(Map<String, TableInfo> state, String name, SqlLexer lexer) {
+        TableInfo table = state.get(key(name));
+        if (table == null) {
+            throw error(lexer, "表不存在: " + name);
+        }
+        return table;
+    }
+
+    private static int requireColumn(TableInfo table, String column, SqlLexer lexer) {
+        int index = indexOfColumn(table, column);
+        if (index < 0) {
+            throw error(lexer, "字段不存在: " + table.getTableName() + "." + column);
+        }
+        return index;
+    }
+
+    private static int indexOfColumn(TableInfo table, String column) {
+        List<FieldInfo> fields = table.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getFieldName().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 添加索引，索引中的字段必须已经存在
+     */
+    private static void addIndex(TableInfo table, IndexInfo index, SqlLexer lexer) {
+        for (String column : index.getColumnNames()) {
+            requireColumn(table, column, lexer);
+        }
+        if (index.getIndexName() != null && !index.isPrimary()
+                && TableFieldExtractor.findIndex(table.getIndexes(), index.getIndexName()) >= 0) {
+            throw error(lexer, "索引已存在: " + table.getTableName() + "." + index.getIndexName());
+        }
+        TableFieldExtractor.addIndex(table.getIndexes(), index);
+    }
+
+    private static void dropIndex(TableInfo table, String name, SqlLexer lexer) {
+        table.getIndexes().remove(requireIndex(table, name, lexer));
+    }
+
+    private static int requireIndex(TableInfo table, String name, SqlLexer lexer) {
+        int index = TableFieldExtractor.findIndex(table.getIndexes(), name);
+        if (index < 0) {
+            throw error(lexer, "索引不存在: " + table.getTableName() + "." + name);
+        }
+        return index;
+    }
+
+    /**
+     * 删除字段时同时从索引中移除该字段，索引不再包含任何字段时一起删除（与 MySQL 的行为一致）
+     */
+    private static void removeIndexColumn(TableInfo table, String column) {
+        Iterator<IndexInfo> indexes = table.getIndexes().iterator();
+        while (indexes.hasNext()) {
+            IndexInfo index = indexes.next();
+            index.getColumnNames().removeIf(name -> name.equalsIgnoreCase(column));
+            if (index.getColumnNames().isEmpty()) {
+                indexes.remove();
+            }
+        }
+    }
+
+    /**
+     * 字段改名时同步修改索引中的字段名
+     */
+    private static void renameIndexColumn(TableInfo table, String oldName, String newName) {
+        for (IndexInfo index : table.getIndexes()) {
+            List<String> columns = index.getColumnNames();
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).equalsIgnoreCase(oldName)) {
+                    columns.set(i, newName);
+                }
+            }
+        }
+    }
+
+    /**
+     * ADD COLUMN：新字段默认追加到末尾
+     */
+    private static void insertColumn(TableInfo table, FieldInfo field, String placement, SqlLexer lexer) {
+        if (indexOfColumn(table, field.getFieldName()) >= 0) {
+            throw error(lexer, "字段已存在: " + table.getTableName() + "." + field.getFieldName());
+        }
+        placeColumn(table, field, placement, table.getFields().size(), lexer);
+    }
+
+    /**
+     * 按 FIRST / AFTER 子句放置字段，没有子句时放在 defaultIndex
+     */
+    private static void placeColumn(TableInfo table, FieldInfo field, String placement, int defaultIndex, SqlLexer lexer) {
+        int index = defaultIndex;
+        if (placement != null) {
+            index = placement.isEmpty() ? 0 : requireColumn(table, placement, lexer) + 1;
+        }
+        table.getFields().add(index, field);
+    }
+
+    /**
+     * 重命名表，表在结果中的位置保持不变
+     */
+    private static void moveTable(Map<String, TableInfo> state, TableInfo table, String newName) {
+        String oldKey = key(table.getTableName());
+        table.setTableName(newName);
+        List<Map.Entry<String, TableInfo>> entries = new ArrayList<>(state.entrySet());
+        state.clear();
+        for (Map.Entry<String, TableInfo> entry : entries) {
+            if (entry.getKey().equals(oldKey)) {
+                state.put(key(newName), table);
+            } else if (!entry.getKey().equals(key(newName))) {
+                state.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static SqlParseException error(SqlLexer lexer, String message) {
+        return new SqlParseException(message, lexer.line(), lexer.column());
+    }
+
+    private static String key(String tableName) {
+        return tableName.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<TableInfo> copyTables(Map<String, TableInfo> state) {
+        List<TableInfo> tables = new ArrayList<>(state.size());
+        for (TableInfo table : state.values()) {
+            tables.add(TableInfoCodec.copy(table));
+        }
+        return tables;
+    }
+
+    private static String decode(byte[] content) {
+        // 跳过 UTF-8 BOM
+        int offset = content.length >= 3 && (content[0] & 0xFF) == 0xEF && (content[1] & 0xFF) == 0xBB && (content[2] & 0xFF) == 0xBF ? 3 : 0;
+        return new String(content, offset, content.length - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 64 位 FNV-1a 内容哈希
+     */
+    private static long hash(byte[] content) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : content) {
+            h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static Snapshot loadSnapshot(Path snapshotFile) {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            long size = Files.size(snapshotFile);
+            if (in.readInt() != MAGIC
+                    || in.readInt() != SNAPSHOT_VERSION
+                    || in.readInt() != TableInfoCodec.FORMAT_VERSION
+                    || in.readInt() != TableFieldExtractor.PARSER_VERSION) {
+                // 解析器或文件格式已升级，需要完整重放
+                return null;
+            }
+            // 每个脚本指纹为路径、大小、修改时间和哈希
+            int scriptCount = TableInfoCodec.readCount(in, size / (2 + 8 + 8 + 8));
+            List<Fingerprint> fingerprints = new ArrayList<>(scriptCount);
+            for (int i = 0; i < scriptCount; i++) {
+                fingerprints.add(new Fingerprint(in.readUTF(), in.readLong(), in.readLong(), in.readLong()));
+            }
+            int checkpointCount = TableInfoCodec.readCount(in, size / (4 + 4));
+            List<Checkpoint> checkpoints = new ArrayList<>(checkpointCount);
+            for (int i = 0; i < checkpointCount; i++) {
+                int applied = TableInfoCodec.readCount(in, scriptCount);
+                int tableCount = TableInfoCodec.readCount(in, size / TableInfoCodec.MIN_TABLE_BYTES);
+                List<TableInfo> tables = new ArrayList<>(tableCount);
+                for (int t = 0; t < tableCount; t++) {
+                    tables.add(TableInfoCodec.read(in));
+                }
+                checkpoints.add(new Checkpoint(applied, tables));
+            }
+            return new Snapshot(fingerprints, checkpoints);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("迁移快照文件已损坏，将完整重放: " + e);
+            return null;
+        }
+    }
+
+    private static void saveSnapshot(Path snapshotFile, Snapshot snapshot) {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(TableInfoCodec.FORMAT_VERSION);
+                out.writeInt(TableFieldExtractor.PARSER_VERSION);
+                out.writeInt(snapshot.fingerprints.size());
+                for (Fingerprint fingerprint : snapshot.fingerprints) {
+                    out.writeUTF(fingerprint.name);
+                    out.writeLong(fingerprint.size);
+                    out.writeLong(fingerprint.modified);
+                    out.writeLong(fingerprint.hash);
+                }
+                out.writeInt(snapshot.checkpoints.size());
+                for (Checkpoint checkpoint : snapshot.checkpoints) {
+                    out.writeInt(checkpoint.applied);
+                    out.writeInt(checkpoint.tables.size());
+                    for (TableInfo table : checkpoint.tables) {
+                        TableInfoCodec.write(out, table);
+                    }
+                }
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("保存迁移快照时出错: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 脚本指纹：路径、大小、修改时间和内容哈希
+     */
+    private static final class Fingerprint {
+        final String name;
+        final long size;
+        final long modified;
+        final long hash;
+
+        Fingerprint(String name, long size, long modified, long hash) {
+            this.name = name;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return name.equals(other.name) && size == other.size && modified == other.modified && hash == other.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + Long.hashCode(hash);
+        }
+    }
+
+    /**
+     * 应用完前 applied 个脚本后的表结构
+     */
+    private static final class Checkpoint {
+        final int applied;
+        final List<TableInfo> tables;
+
+        Checkpoint(int applied, List<TableInfo> tables) {
+            this.applied = applied;
+            this.tables = tables;
+        }
+    }
+
+    private static final class Snapshot {
+        final List<Fingerprint> fingerprints;
+        final List<Checkpoint> checkpoints;
+
+        Snapshot(List<Fingerprint> fingerprints, List<Checkpoint> checkpoints) {
+            this.fingerprints = fingerprints;
+            this.checkpoints = checkpoints;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package utils;
+
+import utils.SqlStatementScanner.Statement;
+import utils.SqlStatementScanner.StatementKind;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 并行建表语句解析器
+ * 先顺序扫描出所有语句边界（识别引号、注释与括号），再把互相独立的建表语句交给 ForkJoinPool 解析，
+ * 最后按语句在原文中的顺序合并结果，并依次把单独的 CREATE INDEX 语句补充到前面的同名表上。
+ * .sql.gz 和 .zip 格式的导出无法按位置读取语句，交给 {@link StreamingSchemaParser} 在当前线程中边解压边解析。
+ */
+public class ParallelSchemaParser implements AutoCloseable {
+
+    // 每个任务至少处理的语句数，低于该值不再拆分
+    private static final int BATCH_SIZE = 16;
+
+    private final ForkJoinPool pool;
+    private final ParseCache cache;
+
+    /**
+     * 使用与 CPU 核数相同的工作线程和默认解析缓存
+     */
+    public ParallelSchemaParser() {
+        this(defaultThreads());
+    }
+
+    /**
+     * 使用默认解析缓存
+     * @param parallelism 工作线程数
+     */
+    public ParallelSchemaParser(int parallelism) {
+        this(parallelism, ParseCache.getInstance());
+    }
+
+    /**
+     * @param parallelism 工作线程数
+     * @param cache 解析缓存，为 null 时不使用缓存
+     */
+    public ParallelSchemaParser(int parallelism, ParseCache cache) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("工作线程数必须大于0: " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.cache = cache;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 默认的工作线程数：CPU 核数
+     */
+    public static int defaultThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 并行解析文本中的所有建表语句，遇到解析失败的语句时抛出异常
+     * @param sql 包含多条语句的文本
+     * @return 按出现顺序排列的表信息
+     */
+    public List<TableInfo> parse(CharSequence sql) {
+        return parse(sql, false).getTables();
+    }
+
+    /**
+     * 并行容错解析文本中的所有建表语句，解析失败的语句被跳过并记录诊断信息
+     * @param sql 包含多条语句的文本
+     * @return 解析成功的表和被跳过语句的诊断信息
+     */
+    public ParseReport parseRecovering(CharSequence sql) {
+        return parse(sql, true);
+    }
+
+    private ParseReport parse(CharSequence sql, boolean recovering) {
+        List<Statement> statements = scanSchemaStatements(sql);
+        TableInfo[] results = new TableInfo[statements.size()];
+        ParseDiagnostic[] diagnostics = recovering ? new ParseDiagnostic[results.length] : null;
+        StatementParser parser = new StatementParser() {
+            @Override
+            public TableInfo parse(Statement statement) {
+                int start = (int) statement.getStart();
+                int end = (int) statement.getEnd();
+                return cache != null ? cache.parse(sql, start, end) : TableFieldExtractor.parseCreateTable(sql, start, end);
+            }
+
+            @Override
+            public void applyIndex(Statement statement, CreateIndexRouter indexes) {
+                indexes.apply(sql, (int) statement.getStart(), (int) statement.getEnd());
+            }
+
+            @Override
+            public ParseDiagnostic diagnose(Statement statement, RuntimeException error) {
+                return ParseDiagnostic.of(statement, sql, (int) statement.getStart(), (int) statement.getEnd(), error);
+            }
+        };
+        pool.invoke(new ParseTask(statements, results, diagnostics, 0, results.length, parser));
+        applyIndexes(statements, results, diagnostics, parser);
+        saveCache();
+        return toReport(results, diagnostics);
+    }
+
+    /**
+     * 并行解析导出文件中的所有建表语句，遇到解析失败的语句时抛出异常
+     * @param dumpFile 导出文件路径
+     * @return 按出现顺序排列的表信息
+     */
+    public List<TableInfo> parseFile(Path dumpFile) throws IOException {
+        return parseFile(dumpFile, false).getTables();
+    }
+
+    /**
+     * 并行容错解析导出文件中的所有建表语句，解析失败的语句被跳过并记录诊断信息
+     * @param dumpFile 导出文件路径
+     * @return 解析成功的表和被跳过语句的诊断信息
+     */
+    public ParseReport parseFileRecovering(Path dumpFile) throws IOException {
+        return parseFile(dumpFile, true);
+    }
+
+    private ParseReport parseFile(Path dumpFile, boolean recovering) throws IOException {
+        if (StreamingSchemaParser.isCompressed(dumpFile)) {
+            List<TableInfo> tables = new ArrayList<>();
+            List<ParseDiagnostic> diagnostics = new ArrayList<>();
+            try (InputStream in = Files.newInputStream(dumpFile)) {
+                StreamingSchemaParser.parse(in, cache, tables::add, recovering ? diagnostics::add : null);
+            }
+            saveCache();
+            return new ParseReport(tables, diagnostics);
+        }
+        try (FileChannel channel = FileChannel.open(dumpFile, StandardOpenOption.READ)) {
+            List<Statement> statements = new ArrayList<>();
+            SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+                if (statement.getKind() == StatementKind.CREATE_TABLE || statement.getKind() == StatementKind.CREATE_INDEX) {
+                    statements.add(statement);
+                }
+            });
+            long base = DumpFileParser.skipByteOrderMark(channel);
+            long size = channel.size();
+            for (long offset = base; offset < size; offset += DumpFileParser.MAP_WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(DumpFileParser.MAP_WINDOW_SIZE, size - offset));
+                scanner.feed(window);
+            }
+            scanner.finish();
+
+            // FileChannel 的按位置读取是线程安全的
+            TableInfo[] results = new TableInfo[statements.size()];
+            ParseDiagnostic[] diagnostics = recovering ? new ParseDiagnostic[results.length] : null;
+            StatementParser parser = new StatementParser() {
+                @Override
+                public TableInfo parse(Statement statement) {
+                    return DumpFileParser.parseStatement(read(statement), cache);
+                }
+
+                @Override
+                public void applyIndex(Statement statement, CreateIndexRouter indexes) {
+                    String sql = read(statement);
+                    indexes.apply(sql, 0, sql.length());
+                }
+
+                @Override
+                public ParseDiagnostic diagnose(Statement statement, RuntimeException error) {
+                    String sql = read(statement);
+                    return ParseDiagnostic.of(statement, sql, 0, sql.length(), error);
+                }
+
+                private String read(Statement statement) {
+                    try {
+                        return DumpFileParser.readStatement(channel, base, statement);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            try {
+                pool.invoke(new ParseTask(statements, results, diagnostics, 0, results.length, parser));
+                applyIndexes(statements, results, diagnostics, parser);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            saveCache();
+            return toReport(results, diagnostics);
+        }
+    }
+
+    /**
+     * 按原文顺序把单独的 CREATE INDEX 语句补充到前面的同名表上，与 {@link TableFieldExtractor#parseAll(CharSequence)} 的结果一致
+     */
+    private static void applyIndexes(List<Statement> statements, TableInfo[] results, ParseDiagnostic[] diagnostics, StatementParser parser) {
+        CreateIndexRouter indexes = new CreateIndexRouter();
+        for (int i = 0; i < results.length; i++) {
+            Statement statement = statements.get(i);
+            if (statement.getKind() == StatementKind.CREATE_TABLE) {
+                if (results[i] != null) {
+                    indexes.add(results[i]);
+                }
+                continue;
+            }
+            try {
+                parser.applyIndex(statement, indexes);
+            } catch (UncheckedIOException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (diagnostics == null) {
+                    throw e;
+                }
+                diagnostics[i] = parser.diagnose(statement, e);
+            }
+        }
+    }
+
+    /**
+     * 按原文顺序收集解析结果
+     */
+    private static ParseReport toReport(TableInfo[] results, ParseDiagnostic[] diagnostics) {
+        List<TableInfo> tables = new ArrayList<>(results.length);
+        List<ParseDiagnostic> errors = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                tables.add(results[i]);
+            } else if (diagnostics != null && diagnostics[i] != null) {
+                errors.add(diagnostics[i]);
+            }
+        }
+        return new ParseReport(tables, errors);
+    }
+
+    private static List<Statement> scanSchemaStatements(CharSequence sql) {
+        List<Statement> statements = new ArrayList<>();
+        SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+            if (statement.getKind() == StatementKind.CREATE_TABLE || statement.getKind() == StatementKind.CREATE_INDEX) {
+                statements.add(statement);
+            }
+        });
+        scanner.feed(sql, 0, sql.length());
+        scanner.finish();
+        return statements;
+    }
+
+    private void saveCache() {
+        if (cache != null) {
+            cache.saveLater();
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * 单条语句的解析函数
+     */
+    private interface StatementParser {
+        TableInfo parse(Statement statement);
+
+        /**
+         * 解析一条 CREATE INDEX 语句并补充到同名表上
+         */
+        void applyIndex(Statement statement, CreateIndexRouter indexes);
+
+        /**
+         * 为解析失败的语句生成诊断信息
+         */
+        ParseDiagnostic diagnose(Statement statement, RuntimeException error);
+    }
+
+    /**
+     * 按下标区间二分的解析任务，结果直接写入对应下标，保证与原文顺序一致；CREATE INDEX 语句留到合并时处理
+     */
+    private static class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Statement> statements;
+        private final TableInfo[] results;
+        // 容错模式下记录每条语句的诊断信息，严格模式下为 null
+        private final ParseDiagnostic[] diagnostics;
+        private final int from;
+        private final int to;
+        private final StatementParser parser;
+
+        ParseTask(List<Statement> statements, TableInfo[] results, ParseDiagnostic[] diagnostics, int from, int to, StatementParser parser) {
+            this.statements = statements;
+            this.results = results;
+            this.diagnostics = diagnostics;
+            this.from = from;
+            this.to = to;
+            this.parser = parser;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    Statement statement = statements.get(i);
+                    if (statement.getKind() != StatementKind.CREATE_TABLE) {
+                        continue;
+                    }
+                    try {
+                        results[i] = parser.parse(statement);
+                    } catch (UncheckedIOException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        if (diagnostics == null) {
+                            throw e;
+                        }
+                        diagnostics[i] = parser.diagnose(statement, e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(statements, results, diagnostics, from, middle, parser),
+                      new ParseTask(statements, results, diagnostics, middle, to, parser));
+        }
+    }
+}
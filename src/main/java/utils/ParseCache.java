@@ -0,0 +1,356 @@
+package utils;
+
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 建表语句解析缓存
+ * 以规范化后建表语句的 64 位哈希为键缓存解析结果：内存中按 LRU 淘汰，
+ * 并持久化到与 generator_config.properties 同目录的二进制文件中，下次启动时直接加载。
+ * 每个结果同时记录规范化文本的长度和另一个独立的 64 位哈希，命中时三者都相同才使用缓存结果，
+ * 键相同而语句不同时按未命中处理并覆盖。
+ * 文件头记录了解析器版本，解析器升级后旧缓存会被自动丢弃。
+ * 界面编辑、解析等频繁的调用方使用 {@link #saveLater()}：短时间内的多次请求合并为一次后台写盘，
+ * 程序退出时写入尚未保存的结果；写盘期间其他线程仍可查询和解析。
+ */
+public class ParseCache {
+
+    // 缓存文件名（与配置文件一样存储在程序运行的根目录下）
+    public static final String CACHE_FILE_NAME = "generator_parse_cache.bin";
+
+    // 默认最多缓存的表数量
+    public static final int DEFAULT_MAX_ENTRIES = 20000;
+
+    // "MPG2"：每个结果之外还记录规范化长度和校验哈希，旧格式 "MPGC" 的文件被丢弃
+    private static final int MAGIC = 0x4D504732;
+
+    // saveLater() 推迟写盘的时间，期间的多次请求合并为一次
+    public static final long SAVE_DELAY_MILLIS = 2000;
+
+    private static final ParseCache INSTANCE = new ParseCache(Paths.get(CACHE_FILE_NAME), DEFAULT_MAX_ENTRIES);
+
+    private final Path cacheFile;
+    private final LinkedHashMap<Long, CachedTable> entries;
+    private boolean loaded;
+    // 修改次数和已保存到磁盘时的修改次数，两者不同时有未保存的结果
+    private long modifications;
+    private long savedModifications;
+    private boolean saveScheduled;
+    private boolean shutdownHookInstalled;
+    // 同一时间只有一个线程写缓存文件
+    private final Object saveLock = new Object();
+    private long hits;
+    private long misses;
+
+    /**
+     * @param cacheFile 缓存文件路径
+     * @param maxEntries 内存中最多保留的表数量
+     */
+    public ParseCache(Path cacheFile, int maxEntries) {
+        this.cacheFile = cacheFile;
+        this.entries = new LinkedHashMap<Long, CachedTable>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedTable> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 默认缓存实例
+     */
+    public static ParseCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 解析区间内的建表语句，命中缓存时直接返回缓存结果的副本
+     * @param sql 文本
+     * @param from 起始下标（包含）
+     * @param to 结束下标（不包含）
+     */
+    public TableInfo parse(CharSequence sql, int from, int to) {
+        Fingerprint fingerprint = fingerprint(sql, from, to);
+        synchronized (this) {
+            ensureLoaded();
+            CachedTable cached = entries.get(fingerprint.hash);
+            if (cached != null && cached.length == fingerprint.length && cached.check == fingerprint.check) {
+                hits++;
+                return TableInfoCodec.copy(cached.table);
+            }
+            misses++;
+        }
+        // 解析在锁外进行，允许多个线程同时解析不同的语句
+        TableInfo parsed = TableFieldExtractor.parseCreateTable(sql, from, to);
+        synchronized (this) {
+            entries.put(fingerprint.hash, new CachedTable(fingerprint.length, fingerprint.check, TableInfoCodec.copy(parsed)));
+            modifications++;
+        }
+        return parsed;
+    }
+
+    /**
+     * 计算规范化文本的两个哈希和长度。
+     * 规范化规则：引号外的连续空白视为一个空格，首尾空白忽略；
+     * 结束行注释（# 或 --，与 SqlLexer 一致）的换行符保留为换行，因为它决定了注释后的内容是否仍在注释中。
+     * 主哈希为 64 位 FNV-1a，作为缓存的键；校验哈希使用另一种乘数和混合函数，与长度一起在命中时核对。
+     */
+    static Fingerprint fingerprint(CharSequence sql, int from, int to) {
+        Fingerprint f = new Fingerprint();
+        char quote = 0;
+        boolean lineComment = false;
+        boolean pendingSpace = false;
+        boolean started = false;
+        // 刚写入了行注释结束的换行，之后的空白不再写入空格
+        boolean afterBreak = false;
+        for (int i = from; i < to; i++) {
+            char c = sql.charAt(i);
+            if (quote == 0 && (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f')) {
+                if (lineComment && c == '\n') {
+                    lineComment = false;
+                    pendingSpace = false;
+                    afterBreak = true;
+                    f.add('\n');
+                } else {
+                    pendingSpace = started && !afterBreak;
+                }
+                continue;
+            }
+            if (pendingSpace) {
+                f.add(' ');
+                pendingSpace = false;
+            }
+            started = true;
+            afterBreak = false;
+            if (lineComment) {
+                // 注释中的引号不开始字符串
+                f.add(c);
+                continue;
+            }
+            if (quote != 0) {
+                if (c == '\\' && i + 1 < to) {
+                    f.add(c);
+                    c = sql.charAt(++i);
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '#' || (c == '-' && i + 1 < to && sql.charAt(i + 1) == '-')) {
+                lineComment = true;
+            }
+            f.add(c);
+        }
+        return f;
+    }
+
+    /**
+     * 规范化文本的主哈希、校验哈希和长度
+     */
+    static final class Fingerprint {
+        long hash = 0xcbf29ce484222325L;
+        long check = 0x6a09e667f3bcc909L;
+        int length;
+
+        void add(char c) {
+            hash = (hash ^ c) * 0x100000001b3L;
+            long k = (check ^ c) * 0x9e3779b97f4a7c15L;
+            check = k ^ (k >>> 29);
+            length++;
+        }
+    }
+
+    /**
+     * 一个缓存结果及其规范化文本的长度和校验哈希
+     */
+    private static final class CachedTable {
+        final int length;
+        final long check;
+        final TableInfo table;
+
+        CachedTable(int length, long check, TableInfo table) {
+            this.length = length;
+            this.check = check;
+            this.table = table;
+        }
+    }
+
+    /**
+     * 有新结果时把缓存写回磁盘（先写临时文件再替换，避免写到一半的文件被读到）
+     * 只在复制条目时持有缓存的锁，写文件期间其他线程仍可查询和解析。
+     */
+    public void save() {
+        synchronized (saveLock) {
+            List<Map.Entry<Long, CachedTable>> snapshot;
+            long version;
+            synchronized (this) {
+                if (modifications == savedModifications) {
+                    return;
+                }
+                // 按从旧到新的顺序复制，加载后 LRU 顺序保持不变；条目中的 TableInfo 放入后不再修改
+                snapshot = new ArrayList<>(entries.size());
+                for (Map.Entry<Long, CachedTable> entry : entries.entrySet()) {
+                    snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                }
+                version = modifications;
+            }
+            if (write(snapshot)) {
+                synchronized (this) {
+                    savedModifications = version;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在 {@link #SAVE_DELAY_MILLIS} 毫秒后于后台线程保存，已有等待中的保存时不重复安排
+     * 第一次调用时注册退出时的保存，程序在等待期间退出也不会丢失结果。
+     */
+    public void saveLater() {
+        synchronized (this) {
+            if (modifications == savedModifications || saveScheduled) {
+                return;
+            }
+            saveScheduled = true;
+            if (!shutdownHookInstalled) {
+                shutdownHookInstalled = true;
+                Runtime.getRuntime().addShutdownHook(new Thread(this::save, "parse-cache-exit-save"));
+            }
+        }
+        Saver.EXECUTOR.schedule(() -> {
+            synchronized (this) {
+                saveScheduled = false;
+            }
+            save();
+        }, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean write(List<Map.Entry<Long, CachedTable>> snapshot) {
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(TableInfoCodec.FORMAT_VERSION);
+            out.writeInt(TableFieldExtractor.PARSER_VERSION);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<Long, CachedTable> entry : snapshot) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.writeLong(entry.getValue().check);
+                TableInfoCodec.write(out, entry.getValue().table);
+            }
+        } catch (IOException e) {
+            System.err.println("保存解析缓存时出错: " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveError) {
+                System.err.println("保存解析缓存时出错: " + moveError.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 推迟保存使用的后台线程，第一次调用 saveLater() 时创建；守护线程，不阻止程序退出
+     */
+    private static final class Saver {
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parse-cache-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 清空内存和磁盘上的缓存
+     */
+    public void clear() {
+        // 等待进行中的保存结束，避免删除后又被写回旧的条目
+        synchronized (saveLock) {
+            synchronized (this) {
+                entries.clear();
+                loaded = true;
+                hits = 0;
+                misses = 0;
+                savedModifications = modifications;
+                try {
+                    Files.deleteIfExists(cacheFile);
+                } catch (IOException e) {
+                    System.err.println("删除解析缓存文件时出错: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            long size = Files.size(cacheFile);
+            if (in.readInt() != MAGIC
+                    || in.readInt() != TableInfoCodec.FORMAT_VERSION
+                    || in.readInt() != TableFieldExtractor.PARSER_VERSION) {
+                // 解析器或文件格式已升级，旧结果作废，下次保存时覆盖
+                modifications++;
+                return;
+            }
+            // 每个条目为键、语句长度、校验值和编码后的表
+            int count = TableInfoCodec.readCount(in, size / (8 + 4 + 8 + TableInfoCodec.MIN_TABLE_BYTES));
+            List<Map.Entry<Long, CachedTable>> loadedEntries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                int length = in.readInt();
+                long check = in.readLong();
+                loadedEntries.add(new AbstractMap.SimpleEntry<>(key, new CachedTable(length, check, TableInfoCodec.read(in))));
+            }
+            for (Map.Entry<Long, CachedTable> entry : loadedEntries) {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            // 数据损坏时除了读到文件末尾，也可能得到错误的数量或字符串，一律丢弃整个文件
+            System.err.println("解析缓存文件已损坏，将重新建立: " + e);
+            entries.clear();
+            modifications++;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+}
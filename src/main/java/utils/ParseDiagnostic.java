@@ -0,0 +1,103 @@
+package utils;
+
+import utils.SqlStatementScanner.Statement;
+
+/**
+ * 一条解析失败的语句的诊断信息：位置、原因和语句开头的片段
+ */
+public final class ParseDiagnostic {
+
+    // 语句片段的最大长度
+    private static final int SNIPPET_LENGTH = 80;
+
+    private final int line;
+    private final int column;
+    private final String reason;
+    private final String snippet;
+    private final String source;
+
+    public ParseDiagnostic(int line, int column, String reason, String snippet) {
+        this(line, column, reason, snippet, null);
+    }
+
+    /**
+     * @param source 语句所在的文件名，未知时为 null
+     */
+    public ParseDiagnostic(int line, int column, String reason, String snippet, String source) {
+        this.line = line;
+        this.column = column;
+        this.reason = reason;
+        this.snippet = snippet;
+        this.source = source;
+    }
+
+    /**
+     * 返回记录了所在文件名的副本
+     */
+    public ParseDiagnostic withSource(String source) {
+        return new ParseDiagnostic(line, column, reason, snippet, source);
+    }
+
+    /**
+     * 根据语句位置和解析异常生成诊断信息，能定位到出错记号时使用记号的位置
+     * @param statement 扫描器给出的语句位置
+     * @param text 语句所在的文本
+     * @param from 语句在 text 中的起始下标
+     * @param to 语句在 text 中的结束下标
+     * @param error 解析时抛出的异常
+     */
+    public static ParseDiagnostic of(Statement statement, CharSequence text, int from, int to, RuntimeException error) {
+        int line = statement.getLine();
+        int column = statement.getColumn();
+        if (error instanceof SqlParseException) {
+            SqlParseException parseError = (SqlParseException) error;
+            // 异常中的行列号相对于语句起点
+            column = parseError.getLine() == 1 ? column + parseError.getColumn() - 1 : parseError.getColumn();
+            line += parseError.getLine() - 1;
+        }
+        String reason = error instanceof IllegalArgumentException && error.getMessage() != null
+                ? error.getMessage() : error.toString();
+        return new ParseDiagnostic(line, column, reason, snippet(text, from, to));
+    }
+
+    /**
+     * 语句开头的片段，连续空白压缩为一个空格
+     */
+    private static String snippet(CharSequence text, int from, int to) {
+        StringBuilder sb = new StringBuilder(SNIPPET_LENGTH + 3);
+        boolean space = false;
+        for (int i = from; i < to && sb.length() < SNIPPET_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        if (sb.length() >= SNIPPET_LENGTH) {
+            sb.append("...");
+        }
+        return sb.toString();
+    }
+
+    /** 行号（从1开始） */
+    public int getLine() { return line; }
+    /** 列号（从1开始） */
+    public int getColumn() { return column; }
+    /** 失败原因 */
+    public String getReason() { return reason; }
+    /** 语句开头的片段 */
+    public String getSnippet() { return snippet; }
+    /** 语句所在的文件名，未知时为 null */
+    public String getSource() { return source; }
+
+    @Override
+    public String toString() {
+        String location = "第 " + line + " 行第 " + column + " 列";
+        return (source != null ? source + " " + location : location) + ": " + reason + "  语句: " + snippet;
+    }
+}
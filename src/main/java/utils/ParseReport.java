@@ -0,0 +1,61 @@
+package utils;
+
+import utils.TableFieldExtractor.TableInfo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 容错解析的结果：解析成功的表，以及被跳过语句的诊断信息
+ */
+public class ParseReport {
+
+    private final List<TableInfo> tables;
+    private final List<ParseDiagnostic> diagnostics;
+
+    public ParseReport(List<TableInfo> tables, List<ParseDiagnostic> diagnostics) {
+        this.tables = Collections.unmodifiableList(tables);
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+    }
+
+    /**
+     * 解析成功的表（按出现顺序）
+     */
+    public List<TableInfo> getTables() {
+        return tables;
+    }
+
+    /**
+     * 被跳过语句的诊断信息（按出现顺序）
+     */
+    public List<ParseDiagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    public boolean hasErrors() {
+        return !diagnostics.isEmpty();
+    }
+
+    /**
+     * 生成运行结束时的解析报告
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== 解析报告 ===\n");
+        sb.append("成功解析 ").append(tables.size()).append(" 张表，跳过 ").append(diagnostics.size()).append(" 条语句\n");
+        if (!diagnostics.isEmpty()) {
+            sb.append("跳过的语句:\n");
+            for (ParseDiagnostic diagnostic : diagnostics) {
+                sb.append("  ").append(diagnostic).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 打印解析报告
+     */
+    public void printReport() {
+        System.out.print(formatReport());
+    }
+}
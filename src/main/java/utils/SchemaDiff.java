@@ -0,0 +1,337 @@
+package utils;
+
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 两次解析结果之间的逐表差异
+ * 表按名称（不区分大小写）对应，字段同样按名称对应，列出每张表新增、删除和修改的字段。
+ * 表注释、字段顺序或索引变化时表同样视为已修改，因为它们都会影响生成的代码。
+ */
+public class SchemaDiff {
+
+    /**
+     * 表的变化类型
+     */
+    public enum ChangeType {
+        ADDED, REMOVED, CHANGED, UNCHANGED
+    }
+
+    /**
+     * 上次的表结构来源。可以只在需要时读取单张表，
+     * 如生成快照按指纹判断未变化的表，只读取变化了的表用于逐字段对比。
+     */
+    public interface Baseline {
+        /**
+         * 上次的全部表名，按上次的顺序排列
+         */
+        List<String> getTableNames();
+
+        /**
+         * 按表名（不区分大小写）读取上次的表结构，不存在时返回 null
+         */
+        TableInfo getTable(String tableName);
+
+        /**
+         * 本次的表是否与上次的同名表完全相同；无法快速判断时返回 false，再逐字段对比
+         */
+        boolean isUnchanged(TableInfo current);
+    }
+
+    /**
+     * 一张表的差异
+     */
+    public static class TableDiff {
+        private final String tableName;
+        private final ChangeType changeType;
+        private final TableInfo previous;
+        private final TableInfo current;
+        private final List<String> addedColumns;
+        private final List<String> removedColumns;
+        private final List<String> changedColumns;
+        private final boolean commentChanged;
+        private final boolean orderChanged;
+        private final boolean indexesChanged;
+
+        /**
+         * 已知未变化的表
+         */
+        TableDiff(TableInfo table) {
+            this.previous = table;
+            this.current = table;
+            this.tableName = table.getTableName();
+            this.changeType = ChangeType.UNCHANGED;
+            this.addedColumns = Collections.emptyList();
+            this.removedColumns = Collections.emptyList();
+            this.changedColumns = Collections.emptyList();
+            this.commentChanged = false;
+            this.orderChanged = false;
+            this.indexesChanged = false;
+        }
+
+        TableDiff(TableInfo previous, TableInfo current) {
+            this.previous = previous;
+            this.current = current;
+            this.tableName = current != null ? current.getTableName() : previous.getTableName();
+            if (previous == null || current == null) {
+                List<String> all = columnNames(previous != null ? previous : current);
+                this.changeType = previous == null ? ChangeType.ADDED : ChangeType.REMOVED;
+                this.addedColumns = previous == null ? all : Collections.<String>emptyList();
+                this.removedColumns = current == null ? all : Collections.<String>emptyList();
+                this.changedColumns = Collections.emptyList();
+                this.commentChanged = false;
+                this.orderChanged = false;
+                this.indexesChanged = false;
+                return;
+            }
+            Map<String, FieldInfo> previousFields = fieldsByName(previous);
+            Map<String, FieldInfo> currentFields = fieldsByName(current);
+            List<String> added = new ArrayList<>();
+            List<String> changed = new ArrayList<>();
+            for (Map.Entry<String, FieldInfo> entry : currentFields.entrySet()) {
+                FieldInfo before = previousFields.get(entry.getKey());
+                if (before == null) {
+                    added.add(entry.getValue().getFieldName());
+                } else if (!sameField(before, entry.getValue())) {
+                    changed.add(entry.getValue().getFieldName());
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            for (Map.Entry<String, FieldInfo> entry : previousFields.entrySet()) {
+                if (!currentFields.containsKey(entry.getKey())) {
+                    removed.add(entry.getValue().getFieldName());
+                }
+            }
+            this.addedColumns = added;
+            this.removedColumns = removed;
+            this.changedColumns = changed;
+            this.commentChanged = !Objects.equals(previous.getTableComment(), current.getTableComment());
+            // 字段名相同但顺序不同时，实体类中的字段顺序也会变化
+            this.orderChanged = added.isEmpty() && removed.isEmpty()
+                    && !new ArrayList<>(previousFields.keySet()).equals(new ArrayList<>(currentFields.keySet()));
+            this.indexesChanged = !sameIndexes(previous.getIndexes(), current.getIndexes());
+            boolean tableRenamed = !previous.getTableName().equals(current.getTableName());
+            this.changeType = tableRenamed || commentChanged || orderChanged || indexesChanged
+                    || !added.isEmpty() || !removed.isEmpty() || !changed.isEmpty()
+                    ? ChangeType.CHANGED : ChangeType.UNCHANGED;
+        }
+
+        public String getTableName() { return tableName; }
+        public ChangeType getChangeType() { return changeType; }
+        /** 上次的表结构，新增的表为 null */
+        public TableInfo getPrevious() { return previous; }
+        /** 本次的表结构，删除的表为 null */
+        public TableInfo getCurrent() { return current; }
+        public List<String> getAddedColumns() { return addedColumns; }
+        public List<String> getRemovedColumns() { return removedColumns; }
+        /** 类型或注释发生变化的字段 */
+        public List<String> getChangedColumns() { return changedColumns; }
+        public boolean isCommentChanged() { return commentChanged; }
+        public boolean isOrderChanged() { return orderChanged; }
+        public boolean isIndexesChanged() { return indexesChanged; }
+
+        /**
+         * 是否需要重新生成代码（新增或修改的表）
+         */
+        public boolean needsRegeneration() {
+            return changeType == ChangeType.ADDED || changeType == ChangeType.CHANGED;
+        }
+
+        /**
+         * 一行文字描述，如 "t_user 修改: 新增字段 [age]，修改字段 [name]"
+         */
+        public String describe() {
+            switch (changeType) {
+                case ADDED:
+                    return tableName + " 新增（" + addedColumns.size() + " 个字段）";
+                case REMOVED:
+                    return tableName + " 已删除";
+                case UNCHANGED:
+                    return tableName + " 未变化";
+                default:
+                    break;
+            }
+            List<String> parts = new ArrayList<>();
+            if (!previous.getTableName().equals(current.getTableName())) {
+                parts.add("表名大小写 " + previous.getTableName() + " -> " + current.getTableName());
+            }
+            if (!addedColumns.isEmpty()) {
+                parts.add("新增字段 " + addedColumns);
+            }
+            if (!removedColumns.isEmpty()) {
+                parts.add("删除字段 " + removedColumns);
+            }
+            if (!changedColumns.isEmpty()) {
+                parts.add("修改字段 " + changedColumns);
+            }
+            if (orderChanged) {
+                parts.add("字段顺序变化");
+            }
+            if (commentChanged) {
+                parts.add("表注释变化");
+            }
+            if (indexesChanged) {
+                parts.add("索引变化");
+            }
+            return tableName + " 修改: " + String.join("，", parts);
+        }
+    }
+
+    private final List<TableDiff> tables;
+
+    private SchemaDiff(List<TableDiff> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * 对比两次的表结构
+     * @param previous 上次的表，为 null 时所有表都视为新增
+     * @param current 本次的表
+     * @return 差异，按本次表的顺序排列，删除的表排在最后
+     */
+    public static SchemaDiff compare(List<? extends TableInfo> previous, List<? extends TableInfo> current) {
+        Map<String, TableInfo> previousTables = new LinkedHashMap<>();
+        if (previous != null) {
+            for (TableInfo table : previous) {
+                previousTables.put(key(table.getTableName()), table);
+            }
+        }
+        return compare(new Baseline() {
+            @Override
+            public List<String> getTableNames() {
+                List<String> names = new ArrayList<>(previousTables.size());
+                for (TableInfo table : previousTables.values()) {
+                    names.add(table.getTableName());
+                }
+                return names;
+            }
+
+            @Override
+            public TableInfo getTable(String tableName) {
+                return previousTables.get(key(tableName));
+            }
+
+            @Override
+            public boolean isUnchanged(TableInfo current) {
+                return false;
+            }
+        }, current);
+    }
+
+    /**
+     * 对比上次的表结构来源与本次的表结构，未变化的表不读取上次的内容
+     * @return 差异，按本次表的顺序排列，删除的表排在最后
+     */
+    public static SchemaDiff compare(Baseline previous, List<? extends TableInfo> current) {
+        List<TableDiff> diffs = new ArrayList<>(current.size());
+        Map<String, Boolean> seen = new HashMap<>();
+        for (TableInfo table : current) {
+            String key = key(table.getTableName());
+            // 同名表出现多次时以最后一次为准，与生成的文件一致
+            if (seen.put(key, Boolean.TRUE) != null) {
+                diffs.removeIf(diff -> key(diff.getTableName()).equals(key));
+            }
+            diffs.add(previous.isUnchanged(table) ? new TableDiff(table)
+                    : new TableDiff(previous.getTable(table.getTableName()), table));
+        }
+        for (String tableName : previous.getTableNames()) {
+            if (!seen.containsKey(key(tableName))) {
+                diffs.add(new TableDiff(previous.getTable(tableName), null));
+            }
+        }
+        return new SchemaDiff(diffs);
+    }
+
+    /**
+     * 所有表的差异，包括未变化的表
+     */
+    public List<TableDiff> getTables() {
+        return tables;
+    }
+
+    /**
+     * 需要重新生成代码的表（新增或修改）
+     */
+    public List<TableDiff> getRegenerated() {
+        List<TableDiff> result = new ArrayList<>();
+        for (TableDiff diff : tables) {
+            if (diff.needsRegeneration()) {
+                result.add(diff);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 指定变化类型的表数量
+     */
+    public int count(ChangeType changeType) {
+        int count = 0;
+        for (TableDiff diff : tables) {
+            if (diff.getChangeType() == changeType) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 一行汇总，如 "新增 1 张，修改 2 张，删除 0 张，未变化 1997 张"
+     */
+    public String summary() {
+        return "新增 " + count(ChangeType.ADDED) + " 张，修改 " + count(ChangeType.CHANGED)
+                + " 张，删除 " + count(ChangeType.REMOVED) + " 张，未变化 " + count(ChangeType.UNCHANGED) + " 张";
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> columnNames(TableInfo table) {
+        List<String> names = new ArrayList<>(table.getFields().size());
+        for (FieldInfo field : table.getFields()) {
+            names.add(field.getFieldName());
+        }
+        return names;
+    }
+
+    private static Map<String, FieldInfo> fieldsByName(TableInfo table) {
+        Map<String, FieldInfo> fields = new LinkedHashMap<>();
+        for (FieldInfo field : table.getFields()) {
+            fields.put(key(field.getFieldName()), field);
+        }
+        return fields;
+    }
+
+    private static boolean sameField(FieldInfo a, FieldInfo b) {
+        // 字段名大小写变化会改变生成的属性名
+        return a.getFieldName().equals(b.getFieldName())
+                && Objects.equals(a.getFieldType(), b.getFieldType())
+                && Objects.equals(a.getComment(), b.getComment());
+    }
+
+    private static boolean sameIndexes(List<IndexInfo> a, List<IndexInfo> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            IndexInfo x = a.get(i);
+            IndexInfo y = b.get(i);
+            if (!Objects.equals(x.getIndexName(), y.getIndexName()) || x.isUnique() != y.isUnique()
+                    || !x.getColumnNames().equals(y.getColumnNames())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
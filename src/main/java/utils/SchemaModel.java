@@ -0,0 +1,327 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式存储的 schema 模型
+ * 大型 schema 中 create_time、varchar(255) 这类名称和类型会重复出现成千上万次。
+ * 这里把表名、字段名和注释放入去重后的符号表，字段类型记为 int 类型编码，
+ * 所有表的字段依次存放在共享的 int 数组中，每张表只记录自己字段的起始位置，索引也以同样的方式存放。
+ * 生成器可以通过 {@link #getTable(int)} 返回的视图直接读取，不需要再转换成 TableInfo。
+ */
+public class SchemaModel {
+
+    private static final int NONE = -1;
+
+    private final SymbolTable names = new SymbolTable();
+    private final SymbolTable comments = new SymbolTable();
+    // 类型编码即类型字符串在该符号表中的编号
+    private final SymbolTable types = new SymbolTable();
+    // 按类型编码保存的Java类型名，每种类型只在首次出现时转换一次
+    private String[] javaTypes = new String[16];
+
+    private int tableCount;
+    private int[] tableNames = new int[16];
+    private int[] tableComments = new int[16];
+    // 第 t 张表的字段位于 [columnOffsets[t], columnOffsets[t + 1])
+    private int[] columnOffsets = new int[17];
+
+    private int columnCount;
+    private int[] columnNames = new int[64];
+    private int[] columnTypes = new int[64];
+    private int[] columnComments = new int[64];
+
+    // 第 t 张表的索引位于 [indexOffsets[t], indexOffsets[t + 1])，第 k 个索引的字段位于 [indexColumnOffsets[k], indexColumnOffsets[k + 1])
+    private int[] indexOffsets = new int[17];
+    private int indexCount;
+    private int[] indexNames = new int[16];
+    private boolean[] indexUnique = new boolean[16];
+    private int[] indexColumnOffsets = new int[17];
+    private int indexColumnCount;
+    private int[] indexColumnNames = new int[32];
+
+    /**
+     * 由已解析的表构建模型
+     */
+    public static SchemaModel of(List<? extends TableColumns> tables) {
+        SchemaModel model = new SchemaModel();
+        for (TableColumns table : tables) {
+            model.addTable(table);
+        }
+        model.trimToSize();
+        return model;
+    }
+
+    /**
+     * 解析导出文件并构建模型
+     * 文件末尾的 CREATE INDEX 语句会补充到前面已经解析出的表上，因此在整个文件解析完后再写入列式数组。
+     * @param dumpFile 导出文件路径
+     */
+    public static SchemaModel fromDumpFile(Path dumpFile) throws IOException {
+        return of(DumpFileParser.parseFile(dumpFile));
+    }
+
+    /**
+     * 追加一张表
+     * @return 表在模型中的下标
+     */
+    public int addTable(TableColumns table) {
+        int count = table.getColumnCount();
+        if (tableCount == tableNames.length) {
+            int capacity = Math.max(16, tableCount * 2);
+            tableNames = Arrays.copyOf(tableNames, capacity);
+            tableComments = Arrays.copyOf(tableComments, capacity);
+            columnOffsets = Arrays.copyOf(columnOffsets, capacity + 1);
+            indexOffsets = Arrays.copyOf(indexOffsets, capacity + 1);
+        }
+        if (columnCount + count > columnNames.length) {
+            int capacity = Math.max(columnNames.length * 2, columnCount + count);
+            columnNames = Arrays.copyOf(columnNames, capacity);
+            columnTypes = Arrays.copyOf(columnTypes, capacity);
+            columnComments = Arrays.copyOf(columnComments, capacity);
+        }
+        tableNames[tableCount] = names.intern(table.getTableName());
+        tableComments[tableCount] = comments.intern(table.getTableComment());
+        for (int i = 0; i < count; i++) {
+            columnNames[columnCount] = names.intern(table.getColumnName(i));
+            columnTypes[columnCount] = internType(table.getColumnType(i));
+            columnComments[columnCount] = comments.intern(table.getColumnComment(i));
+            columnCount++;
+        }
+        columnOffsets[tableCount + 1] = columnCount;
+        addIndexes(table);
+        indexOffsets[tableCount + 1] = indexCount;
+        return tableCount++;
+    }
+
+    private void addIndexes(TableColumns table) {
+        int count = table.getIndexCount();
+        if (indexCount + count > indexNames.length) {
+            int capacity = Math.max(indexNames.length * 2, indexCount + count);
+            indexNames = Arrays.copyOf(indexNames, capacity);
+            indexUnique = Arrays.copyOf(indexUnique, capacity);
+            indexColumnOffsets = Arrays.copyOf(indexColumnOffsets, capacity + 1);
+        }
+        for (int i = 0; i < count; i++) {
+            int columns = table.getIndexColumnCount(i);
+            if (indexColumnCount + columns > indexColumnNames.length) {
+                indexColumnNames = Arrays.copyOf(indexColumnNames, Math.max(indexColumnNames.length * 2, indexColumnCount + columns));
+            }
+            for (int c = 0; c < columns; c++) {
+                indexColumnNames[indexColumnCount++] = names.intern(table.getIndexColumnName(i, c));
+            }
+            indexNames[indexCount] = names.intern(table.getIndexName(i));
+            indexUnique[indexCount] = table.isUniqueIndex(i);
+            indexColumnOffsets[++indexCount] = indexColumnCount;
+        }
+    }
+
+    private int internType(String type) {
+        int code = types.intern(type);
+        if (code == NONE) {
+            return code;
+        }
+        if (code >= javaTypes.length) {
+            javaTypes = Arrays.copyOf(javaTypes, Math.max(javaTypes.length * 2, code + 1));
+        }
+        if (javaTypes[code] == null) {
+            javaTypes[code] = TypeConverterUtils.convertToJavaType(type);
+        }
+        return code;
+    }
+
+    /**
+     * 释放数组中多余的容量
+     */
+    public void trimToSize() {
+        tableNames = Arrays.copyOf(tableNames, tableCount);
+        tableComments = Arrays.copyOf(tableComments, tableCount);
+        columnOffsets = Arrays.copyOf(columnOffsets, tableCount + 1);
+        columnNames = Arrays.copyOf(columnNames, columnCount);
+        columnTypes = Arrays.copyOf(columnTypes, columnCount);
+        columnComments = Arrays.copyOf(columnComments, columnCount);
+        indexOffsets = Arrays.copyOf(indexOffsets, tableCount + 1);
+        indexNames = Arrays.copyOf(indexNames, indexCount);
+        indexUnique = Arrays.copyOf(indexUnique, indexCount);
+        indexColumnOffsets = Arrays.copyOf(indexColumnOffsets, indexCount + 1);
+        indexColumnNames = Arrays.copyOf(indexColumnNames, indexColumnCount);
+        names.trimToSize();
+        comments.trimToSize();
+        types.trimToSize();
+    }
+
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * 第 index 张表的只读视图
+     */
+    public Table getTable(int index) {
+        if (index < 0 || index >= tableCount) {
+            throw new IndexOutOfBoundsException("表下标越界: " + index);
+        }
+        return new Table(index);
+    }
+
+    /**
+     * 按表名查找表，找不到时返回 null
+     */
+    public Table findTable(String tableName) {
+        int id = names.find(tableName);
+        if (id == NONE) {
+            return null;
+        }
+        for (int t = 0; t < tableCount; t++) {
+            if (tableNames[t] == id) {
+                return new Table(t);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 不同字段类型的数量
+     */
+    public int getTypeCount() {
+        return types.size;
+    }
+
+    /**
+     * 类型编码对应的 SQL 类型
+     */
+    public String getTypeName(int typeCode) {
+        return types.get(typeCode);
+    }
+
+    /**
+     * 类型编码对应的简化Java类型名
+     */
+    public String getJavaType(int typeCode) {
+        return typeCode == NONE ? TypeConverterUtils.convertToJavaType(null) : javaTypes[typeCode];
+    }
+
+    /**
+     * 模型中一张表的视图，本身只保存下标
+     */
+    public final class Table implements TableColumns {
+        private final int index;
+
+        private Table(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() { return index; }
+
+        @Override
+        public String getTableName() { return names.get(tableNames[index]); }
+
+        @Override
+        public String getTableComment() { return comments.get(tableComments[index]); }
+
+        @Override
+        public int getColumnCount() { return columnOffsets[index + 1] - columnOffsets[index]; }
+
+        @Override
+        public String getColumnName(int column) { return names.get(columnNames[position(column)]); }
+
+        @Override
+        public String getColumnType(int column) { return types.get(columnTypes[position(column)]); }
+
+        /**
+         * 字段的类型编码
+         */
+        public int getColumnTypeCode(int column) { return columnTypes[position(column)]; }
+
+        @Override
+        public String getColumnComment(int column) { return comments.get(columnComments[position(column)]); }
+
+        @Override
+        public String getJavaType(int column) { return SchemaModel.this.getJavaType(columnTypes[position(column)]); }
+
+        @Override
+        public int getIndexCount() { return indexOffsets[index + 1] - indexOffsets[index]; }
+
+        @Override
+        public String getIndexName(int i) { return names.get(indexNames[indexPosition(i)]); }
+
+        @Override
+        public boolean isUniqueIndex(int i) { return indexUnique[indexPosition(i)]; }
+
+        @Override
+        public int getIndexColumnCount(int i) {
+            int k = indexPosition(i);
+            return indexColumnOffsets[k + 1] - indexColumnOffsets[k];
+        }
+
+        @Override
+        public String getIndexColumnName(int i, int position) {
+            int k = indexPosition(i);
+            if (position < 0 || position >= indexColumnOffsets[k + 1] - indexColumnOffsets[k]) {
+                throw new IndexOutOfBoundsException("索引字段下标越界: " + position);
+            }
+            return names.get(indexColumnNames[indexColumnOffsets[k] + position]);
+        }
+
+        private int indexPosition(int i) {
+            if (i < 0 || i >= getIndexCount()) {
+                throw new IndexOutOfBoundsException("索引下标越界: " + i);
+            }
+            return indexOffsets[index] + i;
+        }
+
+        private int position(int column) {
+            if (column < 0 || column >= getColumnCount()) {
+                throw new IndexOutOfBoundsException("字段下标越界: " + column);
+            }
+            return columnOffsets[index] + column;
+        }
+    }
+
+    /**
+     * 字符串去重表，相同内容只保存一份并分配连续编号；null 编号为 -1
+     */
+    private static final class SymbolTable {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] values = new String[64];
+        private int size;
+
+        int intern(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            ids.put(value, size);
+            return size++;
+        }
+
+        int find(String value) {
+            Integer id = value != null ? ids.get(value) : null;
+            return id != null ? id : NONE;
+        }
+
+        String get(int id) {
+            return id == NONE ? null : values[id];
+        }
+
+        void trimToSize() {
+            values = Arrays.copyOf(values, Math.max(size, 1));
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package utils;
+
+/**
+ * SQL 字符级词法分析器
+ * 直接在原始字符序列上按位置切分记号（标识符、引号字符串、括号、关键字、注释），
+ * 记号只记录起止下标，只有在调用方真正需要文本时才会创建 String。
+ *
+ * 支持的注释形式：-- 行注释、# 行注释、斜杠星号块注释（包含 MySQL 的条件注释，一律跳过）。
+ */
+public final class SqlLexer {
+
+    /**
+     * 记号类型
+     */
+    public enum TokenType {
+        /** 普通标识符或关键字，如 create、varchar、user_id */
+        IDENTIFIER,
+        /** 反引号包裹的标识符，如 `user` */
+        QUOTED_IDENTIFIER,
+        /** 单引号或双引号字符串 */
+        STRING,
+        /** 数字字面量 */
+        NUMBER,
+        LEFT_PAREN,
+        RIGHT_PAREN,
+        COMMA,
+        SEMICOLON,
+        EQUALS,
+        /** 其他单字符符号，如 . : + - */
+        SYMBOL,
+        /** 输入结束 */
+        EOF
+    }
+
+    private final CharSequence input;
+    private final int limit;
+    private int pos;
+
+    private TokenType type;
+    private int tokenStart;
+    private int tokenEnd;
+    private boolean terminated;
+
+    // 行列号，用于定位错误
+    private int line = 1;
+    private int lineStart;
+    private int tokenLine;
+    private int tokenColumn;
+
+    public SqlLexer(CharSequence input) {
+        this(input, 0, input.length());
+    }
+
+    /**
+     * @param input 字符序列
+     * @param from 起始下标（包含）
+     * @param to 结束下标（不包含）
+     */
+    public SqlLexer(CharSequence input, int from, int to) {
+        this.input = input;
+        this.pos = from;
+        this.limit = to;
+        this.lineStart = from;
+    }
+
+    /**
+     * 读取下一个记号
+     * @return 记号类型
+     */
+    public TokenType next() {
+        skipWhitespaceAndComments();
+        tokenStart = pos;
+        tokenLine = line;
+        tokenColumn = pos - lineStart + 1;
+        terminated = true;
+        if (pos >= limit) {
+            tokenEnd = pos;
+            return type = TokenType.EOF;
+        }
+
+        char c = input.charAt(pos);
+        switch (c) {
+            case '(':
+                pos++;
+                type = TokenType.LEFT_PAREN;
+                break;
+            case ')':
+                pos++;
+                type = TokenType.RIGHT_PAREN;
+                break;
+            case ',':
+                pos++;
+                type = TokenType.COMMA;
+                break;
+            case ';':
+                pos++;
+                type = TokenType.SEMICOLON;
+                break;
+            case '=':
+                pos++;
+                type = TokenType.EQUALS;
+                break;
+            case '\'':
+            case '"':
+                scanQuoted(c);
+                type = TokenType.STRING;
+                break;
+            case '`':
+                scanQuoted(c);
+                type = TokenType.QUOTED_IDENTIFIER;
+                break;
+            default:
+                if (isIdentifierStart(c)) {
+                    pos++;
+                    while (pos < limit && isIdentifierPart(input.charAt(pos))) {
+                        pos++;
+                    }
+                    type = TokenType.IDENTIFIER;
+                } else if (c >= '0' && c <= '9') {
+                    pos++;
+                    while (pos < limit && (isIdentifierPart(input.charAt(pos)) || input.charAt(pos) == '.')) {
+                        pos++;
+                    }
+                    type = TokenType.NUMBER;
+                } else {
+                    pos++;
+                    type = TokenType.SYMBOL;
+                }
+                break;
+        }
+        tokenEnd = pos;
+        return type;
+    }
+
+    /**
+     * 跳过空白与注释
+     */
+    private void skipWhitespaceAndComments() {
+        while (pos < limit) {
+            char c = input.charAt(pos);
+            if (c == '\n') {
+                pos++;
+                line++;
+                lineStart = pos;
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                pos++;
+            } else if (c == '#' || (c == '-' && pos + 1 < limit && input.charAt(pos + 1) == '-')) {
+                // 行注释：读到行尾，换行符留给下一轮处理以维护行号
+                while (pos < limit && input.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else if (c == '/' && pos + 1 < limit && input.charAt(pos + 1) == '*') {
+                pos += 2;
+                while (pos < limit && !(input.charAt(pos) == '*' && pos + 1 < limit && input.charAt(pos + 1) == '/')) {
+                    if (input.charAt(pos) == '\n') {
+                        line++;
+                        lineStart = pos + 1;
+                    }
+                    pos++;
+                }
+                pos = Math.min(pos + 2, limit);
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 扫描引号包裹的内容，支持反斜杠转义和连续两个引号的转义
+     */
+    private void scanQuoted(char quote) {
+        pos++;
+        while (pos < limit) {
+            char c = input.charAt(pos);
+            if (c == '\\' && quote != '`') {
+                pos += 2;
+                continue;
+            }
+            if (c == '\n') {
+                line++;
+                lineStart = pos + 1;
+            }
+            pos++;
+            if (c == quote) {
+                if (pos < limit && input.charAt(pos) == quote) {
+                    pos++;
+                    continue;
+                }
+                return;
+            }
+        }
+        pos = limit;
+        terminated = false;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+
+    public TokenType type() { return type; }
+    public int start() { return tokenStart; }
+    public int end() { return tokenEnd; }
+    public int line() { return tokenLine; }
+    public int column() { return tokenColumn; }
+    public CharSequence input() { return input; }
+
+    /**
+     * 当前引号记号是否正常闭合
+     */
+    public boolean isTerminated() { return terminated; }
+
+    /**
+     * 判断当前记号是否为指定关键字（忽略大小写，不创建字符串）
+     * @param keyword 小写关键字
+     */
+    public boolean isKeyword(String keyword) {
+        if (type != TokenType.IDENTIFIER || tokenEnd - tokenStart != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = input.charAt(tokenStart + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 当前记号的原始文本（包含引号）
+     */
+    public String rawText() {
+        return input.subSequence(tokenStart, tokenEnd).toString();
+    }
+
+    /**
+     * 标识符文本，反引号标识符会去掉两侧引号
+     */
+    public String identifier() {
+        if (type == TokenType.QUOTED_IDENTIFIER) {
+            return unquote();
+        }
+        return rawText();
+    }
+
+    /**
+     * 字符串字面量的值（去掉引号并处理转义）
+     */
+    public String stringValue() {
+        return unquote();
+    }
+
+    private String unquote() {
+        int from = tokenStart + 1;
+        int to = terminated ? tokenEnd - 1 : tokenEnd;
+        char quote = input.charAt(tokenStart);
+        // 快速路径：没有转义字符时直接截取
+        boolean plain = true;
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            if (c == quote || (c == '\\' && quote != '`')) {
+                plain = false;
+                break;
+            }
+        }
+        if (plain) {
+            return input.subSequence(from, to).toString();
+        }
+        StringBuilder sb = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            if (c == '\\' && quote != '`' && i + 1 < to) {
+                char n = input.charAt(++i);
+                switch (n) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case '0': sb.append('\0'); break;
+                    default: sb.append(n); break;
+                }
+            } else if (c == quote && i + 1 < to && input.charAt(i + 1) == quote) {
+                sb.append(c);
+                i++;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 将当前记号的原始文本追加到 StringBuilder
+     */
+    public void appendRaw(StringBuilder sb) {
+        sb.append(input, tokenStart, tokenEnd);
+    }
+}
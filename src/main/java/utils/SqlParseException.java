@@ -0,0 +1,28 @@
+package utils;
+
+/**
+ * SQL 解析异常
+ * 在原有错误信息的基础上记录出错记号的行列号（相对于被解析文本的起点，从1开始）。
+ * 继承 IllegalArgumentException，捕获 IllegalArgumentException 的已有代码不受影响。
+ */
+public class SqlParseException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+
+    public SqlParseException(String message, int line, int column) {
+        super(message);
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
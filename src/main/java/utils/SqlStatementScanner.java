@@ -0,0 +1,445 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * SQL 语句边界扫描器
+ * 以状态机的方式逐字符（或逐字节）推进，识别引号、注释和括号，在顶层分号处切分语句，
+ * 并根据语句开头的关键字判断语句类型。扫描过程中不保存语句内容，
+ * 因此可以在不加载整个文件的情况下跳过体积巨大的 INSERT 数据段。
+ *
+ * 按字节扫描时，多字节 UTF-8 字符的每个字节都大于 0x7F，不会与任何 SQL 语法字符冲突。
+ */
+public final class SqlStatementScanner {
+
+    /**
+     * 语句类型
+     */
+    public enum StatementKind {
+        CREATE_TABLE,
+        CREATE_INDEX,
+        ALTER_TABLE,
+        DROP_TABLE,
+        DROP_INDEX,
+        RENAME_TABLE,
+        INSERT,
+        OTHER
+    }
+
+    /**
+     * 一条语句的位置信息
+     */
+    public static final class Statement {
+        private final StatementKind kind;
+        private final long start;
+        private final long end;
+        private final int line;
+        private final int column;
+        private final boolean balanced;
+
+        Statement(StatementKind kind, long start, long end, int line, int column, boolean balanced) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+            this.line = line;
+            this.column = column;
+            this.balanced = balanced;
+        }
+
+        public StatementKind getKind() { return kind; }
+        /** 语句第一个有效字符的位置 */
+        public long getStart() { return start; }
+        /** 语句结束位置（不包含），包含结尾的分号 */
+        public long getEnd() { return end; }
+        /** 语句起始行号（从1开始） */
+        public int getLine() { return line; }
+        /** 语句起始列号（从1开始） */
+        public int getColumn() { return column; }
+        /** 语句结束时括号是否配对 */
+        public boolean isBalanced() { return balanced; }
+    }
+
+    /**
+     * 语句回调
+     */
+    public interface Listener {
+        void onStatement(Statement statement);
+    }
+
+    // 扫描状态
+    private static final int NORMAL = 0;
+    private static final int SINGLE_QUOTE = 1;
+    private static final int DOUBLE_QUOTE = 2;
+    private static final int BACKTICK = 3;
+    private static final int LINE_COMMENT = 4;
+    private static final int BLOCK_COMMENT = 5;
+
+    // 关键字识别进度
+    private static final int EXPECT_FIRST = 0;
+    private static final int AFTER_CREATE = 1;
+    private static final int AFTER_CREATE_INDEX_PREFIX = 2;
+    private static final int AFTER_ALTER = 3;
+    private static final int AFTER_DROP = 4;
+    private static final int AFTER_RENAME = 5;
+    private static final int DECIDED = 6;
+
+    private static final int MAX_WORD = 16;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Listener listener;
+    private byte[] chunk;
+
+    private int state = NORMAL;
+    private boolean escaped;
+    private int previous;
+
+    private long position;
+    private int line = 1;
+    private long lineStart;
+
+    private boolean inStatement;
+    private long statementStart;
+    private int statementLine;
+    private int statementColumn;
+    private int depth;
+
+    private int keywordState = EXPECT_FIRST;
+    private StatementKind kind = StatementKind.OTHER;
+    private final char[] word = new char[MAX_WORD];
+    private int wordLength = -1;
+
+    public SqlStatementScanner(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 扫描字符序列的一段
+     */
+    public void feed(CharSequence input, int from, int to) {
+        for (int i = from; i < to; i++) {
+            step(input.charAt(i));
+        }
+    }
+
+    /**
+     * 扫描字节数组的一段
+     */
+    public void feed(byte[] input, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end) {
+            if (state >= SINGLE_QUOTE && state <= BACKTICK && !escaped) {
+                // 快速路径：字符串内部的普通字节只需推进位置（INSERT 数据的绝大部分都属于这种情况）
+                int quote = quoteChar(state);
+                int runStart = i;
+                while (i < end) {
+                    int c = input[i];
+                    if (c == quote || c == '\\' || c == '\n') {
+                        break;
+                    }
+                    i++;
+                }
+                if (i > runStart) {
+                    position += i - runStart;
+                    previous = input[i - 1] & 0xFF;
+                }
+                if (i == end) {
+                    break;
+                }
+            }
+            step(input[i++] & 0xFF);
+        }
+    }
+
+    /**
+     * 扫描缓冲区中 position 到 limit 之间的字节，不改变缓冲区的 position
+     */
+    public void feed(ByteBuffer buffer) {
+        ByteBuffer source = buffer.duplicate();
+        if (chunk == null) {
+            chunk = new byte[CHUNK_SIZE];
+        }
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            feed(chunk, 0, length);
+        }
+    }
+
+    /**
+     * 输入结束：没有以分号结尾的最后一条语句也会被回调
+     */
+    public void finish() {
+        endWord();
+        if (inStatement) {
+            emit(position);
+        }
+    }
+
+    /**
+     * 已扫描的字符（字节）数
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * 当前是否处于一条尚未结束的语句中
+     */
+    public boolean isInStatement() {
+        return inStatement;
+    }
+
+    /**
+     * 当前语句的起始位置
+     */
+    public long getStatementStart() {
+        return statementStart;
+    }
+
+    /**
+     * 当前语句的类型是否已经确定
+     */
+    public boolean isKindDecided() {
+        return keywordState == DECIDED;
+    }
+
+    /**
+     * 当前语句已识别出的类型，未确定时为 OTHER
+     */
+    public StatementKind getCurrentKind() {
+        return kind;
+    }
+
+    private void step(int c) {
+        long at = position++;
+        int recorded = c;
+        switch (state) {
+            case SINGLE_QUOTE:
+            case DOUBLE_QUOTE:
+            case BACKTICK:
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\' && state != BACKTICK) {
+                    escaped = true;
+                } else if (c == quoteChar(state)) {
+                    // 连续两个引号的转义：这里先回到普通状态，下一个引号会重新进入字符串
+                    state = NORMAL;
+                }
+                break;
+            case LINE_COMMENT:
+                if (c == '\n') {
+                    state = NORMAL;
+                }
+                break;
+            case BLOCK_COMMENT:
+                if (c == '/' && previous == '*') {
+                    state = NORMAL;
+                    recorded = 0;
+                }
+                break;
+            default:
+                recorded = stepNormal(c, at);
+                break;
+        }
+        if (c == '\n') {
+            line++;
+            lineStart = position;
+        }
+        previous = recorded;
+    }
+
+    /**
+     * 普通状态下处理一个字符
+     * @return 作为"上一个字符"记录的值
+     */
+    private int stepNormal(int c, long at) {
+        // 注释开始：-- 或 /* 要等第二个字符到达才能确认，单独的 - / 不会开始语句
+        if (c == '-' && previous == '-') {
+            state = LINE_COMMENT;
+            return 0;
+        }
+        if (c == '*' && previous == '/') {
+            state = BLOCK_COMMENT;
+            return 0;
+        }
+        if (c == '#') {
+            endWord();
+            state = LINE_COMMENT;
+            return c;
+        }
+
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (c >= '0' && c <= '9')) {
+            beginStatement(at);
+            if (keywordState != DECIDED) {
+                if (wordLength < 0) {
+                    wordLength = 0;
+                }
+                if (wordLength < MAX_WORD) {
+                    word[wordLength] = (char) (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c);
+                }
+                wordLength++;
+            }
+            return c;
+        }
+
+        endWord();
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+            case '\f':
+            case '-':
+            case '/':
+                // 空白，或者可能是注释的开始（等待下一个字符确认）
+                return c;
+            case ';':
+                if (inStatement) {
+                    emit(at + 1);
+                }
+                return c;
+            case '\'':
+                state = SINGLE_QUOTE;
+                break;
+            case '"':
+                state = DOUBLE_QUOTE;
+                break;
+            case '`':
+                state = BACKTICK;
+                break;
+            case '(':
+                depth++;
+                break;
+            case ')':
+                depth--;
+                break;
+            default:
+                break;
+        }
+        beginStatement(at);
+        return c;
+    }
+
+    private void beginStatement(long at) {
+        if (!inStatement) {
+            inStatement = true;
+            statementStart = pendingStart(at);
+            statementLine = line;
+            statementColumn = (int) (statementStart - lineStart) + 1;
+        }
+    }
+
+    /**
+     * 语句以单独的 - 或 / 开头（如负数）时，把前一个字符也算作语句的一部分
+     */
+    private long pendingStart(long at) {
+        if ((previous == '-' || previous == '/') && at > 0) {
+            return at - 1;
+        }
+        return at;
+    }
+
+    private void endWord() {
+        if (wordLength < 0) {
+            return;
+        }
+        int length = wordLength;
+        wordLength = -1;
+        if (keywordState == DECIDED) {
+            return;
+        }
+        if (length > MAX_WORD) {
+            decide(StatementKind.OTHER);
+            return;
+        }
+        switch (keywordState) {
+            case EXPECT_FIRST:
+                if (wordIs("CREATE", length)) {
+                    keywordState = AFTER_CREATE;
+                } else if (wordIs("ALTER", length)) {
+                    keywordState = AFTER_ALTER;
+                } else if (wordIs("DROP", length)) {
+                    keywordState = AFTER_DROP;
+                } else if (wordIs("RENAME", length)) {
+                    keywordState = AFTER_RENAME;
+                } else if (wordIs("INSERT", length) || wordIs("REPLACE", length)) {
+                    decide(StatementKind.INSERT);
+                } else {
+                    decide(StatementKind.OTHER);
+                }
+                break;
+            case AFTER_CREATE:
+                if (wordIs("TABLE", length)) {
+                    decide(StatementKind.CREATE_TABLE);
+                } else if (wordIs("INDEX", length)) {
+                    decide(StatementKind.CREATE_INDEX);
+                } else if (wordIs("UNIQUE", length) || wordIs("FULLTEXT", length) || wordIs("SPATIAL", length)) {
+                    keywordState = AFTER_CREATE_INDEX_PREFIX;
+                } else if (!wordIs("TEMPORARY", length)) {
+                    decide(StatementKind.OTHER);
+                }
+                break;
+            case AFTER_CREATE_INDEX_PREFIX:
+                decide(wordIs("INDEX", length) ? StatementKind.CREATE_INDEX : StatementKind.OTHER);
+                break;
+            case AFTER_ALTER:
+                if (wordIs("TABLE", length)) {
+                    decide(StatementKind.ALTER_TABLE);
+                } else if (!wordIs("IGNORE", length) && !wordIs("ONLINE", length)) {
+                    decide(StatementKind.OTHER);
+                }
+                break;
+            case AFTER_DROP:
+                if (wordIs("TABLE", length)) {
+                    decide(StatementKind.DROP_TABLE);
+                } else if (wordIs("INDEX", length)) {
+                    decide(StatementKind.DROP_INDEX);
+                } else if (!wordIs("TEMPORARY", length)) {
+                    decide(StatementKind.OTHER);
+                }
+                break;
+            case AFTER_RENAME:
+                decide(wordIs("TABLE", length) ? StatementKind.RENAME_TABLE : StatementKind.OTHER);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean wordIs(String keyword, int length) {
+        if (keyword.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word[i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void decide(StatementKind decided) {
+        kind = decided;
+        keywordState = DECIDED;
+    }
+
+    private void emit(long end) {
+        if (keywordState != DECIDED) {
+            kind = StatementKind.OTHER;
+        }
+        listener.onStatement(new Statement(kind, statementStart, end, statementLine, statementColumn, depth == 0));
+        inStatement = false;
+        depth = 0;
+        keywordState = EXPECT_FIRST;
+        kind = StatementKind.OTHER;
+    }
+
+    private static int quoteChar(int state) {
+        switch (state) {
+            case SINGLE_QUOTE: return '\'';
+            case DOUBLE_QUOTE: return '"';
+            default: return '`';
+        }
+    }
+}
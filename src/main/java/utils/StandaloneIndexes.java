@@ -0,0 +1,118 @@
+package utils;
+
+import utils.SqlStatementScanner.StatementKind;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 输入中所有单独的 CREATE INDEX 语句
+ * 供表一解析出就交给下游、不再保留的流水线使用：先读一遍输入只解析其中的索引语句，
+ * 之后每解析出一张表就把属于它的索引补充上去，结果与 {@link TableFieldExtractor#parseAll(CharSequence)} 相同。
+ * 每条索引记录它之前出现过多少条建表语句，只补充到在它之前出现的同名表上。
+ */
+public final class StandaloneIndexes {
+
+    // 没有任何索引语句的输入
+    private static final StandaloneIndexes EMPTY = new StandaloneIndexes(Collections.<String, List<PendingIndex>>emptyMap(), 0);
+
+    // 小写表名 -> 按出现顺序排列的索引
+    private final Map<String, List<PendingIndex>> byTable;
+    private final int count;
+
+    private StandaloneIndexes(Map<String, List<PendingIndex>> byTable, int count) {
+        this.byTable = byTable;
+        this.count = count;
+    }
+
+    public static StandaloneIndexes empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 读取输入中的所有 CREATE INDEX 语句，建表语句只计数不解析
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入，由调用方关闭
+     * @param errors 接收无法解析的索引语句的诊断信息；为 null 时遇到第一条错误语句即抛出异常
+     */
+    public static StandaloneIndexes scan(InputStream in, Consumer<ParseDiagnostic> errors) throws IOException {
+        Map<String, List<PendingIndex>> byTable = new HashMap<>();
+        int[] tables = {0};
+        int[] count = {0};
+        new StreamingSchemaParser.Extractor(StreamingSchemaParser.SCHEMA_KINDS, (statement, sql, source) -> {
+            if (statement.getKind() == StatementKind.CREATE_TABLE) {
+                tables[0]++;
+                return;
+            }
+            String[] tableName = new String[1];
+            IndexInfo index;
+            try {
+                index = TableFieldExtractor.parseCreateIndex(sql, 0, sql.length(), tableName);
+            } catch (RuntimeException e) {
+                if (errors == null) {
+                    throw e;
+                }
+                ParseDiagnostic diagnostic = ParseDiagnostic.of(statement, sql, 0, sql.length(), e);
+                errors.accept(source != null ? diagnostic.withSource(source) : diagnostic);
+                return;
+            }
+            if (index != null) {
+                byTable.computeIfAbsent(tableName[0].toLowerCase(Locale.ROOT), name -> new ArrayList<>())
+                        .add(new PendingIndex(tables[0], index));
+                count[0]++;
+            }
+        }).read(in, null);
+        return count[0] == 0 ? EMPTY : new StandaloneIndexes(byTable, count[0]);
+    }
+
+    /**
+     * 索引语句的数量（不含全文、空间和函数索引）
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 把在表之后出现的同名索引补充到表上
+     * @param table 解析出的表，直接修改其索引列表
+     * @param ordinal 表的建表语句在输入中的序号，从 0 开始
+     */
+    public void applyTo(TableInfo table, long ordinal) {
+        if (count == 0 || table.getTableName() == null) {
+            return;
+        }
+        List<PendingIndex> indexes = byTable.get(table.getTableName().toLowerCase(Locale.ROOT));
+        if (indexes == null) {
+            return;
+        }
+        for (PendingIndex pending : indexes) {
+            if (pending.tablesBefore > ordinal) {
+                // 同名的表可能出现多次，每张表都需要一个独立的索引对象
+                IndexInfo index = pending.index;
+                TableFieldExtractor.addIndex(table.getIndexes(),
+                        new IndexInfo(index.getIndexName(), index.isUnique(), new ArrayList<>(index.getColumnNames())));
+            }
+        }
+    }
+
+    /**
+     * 一条索引语句及其之前的建表语句数量
+     */
+    private static final class PendingIndex {
+        final int tablesBefore;
+        final IndexInfo index;
+
+        PendingIndex(int tablesBefore, IndexInfo index) {
+            this.tablesBefore = tablesBefore;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package utils;
+
+import utils.SqlStatementScanner.Statement;
+import utils.SqlStatementScanner.StatementKind;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 流式 schema 解析器
+ * 从 InputStream / ReadableByteChannel 中边读边扫描，提取其中的 CREATE TABLE 语句，
+ * 单独的 CREATE INDEX 语句补充到前面的同名表上。
+ * 输入是 gzip（.sql.gz）或 zip 时根据文件头自动边读边解压，zip 中的每个文件依次处理，
+ * 因此备份文件不需要先解压到磁盘。
+ * 读取缓冲区只保留尚未结束的建表和建索引语句，INSERT 等数据语句扫描过后立即丢弃，
+ * 内存占用只与单条建表语句的大小有关，与导出文件（或压缩包）的大小无关。
+ */
+public class StreamingSchemaParser {
+
+    // 每次从输入流读取的字节数
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    // 解析表结构需要的语句类型
+    static final Set<StatementKind> SCHEMA_KINDS = EnumSet.of(StatementKind.CREATE_TABLE, StatementKind.CREATE_INDEX);
+
+    /**
+     * 判断文件是否为 gzip 或 zip 压缩文件（按文件头判断，不看扩展名）
+     */
+    public static boolean isCompressed(Path file) throws IOException {
+        byte[] head = new byte[4];
+        int length;
+        try (InputStream in = Files.newInputStream(file)) {
+            length = readFully(in, head);
+        }
+        return isGzip(head, length) || isZip(head, length);
+    }
+
+    /**
+     * 解析流中的所有建表语句，流由调用方关闭
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入
+     * @return 按出现顺序排列的表信息
+     */
+    public static List<TableInfo> parse(InputStream in) throws IOException {
+        List<TableInfo> tables = new ArrayList<>();
+        parse(in, ParseCache.getInstance(), tables::add, null);
+        ParseCache.getInstance().saveLater();
+        return tables;
+    }
+
+    /**
+     * 解析通道中的所有建表语句，通道由调用方关闭
+     */
+    public static List<TableInfo> parse(ReadableByteChannel channel) throws IOException {
+        return parse(Channels.newInputStream(channel));
+    }
+
+    /**
+     * 容错解析流中的所有建表语句，解析失败的语句被跳过并记录诊断信息
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入，由调用方关闭
+     * @return 解析成功的表和被跳过语句的诊断信息，zip 中的语句以文件名作为来源
+     */
+    public static ParseReport parseRecovering(InputStream in) throws IOException {
+        List<TableInfo> tables = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        parse(in, ParseCache.getInstance(), tables::add, diagnostics::add);
+        ParseCache.getInstance().saveLater();
+        return new ParseReport(tables, diagnostics);
+    }
+
+    /**
+     * 解析流中的所有建表语句，每解析出一张表就交给 consumer。
+     * 表交出后，流中后面的 CREATE INDEX 语句仍会补充到同一个表对象上，需要索引的调用方应在解析结束后再读取。
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入，由调用方关闭
+     * @param cache 解析缓存，为 null 时不使用缓存
+     * @param consumer 按出现顺序接收表信息
+     * @param errors 接收解析失败语句的诊断信息；为 null 时遇到第一条错误语句即抛出异常
+     */
+    public static void parse(InputStream in, ParseCache cache, Consumer<TableInfo> consumer, Consumer<ParseDiagnostic> errors) throws IOException {
+        CreateIndexRouter indexes = new CreateIndexRouter();
+        new Extractor(SCHEMA_KINDS, (statement, sql, source) -> {
+            TableInfo table;
+            try {
+                if (statement.getKind() == StatementKind.CREATE_INDEX) {
+                    indexes.apply(sql, 0, sql.length());
+                    return;
+                }
+                table = DumpFileParser.parseStatement(sql, cache);
+            } catch (RuntimeException e) {
+                if (errors == null) {
+                    throw e;
+                }
+                ParseDiagnostic diagnostic = ParseDiagnostic.of(statement, sql, 0, sql.length(), e);
+                errors.accept(source != null ? diagnostic.withSource(source) : diagnostic);
+                return;
+            }
+            indexes.add(table);
+            consumer.accept(table);
+        }).read(in, null);
+    }
+
+    /**
+     * 只提取流中建表语句和单独的 CREATE INDEX 语句的原文，不做解析，如用于把压缩备份中的表结构填入输入框
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入，由调用方关闭
+     * @param consumer 按出现顺序接收每条语句
+     */
+    public static void extractSchemaStatements(InputStream in, Consumer<RawStatement> consumer) throws IOException {
+        new Extractor(SCHEMA_KINDS, (statement, sql, source) -> consumer.accept(new RawStatement(statement, sql, source))).read(in, null);
+    }
+
+    /**
+     * 只提取流中的建表语句，解析交给调用方，如流水线中的解析线程；
+     * 单独的 CREATE INDEX 语句不在其中，由调用方通过 {@link StandaloneIndexes#scan} 另行读取
+     * @param in 普通 SQL 文本、gzip 或 zip 格式的输入，由调用方关闭
+     * @param consumer 按出现顺序接收未解析的语句
+     */
+    public static void extractStatements(InputStream in, Consumer<RawStatement> consumer) throws IOException {
+        new Extractor(EnumSet.of(StatementKind.CREATE_TABLE),
+                (statement, sql, source) -> consumer.accept(new RawStatement(statement, sql, source))).read(in, null);
+    }
+
+    /**
+     * 一条尚未解析的语句：原文和在文件中的位置
+     */
+    public static final class RawStatement {
+        private final Statement statement;
+        private final String sql;
+        private final String source;
+
+        RawStatement(Statement statement, String sql, String source) {
+            this.statement = statement;
+            this.sql = sql;
+            this.source = source;
+        }
+
+        public String getSql() { return sql; }
+
+        /** 语句类型：CREATE_TABLE 或 CREATE_INDEX */
+        public StatementKind getKind() { return statement.getKind(); }
+
+        /** 语句所在的 zip 条目名，不是 zip 时为 null */
+        public String getSource() { return source; }
+
+        /**
+         * 解析这条语句
+         * @param cache 解析缓存，为 null 时不使用缓存
+         * @throws RuntimeException 语句无法解析，用 {@link #diagnose(RuntimeException)} 生成诊断信息
+         */
+        public TableInfo parse(ParseCache cache) {
+            return DumpFileParser.parseStatement(sql, cache);
+        }
+
+        /**
+         * 根据解析时抛出的异常生成带位置的诊断信息
+         */
+        public ParseDiagnostic diagnose(RuntimeException error) {
+            ParseDiagnostic diagnostic = ParseDiagnostic.of(statement, sql, 0, sql.length(), error);
+            return source != null ? diagnostic.withSource(source) : diagnostic;
+        }
+    }
+
+    private static boolean isGzip(byte[] head, int length) {
+        return length >= 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B;
+    }
+
+    private static boolean isZip(byte[] head, int length) {
+        // 本地文件头 PK\3\4，或空压缩包的目录结束标记 PK\5\6
+        return length >= 4 && head[0] == 'P' && head[1] == 'K'
+                && ((head[2] == 3 && head[3] == 4) || (head[2] == 5 && head[3] == 6));
+    }
+
+    private static boolean isByteOrderMark(byte[] head, int length) {
+        return length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF;
+    }
+
+    /**
+     * 接收一条完整的语句
+     */
+    interface StatementHandler {
+        /**
+         * @param statement 语句在当前文件中的位置
+         * @param sql 语句原文
+         * @param source 语句所在的 zip 条目名，不是 zip 时为 null
+         */
+        void accept(Statement statement, String sql, String source);
+    }
+
+    /**
+     * 一次读取过程的状态：滑动窗口保存当前文件中尚未处理完的字节
+     */
+    static final class Extractor {
+        // 需要交给 handler 的语句类型，其余语句扫描过后丢弃
+        private final Set<StatementKind> kinds;
+        private final StatementHandler handler;
+        private final List<Statement> pending = new ArrayList<>();
+        private byte[] window = new byte[CHUNK_SIZE * 2];
+        // window[0] 在当前文件扫描位置中的偏移
+        private long windowStart;
+        private int windowLength;
+
+        Extractor(Set<StatementKind> kinds, StatementHandler handler) {
+            this.kinds = kinds;
+            this.handler = handler;
+        }
+
+        /**
+         * 按文件头识别格式后读取，压缩格式逐层解开
+         * @param source 当前所在的 zip 条目名
+         */
+        void read(InputStream in, String source) throws IOException {
+            BufferedInputStream input = new BufferedInputStream(in, CHUNK_SIZE);
+            byte[] head = new byte[4];
+            input.mark(head.length);
+            int length = readFully(input, head);
+            input.reset();
+
+            if (isGzip(head, length)) {
+                // 不关闭外层流，由调用方负责
+                read(new GZIPInputStream(new NonClosingInputStream(input), CHUNK_SIZE), source);
+            } else if (isZip(head, length)) {
+                ZipInputStream zip = new ZipInputStream(new NonClosingInputStream(input), StandardCharsets.UTF_8);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (!entry.isDirectory()) {
+                        // 压缩包中的 .sql.gz 等嵌套格式同样按文件头识别
+                        read(new NonClosingInputStream(zip), entry.getName());
+                    }
+                    zip.closeEntry();
+                }
+            } else {
+                if (isByteOrderMark(head, length)) {
+                    input.skip(3);
+                }
+                scan(input, source);
+            }
+        }
+
+        /**
+         * 扫描一个未压缩的文件，扫描位置从 0 开始
+         */
+        private void scan(InputStream input, String source) throws IOException {
+            SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+                if (kinds.contains(statement.getKind())) {
+                    pending.add(statement);
+                }
+            });
+            windowStart = 0;
+            windowLength = 0;
+            while (true) {
+                ensureCapacity(CHUNK_SIZE);
+                int read = input.read(window, windowLength, CHUNK_SIZE);
+                if (read < 0) {
+                    break;
+                }
+                scanner.feed(window, windowLength, read);
+                windowLength += read;
+                handlePending(source);
+                discard(scanner);
+            }
+            scanner.finish();
+            handlePending(source);
+            windowStart = 0;
+            windowLength = 0;
+        }
+
+        private void handlePending(String source) {
+            for (Statement statement : pending) {
+                int from = (int) (statement.getStart() - windowStart);
+                int to = (int) (statement.getEnd() - windowStart);
+                handler.accept(statement, new String(window, from, to - from, StandardCharsets.UTF_8), source);
+            }
+            pending.clear();
+        }
+
+        /**
+         * 丢弃已经不再需要的字节：只有可能是需要的语句类型的未结束语句才保留在窗口中
+         */
+        private void discard(SqlStatementScanner scanner) {
+            long keepFrom = scanner.getPosition();
+            if (scanner.isInStatement()
+                    && (!scanner.isKindDecided() || kinds.contains(scanner.getCurrentKind()))) {
+                keepFrom = scanner.getStatementStart();
+            }
+            int offset = (int) (keepFrom - windowStart);
+            int remaining = windowLength - offset;
+            if (offset > 0 && remaining > 0) {
+                System.arraycopy(window, offset, window, 0, remaining);
+            }
+            windowStart = keepFrom;
+            windowLength = remaining;
+            // 超长的建表语句处理完后把窗口缩回默认大小，峰值内存不会一直保持
+            if (window.length > CHUNK_SIZE * 8 && windowLength < CHUNK_SIZE) {
+                window = Arrays.copyOf(window, CHUNK_SIZE * 2);
+            }
+        }
+
+        private void ensureCapacity(int extra) throws IOException {
+            long required = (long) windowLength + extra;
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IOException("单条建表语句过大，无法解析: 位置 " + windowStart);
+            }
+            if (required > window.length) {
+                window = Arrays.copyOf(window, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, (long) window.length * 2)));
+            }
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * 关闭时不关闭底层流，用于在 zip 条目和调用方的流之上套接解压流
+     */
+    private static final class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
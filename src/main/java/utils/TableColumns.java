@@ -0,0 +1,112 @@
+package utils;
+
+import Global.GlobalTableInfo;
+
+/**
+ * 表结构的只读视图
+ * 生成器通过它按下标读取表名、字段和索引，数据可以来自 TableInfo、列式的 SchemaModel 或 GlobalTableInfo。
+ */
+public interface TableColumns {
+
+    String getTableName();
+
+    String getTableComment();
+
+    int getColumnCount();
+
+    String getColumnName(int index);
+
+    String getColumnType(int index);
+
+    String getColumnComment(int index);
+
+    /**
+     * 字段对应的简化Java类型名
+     */
+    default String getJavaType(int index) {
+        return TypeConverterUtils.convertToJavaType(getColumnType(index));
+    }
+
+    /**
+     * 索引数量（含主键），没有索引信息的数据源返回 0
+     */
+    default int getIndexCount() {
+        return 0;
+    }
+
+    /**
+     * 索引名，主键为 PRIMARY
+     */
+    default String getIndexName(int index) {
+        throw new IndexOutOfBoundsException("索引下标越界: " + index);
+    }
+
+    /**
+     * 是否唯一索引（主键也是唯一索引）
+     */
+    default boolean isUniqueIndex(int index) {
+        throw new IndexOutOfBoundsException("索引下标越界: " + index);
+    }
+
+    /**
+     * 索引包含的字段数
+     */
+    default int getIndexColumnCount(int index) {
+        throw new IndexOutOfBoundsException("索引下标越界: " + index);
+    }
+
+    /**
+     * 索引中第 position 个字段的字段名，按最左前缀顺序排列
+     */
+    default String getIndexColumnName(int index, int position) {
+        throw new IndexOutOfBoundsException("索引下标越界: " + index);
+    }
+
+    /**
+     * 复制 GlobalTableInfo 中当前的表名、字段和索引数组作为数据源，之后修改全局变量不影响返回的表结构。
+     * 字段名或类型数组缺失、长度不一致时视为没有字段，由生成器给出错误提示。
+     */
+    static TableColumns of(GlobalTableInfo tableInfo) {
+        String tableName = tableInfo.tableName;
+        String[] names = tableInfo.fieldNames != null ? tableInfo.fieldNames.clone() : null;
+        String[] types = tableInfo.fieldTypes != null ? tableInfo.fieldTypes.clone() : null;
+        String[] comments = tableInfo.fieldAnnotations != null ? tableInfo.fieldAnnotations.clone() : null;
+        String[] indexNames = tableInfo.indexNames != null ? tableInfo.indexNames.clone() : null;
+        boolean[] indexUnique = tableInfo.indexUnique != null ? tableInfo.indexUnique.clone() : null;
+        String[][] indexColumns = tableInfo.indexColumns != null ? tableInfo.indexColumns.clone() : null;
+        if (indexColumns != null) {
+            for (int i = 0; i < indexColumns.length; i++) {
+                indexColumns[i] = indexColumns[i] != null ? indexColumns[i].clone() : null;
+            }
+        }
+        int columnCount = names == null || types == null || types.length != names.length ? 0 : names.length;
+        int indexCount = indexNames == null || indexColumns == null || indexUnique == null
+                || indexColumns.length != indexNames.length || indexUnique.length != indexNames.length ? 0 : indexNames.length;
+        return new TableColumns() {
+            @Override
+            public String getTableName() { return tableName; }
+            @Override
+            public String getTableComment() { return null; }
+            @Override
+            public int getColumnCount() { return columnCount; }
+            @Override
+            public String getColumnName(int index) { return names[index]; }
+            @Override
+            public String getColumnType(int index) { return types[index]; }
+            @Override
+            public String getColumnComment(int index) {
+                return comments != null && index < comments.length ? comments[index] : null;
+            }
+            @Override
+            public int getIndexCount() { return indexCount; }
+            @Override
+            public String getIndexName(int index) { return indexNames[index]; }
+            @Override
+            public boolean isUniqueIndex(int index) { return indexUnique[index]; }
+            @Override
+            public int getIndexColumnCount(int index) { return indexColumns[index].length; }
+            @Override
+            public String getIndexColumnName(int index, int position) { return indexColumns[index][position]; }
+        };
+    }
+}
@@ -1,26 +1,45 @@
 package utils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import Global.GlobalTableInfo;
+import utils.SqlLexer.TokenType;
+import utils.SqlStatementScanner.StatementKind;
 
 /**
  * 动态SQL表字段提取器
  * 用于从任意SQL建表语句中提取表名和字段信息
  */
 public class TableFieldExtractor {
+
+    /**
+     * 解析器版本，解析结果的内容或格式发生变化时递增，使已持久化的解析缓存失效
+     */
+    public static final int PARSER_VERSION = 2;
+
+    // 定义项开头出现这些关键字时表示约束或索引，而不是字段
+    private static final String[] CONSTRAINT_KEYWORDS = {"constraint", "primary", "unique", "key", "index", "foreign", "fulltext", "spatial", "check"};
+
+    // 不允许作为字段名的SQL关键字
+    private static final String[] SQL_KEYWORDS = {"on", "primary", "key", "constraint", "unique", "index", "foreign", "create", "table", "alter", "drop"};
+
     /**
      * 表信息类
      */
-    public static class TableInfo {
+    public static class TableInfo implements TableColumns {
         private String tableName;
         private String tableComment;
         private List<FieldInfo> fields;
+        private List<IndexInfo> indexes;
         
         public TableInfo() {
             this.fields = new ArrayList<>();
+            this.indexes = new ArrayList<>();
         }
         
         // getter和setter方法
@@ -30,6 +49,28 @@ public class TableFieldExtractor {
         public void setTableComment(String tableComment) { this.tableComment = tableComment; }
         public List<FieldInfo> getFields() { return fields; }
         public void setFields(List<FieldInfo> fields) { this.fields = fields; }
+        public List<IndexInfo> getIndexes() { return indexes; }
+        public void setIndexes(List<IndexInfo> indexes) { this.indexes = indexes; }
+
+        // TableColumns 接口实现，供生成器直接读取
+        @Override
+        public int getColumnCount() { return fields.size(); }
+        @Override
+        public String getColumnName(int index) { return fields.get(index).getFieldName(); }
+        @Override
+        public String getColumnType(int index) { return fields.get(index).getFieldType(); }
+        @Override
+        public String getColumnComment(int index) { return fields.get(index).getComment(); }
+        @Override
+        public int getIndexCount() { return indexes.size(); }
+        @Override
+        public String getIndexName(int index) { return indexes.get(index).getIndexName(); }
+        @Override
+        public boolean isUniqueIndex(int index) { return indexes.get(index).isUnique(); }
+        @Override
+        public int getIndexColumnCount(int index) { return indexes.get(index).getColumnNames().size(); }
+        @Override
+        public String getIndexColumnName(int index, int position) { return indexes.get(index).getColumnNames().get(position); }
     }
     
     /**
@@ -54,6 +95,33 @@ public class TableFieldExtractor {
         public String getComment() { return comment; }
         public void setComment(String comment) { this.comment = comment; }
     }
+
+    /**
+     * 索引信息类，主键的索引名固定为 PRIMARY
+     */
+    public static class IndexInfo {
+        public static final String PRIMARY = "PRIMARY";
+
+        private String indexName;
+        private boolean unique;
+        private List<String> columnNames;
+
+        public IndexInfo(String indexName, boolean unique, List<String> columnNames) {
+            this.indexName = indexName;
+            this.unique = unique;
+            this.columnNames = columnNames;
+        }
+
+        // getter和setter方法
+        public String getIndexName() { return indexName; }
+        public void setIndexName(String indexName) { this.indexName = indexName; }
+        public boolean isUnique() { return unique; }
+        public void setUnique(boolean unique) { this.unique = unique; }
+        /** 按索引顺序排列的字段名 */
+        public List<String> getColumnNames() { return columnNames; }
+        public void setColumnNames(List<String> columnNames) { this.columnNames = columnNames; }
+        public boolean isPrimary() { return PRIMARY.equals(indexName); }
+    }
     
     /**
      * 解析SQL建表语句
@@ -61,34 +129,169 @@ public class TableFieldExtractor {
      * @return 表信息
      */
     public static TableInfo parseSql(String sql) {
-        TableInfo tableInfo = new TableInfo();
+        TableInfo tableInfo;
+        if (sql == null || sql.trim().isEmpty()) {
+            tableInfo = new TableInfo();
+            tableInfo.setTableName("unknown_table");
+            tableInfo.setTableComment("");
+        } else {
+            // 先找出第一条建表语句的边界，未变化的语句直接使用缓存结果
+            tableInfo = parseFirstCreateTable(sql, ParseCache.getInstance());
+            ParseCache.getInstance().saveLater();
+        }
 
-        // 先截取 create table … 到 ") comment '…' collate = utf8mb4_unicode_ci;" 的块
-        String tableBlock = extractCreateTableBlock(sql);
+        // 设置全局变量
+        setGlobalVariables(tableInfo);
 
-        // 提取表名（仅在块内）
-        String tableName = extractTableName(tableBlock);
-        tableInfo.setTableName(tableName);
+        return tableInfo;
+    }
 
-        // 提取表注释（仅在块内）
-        String tableComment = extractTableComment(tableBlock);
-        tableInfo.setTableComment(tableComment);
+    /**
+     * 通过缓存解析文本中的第一条 CREATE TABLE 语句（不修改全局变量）
+     * @param sql 包含建表语句的文本
+     * @param cache 解析缓存
+     * @return 表信息
+     */
+    public static TableInfo parseFirstCreateTable(CharSequence sql, ParseCache cache) {
+        long[] bounds = {-1, -1};
+        List<long[]> createIndexes = new ArrayList<>();
+        SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+            if (bounds[0] < 0 && statement.getKind() == StatementKind.CREATE_TABLE) {
+                bounds[0] = statement.getStart();
+                bounds[1] = statement.getEnd();
+            } else if (statement.getKind() == StatementKind.CREATE_INDEX) {
+                createIndexes.add(new long[] {statement.getStart(), statement.getEnd()});
+            }
+        });
+        scanner.feed(sql, 0, sql.length());
+        scanner.finish();
+        if (bounds[0] < 0) {
+            // 扫描器没有识别出建表语句时交给词法解析，由它给出具体的错误信息
+            return parseCreateTable(sql);
+        }
+        TableInfo tableInfo = cache.parse(sql, (int) bounds[0], (int) bounds[1]);
+        // 单独的 CREATE INDEX 语句补充到同名表上
+        for (long[] range : createIndexes) {
+            applyCreateIndex(Collections.singletonList(tableInfo), sql, (int) range[0], (int) range[1]);
+        }
+        return tableInfo;
+    }
 
-        // 提取字段信息（仅在块内）
-        List<FieldInfo> fields = extractFields(tableBlock);
-        tableInfo.setFields(fields);
+    /**
+     * 解析文本中的第一条 CREATE TABLE 语句（不修改全局变量）
+     * @param sql 包含建表语句的文本
+     * @return 表信息
+     */
+    public static TableInfo parseCreateTable(CharSequence sql) {
+        return parseCreateTable(sql, 0, sql.length());
+    }
 
-        // 设置全局变量
-        setGlobalVariables(tableInfo);
+    /**
+     * 解析文本指定区间内的第一条 CREATE TABLE 语句（不修改全局变量）
+     * @param sql 文本
+     * @param from 起始下标（包含）
+     * @param to 结束下标（不包含）
+     * @return 表信息
+     */
+    public static TableInfo parseCreateTable(CharSequence sql, int from, int to) {
+        SqlLexer lexer = new SqlLexer(sql, from, to);
+        if (!seekCreateTable(lexer)) {
+            throw parseError(lexer, "未检测到有效的 CREATE TABLE 语句，请检查粘贴的 SQL 表语句。");
+        }
+        return parseCreateTableBody(lexer);
+    }
 
-        return tableInfo;
+    /**
+     * 解析文本中的所有 CREATE TABLE 语句（不修改全局变量）。
+     * 单独的 CREATE INDEX 语句会补充到前面同名的表上，其余语句会被跳过
+     * @param sql 包含多条语句的文本，如完整的 schema 导出
+     * @return 按出现顺序排列的表信息
+     */
+    public static List<TableInfo> parseAll(CharSequence sql) {
+        List<TableInfo> tables = new ArrayList<>();
+        SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+            if (statement.getKind() == StatementKind.CREATE_TABLE) {
+                tables.add(parseCreateTable(sql, (int) statement.getStart(), (int) statement.getEnd()));
+            } else if (statement.getKind() == StatementKind.CREATE_INDEX) {
+                applyCreateIndex(tables, sql, (int) statement.getStart(), (int) statement.getEnd());
+            }
+        });
+        scanner.feed(sql, 0, sql.length());
+        scanner.finish();
+        return tables;
     }
-    
+
+    /**
+     * 边读边解析流中的所有 CREATE TABLE 语句（不修改全局变量），流由调用方关闭。
+     * gzip 和 zip 格式的输入会被自动解压，内存占用与输入大小无关。
+     * @param in 普通 SQL 文本、.sql.gz 或 .zip 导出
+     * @return 按出现顺序排列的表信息
+     */
+    public static List<TableInfo> parseAll(InputStream in) throws IOException {
+        List<TableInfo> tables = new ArrayList<>();
+        StreamingSchemaParser.parse(in, null, tables::add, null);
+        return tables;
+    }
+
+    /**
+     * 边读边解析通道中的所有 CREATE TABLE 语句（不修改全局变量），通道由调用方关闭
+     * @param channel 普通 SQL 文本、.sql.gz 或 .zip 导出
+     * @return 按出现顺序排列的表信息
+     */
+    public static List<TableInfo> parseAll(ReadableByteChannel channel) throws IOException {
+        return parseAll(Channels.newInputStream(channel));
+    }
+
+    /**
+     * 容错解析文本中的所有 CREATE TABLE 语句（不修改全局变量）。
+     * 某条建表语句解析失败时记录诊断信息，从下一条语句继续解析，不会中断整个过程。
+     * @param sql 包含多条语句的文本，如完整的 schema 导出或迁移脚本
+     * @return 解析成功的表和被跳过语句的诊断信息
+     */
+    public static ParseReport parseAllRecovering(CharSequence sql) {
+        List<TableInfo> tables = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        SqlStatementScanner scanner = new SqlStatementScanner(statement -> {
+            if (statement.getKind() != StatementKind.CREATE_TABLE && statement.getKind() != StatementKind.CREATE_INDEX) {
+                return;
+            }
+            int start = (int) statement.getStart();
+            int end = (int) statement.getEnd();
+            try {
+                if (statement.getKind() == StatementKind.CREATE_TABLE) {
+                    tables.add(parseCreateTable(sql, start, end));
+                } else {
+                    applyCreateIndex(tables, sql, start, end);
+                }
+            } catch (RuntimeException e) {
+                diagnostics.add(ParseDiagnostic.of(statement, sql, start, end, e));
+            }
+        });
+        scanner.feed(sql, 0, sql.length());
+        scanner.finish();
+        return new ParseReport(tables, diagnostics);
+    }
+
+    /**
+     * 边读边容错解析流中的所有 CREATE TABLE 语句（不修改全局变量），gzip 和 zip 格式自动解压
+     * @param in 普通 SQL 文本、.sql.gz 或 .zip 导出，由调用方关闭
+     * @return 解析成功的表和被跳过语句的诊断信息
+     */
+    public static ParseReport parseAllRecovering(InputStream in) throws IOException {
+        List<TableInfo> tables = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        StreamingSchemaParser.parse(in, null, tables::add, diagnostics::add);
+        return new ParseReport(tables, diagnostics);
+    }
+
     /**
      * 设置全局变量
+     * 仅为兼容旧接口保留：生成器从 GenerationContext 读取表结构，不读取这些全局变量；
+     * 通过 GlobalTableInfo 调用的旧接口（如 CodeFileWriter.writeAllCodeFiles(GlobalTableInfo)）在调用时复制一份。
+     * 多线程生成时直接把 TableInfo 放入 GenerationContext，不要调用此方法。
      * @param tableInfo 表信息
      */
-    private static void setGlobalVariables(TableInfo tableInfo) {
+    public static void setGlobalVariables(TableInfo tableInfo) {
         GlobalTableInfo globalTableInfo = GlobalTableInfo.getInstance();
         // 设置全局表名
         globalTableInfo.tableName = tableInfo.getTableName();
@@ -111,201 +314,470 @@ public class TableFieldExtractor {
             String comment = tableInfo.getFields().get(i).getComment();
             globalTableInfo.fieldAnnotations[i] = (comment != null && !comment.trim().isEmpty()) ? comment : "";
         }
+
+        // 设置全局索引数组
+        List<IndexInfo> indexes = tableInfo.getIndexes();
+        globalTableInfo.indexNames = new String[indexes.size()];
+        globalTableInfo.indexUnique = new boolean[indexes.size()];
+        globalTableInfo.indexColumns = new String[indexes.size()][];
+        for (int i = 0; i < indexes.size(); i++) {
+            globalTableInfo.indexNames[i] = indexes.get(i).getIndexName();
+            globalTableInfo.indexUnique[i] = indexes.get(i).isUnique();
+            globalTableInfo.indexColumns[i] = indexes.get(i).getColumnNames().toArray(new String[0]);
+        }
     }
     
     /**
-     * 提取表名
+     * 将词法分析器移动到 "create [temporary] table" 之后
+     * @return 是否找到建表语句
      */
-    private static String extractTableName(String sql) {
-        Pattern pattern = Pattern.compile("create\\s+table\\s+([\\w_]+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(sql);
-        if (matcher.find()) {
-            return matcher.group(1);
+    private static boolean seekCreateTable(SqlLexer lexer) {
+        boolean afterCreate = false;
+        for (TokenType type = lexer.next(); type != TokenType.EOF; type = lexer.next()) {
+            if (lexer.isKeyword("create")) {
+                afterCreate = true;
+            } else if (afterCreate && lexer.isKeyword("temporary")) {
+                // create temporary table
+            } else if (afterCreate && lexer.isKeyword("table")) {
+                return true;
+            } else {
+                afterCreate = false;
+            }
         }
-        return "unknown_table";
+        return false;
     }
-    
+
     /**
-     * 提取表注释
+     * 从 "table" 关键字之后开始解析：表名、字段定义、表选项
      */
-    private static String extractTableComment(String sql) {
-        Pattern pattern = Pattern.compile("comment\\s*=\\s*'([^']*)'", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(sql);
-        if (matcher.find()) {
-            return matcher.group(1);
+    private static TableInfo parseCreateTableBody(SqlLexer lexer) {
+        TableInfo tableInfo = new TableInfo();
+        tableInfo.setTableComment("");
+
+        TokenType type = lexer.next();
+        // if not exists
+        if (lexer.isKeyword("if")) {
+            lexer.next();
+            lexer.next();
+            type = lexer.next();
+        }
+
+        // 表名，支持 `db`.`table` 形式，取最后一段
+        String tableName = "unknown_table";
+        while (type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER) {
+            tableName = lexer.identifier();
+            type = lexer.next();
+            if (type != TokenType.SYMBOL || lexer.input().charAt(lexer.start()) != '.') {
+                break;
+            }
+            type = lexer.next();
+        }
+        tableInfo.setTableName(tableName);
+
+        if (type != TokenType.LEFT_PAREN) {
+            throw parseError(lexer, "CREATE TABLE 语句缺少定义字段的左括号 '('。");
         }
-        return "";
+
+        // 字段和索引定义，直到匹配的右括号
+        boolean closed = false;
+        while (!closed) {
+            type = lexer.next();
+            if (type == TokenType.RIGHT_PAREN) {
+                break;
+            }
+            if (type == TokenType.EOF) {
+                throw parseError(lexer, "CREATE TABLE 语句括号不匹配，请检查SQL是否完整。");
+            }
+            if (type == TokenType.COMMA) {
+                continue;
+            }
+            closed = parseDefinition(lexer, tableInfo);
+        }
+
+        // 表选项，直到语句结束：ENGINE=InnoDB COMMENT='...' COLLATE=...
+        for (type = lexer.next(); type != TokenType.SEMICOLON && type != TokenType.EOF; type = lexer.next()) {
+            if (lexer.isKeyword("comment")) {
+                type = lexer.next();
+                if (type == TokenType.EQUALS) {
+                    type = lexer.next();
+                }
+                if (type == TokenType.STRING) {
+                    tableInfo.setTableComment(lexer.stringValue());
+                } else if (type == TokenType.SEMICOLON || type == TokenType.EOF) {
+                    break;
+                }
+            }
+        }
+
+        return tableInfo;
     }
-    
+
     /**
-     * 提取字段信息
+     * 解析括号内的一个定义项（字段、索引或约束），当前记号为定义项的第一个记号。
+     * 定义项可以跨越多行，以顶层的逗号或右括号结束。
+     * @return 是否已经读到了字段定义块的右括号
      */
-    private static List<FieldInfo> extractFields(String sql) {
-        List<FieldInfo> fields = new ArrayList<>();
-        
-        String[] lines = sql.split("\n");
-        boolean inCreateTableBlock = false;
-        
-        for (String line : lines) {
-            line = line.trim();
-            
-            // 检测是否进入CREATE TABLE块
-            if (line.toLowerCase().startsWith("create table")) {
-                inCreateTableBlock = true;
-                continue;
+    private static boolean parseDefinition(SqlLexer lexer, TableInfo tableInfo) {
+        FieldInfo field = parseColumn(lexer, null, tableInfo.getIndexes());
+        if (field == null) {
+            IndexInfo index = parseIndexDefinition(lexer);
+            if (index != null) {
+                addIndex(tableInfo.getIndexes(), index);
             }
-            
-            // 检测是否离开CREATE TABLE块（遇到独立的CREATE INDEX等语句）
-            if (line.toLowerCase().startsWith("create index") || 
-                line.toLowerCase().startsWith("create unique index")) {
-                inCreateTableBlock = false;
-                continue;
+            return skipDefinition(lexer);
+        }
+        tableInfo.getFields().add(field);
+        return lexer.type() == TokenType.RIGHT_PAREN;
+    }
+
+    /**
+     * 解析一个索引定义，当前记号为定义项的第一个记号：
+     * [CONSTRAINT [name]] PRIMARY KEY / UNIQUE [INDEX|KEY] [name] / {INDEX|KEY} [name]，后接 [USING type] (字段, ...)。
+     * 结束时停在字段列表之后（或无法识别的位置），由调用方跳过定义项的其余部分。
+     * @return 索引信息；外键、全文、空间索引、CHECK 约束以及包含表达式的函数索引返回 null
+     */
+    static IndexInfo parseIndexDefinition(SqlLexer lexer) {
+        String name = null;
+        if (lexer.isKeyword("constraint")) {
+            TokenType type = lexer.next();
+            if ((type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER)
+                    && !lexer.isKeyword("primary") && !lexer.isKeyword("unique")
+                    && !lexer.isKeyword("foreign") && !lexer.isKeyword("check")) {
+                name = lexer.identifier();
+                lexer.next();
             }
-            
-            // 只在CREATE TABLE块内解析字段
-            if (!inCreateTableBlock) {
-                continue;
+        }
+        boolean unique;
+        if (lexer.isKeyword("primary")) {
+            lexer.next();
+            if (lexer.isKeyword("key")) {
+                lexer.next();
             }
-            
-            // 跳过非字段行
-            if (line.isEmpty() || 
-                line.toLowerCase().startsWith("constraint") ||
-                line.toLowerCase().startsWith("unique") ||
-                line.toLowerCase().startsWith("primary key") ||
-                line.startsWith(")") ||
-                line.startsWith("(")) {
-                continue;
+            return parseKeyParts(lexer, IndexInfo.PRIMARY, true);
+        } else if (lexer.isKeyword("unique")) {
+            unique = true;
+            lexer.next();
+            if (lexer.isKeyword("index") || lexer.isKeyword("key")) {
+                lexer.next();
             }
-            
-            // 检测CREATE TABLE块结束：仅当遇到 “) comment ... collate = utf8mb4_unicode_ci;”
-            if (line.toLowerCase().matches("\\)\\s*comment\\s*['\"`][^'\"`]*['\"`]\\s*collate\\s*=\\s*utf8mb4_unicode_ci\\s*;?")) {
-                inCreateTableBlock = false;
-                continue;
+        } else if (lexer.isKeyword("index") || lexer.isKeyword("key")) {
+            unique = false;
+            lexer.next();
+        } else {
+            return null;
+        }
+        TokenType type = lexer.type();
+        if ((type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER) && !lexer.isKeyword("using")) {
+            name = lexer.identifier();
+            lexer.next();
+        }
+        return parseKeyParts(lexer, name, unique);
+    }
+
+    /**
+     * 解析 [USING type] (字段[(长度)] [ASC|DESC], ...)，结束时停在右括号之后的记号
+     */
+    private static IndexInfo parseKeyParts(SqlLexer lexer, String name, boolean unique) {
+        if (lexer.isKeyword("using")) {
+            lexer.next();
+            lexer.next();
+        }
+        if (lexer.type() != TokenType.LEFT_PAREN) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        boolean expectColumn = true;
+        boolean functional = false;
+        int depth = 1;
+        while (depth > 0) {
+            TokenType type = lexer.next();
+            if (type == TokenType.EOF) {
+                throw parseError(lexer, "索引定义括号不匹配，请检查SQL是否完整。");
             }
-            
-            // 解析字段
-            FieldInfo fieldInfo = parseFieldLine(line);
-            if (fieldInfo != null) {
-                fields.add(fieldInfo);
+            if (type == TokenType.LEFT_PAREN) {
+                // 字段位置上出现括号表示函数索引，无法按字段查询
+                functional |= depth == 1 && expectColumn;
+                depth++;
+            } else if (type == TokenType.RIGHT_PAREN) {
+                depth--;
+            } else if (depth == 1 && type == TokenType.COMMA) {
+                expectColumn = true;
+            } else if (depth == 1 && expectColumn && (type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER)) {
+                columns.add(lexer.identifier());
+                expectColumn = false;
             }
         }
-        
-        return fields;
+        lexer.next();
+        return functional || columns.isEmpty() ? null : new IndexInfo(name, unique, columns);
     }
-    
+
     /**
-     * 解析单行字段定义 - 增强版注释提取
+     * 添加索引：未命名的索引与 MySQL 一样以第一个字段命名，重名时追加 _2、_3 后缀；重复的主键被忽略
      */
-    private static FieldInfo parseFieldLine(String line) {
-        // 移除末尾的逗号
-        line = line.replaceAll(",$", "").trim();
-        
-        // 跳过单独的"on update"约束行，但不跳过字段定义行
-        String trimmedLower = line.toLowerCase().trim();
-        if (trimmedLower.startsWith("on update") && !trimmedLower.matches(".*\\w+_time\\s+.*")) {
+    static void addIndex(List<IndexInfo> indexes, IndexInfo index) {
+        if (index.isPrimary()) {
+            if (findIndex(indexes, IndexInfo.PRIMARY) < 0) {
+                indexes.add(0, index);
+            }
+            return;
+        }
+        String base = index.getIndexName() != null ? index.getIndexName() : index.getColumnNames().get(0);
+        String name = base;
+        for (int suffix = 2; findIndex(indexes, name) >= 0; suffix++) {
+            name = base + "_" + suffix;
+        }
+        index.setIndexName(name);
+        indexes.add(index);
+    }
+
+    /**
+     * 按名称查找索引（不区分大小写）
+     * @return 下标，找不到时返回 -1
+     */
+    static int findIndex(List<IndexInfo> indexes, String name) {
+        for (int i = 0; i < indexes.size(); i++) {
+            if (indexes.get(i).getIndexName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析 CREATE [UNIQUE] INDEX name [USING type] ON table (字段, ...) 语句
+     * @param tableName 用于返回索引所属的表名
+     * @return 索引信息；全文、空间索引和函数索引返回 null
+     */
+    static IndexInfo parseCreateIndex(CharSequence sql, int from, int to, String[] tableName) {
+        SqlLexer lexer = new SqlLexer(sql, from, to);
+        lexer.next();
+        lexer.next();
+        if (lexer.isKeyword("fulltext") || lexer.isKeyword("spatial")) {
             return null;
         }
-        
-        // 增强的字段匹配正则表达式，支持多种注释格式
-        // 支持格式：
-        // 1. COMMENT '注释内容'
-        // 2. COMMENT "注释内容"
-        // 3. COMMENT `注释内容`
-        // 4. comment='注释内容'
-        // 5. comment="注释内容"
-        Pattern pattern = Pattern.compile(
-            "^\\s*([\\w_]+)\\s+([\\w()]+(?:\\s+unsigned)?)" +  // 字段名和类型（支持unsigned）
-            "(?:\\s+.*?)?" +                                    // 中间的约束条件（可选）
-            "(?:\\s+comment\\s*[=\\s]*['\"`]([^'\"`]*)['\"`])?" + // 注释部分（支持多种引号）
-            ".*$",
-            Pattern.CASE_INSENSITIVE
-        );
-        
-        Matcher matcher = pattern.matcher(line);
-        if (matcher.find()) {
-            String fieldName = matcher.group(1);
-            String fieldType = matcher.group(2).trim();
-            String comment = matcher.group(3);
-            
-            // 验证字段名不是SQL关键字
-            if (isValidFieldName(fieldName)) {
-                // 清理字段类型，移除多余的关键字
-                fieldType = cleanFieldType(fieldType);
-                
-                // 如果没有通过正则匹配到注释，尝试其他方式提取
-                if (comment == null || comment.trim().isEmpty()) {
-                    comment = extractCommentFromLine(line);
-                }
-                
-                return new FieldInfo(fieldName, fieldType, comment != null ? comment.trim() : "");
+        boolean unique = lexer.isKeyword("unique");
+        if (unique) {
+            lexer.next();
+        }
+        TokenType type = lexer.next();
+        if (type != TokenType.IDENTIFIER && type != TokenType.QUOTED_IDENTIFIER) {
+            throw parseError(lexer, "CREATE INDEX 语句缺少索引名。");
+        }
+        String name = lexer.identifier();
+        lexer.next();
+        if (lexer.isKeyword("using")) {
+            lexer.next();
+            lexer.next();
+        }
+        if (!lexer.isKeyword("on")) {
+            throw parseError(lexer, "CREATE INDEX 语句缺少 ON。");
+        }
+        // 表名，支持 `db`.`table` 形式，取最后一段
+        type = lexer.next();
+        while (type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER) {
+            tableName[0] = lexer.identifier();
+            type = lexer.next();
+            if (type != TokenType.SYMBOL || lexer.input().charAt(lexer.start()) != '.') {
+                break;
             }
+            type = lexer.next();
         }
-        
-        return null;
+        if (tableName[0] == null) {
+            throw parseError(lexer, "CREATE INDEX 语句缺少表名。");
+        }
+        return parseKeyParts(lexer, name, unique);
     }
-    
+
     /**
-     * 从字段定义行中提取注释的辅助方法
-     * 处理各种复杂的注释格式
-     */
-    private static String extractCommentFromLine(String line) {
-        // 尝试多种注释提取模式
-        String[] commentPatterns = {
-            "comment\\s*=\\s*'([^']*)'",           // comment='注释'
-            "comment\\s*=\\s*\"([^\"]*)\"",       // comment="注释"
-            "comment\\s*=\\s*`([^`]*)`",          // comment=`注释`
-            "comment\\s+'([^']*)'",               // comment '注释'
-            "comment\\s+\"([^\"]*)\"",            // comment "注释"
-            "comment\\s+`([^`]*)`",               // comment `注释`
-            "comment\\s*:\\s*'([^']*)'",          // comment: '注释'
-            "comment\\s*:\\s*\"([^\"]*)\"",       // comment: "注释"
-        };
-        
-        for (String patternStr : commentPatterns) {
-            Pattern pattern = Pattern.compile(patternStr, Pattern.CASE_INSENSITIVE);
-            Matcher matcher = pattern.matcher(line);
-            if (matcher.find()) {
-                String comment = matcher.group(1);
-                if (comment != null && !comment.trim().isEmpty()) {
-                    return comment.trim();
+     * 把 CREATE INDEX 语句的索引加到 tables 中最后一张同名表上，找不到表时忽略
+     */
+    private static void applyCreateIndex(List<TableInfo> tables, CharSequence sql, int from, int to) {
+        String[] tableName = new String[1];
+        IndexInfo index = parseCreateIndex(sql, from, to, tableName);
+        if (index == null) {
+            return;
+        }
+        for (int i = tables.size() - 1; i >= 0; i--) {
+            if (tables.get(i).getTableName().equalsIgnoreCase(tableName[0])) {
+                addIndex(tables.get(i).getIndexes(), index);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 解析一个字段定义，当前记号为字段名，结束时停在结束定义的记号上。
+     * 建表语句中字段定义以顶层的逗号或右括号结束；placement 不为 null 时（ALTER TABLE 中）
+     * 还可以以分号或语句结尾结束，并把 FIRST / AFTER 子句记录到 placement[0]（FIRST 记为空字符串）。
+     * indexes 不为 null 时，字段上的 PRIMARY KEY / UNIQUE 约束作为单字段索引加入其中。
+     * @return 字段信息；当前定义项不是字段时返回 null，由调用方跳过该定义项
+     */
+    static FieldInfo parseColumn(SqlLexer lexer, String[] placement, List<IndexInfo> indexes) {
+        TokenType type = lexer.type();
+
+        // 跳过约束、索引等非字段定义
+        if (type != TokenType.IDENTIFIER && type != TokenType.QUOTED_IDENTIFIER || isConstraintKeyword(lexer)) {
+            return null;
+        }
+
+        String fieldName = lexer.identifier();
+        if (!isValidFieldName(fieldName)) {
+            return null;
+        }
+
+        // 字段类型：类型名 + 可选的括号参数 + 可选的 unsigned
+        if (lexer.next() != TokenType.IDENTIFIER) {
+            return null;
+        }
+        StringBuilder fieldType = new StringBuilder(16);
+        lexer.appendRaw(fieldType);
+        type = lexer.next();
+        if (type == TokenType.LEFT_PAREN) {
+            fieldType.append('(');
+            int depth = 1;
+            while (true) {
+                type = lexer.next();
+                if (type == TokenType.EOF) {
+                    throw parseError(lexer, "CREATE TABLE 语句括号不匹配，请检查SQL是否完整。");
+                }
+                if (type == TokenType.LEFT_PAREN) {
+                    depth++;
+                } else if (type == TokenType.RIGHT_PAREN && --depth == 0) {
+                    break;
                 }
+                lexer.appendRaw(fieldType);
             }
+            fieldType.append(')');
+            type = lexer.next();
+        }
+        if (lexer.isKeyword("unsigned")) {
+            fieldType.append(' ');
+            lexer.appendRaw(fieldType);
+            type = lexer.next();
+        }
+
+        // 其余约束条件中只关心注释：COMMENT '...' / comment='...' / comment: '...'
+        String comment = "";
+        int depth = 0;
+        while (true) {
+            if (placement != null && depth == 0 && (type == TokenType.SEMICOLON || type == TokenType.EOF)) {
+                return new FieldInfo(fieldName, fieldType.toString(), comment);
+            }
+            if (type == TokenType.EOF) {
+                throw parseError(lexer, "CREATE TABLE 语句括号不匹配，请检查SQL是否完整。");
+            }
+            if (depth == 0 && (type == TokenType.COMMA || type == TokenType.RIGHT_PAREN)) {
+                return new FieldInfo(fieldName, fieldType.toString(), comment);
+            }
+            if (type == TokenType.LEFT_PAREN) {
+                depth++;
+            } else if (type == TokenType.RIGHT_PAREN) {
+                depth--;
+            } else if (depth == 0 && lexer.isKeyword("comment")) {
+                type = lexer.next();
+                if (type == TokenType.EQUALS || (type == TokenType.SYMBOL && lexer.input().charAt(lexer.start()) == ':')) {
+                    type = lexer.next();
+                }
+                if (type == TokenType.STRING) {
+                    comment = lexer.stringValue().trim();
+                    type = lexer.next();
+                }
+                continue;
+            } else if (indexes != null && depth == 0 && lexer.isKeyword("primary")) {
+                addIndex(indexes, new IndexInfo(IndexInfo.PRIMARY, true, new ArrayList<>(Collections.singletonList(fieldName))));
+            } else if (indexes != null && depth == 0 && lexer.isKeyword("unique")) {
+                addIndex(indexes, new IndexInfo(null, true, new ArrayList<>(Collections.singletonList(fieldName))));
+            } else if (placement != null && depth == 0 && lexer.isKeyword("first")) {
+                placement[0] = "";
+            } else if (placement != null && depth == 0 && lexer.isKeyword("after")) {
+                type = lexer.next();
+                if (type == TokenType.IDENTIFIER || type == TokenType.QUOTED_IDENTIFIER) {
+                    placement[0] = lexer.identifier();
+                    type = lexer.next();
+                }
+                continue;
+            }
+            type = lexer.next();
         }
-        
-        return "";
     }
-    
+
+    /**
+     * 生成带有当前记号位置的解析异常
+     */
+    private static SqlParseException parseError(SqlLexer lexer, String message) {
+        return new SqlParseException(message, lexer.line(), lexer.column());
+    }
+
+    /**
+     * 跳过当前定义项
+     * @return 是否已经读到了字段定义块的右括号
+     */
+    private static boolean skipDefinition(SqlLexer lexer) {
+        int depth = 0;
+        for (TokenType type = lexer.type(); ; type = lexer.next()) {
+            switch (type) {
+                case EOF:
+                    throw parseError(lexer, "CREATE TABLE 语句括号不匹配，请检查SQL是否完整。");
+                case LEFT_PAREN:
+                    depth++;
+                    break;
+                case RIGHT_PAREN:
+                    if (depth == 0) {
+                        return true;
+                    }
+                    depth--;
+                    break;
+                case COMMA:
+                    if (depth == 0) {
+                        return false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 定义项是否以约束/索引关键字开头
+     */
+    private static boolean isConstraintKeyword(SqlLexer lexer) {
+        for (String keyword : CONSTRAINT_KEYWORDS) {
+            if (lexer.isKeyword(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 验证字段名是否有效（不是SQL关键字）
      */
     private static boolean isValidFieldName(String fieldName) {
         // 过滤SQL关键字，但不过滤包含关键字的字段名（如create_time, update_time）
-        String[] sqlKeywords = {"on", "primary", "key", "constraint", "unique", "index", "foreign", "create", "table", "alter", "drop"};
-        String lowerFieldName = fieldName.toLowerCase();
-        
-        // 如果是纯关键字，则无效
-        for (String keyword : sqlKeywords) {
-            if (keyword.equals(lowerFieldName)) {
+        for (String keyword : SQL_KEYWORDS) {
+            if (keyword.equalsIgnoreCase(fieldName)) {
                 return false;
             }
         }
-        
+
         // 额外检查：字段名必须是有效的标识符格式（字母开头，包含字母数字下划线）
-        if (!fieldName.matches("^[a-zA-Z][a-zA-Z0-9_]*$")) {
+        if (fieldName.isEmpty() || !isAsciiLetter(fieldName.charAt(0))) {
             return false;
         }
-        
+        for (int i = 1; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '_') {
+                return false;
+            }
+        }
         return true;
     }
-    
-    /**
-     * 清理字段类型
-     */
-    private static String cleanFieldType(String fieldType) {
-        // 移除常见的约束关键字，只保留数据类型
-        return fieldType.replaceAll("(?i)\\s*(auto_increment|not null|null|default\\s+[^\\s]+).*", "").trim();
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
-    
+
     /**
      * 打印核心信息：表名、字段数、字段名数组、字段类型数组
      */
@@ -375,72 +847,4 @@ public class TableFieldExtractor {
         }
         System.out.println("};");
     }
-    
-    /**
-     * 提取 create table 代码块（从 "create table" 到语句结束的 ";")
-     * 通过匹配括号来定位主体的结束，然后找到语句的结束分号。
-     * 这个版本会简单地处理字符串中的括号，以提高准确性。
-     */
-    private static String extractCreateTableBlock(String sql) {
-        if (sql == null || sql.trim().isEmpty()) {
-            return "";
-        }
-
-        // 查找 "create table"
-        Pattern startPat = Pattern.compile("create\\s+table\\b", Pattern.CASE_INSENSITIVE);
-        Matcher sm = startPat.matcher(sql);
-        if (!sm.find()) {
-            throw new IllegalArgumentException("未检测到有效的 CREATE TABLE 语句，请检查粘贴的 SQL 表语句。");
-        }
-        int start = sm.start();
-
-        // 从 "create table" 之后查找第一个 "("
-        int openParenIndex = sql.indexOf('(', start);
-        if (openParenIndex == -1) {
-            throw new IllegalArgumentException("CREATE TABLE 语句缺少定义字段的左括号 '('。");
-        }
-
-        int parenCount = 1;
-        int currentIndex = openParenIndex + 1;
-        boolean inString = false;
-        char stringQuote = 0;
-
-        // 寻找匹配的右括号, 忽略字符串中的括号
-        while (currentIndex < sql.length() && parenCount > 0) {
-            char c = sql.charAt(currentIndex);
-            char prevC = (currentIndex > 0) ? sql.charAt(currentIndex - 1) : '\0';
-
-            if (inString) {
-                if (c == stringQuote && prevC != '\\') { // 结束字符串
-                    inString = false;
-                }
-            } else {
-                if ((c == '\'' || c == '"' || c == '`') && prevC != '\\') { // 开始字符串
-                    inString = true;
-                    stringQuote = c;
-                } else if (c == '(') {
-                    parenCount++;
-                } else if (c == ')') {
-                    parenCount--;
-                }
-            }
-            currentIndex++;
-        }
-
-        if (parenCount != 0) {
-            throw new IllegalArgumentException("CREATE TABLE 语句括号不匹配，请检查SQL是否完整。");
-        }
-
-        // 此时 currentIndex 是匹配的右括号的下一个位置
-        // 从这个位置开始寻找第一个分号
-        int semicolonIndex = sql.indexOf(';', currentIndex - 1);
-
-        if (semicolonIndex == -1) {
-            // 如果找不到分号，则假定整个剩余的字符串都是 CREATE TABLE 语句的一部分
-            // 这可以兼容用户只粘贴了建表语句而没有带分号的情况
-            return sql.substring(start);
-        }
-
-        return sql.substring(start, semicolonIndex + 1);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package utils;
+
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表信息的二进制读写
+ * 供解析缓存等需要把 TableInfo 持久化到磁盘的功能共用。
+ */
+public class TableInfoCodec {
+
+    /**
+     * 编码格式版本，修改读写格式时递增
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * 编码后一张表至少占用的字节数：表名和注释的长度各 2 字节，字段数量和索引数量各 4 字节
+     */
+    public static final int MIN_TABLE_BYTES = 12;
+
+    // 一张表的字段、索引和每个索引的字段数量上限，读取时超过上限视为数据损坏
+    private static final int MAX_ELEMENTS = 1 << 16;
+
+    /**
+     * 写入一张表
+     */
+    public static void write(DataOutput out, TableInfo table) throws IOException {
+        out.writeUTF(nullToEmpty(table.getTableName()));
+        out.writeUTF(nullToEmpty(table.getTableComment()));
+        List<FieldInfo> fields = table.getFields();
+        out.writeInt(fields.size());
+        for (FieldInfo field : fields) {
+            out.writeUTF(nullToEmpty(field.getFieldName()));
+            out.writeUTF(nullToEmpty(field.getFieldType()));
+            out.writeUTF(nullToEmpty(field.getComment()));
+        }
+        List<IndexInfo> indexes = table.getIndexes();
+        out.writeInt(indexes.size());
+        for (IndexInfo index : indexes) {
+            out.writeUTF(nullToEmpty(index.getIndexName()));
+            out.writeBoolean(index.isUnique());
+            out.writeInt(index.getColumnNames().size());
+            for (String column : index.getColumnNames()) {
+                out.writeUTF(nullToEmpty(column));
+            }
+        }
+    }
+
+    /**
+     * 读取一张表
+     */
+    public static TableInfo read(DataInput in) throws IOException {
+        TableInfo table = new TableInfo();
+        table.setTableName(in.readUTF());
+        table.setTableComment(in.readUTF());
+        int fieldCount = readCount(in, MAX_ELEMENTS);
+        List<FieldInfo> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            fields.add(new FieldInfo(in.readUTF(), in.readUTF(), in.readUTF()));
+        }
+        table.setFields(fields);
+        int indexCount = readCount(in, MAX_ELEMENTS);
+        List<IndexInfo> indexes = new ArrayList<>(indexCount);
+        for (int i = 0; i < indexCount; i++) {
+            String name = in.readUTF();
+            boolean unique = in.readBoolean();
+            int columnCount = readCount(in, MAX_ELEMENTS);
+            List<String> columns = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                columns.add(in.readUTF());
+            }
+            indexes.add(new IndexInfo(name, unique, columns));
+        }
+        table.setIndexes(indexes);
+        return table;
+    }
+
+    /**
+     * 读取一个数量并检查范围，数据损坏时抛出 IOException，而不是按错误的数量分配内存
+     * @param max 允许的最大值，通常由剩余的字节数除以每条记录的最小长度得到
+     */
+    public static int readCount(DataInput in, long max) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("数量超出范围: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * 复制一张表，副本与原对象互不影响
+     */
+    public static TableInfo copy(TableInfo source) {
+        TableInfo table = new TableInfo();
+        table.setTableName(source.getTableName());
+        table.setTableComment(source.getTableComment());
+        List<FieldInfo> fields = new ArrayList<>(source.getFields().size());
+        for (FieldInfo field : source.getFields()) {
+            fields.add(new FieldInfo(field.getFieldName(), field.getFieldType(), field.getComment()));
+        }
+        table.setFields(fields);
+        List<IndexInfo> indexes = new ArrayList<>(source.getIndexes().size());
+        for (IndexInfo index : source.getIndexes()) {
+            indexes.add(new IndexInfo(index.getIndexName(), index.isUnique(), new ArrayList<>(index.getColumnNames())));
+        }
+        table.setIndexes(indexes);
+        return table;
+    }
+
+    /**
+     * 表的 64 位指纹（FNV-1a），覆盖与 write 相同的全部内容，指纹相同即可视为表结构未变化
+     */
+    public static long fingerprint(TableInfo table) {
+        long h = FNV_OFFSET;
+        h = mix(h, table.getTableName());
+        h = mix(h, table.getTableComment());
+        h = mix(h, table.getFields().size());
+        for (FieldInfo field : table.getFields()) {
+            h = mix(h, field.getFieldName());
+            h = mix(h, field.getFieldType());
+            h = mix(h, field.getComment());
+        }
+        h = mix(h, table.getIndexes().size());
+        for (IndexInfo index : table.getIndexes()) {
+            h = mix(h, index.getIndexName());
+            h = mix(h, index.isUnique() ? 1 : 0);
+            h = mix(h, index.getColumnNames().size());
+            for (String column : index.getColumnNames()) {
+                h = mix(h, column);
+            }
+        }
+        return h;
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static long mix(long h, String value) {
+        String text = nullToEmpty(value);
+        // 先混入长度，使 ("ab", "c") 与 ("a", "bc") 的指纹不同
+        h = mix(h, text.length());
+        for (int i = 0; i < text.length(); i++) {
+            h = (h ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            h = (h ^ ((value >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -161,6 +161,7 @@ public class TypeConverterUtils {
     /**
      * 直接处理GlobalTableInfo中的fieldTypes数组
      * 将MySQL类型转换为简化Java类型并重新赋值
+     * 仅为兼容旧接口保留，对已创建的 GenerationContext 没有影响
      */
     public static void processGlobalTableInfo() {
         GlobalTableInfo instance = GlobalTableInfo.getInstance();
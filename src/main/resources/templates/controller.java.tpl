@@ -0,0 +1,21 @@
+<#--
+  Controller 控制器模板
+  可用变量：package、entityPackage、servicePackage、entityName、serviceName、controllerName、
+  requestMappingPath、serviceInstanceName
+-->
+package ${package};
+
+import ${entityPackage}.${entityName};
+import ${servicePackage}.${serviceName};
+import org.springframework.web.bind.annotation.*;
+import jakarta.annotation.Resource;
+
+@RestController
+@RequestMapping("/${requestMappingPath}")
+public class ${controllerName} {
+
+    @Resource
+    private ${serviceName} ${serviceInstanceName};
+
+    // 可在此处添加基本的CRUD方法
+}
@@ -0,0 +1,47 @@
+<#--
+  Entity 实体类模板
+  可用变量：package、tableName、entityName、
+  fields（每项包含 columnName、name、type、comment、primary）
+-->
+package ${package};
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableField;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("${tableName}")
+public class ${entityName} implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+<#list fields as field>
+<#if field.comment>
+    /**
+     * ${field.comment}
+     */
+</#if>
+<#if field.primary>
+    @TableId(value = "${field.columnName}", type = IdType.AUTO)
+<#else>
+    @TableField("${field.columnName}")
+</#if>
+    private ${field.type} ${field.name};
+
+</#list>
+}
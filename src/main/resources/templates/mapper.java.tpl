@@ -0,0 +1,53 @@
+<#--
+  Mapper 接口模板
+  可用变量：package、entityPackage、entityName、mapperName、javaImports、
+  finders（每项包含 suffix、returnType、parameters、arguments、description、indexKind、unique、firstGetter，
+  以及 conditions，每项包含 getter、field）
+-->
+package ${package};
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+<#if finders>
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+</#if>
+import ${entityPackage}.${entityName};
+import org.apache.ibatis.annotations.Mapper;
+
+<#list javaImports as javaImport>
+import ${javaImport};
+</#list>
+<#if javaImports>
+
+</#if>
+@Mapper
+public interface ${mapperName} extends BaseMapper<${entityName}> {
+<#list finders as finder>
+
+    /**
+     * 按${finder.indexKind} ${finder.description} 查询
+     */
+    default ${finder.returnType} selectBy${finder.suffix}(${finder.parameters}) {
+<#if finder.unique>
+        return selectOne(Wrappers.<${entityName}>lambdaQuery()<#list finder.conditions as condition>
+                .eq(${entityName}::get${condition.getter}, ${condition.field})</#list>
+                .last("LIMIT 1"));
+<#else>
+        return selectList(Wrappers.<${entityName}>lambdaQuery()<#list finder.conditions as condition>
+                .eq(${entityName}::get${condition.getter}, ${condition.field})</#list>);
+</#if>
+    }
+
+    /**
+     * 按${finder.indexKind} ${finder.description} 判断记录是否存在，只读取一行
+     */
+    default boolean existsBy${finder.suffix}(${finder.parameters}) {
+        return selectOne(Wrappers.<${entityName}>lambdaQuery()
+                .select(${entityName}::get${finder.firstGetter})<#list finder.conditions as condition>
+                .eq(${entityName}::get${condition.getter}, ${condition.field})</#list>
+                .last("LIMIT 1")) != null;
+    }
+</#list>
+<#if finders>
+
+</#if>
+}
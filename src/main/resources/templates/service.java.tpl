@@ -0,0 +1,33 @@
+<#--
+  Service 接口模板
+  可用变量：package、entityPackage、entityName、serviceName、javaImports、
+  finders（每项包含 suffix、returnType、parameters、arguments、description、indexKind、unique）
+-->
+package ${package};
+
+import ${entityPackage}.${entityName};
+import com.baomidou.mybatisplus.extension.service.IService;
+
+<#list javaImports as javaImport>
+import ${javaImport};
+</#list>
+<#if javaImports>
+
+</#if>
+public interface ${serviceName} extends IService<${entityName}> {
+<#list finders as finder>
+
+    /**
+     * 按${finder.indexKind} ${finder.description} 查询
+     */
+    ${finder.returnType} selectBy${finder.suffix}(${finder.parameters});
+
+    /**
+     * 按${finder.indexKind} ${finder.description} 判断记录是否存在
+     */
+    boolean existsBy${finder.suffix}(${finder.parameters});
+</#list>
+<#if finders>
+
+</#if>
+}
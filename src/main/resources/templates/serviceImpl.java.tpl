@@ -0,0 +1,37 @@
+<#--
+  ServiceImpl 实现类模板
+  可用变量：package、entityPackage、mapperPackage、servicePackage、entityName、mapperName、serviceName、
+  serviceImplName、javaImports、finders（每项包含 suffix、returnType、parameters、arguments、description、indexKind、unique）
+-->
+package ${package};
+
+import ${entityPackage}.${entityName};
+import ${mapperPackage}.${mapperName};
+import ${servicePackage}.${serviceName};
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.stereotype.Service;
+
+<#list javaImports as javaImport>
+import ${javaImport};
+</#list>
+<#if javaImports>
+
+</#if>
+@Service
+public class ${serviceImplName} extends ServiceImpl<${mapperName}, ${entityName}> implements ${serviceName} {
+<#list finders as finder>
+
+    @Override
+    public ${finder.returnType} selectBy${finder.suffix}(${finder.parameters}) {
+        return baseMapper.selectBy${finder.suffix}(${finder.arguments});
+    }
+
+    @Override
+    public boolean existsBy${finder.suffix}(${finder.parameters}) {
+        return baseMapper.existsBy${finder.suffix}(${finder.arguments});
+    }
+</#list>
+<#if finders>
+
+</#if>
+}
@@ -0,0 +1,78 @@
+package Benchmark;
+
+import Generator.ArtifactGraph;
+import Generator.GenerationContext;
+import Generator.GenerationResult;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 代码文件依赖图报告：
+ * 1. 比较五个生成器各自推导类名和查询方法（SchemaFixtures.renderSeparately）、依赖图依次执行、同时执行三种方式的耗时；
+ * 2. 输出每个节点的平均耗时。
+ * 生成结果与各生成器单独生成的相同、自定义节点和依赖检查由 Generator.ArtifactGraphTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.ArtifactGraphBenchmark [表数量] [轮数] [线程数]
+ */
+public class ArtifactGraphBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        System.out.println("=== 代码文件依赖图报告 ===");
+        GenerationConfig config = SchemaFixtures.config(null);
+        List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(tableCount));
+        ArtifactGraph graph = ArtifactGraph.standard();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long separate = Long.MAX_VALUE;
+            long sequential = Long.MAX_VALUE;
+            long concurrent = Long.MAX_VALUE;
+            Map<String, Long> stageNanos = new LinkedHashMap<>();
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                for (TableInfo table : tables) {
+                    SchemaFixtures.renderSeparately(new GenerationContext(table, config));
+                }
+                separate = Math.min(separate, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (TableInfo table : tables) {
+                    graph.render(new GenerationContext(table, config));
+                }
+                sequential = Math.min(sequential, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (TableInfo table : tables) {
+                    GenerationResult result = graph.render(new GenerationContext(table, config), executor);
+                    if (r == rounds - 1) {
+                        for (Map.Entry<String, Long> stage : result.getStageNanos().entrySet()) {
+                            stageNanos.merge(stage.getKey(), stage.getValue(), Long::sum);
+                        }
+                    }
+                }
+                concurrent = Math.min(concurrent, System.nanoTime() - start);
+            }
+
+            System.out.println(String.format("%d 张表，%d 个文件；每种方式取 %d 轮中最快的一轮，%d 个 CPU",
+                    tableCount, tableCount * 5, rounds, Runtime.getRuntime().availableProcessors()));
+            System.out.println(String.format("各生成器单独生成:     %6d ms", separate / 1000000));
+            System.out.println(String.format("依赖图依次执行:       %6d ms", sequential / 1000000));
+            System.out.println(String.format("依赖图同时执行(%d 线程): %5d ms", threads, concurrent / 1000000));
+            System.out.println("依赖图: " + graph);
+            System.out.println("每张表各节点的平均耗时:");
+            for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+                System.out.println(String.format("  %-12s %7.1f us", stage.getKey(), stage.getValue() / 1e3 / tableCount));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package Benchmark;
+
+import Generator.BatchCodeWriter;
+import Generator.CodeFileWriter;
+import Generator.GenerationContext;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 批量生成报告：为整个库的所有表写入代码文件，
+ * 对比逐表依次写入（原有的 writeAllCodeFiles）与线程池并行写入的耗时和吞吐量。
+ * 并行写入的文件与依次写入的相同、一张表失败不影响其他表由 Generator.BatchCodeWriterTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.BatchGenerationBenchmark [表数量]
+ */
+public class BatchGenerationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+        System.out.println("=== 批量生成报告 ===");
+        Path root = Files.createTempDirectory("batch-bench");
+        try {
+            List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(tableCount));
+
+            // 逐表依次写入，日志不计入耗时
+            GenerationConfig sequentialConfig = SchemaFixtures.config(root.resolve("sequential"));
+            long sequential = SchemaFixtures.quietly(() -> {
+                long start = System.nanoTime();
+                for (TableInfo table : tables) {
+                    CodeFileWriter.writeAllCodeFiles(new GenerationContext(table, sequentialConfig));
+                }
+                return System.nanoTime() - start;
+            });
+            System.out.println(String.format("%d 张表，%d 个 CPU 核", tableCount, Runtime.getRuntime().availableProcessors()));
+            System.out.println(String.format("逐表依次写入:  %6d ms，%6.0f 张/秒", sequential / 1000000, tableCount * 1e9 / sequential));
+
+            for (int threads : threadCounts()) {
+                GenerationConfig config = SchemaFixtures.config(root.resolve("batch-" + threads));
+                BatchCodeWriter.Result result = SchemaFixtures.quietly(() -> new BatchCodeWriter(config, threads).write(tables));
+                System.out.println(String.format("%2d 个线程并行: %6d ms，%6.0f 张/秒（%.1f 倍），%s", threads,
+                        result.getElapsedNanos() / 1000000, result.getTablesPerSecond(), (double) sequential / result.getElapsedNanos(),
+                        result.summary()));
+            }
+        } finally {
+            SchemaFixtures.deleteRecursively(root);
+        }
+    }
+
+    private static List<Integer> threadCounts() {
+        List<Integer> counts = new ArrayList<>(Arrays.asList(1, 2, 4, 8));
+        if (!counts.contains(BatchCodeWriter.defaultThreads())) {
+            counts.add(BatchCodeWriter.defaultThreads());
+        }
+        return counts;
+    }
+}
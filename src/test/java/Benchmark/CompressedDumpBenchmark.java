@@ -0,0 +1,101 @@
+package Benchmark;
+
+import utils.DumpFileParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 压缩导出解析报告：生成数据量依次翻倍的 .sql.gz 导出（每张表后跟大量 INSERT 数据），
+ * 边解压边解析并在后台采样堆占用，峰值应基本不随导出大小增长。
+ * 解析出的表与未压缩时相同由 utils.DumpFileParserTest 检查。
+ * 运行方式：java -Xmx64m -cp target/classes:target/test-classes Benchmark.CompressedDumpBenchmark [最大解压后大小(MB)]
+ */
+public class CompressedDumpBenchmark {
+
+    private static final int TABLE_COUNT = 200;
+
+    public static void main(String[] args) throws Exception {
+        int maxMegabytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        System.out.println("=== 压缩导出解析报告 ===");
+        System.out.println("最大堆: " + Runtime.getRuntime().maxMemory() / 1048576 + " MB");
+        for (int megabytes = Math.max(1, maxMegabytes / 8); megabytes <= maxMegabytes; megabytes *= 2) {
+            Path dump = Files.createTempFile("dump", ".sql.gz");
+            try {
+                long rawBytes = writeDump(dump, megabytes * 1048576L);
+                run(dump, rawBytes);
+            } finally {
+                Files.deleteIfExists(dump);
+            }
+        }
+    }
+
+    private static void run(Path dump, long rawBytes) throws Exception {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        AtomicLong peak = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        int[] tables = {0};
+        long start = System.nanoTime();
+        DumpFileParser.parseFile(dump, null, table -> tables[0]++);
+        long elapsed = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+
+        System.out.println(String.format("解压后约 %5d MB（压缩 %4d MB）: %d 张表，%6d ms，%6.1f MB/s，堆峰值 %5.1f MB",
+                rawBytes / 1048576, Files.size(dump) / 1048576, tables[0], elapsed / 1000000,
+                rawBytes / 1048576.0 / (elapsed / 1e9), peak.get() / 1048576.0));
+    }
+
+    /**
+     * 写出 gzip 导出文件，数据均匀分布在每张表之后
+     * @return 写入的字符数（近似解压后的大小）
+     */
+    private static long writeDump(Path dump, long targetBytes) throws IOException {
+        long perTable = targetBytes / TABLE_COUNT;
+        long written = 0;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(dump), 64 * 1024), StandardCharsets.UTF_8))) {
+            StringBuilder chunk = new StringBuilder();
+            for (int t = 0; t < TABLE_COUNT; t++) {
+                chunk.setLength(0);
+                chunk.append("DROP TABLE IF EXISTS `t_table_").append(t).append("`;\n")
+                     .append(SchemaFixtures.createTableStatement(t, 12)).append('\n');
+                long tableBytes = 0;
+                while (tableBytes < perTable) {
+                    chunk.append("INSERT INTO `t_table_").append(t).append("` VALUES ");
+                    for (int row = 0; row < 500; row++) {
+                        chunk.append(row == 0 ? "(" : ",(").append(row)
+                             .append(",'用户").append(t * 31 + row).append(";备注 \\' 转义',")
+                             .append(row * 7 % 1000).append(",'2024-01-01 00:00:00')");
+                    }
+                    chunk.append(";\n");
+                    tableBytes += chunk.length();
+                    written += chunk.length();
+                    out.write(chunk.toString());
+                    chunk.setLength(0);
+                }
+            }
+        }
+        return written;
+    }
+}
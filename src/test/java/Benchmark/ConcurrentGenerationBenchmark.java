@@ -0,0 +1,96 @@
+package Benchmark;
+
+import Generator.BatchCodeWriter;
+import Generator.GenerationContext;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 并发生成报告：多个线程同时用两套不同的包路径配置为随机的表生成代码，
+ * 再让两个项目同时批量写入文件，输出两种情况的耗时。
+ * 同时修改 GlobalTableInfo 时没有串表或串配置由 Generator.ConcurrentGenerationTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.ConcurrentGenerationBenchmark [表数量] [线程数] [每个线程的生成次数]
+ */
+public class ConcurrentGenerationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        System.out.println("=== 并发生成报告 ===");
+        Path root = Files.createTempDirectory("concurrent-bench");
+        try {
+            GenerationConfig[] configs = {
+                    new GenerationConfig(root.resolve("project-a").toString(), "com.a.entity", "com.a.mapper",
+                            "com.a.service", "com.a.service.impl", "com.a.controller", 0),
+                    new GenerationConfig(root.resolve("project-b").toString(), "org.b.domain", "org.b.dao",
+                            "org.b.biz", "org.b.biz.impl", "org.b.web", 0)
+            };
+            List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(tableCount));
+
+            // 1. 多个线程同时在内存中生成
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    long chars = 0;
+                    for (int r = 0; r < rounds; r++) {
+                        GenerationConfig config = configs[random.nextInt(configs.length)];
+                        for (String content : SchemaFixtures.renderSeparately(
+                                new GenerationContext(tables.get(random.nextInt(tables.size())), config))) {
+                            chars += content.length();
+                        }
+                    }
+                    return chars;
+                }));
+            }
+            long chars = 0;
+            for (Future<Long> future : futures) {
+                chars += future.get();
+            }
+            long inMemory = System.nanoTime() - start;
+            executor.shutdown();
+
+            // 2. 两个项目同时批量写入文件
+            List<BatchCodeWriter.Result> results = SchemaFixtures.quietly(() -> {
+                ExecutorService projects = Executors.newFixedThreadPool(configs.length);
+                try {
+                    List<Future<BatchCodeWriter.Result>> writes = new ArrayList<>();
+                    for (GenerationConfig config : configs) {
+                        writes.add(projects.submit((Callable<BatchCodeWriter.Result>) () -> new BatchCodeWriter(config, 4).write(tables)));
+                    }
+                    List<BatchCodeWriter.Result> done = new ArrayList<>();
+                    for (Future<BatchCodeWriter.Result> write : writes) {
+                        done.add(write.get());
+                    }
+                    return done;
+                } finally {
+                    projects.shutdown();
+                }
+            });
+
+            System.out.println(String.format("%d 张表，2 套配置，%d 个线程", tableCount, threads));
+            System.out.println(String.format("内存中生成: %d 次 x 5 个文件，%6d ms，共 %d 个字符", threads * rounds, inMemory / 1000000, chars));
+            for (int c = 0; c < configs.length; c++) {
+                System.out.println(String.format("两个项目同时写入，项目 %d: %6d ms，%s", c + 1,
+                        results.get(c).getElapsedNanos() / 1000000, results.get(c).summary()));
+            }
+        } finally {
+            SchemaFixtures.deleteRecursively(root);
+        }
+    }
+}
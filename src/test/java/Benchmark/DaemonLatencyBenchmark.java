@@ -0,0 +1,105 @@
+package Benchmark;
+
+import CLI.GeneratorDaemon;
+import Global.GenerationConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 生成服务延迟报告：启动预热后的本地生成服务，逐个发送单表渲染请求和写入请求，统计客户端看到的延迟，
+ * 与每次启动一个新 JVM 运行命令行生成的耗时对比。
+ * 令牌、Host、Origin、请求体类型和 --root 的校验以及请求统计由 CLI.GeneratorDaemonTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.DaemonLatencyBenchmark [请求数] [命令行运行次数]
+ */
+public class DaemonLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int coldRuns = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        System.out.println("=== 生成服务延迟报告 ===");
+        Path project = Files.createTempDirectory("daemon-project");
+        Path tokenFile = project.resolve("token/daemon.token");
+        PrintStream console = System.out;
+        List<String> statements = SchemaFixtures.createTableStatements(50);
+        String query = "entityOrdomainPackage=com.example.entity&mapperPackage=com.example.mapper"
+                + "&servicePackage=com.example.service&implPackage=com.example.service.impl"
+                + "&controllerPackage=com.example.controller";
+        GenerationConfig defaults = new GenerationConfig(null, null, null, null, null, null, 0);
+        try (GeneratorDaemon daemon = new GeneratorDaemon(0, defaults, 2, project, tokenFile)) {
+            // 写入请求的逐行日志不计入耗时
+            System.setOut(new PrintStream(new ByteArrayOutputStream(), false, "UTF-8"));
+            daemon.warmUp(200);
+            daemon.start();
+            String base = "http://127.0.0.1:" + daemon.getPort();
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put(GeneratorDaemon.TOKEN_HEADER, daemon.getToken());
+            headers.put("Content-Type", "application/sql");
+
+            long[] render = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                long start = System.nanoTime();
+                SchemaFixtures.post(base + "/generate?" + query, statements.get(i % statements.size()), headers);
+                render[i] = System.nanoTime() - start;
+            }
+            int writes = Math.max(1, requests / 10);
+            long[] write = new long[writes];
+            String writeQuery = query + "&write=true&projectPath=" + URLEncoder.encode(project.toString(), "UTF-8");
+            for (int i = 0; i < writes; i++) {
+                long start = System.nanoTime();
+                SchemaFixtures.post(base + "/generate?" + writeQuery, statements.get(i % statements.size()), headers);
+                write[i] = System.nanoTime() - start;
+            }
+            GeneratorDaemon.LatencyStats stats = daemon.getLatencyStats();
+            System.setOut(console);
+
+            // 每次启动一个新 JVM 运行命令行生成同一张表
+            Path sql = project.resolve("one.sql");
+            Files.write(sql, statements.get(0).getBytes(StandardCharsets.UTF_8));
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            long cold = Long.MAX_VALUE;
+            for (int i = 0; i < coldRuns; i++) {
+                Path archive = project.resolve("cold-" + i + ".zip");
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "CLI.SQLGeneratorCLI",
+                        "--no-cache", "--zip", archive.toString(),
+                        "--entityOrdomainPackage", "com.example.entity", "--mapperPackage", "com.example.mapper",
+                        "--servicePackage", "com.example.service", "--implPackage", "com.example.service.impl",
+                        "--controllerPackage", "com.example.controller", sql.toString())
+                        .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.to(new File(project.toFile(), "cold.log")))
+                        .start();
+                if (process.waitFor() != 0) {
+                    throw new IllegalStateException("命令行生成失败，见 " + project.resolve("cold.log"));
+                }
+                cold = Math.min(cold, System.nanoTime() - start);
+            }
+
+            System.out.println(String.format("单表渲染请求 %d 次: p50 %.2f ms，p90 %.2f ms，p99 %.2f ms，最大 %.2f ms",
+                    requests, percentile(render, 50), percentile(render, 90), percentile(render, 99), percentile(render, 100)));
+            System.out.println(String.format("单表写入请求 %d 次: p50 %.2f ms，p90 %.2f ms，p99 %.2f ms",
+                    writes, percentile(write, 50), percentile(write, 90), percentile(write, 99)));
+            System.out.println(String.format("服务统计: %d 个请求，%d 个失败，p50 %d us，p99 %d us",
+                    stats.getCount(), stats.getErrors(), stats.getPercentileMicros(50), stats.getPercentileMicros(99)));
+            System.out.println(String.format("每次启动新 JVM 运行命令行（%d 次中最快）: %.2f ms", coldRuns, cold / 1e6));
+        } finally {
+            System.setOut(console);
+            SchemaFixtures.deleteRecursively(project);
+        }
+    }
+
+    private static double percentile(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,100 @@
+package Benchmark;
+
+import utils.JdbcSchemaReader;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 数据库读取表结构报告：在嵌入式 H2（MySQL 兼容模式）中建出合成表，
+ * 对比 JdbcSchemaReader 的批量查询与逐表调用 DatabaseMetaData 的耗时和数据库往返次数。
+ * 读取结果与直接解析建表语句一致由 utils.JdbcSchemaReaderTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes:h2.jar Benchmark.JdbcIntrospectionBenchmark [表数量]
+ */
+public class JdbcIntrospectionBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:introspection;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println("=== 数据库读取表结构报告 ===");
+        // H2 中索引名在整个库内唯一，给每张表的索引加上表序号
+        List<String> statements = SchemaFixtures.createTableStatements(tableCount);
+        for (int t = 0; t < statements.size(); t++) {
+            statements.set(t, statements.get(t).replace("KEY idx_column_1", "KEY idx_" + t + "_column_1"));
+        }
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+            }
+            // 预热
+            new JdbcSchemaReader(connection).readTables(null);
+            readPerTable(connection);
+
+            long start = System.nanoTime();
+            List<TableInfo> bulk = new JdbcSchemaReader(connection).readTables(null);
+            long bulkElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int roundTrips = readPerTable(connection);
+            long perTableElapsed = System.nanoTime() - start;
+
+            if (bulk.size() != statements.size()) {
+                throw new IllegalStateException("表数量不一致: " + statements.size() + " / " + bulk.size());
+            }
+            System.out.println(String.format("%d 张表，%d 个字段", bulk.size(), countFields(bulk)));
+            System.out.println(String.format("批量查询:   %6d ms，数据库往返 %5d 次", bulkElapsed / 1000000, 3));
+            System.out.println(String.format("逐表元数据: %6d ms，数据库往返 %5d 次", perTableElapsed / 1000000, roundTrips));
+            System.out.println("嵌入式数据库没有网络延迟，连接远程数据库时每次往返还要额外加上网络延迟");
+        }
+    }
+
+    /**
+     * 逐表读取字段和索引，作为对比
+     * @return 数据库往返次数
+     */
+    private static int readPerTable(Connection connection) throws Exception {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String schema = connection.getSchema();
+        List<String> tableNames = new ArrayList<>();
+        try (ResultSet tables = metaData.getTables(null, schema, "%", new String[]{"BASE TABLE", "TABLE"})) {
+            while (tables.next()) {
+                tableNames.add(tables.getString("TABLE_NAME"));
+            }
+        }
+        int rows = 0;
+        for (String tableName : tableNames) {
+            try (ResultSet columns = metaData.getColumns(null, schema, tableName, "%")) {
+                while (columns.next()) {
+                    rows++;
+                }
+            }
+            try (ResultSet indexes = metaData.getIndexInfo(null, schema, tableName, false, false)) {
+                while (indexes.next()) {
+                    rows++;
+                }
+            }
+        }
+        if (rows == 0 && !tableNames.isEmpty()) {
+            throw new IllegalStateException("逐表读取没有读到字段");
+        }
+        return 1 + tableNames.size() * 2;
+    }
+
+    private static int countFields(List<TableInfo> tables) {
+        int count = 0;
+        for (TableInfo table : tables) {
+            count += table.getFields().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,154 @@
+package Benchmark;
+
+import utils.TableFieldExtractor.FieldInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 旧版逐行正则解析的原样拷贝，作为基准对照和解析结果的参照
+ */
+public class LegacyRegexParser {
+
+    public static String extractCreateTableBlock(String sql) {
+        Pattern startPat = Pattern.compile("create\\s+table\\b", Pattern.CASE_INSENSITIVE);
+        Matcher sm = startPat.matcher(sql);
+        if (!sm.find()) {
+            throw new IllegalArgumentException("未检测到有效的 CREATE TABLE 语句");
+        }
+        int start = sm.start();
+        int openParenIndex = sql.indexOf('(', start);
+        int parenCount = 1;
+        int currentIndex = openParenIndex + 1;
+        boolean inString = false;
+        char stringQuote = 0;
+        while (currentIndex < sql.length() && parenCount > 0) {
+            char c = sql.charAt(currentIndex);
+            char prevC = (currentIndex > 0) ? sql.charAt(currentIndex - 1) : '\0';
+            if (inString) {
+                if (c == stringQuote && prevC != '\\') {
+                    inString = false;
+                }
+            } else {
+                if ((c == '\'' || c == '"' || c == '`') && prevC != '\\') {
+                    inString = true;
+                    stringQuote = c;
+                } else if (c == '(') {
+                    parenCount++;
+                } else if (c == ')') {
+                    parenCount--;
+                }
+            }
+            currentIndex++;
+        }
+        int semicolonIndex = sql.indexOf(';', currentIndex - 1);
+        if (semicolonIndex == -1) {
+            return sql.substring(start);
+        }
+        return sql.substring(start, semicolonIndex + 1);
+    }
+
+    public static List<FieldInfo> extractFields(String sql) {
+        List<FieldInfo> fields = new ArrayList<>();
+        String[] lines = sql.split("\n");
+        boolean inCreateTableBlock = false;
+        for (String line : lines) {
+            line = line.trim();
+            if (line.toLowerCase().startsWith("create table")) {
+                inCreateTableBlock = true;
+                continue;
+            }
+            if (line.toLowerCase().startsWith("create index") ||
+                line.toLowerCase().startsWith("create unique index")) {
+                inCreateTableBlock = false;
+                continue;
+            }
+            if (!inCreateTableBlock) {
+                continue;
+            }
+            if (line.isEmpty() ||
+                line.toLowerCase().startsWith("constraint") ||
+                line.toLowerCase().startsWith("unique") ||
+                line.toLowerCase().startsWith("primary key") ||
+                line.startsWith(")") ||
+                line.startsWith("(")) {
+                continue;
+            }
+            if (line.toLowerCase().matches("\\)\\s*comment\\s*['\"`][^'\"`]*['\"`]\\s*collate\\s*=\\s*utf8mb4_unicode_ci\\s*;?")) {
+                inCreateTableBlock = false;
+                continue;
+            }
+            FieldInfo fieldInfo = parseFieldLine(line);
+            if (fieldInfo != null) {
+                fields.add(fieldInfo);
+            }
+        }
+        return fields;
+    }
+
+    static FieldInfo parseFieldLine(String line) {
+        line = line.replaceAll(",$", "").trim();
+        String trimmedLower = line.toLowerCase().trim();
+        if (trimmedLower.startsWith("on update") && !trimmedLower.matches(".*\\w+_time\\s+.*")) {
+            return null;
+        }
+        Pattern pattern = Pattern.compile(
+            "^\\s*([\\w_]+)\\s+([\\w()]+(?:\\s+unsigned)?)" +
+            "(?:\\s+.*?)?" +
+            "(?:\\s+comment\\s*[=\\s]*['\"`]([^'\"`]*)['\"`])?" +
+            ".*$",
+            Pattern.CASE_INSENSITIVE
+        );
+        Matcher matcher = pattern.matcher(line);
+        if (matcher.find()) {
+            String fieldName = matcher.group(1);
+            String fieldType = matcher.group(2).trim();
+            String comment = matcher.group(3);
+            if (isValidFieldName(fieldName)) {
+                fieldType = fieldType.replaceAll("(?i)\\s*(auto_increment|not null|null|default\\s+[^\\s]+).*", "").trim();
+                if (comment == null || comment.trim().isEmpty()) {
+                    comment = extractCommentFromLine(line);
+                }
+                return new FieldInfo(fieldName, fieldType, comment != null ? comment.trim() : "");
+            }
+        }
+        return null;
+    }
+
+    static String extractCommentFromLine(String line) {
+        String[] commentPatterns = {
+            "comment\\s*=\\s*'([^']*)'",
+            "comment\\s*=\\s*\"([^\"]*)\"",
+            "comment\\s*=\\s*`([^`]*)`",
+            "comment\\s+'([^']*)'",
+            "comment\\s+\"([^\"]*)\"",
+            "comment\\s+`([^`]*)`",
+            "comment\\s*:\\s*'([^']*)'",
+            "comment\\s*:\\s*\"([^\"]*)\"",
+        };
+        for (String patternStr : commentPatterns) {
+            Pattern pattern = Pattern.compile(patternStr, Pattern.CASE_INSENSITIVE);
+            Matcher matcher = pattern.matcher(line);
+            if (matcher.find()) {
+                String comment = matcher.group(1);
+                if (comment != null && !comment.trim().isEmpty()) {
+                    return comment.trim();
+                }
+            }
+        }
+        return "";
+    }
+
+    static boolean isValidFieldName(String fieldName) {
+        String[] sqlKeywords = {"on", "primary", "key", "constraint", "unique", "index", "foreign", "create", "table", "alter", "drop"};
+        String lowerFieldName = fieldName.toLowerCase();
+        for (String keyword : sqlKeywords) {
+            if (keyword.equals(lowerFieldName)) {
+                return false;
+            }
+        }
+        return fieldName.matches("^[a-zA-Z][a-zA-Z0-9_]*$");
+    }
+}
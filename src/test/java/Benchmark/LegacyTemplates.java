@@ -0,0 +1,92 @@
+package Benchmark;
+
+import Global.GlobalTableInfo;
+import utils.TableColumns;
+
+import static utils.FieldProcessorUtils.capitalizeFirstLetter;
+import static utils.FieldProcessorUtils.toCamelCase;
+
+/**
+ * 模板化之前逐行 String.format 拼接的 Entity 和 Controller 生成方式，作为基准对照和模板输出的参照
+ */
+public class LegacyTemplates {
+
+    /**
+     * 模板化之前的 Entity 生成方式
+     */
+    public static String entity(TableColumns table, GlobalTableInfo config) {
+        String tableName = table.getTableName();
+        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
+        StringBuilder entityBuilder = new StringBuilder();
+        entityBuilder.append(String.format("package %s;\n\n", config.entityOrdomainPackage));
+        entityBuilder.append("import com.baomidou.mybatisplus.annotation.TableName;\n");
+        entityBuilder.append("import com.baomidou.mybatisplus.annotation.IdType;\n");
+        entityBuilder.append("import com.baomidou.mybatisplus.annotation.TableId;\n");
+        entityBuilder.append("import com.baomidou.mybatisplus.annotation.TableField;\n");
+        entityBuilder.append("\n");
+        entityBuilder.append("import java.io.Serial;\n");
+        entityBuilder.append("import java.io.Serializable;\n");
+        entityBuilder.append("import java.time.LocalDateTime;\n");
+        entityBuilder.append("import lombok.Getter;\n");
+        entityBuilder.append("import lombok.Setter;\n");
+        entityBuilder.append("import lombok.ToString;\n");
+        entityBuilder.append("import lombok.NoArgsConstructor;\n");
+        entityBuilder.append("import lombok.AllArgsConstructor;\n\n");
+        entityBuilder.append("@Getter\n");
+        entityBuilder.append("@Setter\n");
+        entityBuilder.append("@ToString\n");
+        entityBuilder.append("@NoArgsConstructor\n");
+        entityBuilder.append("@AllArgsConstructor\n");
+        entityBuilder.append(String.format("@TableName(\"%s\")\n", tableName));
+        entityBuilder.append(String.format("public class %s implements Serializable {\n\n", entityName));
+        entityBuilder.append("    @Serial\n");
+        entityBuilder.append("    private static final long serialVersionUID = 1L;\n\n");
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            String dbFieldName = table.getColumnName(i);
+            String fieldAnnotation = table.getColumnComment(i);
+            if (fieldAnnotation != null && !fieldAnnotation.trim().isEmpty()) {
+                entityBuilder.append(String.format("    /**\n"));
+                entityBuilder.append(String.format("     * %s\n", fieldAnnotation));
+                entityBuilder.append(String.format("     */\n"));
+            }
+            if (i == 0) {
+                entityBuilder.append(String.format("    @TableId(value = \"%s\", type = IdType.AUTO)\n", dbFieldName));
+            } else {
+                entityBuilder.append(String.format("    @TableField(\"%s\")\n", dbFieldName));
+            }
+            entityBuilder.append(String.format("    private %s %s;\n\n", table.getJavaType(i), toCamelCase(dbFieldName)));
+        }
+        entityBuilder.append("}\n");
+        return entityBuilder.toString();
+    }
+
+    /**
+     * 模板化之前的 Controller 生成方式
+     */
+    public static String controller(TableColumns table, GlobalTableInfo config) {
+        String tableName = table.getTableName();
+        String entityName = capitalizeFirstLetter(toCamelCase(tableName));
+        String serviceName = entityName + "Service";
+        String serviceInstanceName = Character.toLowerCase(serviceName.charAt(0)) + serviceName.substring(1);
+        return String.format(
+            "package %s;\n\n" +
+            "import %s.%s;\n" +
+            "import %s.%s;\n" +
+            "import org.springframework.web.bind.annotation.*;\n" +
+            "import jakarta.annotation.Resource;\n\n" +
+            "@RestController\n" +
+            "@RequestMapping(\"/%s\")\n" +
+            "public class %s {\n\n" +
+            "    @Resource\n" +
+            "    private %s %s;\n\n" +
+            "    // 可在此处添加基本的CRUD方法\n" +
+            "}\n",
+            config.controllerPackage,
+            config.entityOrdomainPackage, entityName,
+            config.servicePackage, serviceName,
+            toCamelCase(tableName),
+            entityName + "Controller",
+            serviceName, serviceInstanceName
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package Benchmark;
+
+import utils.MigrationReplayer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 迁移脚本重放报告：生成上千个 V*.sql 迁移脚本，分别测量完整重放、无变化时的重放，
+ * 以及新增一个脚本后只重放末尾的耗时。
+ * 利用快照只重放末尾的结果与完整重放相同由 utils.MigrationReplayerTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.MigrationReplayBenchmark [脚本数量]
+ */
+public class MigrationReplayBenchmark {
+
+    private static final int TABLE_COUNT = 200;
+
+    public static void main(String[] args) throws Exception {
+        int scriptCount = args.length > 0 ? Integer.parseInt(args[0]) : 1200;
+        Path directory = Files.createTempDirectory("migrations");
+        Path snapshot = directory.resolveSibling(directory.getFileName() + ".snapshot");
+        try {
+            for (int version = 1; version <= scriptCount; version++) {
+                SchemaFixtures.writeMigrationScript(directory, version, TABLE_COUNT);
+            }
+            MigrationReplayer replayer = new MigrationReplayer(snapshot);
+
+            System.out.println("=== 迁移脚本重放报告 ===");
+            long start = System.nanoTime();
+            MigrationReplayer.Result cold = replayer.replayDirectory(directory);
+            report("完整重放", cold, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            MigrationReplayer.Result unchanged = replayer.replayDirectory(directory);
+            report("无变化", unchanged, System.nanoTime() - start);
+
+            SchemaFixtures.writeMigrationScript(directory, scriptCount + 1, TABLE_COUNT);
+            start = System.nanoTime();
+            MigrationReplayer.Result tail = replayer.replayDirectory(directory);
+            report("新增一个脚本", tail, System.nanoTime() - start);
+
+            System.out.println("最终表数量: " + tail.getTables().size());
+        } finally {
+            Files.deleteIfExists(snapshot);
+            SchemaFixtures.deleteRecursively(directory);
+        }
+    }
+
+    private static void report(String label, MigrationReplayer.Result result, long nanos) {
+        System.out.println(String.format("%-8s 脚本 %d 个，实际重放 %d 个，耗时 %.2f ms",
+                label, result.getScriptCount(), result.getReplayedCount(), nanos / 1e6));
+    }
+}
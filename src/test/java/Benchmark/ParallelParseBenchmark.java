@@ -0,0 +1,57 @@
+package Benchmark;
+
+import utils.ParallelSchemaParser;
+import utils.SqlStatementScanner;
+
+/**
+ * 并行解析扩展性报告：在合成的大型 schema 上分别使用 1/2/4/8 个工作线程解析。
+ * 并行结果与顺序解析相同由 utils.ParallelSchemaParserTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.ParallelParseBenchmark [表数量] [轮数]
+ */
+public class ParallelParseBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    public static void main(String[] args) {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        String schema = SchemaFixtures.createSchema(tableCount);
+
+        System.out.println("=== 并行解析扩展性报告 ===");
+        System.out.println("表数量: " + tableCount + "，文本大小: " + schema.length() / 1024 + " KB，CPU核数: "
+                + Runtime.getRuntime().availableProcessors());
+
+        // 边界扫描是顺序执行的部分，决定了并行加速的上限
+        long scan = Long.MAX_VALUE;
+        for (int i = 0; i < rounds + 3; i++) {
+            long start = System.nanoTime();
+            SqlStatementScanner scanner = new SqlStatementScanner(statement -> { });
+            scanner.feed(schema, 0, schema.length());
+            scanner.finish();
+            scan = Math.min(scan, System.nanoTime() - start);
+        }
+        System.out.println(String.format("语句边界扫描（顺序部分）: %.2f ms", scan / 1e6));
+
+        long baseline = 0;
+        for (int threads : THREAD_COUNTS) {
+            // 不使用解析缓存，测量的是实际解析耗时
+            try (ParallelSchemaParser parser = new ParallelSchemaParser(threads, null)) {
+                // 预热
+                for (int i = 0; i < 3; i++) {
+                    parser.parse(schema);
+                }
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < rounds; i++) {
+                    long start = System.nanoTime();
+                    parser.parse(schema);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                if (threads == 1) {
+                    baseline = best;
+                }
+                System.out.println(String.format("线程数 %d: %8.2f ms  加速比 %.2fx", threads, best / 1e6, (double) baseline / best));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package Benchmark;
+
+import utils.ParseCache;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 解析缓存冷/热启动对比：第一次运行解析全部表并写入缓存文件，
+ * 随后用新的缓存实例（模拟重新启动程序）加载缓存文件，再解析同一份 schema。
+ * 缓存结果与直接解析相同由 utils.ParseCacheTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.ParseCacheBenchmark [表数量] [轮数]
+ */
+public class ParseCacheBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        List<String> statements = SchemaFixtures.createTableStatements(tableCount);
+        Path cacheFile = Files.createTempFile("parse_cache", ".bin");
+        Files.delete(cacheFile);
+
+        System.out.println("=== 解析缓存冷/热启动对比 ===");
+        System.out.println("表数量: " + tableCount);
+        try {
+            long coldNanos = Long.MAX_VALUE;
+            long saveNanos = Long.MAX_VALUE;
+            long warmNanos = Long.MAX_VALUE;
+            ParseCache cold = null;
+            ParseCache warm = null;
+            for (int round = 0; round < rounds; round++) {
+                Files.deleteIfExists(cacheFile);
+                cold = new ParseCache(cacheFile, ParseCache.DEFAULT_MAX_ENTRIES);
+                long start = System.nanoTime();
+                parseAll(cold, statements);
+                coldNanos = Math.min(coldNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                cold.save();
+                saveNanos = Math.min(saveNanos, System.nanoTime() - start);
+
+                // 新实例在第一次查询时才加载缓存文件，耗时计入热启动
+                warm = new ParseCache(cacheFile, ParseCache.DEFAULT_MAX_ENTRIES);
+                start = System.nanoTime();
+                parseAll(warm, statements);
+                warmNanos = Math.min(warmNanos, System.nanoTime() - start);
+            }
+
+            System.out.println(String.format("冷启动（全部解析）: %8.2f ms，未命中 %d", coldNanos / 1e6, cold.getMisses()));
+            System.out.println(String.format("写入缓存文件:       %8.2f ms，文件大小 %d KB", saveNanos / 1e6, Files.size(cacheFile) / 1024));
+            System.out.println(String.format("热启动（含加载）:   %8.2f ms，命中 %d，未命中 %d", warmNanos / 1e6, warm.getHits(), warm.getMisses()));
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    private static List<TableInfo> parseAll(ParseCache cache, List<String> statements) {
+        List<TableInfo> tables = new ArrayList<>(statements.size());
+        for (String statement : statements) {
+            tables.add(cache.parse(statement, 0, statement.length()));
+        }
+        return tables;
+    }
+}
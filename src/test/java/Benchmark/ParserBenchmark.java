@@ -0,0 +1,69 @@
+package Benchmark;
+
+import utils.TableFieldExtractor;
+
+import java.util.List;
+
+/**
+ * 建表语句解析性能对比：旧的逐行正则流程 vs 单遍词法分析。
+ * 两种实现的解析结果一致由 utils.TableFieldExtractorTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.ParserBenchmark [表数量] [轮数]
+ */
+public class ParserBenchmark {
+
+    public static void main(String[] args) {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<String> statements = SchemaFixtures.createTableStatements(tableCount);
+        int totalColumns = 0;
+        for (String statement : statements) {
+            totalColumns += TableFieldExtractor.parseCreateTable(statement).getFields().size();
+        }
+
+        System.out.println("=== 建表语句解析基准 ===");
+        System.out.println("表数量: " + tableCount + "，字段总数: " + totalColumns + "，轮数: " + rounds);
+
+        // 预热
+        for (int i = 0; i < 5; i++) {
+            runLegacy(statements);
+            runLexer(statements);
+        }
+
+        long legacy = Long.MAX_VALUE;
+        long lexer = Long.MAX_VALUE;
+        int checksum = 0;
+        for (int i = 0; i < rounds; i++) {
+            long t0 = System.nanoTime();
+            checksum += runLegacy(statements);
+            long t1 = System.nanoTime();
+            checksum -= runLexer(statements);
+            long t2 = System.nanoTime();
+            legacy = Math.min(legacy, t1 - t0);
+            lexer = Math.min(lexer, t2 - t1);
+        }
+
+        System.out.println(String.format("旧版逐行正则: %8.2f ms", legacy / 1e6));
+        System.out.println(String.format("单遍词法分析: %8.2f ms", lexer / 1e6));
+        System.out.println(String.format("加速比: %.1fx", (double) legacy / lexer));
+        if (checksum != 0) {
+            System.out.println("警告: 两种实现解析出的字段数不一致");
+        }
+    }
+
+    private static int runLegacy(List<String> statements) {
+        int columns = 0;
+        for (String statement : statements) {
+            columns += LegacyRegexParser.extractFields(LegacyRegexParser.extractCreateTableBlock(statement)).size();
+        }
+        return columns;
+    }
+
+    private static int runLexer(List<String> statements) {
+        int columns = 0;
+        for (String statement : statements) {
+            columns += TableFieldExtractor.parseCreateTable(statement).getFields().size();
+        }
+        return columns;
+    }
+}
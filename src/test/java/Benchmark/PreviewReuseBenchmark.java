@@ -0,0 +1,65 @@
+package Benchmark;
+
+import Generator.CodeFileWriter;
+import Generator.GenerationContext;
+import Generator.GenerationResult;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 预览复用报告：生成单张表时先预览再写入，比较旧流程（预览渲染一次、写入再渲染一次）
+ * 与复用同一个 GenerationResult 的耗时。
+ * 写入文件的字节与预览的内容相同由 Generator.CodeFileWriterTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.PreviewReuseBenchmark [表数量] [轮数]
+ */
+public class PreviewReuseBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.println("=== 预览复用报告 ===");
+        Path project = Files.createTempDirectory("preview-project");
+        try {
+            GenerationConfig config = SchemaFixtures.config(project);
+            List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(tableCount));
+
+            long[] best = SchemaFixtures.quietly(() -> {
+                long twice = Long.MAX_VALUE;
+                long once = Long.MAX_VALUE;
+                for (int r = 0; r < rounds; r++) {
+                    // 旧流程：预览渲染一次，写入时再渲染一次
+                    long start = System.nanoTime();
+                    for (TableInfo table : tables) {
+                        GenerationContext context = new GenerationContext(table, config);
+                        GenerationResult.render(context);
+                        CodeFileWriter.writeAllCodeFiles(context);
+                    }
+                    twice = Math.min(twice, System.nanoTime() - start);
+                    // 新流程：写入预览时的渲染结果
+                    start = System.nanoTime();
+                    for (TableInfo table : tables) {
+                        CodeFileWriter.writeAllCodeFiles(GenerationResult.render(new GenerationContext(table, config)));
+                    }
+                    once = Math.min(once, System.nanoTime() - start);
+                }
+                return new long[]{twice, once};
+            });
+            long renderNanos = 0;
+            for (TableInfo table : tables) {
+                renderNanos += GenerationResult.render(new GenerationContext(table, config)).getRenderNanos();
+            }
+
+            System.out.println(String.format("%d 张表，%d 个文件，每种流程取 %d 轮中最快的一轮", tableCount, tableCount * 5, rounds));
+            System.out.println(String.format("预览 + 重新渲染写入: %6d ms", best[0] / 1000000));
+            System.out.println(String.format("预览 + 复用结果写入: %6d ms", best[1] / 1000000));
+            System.out.println(String.format("其中渲染耗时:        %6d ms（每张表约 %.2f ms）", renderNanos / 1000000, renderNanos / 1e6 / tableCount));
+        } finally {
+            SchemaFixtures.deleteRecursively(project);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Benchmark;
+
+import Generator.CodeFileWriter;
+import Global.GenerationConfig;
+import utils.SchemaDiff;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 增量生成报告：在临时项目中为所有表写入代码后，修改其中一张表的一个字段再次生成，
+ * 只有该表的五个文件被重写，耗时应在毫秒级，而不是重新生成全部表。
+ * 只重新生成被修改的表由 Generator.CodeFileWriterTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.SchemaDiffBenchmark [表数量]
+ */
+public class SchemaDiffBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println("=== 增量生成报告 ===");
+        Path project = Files.createTempDirectory("diff-project");
+        try {
+            GenerationConfig config = SchemaFixtures.config(project);
+            List<String> statements = SchemaFixtures.createTableStatements(tableCount);
+            List<TableInfo> tables = TableFieldExtractor.parseAll(String.join("\n", statements));
+
+            // 写入代码文件时的逐行日志不计入耗时
+            long start = System.nanoTime();
+            SchemaDiff full = SchemaFixtures.quietly(() -> CodeFileWriter.writeChangedCodeFiles(tables, config));
+            long fullElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            SchemaDiff unchanged = SchemaFixtures.quietly(() -> CodeFileWriter.writeChangedCodeFiles(tables, config));
+            long unchangedElapsed = System.nanoTime() - start;
+
+            // 修改中间一张表的一个字段注释
+            int target = tableCount / 2;
+            statements.set(target, statements.get(target).replace("字段1说明", "字段1的新说明"));
+            List<TableInfo> changedTables = TableFieldExtractor.parseAll(String.join("\n", statements));
+            start = System.nanoTime();
+            SchemaDiff changed = SchemaFixtures.quietly(() -> CodeFileWriter.writeChangedCodeFiles(changedTables, config));
+            long changedElapsed = System.nanoTime() - start;
+
+            System.out.println(String.format("首次生成 %d 张表: %6d ms（%s）", tableCount, fullElapsed / 1000000, full.summary()));
+            System.out.println(String.format("无变化再次生成:   %6d ms（%s）", unchangedElapsed / 1000000, unchanged.summary()));
+            System.out.println(String.format("修改一个字段后:   %6d ms（%s）", changedElapsed / 1000000, changed.summary()));
+            if (!changed.getRegenerated().isEmpty()) {
+                System.out.println("  " + changed.getRegenerated().get(0).describe());
+            }
+        } finally {
+            SchemaFixtures.deleteRecursively(project);
+        }
+    }
+}
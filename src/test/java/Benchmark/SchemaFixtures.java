@@ -0,0 +1,311 @@
+package Benchmark;
+
+import Generator.ControllerGenerator;
+import Generator.GenerationContext;
+import Generator.MapperGenerator;
+import Generator.ServiceGenerator;
+import Generator.entityGenerator;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试和单元测试共用的合成建表语句、配置和文件工具
+ */
+public class SchemaFixtures {
+
+    private static final String[] COLUMN_TYPES = {
+        "bigint", "int", "varchar(64)", "varchar(255)", "tinyint(1)", "datetime", "text", "int unsigned"
+    };
+
+    /**
+     * 生成指定数量的建表语句，字段数在 8 到 60 之间变化
+     */
+    public static List<String> createTableStatements(int tableCount) {
+        List<String> statements = new ArrayList<>(tableCount);
+        for (int t = 0; t < tableCount; t++) {
+            statements.add(createTableStatement(t, 8 + (t * 7) % 53));
+        }
+        return statements;
+    }
+
+    /**
+     * 生成一条建表语句
+     */
+    public static String createTableStatement(int tableIndex, int columnCount) {
+        StringBuilder sb = new StringBuilder(columnCount * 80);
+        sb.append("CREATE TABLE t_table_").append(tableIndex).append(" (\n");
+        sb.append("  id bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',\n");
+        for (int c = 1; c < columnCount; c++) {
+            String type = COLUMN_TYPES[(tableIndex + c) % COLUMN_TYPES.length];
+            sb.append("  column_").append(c).append(" ").append(type);
+            if (c % 3 == 0) {
+                sb.append(" NOT NULL DEFAULT '0'");
+            }
+            sb.append(" COMMENT '字段").append(c).append("说明',\n");
+        }
+        sb.append("  create_time datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',\n");
+        sb.append("  update_time datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',\n");
+        sb.append("  PRIMARY KEY (id),\n");
+        sb.append("  KEY idx_column_1 (column_1)\n");
+        sb.append(") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='表").append(tableIndex).append("';\n");
+        return sb.toString();
+    }
+
+    /**
+     * 将多条语句拼接成完整的 schema 文本
+     */
+    public static String createSchema(int tableCount) {
+        StringBuilder sb = new StringBuilder();
+        for (String statement : createTableStatements(tableCount)) {
+            sb.append(statement).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 带单独 CREATE INDEX 语句的 schema：表之间夹有索引语句，文件末尾再集中给每张表加一个索引。
+     * 包括唯一索引、与表中已有索引重名的索引、带库名和大小写不同的表名、全文索引、
+     * 表之前的索引、不存在的表，以及字符串中形似索引语句的内容
+     */
+    public static String createSchemaWithIndexStatements(int tableCount) {
+        StringBuilder sb = new StringBuilder();
+        // 表还不存在，应被忽略
+        sb.append("CREATE INDEX idx_early ON t_table_0 (column_1);\n\n");
+        for (int t = 0; t < tableCount; t++) {
+            sb.append(createTableStatement(t, 8 + (t * 7) % 53)).append('\n');
+            if (t % 5 == 0) {
+                sb.append("CREATE UNIQUE INDEX uk_column_3 ON `t_table_").append(t).append("` (column_3, id);\n");
+            }
+            if (t % 7 == 0) {
+                // 与表中已有的索引重名，追加 _2 后缀
+                sb.append("CREATE INDEX idx_column_1 USING BTREE ON `db`.`T_TABLE_").append(t).append("` (column_1, column_2);\n");
+            }
+            if (t % 11 == 0) {
+                sb.append("CREATE FULLTEXT INDEX ft_column_2 ON t_table_").append(t).append(" (column_2);\n");
+            }
+            sb.append("INSERT INTO t_table_").append(t).append(" VALUES (1, 'CREATE INDEX idx_fake ON t_table_").append(t).append(" (id);');\n\n");
+        }
+        sb.append("-- 以下索引在所有表之后\n");
+        for (int t = 0; t < tableCount; t++) {
+            sb.append("CREATE INDEX idx_tail_").append(t).append(" ON t_table_").append(t).append(" (column_2);\n");
+        }
+        sb.append("CREATE INDEX idx_missing ON t_missing (id);\n");
+        return sb.toString();
+    }
+
+    /**
+     * 逐条写入建表语句，不在内存中拼出整个文件；在中间一张表之后夹一条无法解析的语句
+     */
+    public static Path writeSchemaWithBrokenStatement(Path file, int tableCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int t = 0; t < tableCount; t++) {
+                writer.write(createTableStatement(t, 8 + (t * 7) % 53));
+                writer.write("\n\n");
+                if (t == tableCount / 2) {
+                    writer.write("CREATE TABLE `broken` `id` bigint NOT NULL;\n\n");
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * 写出一个 V{version}__*.sql 迁移脚本：前 tableCount 个脚本各建一张表，
+     * 之后的脚本轮流对各表执行 ADD / MODIFY / CHANGE / DROP / RENAME 等语句
+     */
+    public static void writeMigrationScript(Path directory, int version, int tableCount) throws IOException {
+        StringBuilder sql = new StringBuilder();
+        String description;
+        if (version <= tableCount) {
+            description = "create_table_" + version;
+            sql.append(createTableStatement(version, 8 + version % 20));
+        } else {
+            int step = version - tableCount;
+            int table = 1 + step % tableCount;
+            int round = step / tableCount;
+            String name = "t_table_" + table;
+            description = "alter_" + name;
+            switch (round % 5) {
+                case 0:
+                    sql.append("ALTER TABLE ").append(name).append(" ADD COLUMN extra_").append(round)
+                       .append(" varchar(32) NOT NULL DEFAULT '' COMMENT '扩展字段").append(round).append("' AFTER id;\n");
+                    break;
+                case 1:
+                    sql.append("ALTER TABLE `").append(name).append("` MODIFY COLUMN column_1 bigint unsigned COMMENT '修改后的字段',\n")
+                       .append("  ADD INDEX idx_round_").append(round).append(" (column_1, id);\n");
+                    break;
+                case 2:
+                    sql.append("ALTER TABLE ").append(name).append(" CHANGE column_2 renamed_2 datetime NULL COMMENT '改名字段';\n")
+                       .append("INSERT INTO ").append(name).append(" (id) VALUES (1), (2);\n");
+                    break;
+                case 3:
+                    sql.append("ALTER TABLE ").append(name).append(" DROP COLUMN column_3, RENAME COLUMN renamed_2 TO final_2,")
+                       .append(" COMMENT = '第").append(round).append("轮调整';\n");
+                    break;
+                default:
+                    sql.append("RENAME TABLE ").append(name).append(" TO ").append(name).append("_tmp;\n")
+                       .append("ALTER TABLE ").append(name).append("_tmp RENAME TO ").append(name).append(";\n")
+                       .append("DROP TABLE IF EXISTS ").append(name).append("_backup;\n");
+                    break;
+            }
+        }
+        Files.write(directory.resolve("V" + version + "__" + description + ".sql"), sql.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 示例包路径的生成配置
+     */
+    public static GenerationConfig config(Path project) {
+        return new GenerationConfig(project == null ? null : project.toString(), "com.example.entity", "com.example.mapper",
+                "com.example.service", "com.example.service.impl", "com.example.controller", 0);
+    }
+
+    /**
+     * 五个生成器各自从表名推导类名，Mapper、Service、ServiceImpl 各自推导查询方法（依赖图之前的方式），
+     * 依次返回 Entity、Mapper、Service、ServiceImpl、Controller 的内容
+     */
+    public static String[] renderSeparately(GenerationContext context) {
+        ServiceGenerator service = new ServiceGenerator();
+        return new String[]{
+                new entityGenerator().generateEntityContent(context),
+                new MapperGenerator().generateMapperContent(context),
+                service.generateServiceContent(context),
+                service.generateServiceImplContent(context),
+                new ControllerGenerator().generateControllerContent(context)};
+    }
+
+    /**
+     * 表名、注释、每个字段和每个索引的文字描述，用于逐张表比较两种方式得到的结构
+     */
+    public static List<String> describe(List<? extends TableInfo> tables) {
+        List<String> descriptions = new ArrayList<>(tables.size());
+        for (TableInfo table : tables) {
+            StringBuilder sb = new StringBuilder(table.getTableName()).append(" '").append(table.getTableComment()).append("':");
+            for (FieldInfo field : table.getFields()) {
+                sb.append(' ').append(field.getFieldName()).append(' ').append(field.getFieldType())
+                  .append(" '").append(field.getComment()).append("',");
+            }
+            for (IndexInfo index : table.getIndexes()) {
+                sb.append(' ').append(index.getIndexName()).append(index.isUnique() ? "(unique)" : "").append(index.getColumnNames());
+            }
+            descriptions.add(sb.toString());
+        }
+        return descriptions;
+    }
+
+    /**
+     * 项目中生成的源文件：相对于项目、以 / 分隔的路径 -> 内容（按 ISO-8859-1 逐字节转换），按路径排序
+     */
+    public static Map<String, String> readSources(Path project) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(project.resolve("src"))) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(path)) {
+                    files.put(project.relativize(path).toString().replace('\\', '/'),
+                            new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1));
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * HTTP 响应的状态码和响应体
+     */
+    public static final class Response {
+        public final int status;
+        public final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * 发送 POST 请求，4xx/5xx 的响应体从错误流读取
+     */
+    public static Response post(String url, String body, Map<String, String> headers) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+            return new Response(status, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    public static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public interface Action<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * 运行期间丢弃标准输出和标准错误（写入代码文件时的逐行日志）
+     */
+    public static <T> T quietly(Action<T> action) throws Exception {
+        PrintStream console = System.out;
+        PrintStream errors = System.err;
+        System.setOut(discarding());
+        System.setErr(discarding());
+        try {
+            return action.run();
+        } finally {
+            System.setOut(console);
+            System.setErr(errors);
+        }
+    }
+
+    private static PrintStream discarding() throws UnsupportedEncodingException {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }, false, "UTF-8");
+    }
+}
@@ -0,0 +1,65 @@
+package Benchmark;
+
+import utils.SchemaModel;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.util.List;
+
+/**
+ * 堆内存报告：同一份大型 schema 分别以 List&lt;TableInfo&gt;（另加 GlobalTableInfo 式的字符串数组副本）
+ * 和列式 SchemaModel 保存时的堆占用。
+ * 两种数据源生成的代码相同由 utils.SchemaModelTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.SchemaHeapBenchmark [表数量]
+ */
+public class SchemaHeapBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        String schema = SchemaFixtures.createSchema(tableCount);
+
+        long base = usedHeap();
+        List<TableInfo> tables = TableFieldExtractor.parseAll(schema);
+        long listBytes = usedHeap() - base;
+
+        // setGlobalVariables 会把每张表再复制成三个字符串数组
+        String[][][] globalCopies = new String[tables.size()][][];
+        for (int t = 0; t < tables.size(); t++) {
+            TableInfo table = tables.get(t);
+            globalCopies[t] = new String[][] {
+                TableFieldExtractor.getFieldNames(table),
+                TableFieldExtractor.getFieldTypes(table),
+                TableFieldExtractor.getFieldComments(table)
+            };
+        }
+        long listWithCopiesBytes = usedHeap() - base;
+        globalCopies = null;
+
+        SchemaModel model = SchemaModel.of(tables);
+        tables = null;
+        long modelBytes = usedHeap() - base;
+
+        long columns = model.getColumnCount();
+        System.out.println("=== schema 堆内存报告 ===");
+        System.out.println("表数量: " + model.getTableCount() + "，字段总数: " + columns + "，不同字段类型: " + model.getTypeCount());
+        System.out.println(String.format("List<TableInfo>:                 %8.1f MB（每字段 %d 字节）", listBytes / 1048576.0, listBytes / columns));
+        System.out.println(String.format("List<TableInfo> + 全局数组副本:  %8.1f MB（每字段 %d 字节）", listWithCopiesBytes / 1048576.0, listWithCopiesBytes / columns));
+        System.out.println(String.format("SchemaModel:                     %8.1f MB（每字段 %d 字节）", modelBytes / 1048576.0, modelBytes / columns));
+        System.out.println(String.format("缩减: %.1fx（相对 List<TableInfo>），%.1fx（相对含全局副本）",
+                (double) listBytes / modelBytes, (double) listWithCopiesBytes / modelBytes));
+    }
+
+    /**
+     * 多次 GC 后的已用堆大小
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
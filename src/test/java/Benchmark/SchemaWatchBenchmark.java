@@ -0,0 +1,89 @@
+package Benchmark;
+
+import Generator.SchemaWatcher;
+import Global.GenerationConfig;
+import utils.ParseCache;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目录监听报告：在临时目录中放入多个 .sql 文件并开始监听，
+ * 依次修改其中一个文件的一个字段，测量从保存文件到代码文件写入完成的时间（包括防抖等待），
+ * 应在一秒以内。只重新生成被修改的那张表由 Generator.SchemaWatcherTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.SchemaWatchBenchmark [文件数量] [每个文件的表数量]
+ */
+public class SchemaWatchBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int tablesPerFile = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        System.out.println("=== 目录监听报告 ===");
+        Path root = Files.createTempDirectory("watch-bench");
+        Path sqlDir = Files.createDirectories(root.resolve("sql"));
+        Path project = Files.createDirectories(root.resolve("project"));
+        PrintStream console = System.out;
+        try {
+            GenerationConfig config = SchemaFixtures.config(project);
+
+            List<String> statements = SchemaFixtures.createTableStatements(fileCount * tablesPerFile);
+            for (int f = 0; f < fileCount; f++) {
+                write(sqlDir.resolve("schema_" + f + ".sql"), String.join("\n", statements.subList(f * tablesPerFile, (f + 1) * tablesPerFile)));
+            }
+
+            ParseCache cache = new ParseCache(root.resolve("cache.bin"), ParseCache.DEFAULT_MAX_ENTRIES);
+            BlockingQueue<List<TableInfo>> batches = new LinkedBlockingQueue<>();
+            try (SchemaWatcher watcher = new SchemaWatcher(sqlDir, config, SchemaWatcher.DEFAULT_DEBOUNCE_MILLIS, cache)) {
+                watcher.setListener(batches::add);
+                watcher.scan();
+                Thread thread = new Thread(watcher::run);
+                thread.setDaemon(true);
+                thread.start();
+
+                // 写入代码文件时的逐行日志不计入耗时
+                System.setOut(new PrintStream(new ByteArrayOutputStream(), false, "UTF-8"));
+                List<Long> latencies = new ArrayList<>();
+                List<Integer> counts = new ArrayList<>();
+                for (int round = 0; round < ROUNDS; round++) {
+                    int file = round * 7 % fileCount;
+                    int table = file * tablesPerFile + round % tablesPerFile;
+                    statements.set(table, statements.get(table).replace("主键ID", "主键ID revision_" + round));
+                    long start = System.nanoTime();
+                    write(sqlDir.resolve("schema_" + file + ".sql"),
+                            String.join("\n", statements.subList(file * tablesPerFile, (file + 1) * tablesPerFile)));
+                    List<TableInfo> regenerated = batches.poll(10, TimeUnit.SECONDS);
+                    latencies.add(System.nanoTime() - start);
+                    counts.add(regenerated == null ? 0 : regenerated.size());
+                }
+                System.setOut(console);
+                System.out.println(String.format("%d 个文件，共 %d 张表，防抖 %d ms", fileCount, fileCount * tablesPerFile,
+                        SchemaWatcher.DEFAULT_DEBOUNCE_MILLIS));
+                for (int round = 0; round < latencies.size(); round++) {
+                    System.out.println(String.format("第 %d 次修改: 保存到写入完成 %5d ms，重新生成 %d 张表", round + 1,
+                            latencies.get(round) / 1000000, counts.get(round)));
+                }
+            }
+            // 监听器推迟了缓存的保存，在删除临时目录之前写入
+            cache.save();
+        } finally {
+            System.setOut(console);
+            SchemaFixtures.deleteRecursively(root);
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+package Benchmark;
+
+import Generator.BatchCodeWriter;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 跳过未变化文件报告：为所有表生成代码后再次全部生成，内容未变化的文件不写入；
+ * 再分别修改一个字段注释、手动修改一个生成的文件、删除清单后生成，输出每种情况的耗时和写入的文件数。
+ * 各种情况下写入和跳过的文件正确由 Generator.BatchCodeWriterTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.SkipUnchangedBenchmark [表数量]
+ */
+public class SkipUnchangedBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println("=== 跳过未变化文件报告 ===");
+        Path project = Files.createTempDirectory("skip-project");
+        try {
+            GenerationConfig config = SchemaFixtures.config(project);
+            List<String> statements = SchemaFixtures.createTableStatements(tableCount);
+            List<TableInfo> tables = TableFieldExtractor.parseAll(String.join("\n", statements));
+            BatchCodeWriter writer = new BatchCodeWriter(config);
+
+            BatchCodeWriter.Result first = SchemaFixtures.quietly(() -> writer.write(tables));
+            BatchCodeWriter.Result again = SchemaFixtures.quietly(() -> writer.write(tables));
+
+            // 修改中间一张表的一个字段注释
+            int target = tableCount / 2;
+            statements.set(target, statements.get(target).replace("字段1说明", "字段1的新说明"));
+            List<TableInfo> changedTables = TableFieldExtractor.parseAll(String.join("\n", statements));
+            BatchCodeWriter.Result changed = SchemaFixtures.quietly(() -> writer.write(changedTables));
+
+            // 手动修改生成的文件后再次生成，文件被恢复
+            Path mapper = project.resolve("src/main/java/com/example/mapper/TTable0Mapper.java");
+            Files.write(mapper, "// edited\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            BatchCodeWriter.Result restored = SchemaFixtures.quietly(() -> writer.write(changedTables));
+
+            // 没有清单时逐个比较文件内容
+            Files.delete(project.resolve(".mpgenerator/manifest.bin"));
+            BatchCodeWriter.Result withoutManifest = SchemaFixtures.quietly(() -> writer.write(changedTables));
+
+            System.out.println(String.format("%d 张表，%d 个文件", tableCount, tableCount * 5));
+            System.out.println(String.format("首次生成:         %6d ms，写入 %d 个", first.getElapsedNanos() / 1000000, first.getWrittenFiles()));
+            System.out.println(String.format("无变化再次生成:   %6d ms，写入 %d 个，跳过 %d 个",
+                    again.getElapsedNanos() / 1000000, again.getWrittenFiles(), again.getSkippedFiles()));
+            System.out.println(String.format("修改一个字段注释: %6d ms，写入 %d 个", changed.getElapsedNanos() / 1000000, changed.getWrittenFiles()));
+            System.out.println(String.format("手动修改一个文件: %6d ms，写入 %d 个（恢复）", restored.getElapsedNanos() / 1000000, restored.getWrittenFiles()));
+            System.out.println(String.format("删除清单后生成:   %6d ms，写入 %d 个（逐个比较内容）",
+                    withoutManifest.getElapsedNanos() / 1000000, withoutManifest.getWrittenFiles()));
+        } finally {
+            SchemaFixtures.deleteRecursively(project);
+        }
+    }
+}
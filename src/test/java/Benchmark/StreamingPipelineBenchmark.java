@@ -0,0 +1,69 @@
+package Benchmark;
+
+import Generator.BatchCodeWriter;
+import Generator.StreamingPipeline;
+import utils.DumpFileParser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 流式流水线报告：
+ * 1. 表数量增加 8 倍时比较 BatchCodeWriter（先解析全部表）和流水线的峰值堆内存，流水线的峰值应基本不变；
+ * 2. 输出流水线各阶段的利用率。
+ * 与批量写入的结果相同、无法解析的语句和工作线程中的错误由 Generator.StreamingPipelineTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.StreamingPipelineBenchmark [较少的表数量] [同时在流水线中的表数量]
+ */
+public class StreamingPipelineBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int smallCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : StreamingPipeline.DEFAULT_MAX_IN_FLIGHT;
+        int largeCount = smallCount * 8;
+        System.out.println("=== 流式流水线报告 ===");
+        Path root = Files.createTempDirectory("pipeline-bench");
+        try {
+            Path small = SchemaFixtures.writeSchemaWithBrokenStatement(root.resolve("small.sql"), smallCount);
+            Path large = SchemaFixtures.writeSchemaWithBrokenStatement(root.resolve("large.sql"), largeCount);
+
+            long batchSmall = peakHeap(() -> new BatchCodeWriter(SchemaFixtures.config(root.resolve("b1")), 2)
+                    .write(DumpFileParser.parseFileRecovering(small).getTables()));
+            long batchLarge = peakHeap(() -> new BatchCodeWriter(SchemaFixtures.config(root.resolve("b2")), 2)
+                    .write(DumpFileParser.parseFileRecovering(large).getTables()));
+            long pipelineSmall = peakHeap(() -> new StreamingPipeline(SchemaFixtures.config(root.resolve("p1")), maxInFlight).run(small));
+            StreamingPipeline.Result[] last = new StreamingPipeline.Result[1];
+            long pipelineLarge = peakHeap(() -> last[0] = new StreamingPipeline(SchemaFixtures.config(root.resolve("p2")), maxInFlight).run(large));
+
+            System.out.println(String.format("峰值堆内存   %6d 张表  %6d 张表（同时在流水线中的表上限 %d）", smallCount, largeCount, maxInFlight));
+            System.out.println(String.format("先解析全部: %8.1f MB %8.1f MB", batchSmall / 1048576.0, batchLarge / 1048576.0));
+            System.out.println(String.format("流水线:     %8.1f MB %8.1f MB", pipelineSmall / 1048576.0, pipelineLarge / 1048576.0));
+            System.out.println(String.format("流水线处理 %d 张表: %s", largeCount, last[0].summary()));
+            System.out.print(last[0].stageReport());
+        } finally {
+            SchemaFixtures.deleteRecursively(root);
+        }
+    }
+
+    /**
+     * 运行期间所有堆内存池的峰值之和，运行前先回收垃圾；运行时的日志被丢弃
+     */
+    private static long peakHeap(SchemaFixtures.Action<?> run) throws Exception {
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+        System.gc();
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+        SchemaFixtures.quietly(run);
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
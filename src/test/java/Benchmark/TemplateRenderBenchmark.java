@@ -0,0 +1,82 @@
+package Benchmark;
+
+import Generator.ControllerGenerator;
+import Generator.MapperGenerator;
+import Generator.ServiceGenerator;
+import Generator.entityGenerator;
+import Global.GlobalTableInfo;
+import utils.SchemaModel;
+import utils.TableColumns;
+import utils.TableFieldExtractor;
+
+/**
+ * 模板渲染报告：为大量表生成 Entity 和 Controller 代码，
+ * 对比编译后的模板与逐行 String.format 拼接（模板化之前的实现，见 LegacyTemplates）的耗时。
+ * 同时给出五个代码文件全部渲染的耗时。
+ * 两者输出完全相同由 Generator.TemplateOutputTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.TemplateRenderBenchmark [表数量]
+ */
+public class TemplateRenderBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        System.out.println("=== 模板渲染报告 ===");
+        GlobalTableInfo config = GlobalTableInfo.getInstance();
+        config.entityOrdomainPackage = "com.example.entity";
+        config.mapperPackage = "com.example.mapper";
+        config.servicePackage = "com.example.service";
+        config.implPackage = "com.example.service.impl";
+        config.controllerPackage = "com.example.controller";
+
+        SchemaModel model = SchemaModel.of(TableFieldExtractor.parseAll(SchemaFixtures.createSchema(tableCount)));
+        entityGenerator entityGenerator = new entityGenerator();
+        ControllerGenerator controllerGenerator = new ControllerGenerator();
+
+        long legacyBest = Long.MAX_VALUE;
+        long templateBest = Long.MAX_VALUE;
+        long allBest = Long.MAX_VALUE;
+        long chars = 0;
+        MapperGenerator mapperGenerator = new MapperGenerator();
+        ServiceGenerator serviceGenerator = new ServiceGenerator();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long legacyChars = 0;
+            for (int t = 0; t < model.getTableCount(); t++) {
+                legacyChars += LegacyTemplates.entity(model.getTable(t), config).length();
+                legacyChars += LegacyTemplates.controller(model.getTable(t), config).length();
+            }
+            legacyBest = Math.min(legacyBest, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            long templateChars = 0;
+            for (int t = 0; t < model.getTableCount(); t++) {
+                templateChars += entityGenerator.generateEntityContent(model.getTable(t), config).length();
+                templateChars += controllerGenerator.generateControllerContent(model.getTable(t), config).length();
+            }
+            templateBest = Math.min(templateBest, System.nanoTime() - start);
+            if (legacyChars != templateChars) {
+                System.out.println("警告: 两种方式的输出长度不同: " + legacyChars + " / " + templateChars);
+            }
+
+            start = System.nanoTime();
+            chars = 0;
+            for (int t = 0; t < model.getTableCount(); t++) {
+                TableColumns table = model.getTable(t);
+                chars += entityGenerator.generateEntityContent(table, config).length();
+                chars += mapperGenerator.generateMapperContent(table, config).length();
+                chars += serviceGenerator.generateServiceContent(table, config).length();
+                chars += serviceGenerator.generateServiceImplContent(table, config).length();
+                chars += controllerGenerator.generateControllerContent(table, config).length();
+            }
+            allBest = Math.min(allBest, System.nanoTime() - start);
+        }
+
+        System.out.println(String.format("%d 张表，Entity + Controller，取 %d 轮中最快的一轮", tableCount, ROUNDS));
+        System.out.println(String.format("String.format 拼接: %6d ms", legacyBest / 1000000));
+        System.out.println(String.format("编译后的模板:      %6d ms（%.1f 倍）", templateBest / 1000000,
+                (double) legacyBest / templateBest));
+        System.out.println(String.format("五个代码文件全部渲染: %6d ms，共 %d 个字符", allBest / 1000000, chars));
+    }
+}
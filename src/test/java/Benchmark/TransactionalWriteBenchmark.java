@@ -0,0 +1,57 @@
+package Benchmark;
+
+import Generator.BatchCodeWriter;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 事务写入报告：每张表的文件先写入暂存区，全部成功后一起移动到目标位置。
+ * 输出首次生成、修改所有表后每张表的最后一个文件生成失败、一张表的文件位置被目录占用三种情况的耗时。
+ * 失败时已有文件保持不变、失败隔离和暂存区清理由 Generator.BatchCodeWriterTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.TransactionalWriteBenchmark [表数量]
+ */
+public class TransactionalWriteBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+        System.out.println("=== 事务写入报告 ===");
+        Path project = Files.createTempDirectory("staged-project");
+        try {
+            GenerationConfig config = SchemaFixtures.config(project);
+            List<String> statements = SchemaFixtures.createTableStatements(tableCount);
+            List<TableInfo> tables = TableFieldExtractor.parseAll(String.join("\n", statements));
+            BatchCodeWriter.Result first = SchemaFixtures.quietly(() -> new BatchCodeWriter(config).write(tables));
+
+            // 所有表的实体类都会变化，但 Controller 因缺少包路径而生成失败
+            List<String> changedStatements = new ArrayList<>();
+            for (String statement : statements) {
+                changedStatements.add(statement.replace("column_1", "column_one"));
+            }
+            List<TableInfo> changedTables = TableFieldExtractor.parseAll(String.join("\n", changedStatements));
+            GenerationConfig withoutController = new GenerationConfig(project.toString(), config.getEntityOrdomainPackage(),
+                    config.getMapperPackage(), config.getServicePackage(), config.getImplPackage(), null, 0);
+            BatchCodeWriter.Result failed = SchemaFixtures.quietly(() -> new BatchCodeWriter(withoutController).write(changedTables));
+
+            // 一张表的 Controller 位置被目录占用
+            Path controller = project.resolve("src/main/java/com/example/controller/TTable7Controller.java");
+            Files.delete(controller);
+            Files.createDirectories(controller);
+            BatchCodeWriter.Result isolated = SchemaFixtures.quietly(() -> new BatchCodeWriter(config).write(changedTables));
+
+            System.out.println(String.format("%d 张表，%d 个文件", tableCount, tableCount * 5));
+            System.out.println(String.format("首次生成:               %6d ms，写入 %d 个", first.getElapsedNanos() / 1000000, first.getWrittenFiles()));
+            System.out.println(String.format("所有表的最后一个文件失败: %6d ms，写入 %d 个，失败 %d 张表",
+                    failed.getElapsedNanos() / 1000000, failed.getWrittenFiles(), failed.getFailures().size()));
+            System.out.println(String.format("一张表的文件位置被占用:   %6d ms，写入 %d 个，失败 %d 张表",
+                    isolated.getElapsedNanos() / 1000000, isolated.getWrittenFiles(), isolated.getFailures().size()));
+        } finally {
+            SchemaFixtures.deleteRecursively(project);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package Benchmark;
+
+import Generator.BatchCodeWriter;
+import Generator.ZipCodeWriter;
+import Global.GenerationConfig;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 压缩包输出报告：为所有表生成代码，对比写入项目目录（逐个创建文件）与写入一个 ZIP 压缩包的耗时。
+ * 压缩包中的文件与写入项目目录的相同由 Generator.ZipCodeWriterTest 检查。
+ * 运行方式：java -cp target/classes:target/test-classes Benchmark.ZipOutputBenchmark [表数量]
+ */
+public class ZipOutputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        System.out.println("=== 压缩包输出报告 ===");
+        Path root = Files.createTempDirectory("zip-bench");
+        try {
+            GenerationConfig config = SchemaFixtures.config(root.resolve("project"));
+            List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(tableCount));
+
+            BatchCodeWriter.Result loose = SchemaFixtures.quietly(() -> new BatchCodeWriter(config).write(tables));
+            Path archive = root.resolve("out/generated-sources.zip");
+            ZipCodeWriter.Result zipped = SchemaFixtures.quietly(() -> new ZipCodeWriter(config).write(tables, archive));
+
+            System.out.println(String.format("%d 张表，%d 个文件", tableCount, tableCount * 5));
+            System.out.println(String.format("写入项目目录: %6d ms（%d 个线程）", loose.getElapsedNanos() / 1000000, loose.getThreads()));
+            System.out.println(String.format("写入压缩包:   %6d ms（单线程，%.1f 倍），%.1f MB 压缩为 %.1f MB",
+                    zipped.getElapsedNanos() / 1000000, (double) loose.getElapsedNanos() / zipped.getElapsedNanos(),
+                    zipped.getSourceBytes() / 1048576.0, zipped.getArchiveBytes() / 1048576.0));
+        } finally {
+            SchemaFixtures.deleteRecursively(root);
+        }
+    }
+}
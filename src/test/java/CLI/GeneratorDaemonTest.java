@@ -0,0 +1,101 @@
+package CLI;
+
+import Benchmark.SchemaFixtures;
+import Global.GenerationConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratorDaemonTest {
+
+    private static final String QUERY = "entityOrdomainPackage=com.example.entity&mapperPackage=com.example.mapper"
+            + "&servicePackage=com.example.service&implPackage=com.example.service.impl"
+            + "&controllerPackage=com.example.controller";
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 缺少令牌、跨站 Origin、非本机 Host、text/plain 请求体和 --root 之外的路径都被拒绝；
+     * 令牌文件只有当前用户可读，服务停止后被删除；服务统计的请求数与发送的一致
+     */
+    @Test
+    void servesAuthorizedRequestsOnly() throws Exception {
+        // 允许设置 Host 请求头，用于检查服务拒绝非本机的 Host
+        System.setProperty("sun.net.http.allowRestrictedHeaders", "true");
+        Path project = Files.createDirectories(dir.resolve("project"));
+        Path outside = Files.createDirectories(dir.resolve("outside"));
+        Path tokenFile = project.resolve("token/daemon.token");
+        List<String> statements = SchemaFixtures.createTableStatements(10);
+        GenerationConfig defaults = new GenerationConfig(null, null, null, null, null, null, 0);
+        try (GeneratorDaemon daemon = new GeneratorDaemon(0, defaults, 2, project, tokenFile)) {
+            SchemaFixtures.quietly(() -> {
+                daemon.warmUp(20);
+                daemon.start();
+                return null;
+            });
+            String base = "http://127.0.0.1:" + daemon.getPort();
+            String token = new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8);
+            assertEquals(daemon.getToken(), token);
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+            }
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put(GeneratorDaemon.TOKEN_HEADER, token);
+            headers.put("Content-Type", "application/sql");
+
+            String one = statements.get(0);
+            assertEquals(401, SchemaFixtures.post(base + "/generate?" + QUERY, one,
+                    Collections.singletonMap("Content-Type", "application/sql")).status, "缺少令牌");
+            assertEquals(401, SchemaFixtures.post(base + "/shutdown", "", Collections.<String, String>emptyMap()).status, "缺少令牌的停止请求");
+            assertEquals(403, SchemaFixtures.post(base + "/generate?" + QUERY, one, with(headers, "Origin", "http://evil.example")).status, "跨站请求");
+            assertEquals(403, SchemaFixtures.post(base + "/generate?" + QUERY, one,
+                    with(headers, "Host", "evil.example:" + daemon.getPort())).status, "非本机 Host");
+            assertEquals(415, SchemaFixtures.post(base + "/generate?" + QUERY, one, with(headers, "Content-Type", "text/plain")).status, "text/plain 请求体");
+            assertEquals(403, SchemaFixtures.post(base + "/generate?" + QUERY + "&path=" + URLEncoder.encode(outside.toString(), "UTF-8"),
+                    "", headers).status, "--root 之外的 path");
+            assertEquals(403, SchemaFixtures.post(base + "/generate?" + QUERY + "&write=true&projectPath="
+                    + URLEncoder.encode(project.resolve("../x").toString(), "UTF-8"), one, headers).status, "--root 之外的 projectPath");
+            int rejected = 3;
+
+            int requests = statements.size() * 2;
+            for (int i = 0; i < requests; i++) {
+                String response = SchemaFixtures.post(base + "/generate?" + QUERY, statements.get(i % statements.size()), headers).body;
+                assertTrue(response.contains("\"ok\":true"), response);
+                assertTrue(response.contains("TTable" + (i % statements.size()) + "Controller.java"), response);
+            }
+            String writeQuery = QUERY + "&write=true&projectPath=" + URLEncoder.encode(project.toString(), "UTF-8");
+            String written = SchemaFixtures.quietly(() -> SchemaFixtures.post(base + "/generate?" + writeQuery, one, headers).body);
+            assertTrue(written.contains("\"ok\":true"), written);
+            assertTrue(Files.exists(project.resolve("src/main/java/com/example/mapper/TTable0Mapper.java")), "写入请求没有写入文件");
+            String bad = SchemaFixtures.post(base + "/generate", one, headers).body;
+            assertTrue(bad.contains("\"ok\":false"), "缺少包路径时应返回错误: " + bad);
+
+            // 令牌、Host 和 Origin 校验失败的请求不计入统计，请求体类型和路径校验失败的计为失败
+            GeneratorDaemon.LatencyStats stats = daemon.getLatencyStats();
+            assertEquals(requests + 1 + 1 + rejected, stats.getCount());
+            assertEquals(1 + rejected, stats.getErrors());
+        }
+        assertFalse(Files.exists(tokenFile), "服务停止后令牌文件没有删除");
+    }
+
+    private static Map<String, String> with(Map<String, String> headers, String name, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(headers);
+        copy.put(name, value);
+        return copy;
+    }
+}
@@ -0,0 +1,115 @@
+package CLI;
+
+import Benchmark.SchemaFixtures;
+import Generator.BatchCodeWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.DumpFileParser;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SQLGeneratorCLITest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * --jdbc 从数据库读取表结构，为每张表生成代码
+     */
+    @Test
+    void generatesFromJdbc() throws Exception {
+        String url = "jdbc:h2:mem:cli;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (int t = 0; t < 5; t++) {
+                statement.execute(SchemaFixtures.createTableStatement(t, 6).replace("KEY idx_column_1", "KEY idx_" + t + "_column_1"));
+            }
+            Path project = Files.createDirectories(dir.resolve("project"));
+            int exitCode = SchemaFixtures.quietly(() -> SQLGeneratorCLI.run(withPackages("--config", emptyConfig().toString(),
+                    "--no-cache", "--projectPath", project.toString(), "--jdbc", url, "--user", "sa", "--password", "")));
+            assertEquals(SQLGeneratorCLI.EXIT_OK, exitCode);
+            for (int t = 0; t < 5; t++) {
+                assertTrue(Files.isRegularFile(project.resolve("src/main/java/com/example/mapper/TTable" + t + "Mapper.java")), "t_table_" + t);
+            }
+        }
+    }
+
+    /**
+     * 数据库无法连接时返回 1；只有 --user 没有 --jdbc 时返回 2
+     */
+    @Test
+    void reportsJdbcErrors() throws Exception {
+        Path project = Files.createDirectories(dir.resolve("project"));
+        int unreachable = SchemaFixtures.quietly(() -> SQLGeneratorCLI.run(withPackages("--config", emptyConfig().toString(),
+                "--no-cache", "--projectPath", project.toString(), "--jdbc", "jdbc:h2:mem:missing;IFEXISTS=TRUE")));
+        assertEquals(SQLGeneratorCLI.EXIT_FAILED, unreachable);
+        int usage = SchemaFixtures.quietly(() -> SQLGeneratorCLI.run(withPackages("--config", emptyConfig().toString(),
+                "--projectPath", project.toString(), "--user", "sa")));
+        assertEquals(SQLGeneratorCLI.EXIT_USAGE, usage);
+    }
+
+    /**
+     * --migrations 重放迁移脚本后为最终的表结构生成代码，被删除的表不生成
+     */
+    @Test
+    void generatesFromMigrations() throws Exception {
+        Path migrations = Files.createDirectories(dir.resolve("db/migration"));
+        Files.write(migrations.resolve("V1__init.sql"), (SchemaFixtures.createTableStatement(0, 4) + "\n"
+                + SchemaFixtures.createTableStatement(1, 4)).getBytes(StandardCharsets.UTF_8));
+        Files.write(migrations.resolve("V2__drop.sql"), "DROP TABLE t_table_0;\nALTER TABLE t_table_1 ADD COLUMN extra_note varchar(20) COMMENT '备注';\n"
+                .getBytes(StandardCharsets.UTF_8));
+        Path project = Files.createDirectories(dir.resolve("project"));
+        int exitCode = SchemaFixtures.quietly(() -> SQLGeneratorCLI.run(withPackages("--config", emptyConfig().toString(),
+                "--no-cache", "--projectPath", project.toString(), "--migrations", migrations.toString())));
+        assertEquals(SQLGeneratorCLI.EXIT_OK, exitCode);
+        assertFalse(Files.exists(project.resolve("src/main/java/com/example/entity/TTable0.java")), "被删除的表不应生成");
+        Path entity = project.resolve("src/main/java/com/example/entity/TTable1.java");
+        assertTrue(new String(Files.readAllBytes(entity), StandardCharsets.UTF_8).contains("extraNote"), "新增的字段没有生成");
+    }
+
+    /**
+     * 按 --parserThreads 并行解析建表文件，生成的文件与顺序解析后批量写入的相同；解析失败的语句使退出码为 1
+     */
+    @Test
+    void parsesFilesInParallel() throws Exception {
+        Path schema = SchemaFixtures.writeSchemaWithBrokenStatement(dir.resolve("schema.sql"), 60);
+        Path expected = dir.resolve("expected");
+        SchemaFixtures.quietly(() -> new BatchCodeWriter(SchemaFixtures.config(expected))
+                .write(DumpFileParser.parseFileRecovering(schema).getTables()));
+        Path project = Files.createDirectories(dir.resolve("project"));
+        int exitCode = SchemaFixtures.quietly(() -> SQLGeneratorCLI.run(withPackages("--config", emptyConfig().toString(),
+                "--no-cache", "--projectPath", project.toString(), "--parserThreads", "3", schema.toString())));
+        assertEquals(SQLGeneratorCLI.EXIT_FAILED, exitCode);
+        assertEquals(SchemaFixtures.readSources(expected), SchemaFixtures.readSources(project));
+        int usage = SchemaFixtures.quietly(() -> SQLGeneratorCLI.run(withPackages("--config", emptyConfig().toString(),
+                "--no-cache", "--projectPath", project.toString(), "--parserThreads", "many", schema.toString())));
+        assertEquals(SQLGeneratorCLI.EXIT_USAGE, usage);
+    }
+
+    private Path emptyConfig() throws Exception {
+        Path config = dir.resolve("generator_config.properties");
+        if (!Files.exists(config)) {
+            Files.createFile(config);
+        }
+        return config;
+    }
+
+    private static String[] withPackages(String... args) {
+        String[] packages = {"--entityOrdomainPackage", "com.example.entity", "--mapperPackage", "com.example.mapper",
+                "--servicePackage", "com.example.service", "--implPackage", "com.example.service.impl",
+                "--controllerPackage", "com.example.controller"};
+        String[] all = new String[args.length + packages.length];
+        System.arraycopy(args, 0, all, 0, args.length);
+        System.arraycopy(packages, 0, all, args.length, packages.length);
+        return all;
+    }
+}
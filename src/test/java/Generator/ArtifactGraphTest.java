@@ -0,0 +1,106 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import Global.GenerationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArtifactGraphTest {
+
+    private final GenerationConfig config = SchemaFixtures.config(null);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 依赖图依次执行和在线程池中同时执行，生成的文件都与五个生成器各自生成的相同
+     */
+    @Test
+    void matchesSeparateGenerators() throws Exception {
+        ArtifactGraph graph = ArtifactGraph.standard();
+        for (TableInfo table : TableFieldExtractor.parseAll(SchemaFixtures.createSchema(200))) {
+            GenerationContext context = new GenerationContext(table, config);
+            String[] expected = SchemaFixtures.renderSeparately(context);
+            assertSameArtifacts(expected, graph.render(context));
+            assertSameArtifacts(expected, graph.render(context, executor));
+        }
+    }
+
+    /**
+     * 自定义的 DTO 文件节点与内置文件一起生成，内置文件不变
+     */
+    @Test
+    void customArtifactIsRenderedWithBuiltins() throws Exception {
+        ArtifactGraph.Key<String> dtoName = new ArtifactGraph.Key<>("DTO 类名");
+        ArtifactGraph custom = ArtifactGraph.standard().extend()
+                .derive(dtoName, inputs -> inputs.get(ArtifactGraph.NAMES).getEntityName() + "DTO", ArtifactGraph.NAMES)
+                .artifact("Dto", inputs -> new ArtifactGraph.GeneratedFile("com.example.dto", inputs.get(dtoName) + ".java",
+                        dto(inputs.get(ArtifactGraph.NAMES), inputs.get(dtoName))), ArtifactGraph.NAMES, dtoName)
+                .build();
+        GenerationResult result = custom.render(new GenerationContext(firstTable(), config), executor);
+        assertEquals(6, result.getArtifacts().size());
+        GenerationResult.Artifact dto = result.getArtifacts().get(5);
+        assertEquals("Dto", dto.getKind());
+        assertEquals("com/example/dto", dto.getPackagePath());
+        assertEquals("TTable0DTO.java", dto.getFileName());
+        assertSameArtifacts(SchemaFixtures.renderSeparately(result.getContext()), result);
+    }
+
+    @Test
+    void undeclaredDependencyFails() {
+        ArtifactGraph.Key<String> dtoName = new ArtifactGraph.Key<>("DTO 类名");
+        ArtifactGraph graph = ArtifactGraph.standard().extend()
+                .artifact("Bad", inputs -> new ArtifactGraph.GeneratedFile("a", inputs.get(dtoName), ""))
+                .build();
+        assertThrows(IllegalStateException.class, () -> graph.render(new GenerationContext(firstTable(), config)));
+    }
+
+    @Test
+    void unknownDependencyIsRejected() {
+        ArtifactGraph.Key<String> dtoName = new ArtifactGraph.Key<>("DTO 类名");
+        assertThrows(IllegalArgumentException.class, () -> ArtifactGraph.standard().extend().artifact("Bad", inputs -> null, dtoName));
+    }
+
+    /**
+     * 缺少包路径时在派生类名时失败，错误信息指出缺少的配置项
+     */
+    @Test
+    void missingPackageFailsWhileDerivingNames() {
+        GenerationConfig incomplete = new GenerationConfig(null, "a", null, "b", "c", "d", 0);
+        IOException error = assertThrows(IOException.class,
+                () -> ArtifactGraph.standard().render(new GenerationContext(firstTable(), incomplete), executor));
+        assertTrue(error.getMessage().contains("mapperPackage"), error.getMessage());
+    }
+
+    private static TableInfo firstTable() {
+        return TableFieldExtractor.parseCreateTable(SchemaFixtures.createTableStatement(0, 8));
+    }
+
+    private static void assertSameArtifacts(String[] expected, GenerationResult result) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], result.getArtifacts().get(i).getContent(), result.getArtifacts().get(i).getFileName());
+        }
+    }
+
+    private static String dto(TableNames names, String className) {
+        StringBuilder sb = new StringBuilder("package com.example.dto;\n\npublic class ").append(className).append(" {\n");
+        for (int i = 0; i < names.getColumnCount(); i++) {
+            sb.append("    private ").append(names.getJavaType(i)).append(' ').append(names.getFieldName(i)).append(";\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
@@ -0,0 +1,169 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import Global.GenerationConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchCodeWriterTest {
+
+    private static final int TABLE_COUNT = 60;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 不同线程数并行写入的文件与逐表依次写入的相同
+     */
+    @Test
+    void parallelWriteMatchesSequential() throws Exception {
+        List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(TABLE_COUNT));
+        GenerationConfig sequential = SchemaFixtures.config(dir.resolve("sequential"));
+        SchemaFixtures.quietly(() -> {
+            for (TableInfo table : tables) {
+                CodeFileWriter.writeAllCodeFiles(new GenerationContext(table, sequential));
+            }
+            return null;
+        });
+        Map<String, String> expected = SchemaFixtures.readSources(dir.resolve("sequential"));
+        assertEquals(TABLE_COUNT * 5, expected.size());
+        for (int threads : new int[]{1, 2, 4}) {
+            Path project = dir.resolve("batch-" + threads);
+            BatchCodeWriter.Result result = SchemaFixtures.quietly(() -> new BatchCodeWriter(SchemaFixtures.config(project), threads).write(tables));
+            assertTrue(result.getFailures().isEmpty(), result.summary());
+            assertEquals(TABLE_COUNT, result.getSucceeded());
+            assertEquals(expected, SchemaFixtures.readSources(project), threads + " 个线程");
+        }
+    }
+
+    /**
+     * 一张表的实体类文件位置被目录占用，只有这张表失败
+     */
+    @Test
+    void failureIsIsolatedToOneTable() throws Exception {
+        List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(TABLE_COUNT));
+        Path project = dir.resolve("project");
+        Files.createDirectories(project.resolve("src/main/java/com/example/entity/TTable7.java"));
+        BatchCodeWriter.Result result = SchemaFixtures.quietly(() -> new BatchCodeWriter(SchemaFixtures.config(project), 4).write(tables));
+        assertEquals(1, result.getFailures().size(), result.summary());
+        assertEquals("t_table_7", result.getFailures().get(0).getTableName());
+        assertEquals(TABLE_COUNT - 1, result.getSucceeded());
+        assertTrue(Files.isRegularFile(project.resolve("src/main/java/com/example/entity/TTable8.java")));
+        assertFalse(Files.exists(project.resolve("src/main/java/com/example/mapper/TTable7Mapper.java")), "失败的表写入了部分文件");
+    }
+
+    /**
+     * 内容未变化的文件不写入；修改一个字段注释只写入实体类；手动修改的文件被恢复；没有清单时逐个比较内容；
+     * 生成器创建的 .mpgenerator 目录中有忽略清单和暂存区的 .gitignore
+     */
+    @Test
+    void skipsUnchangedFiles() throws Exception {
+        Path project = dir.resolve("project");
+        List<String> statements = SchemaFixtures.createTableStatements(TABLE_COUNT);
+        List<TableInfo> tables = TableFieldExtractor.parseAll(String.join("\n", statements));
+        BatchCodeWriter writer = new BatchCodeWriter(SchemaFixtures.config(project));
+
+        BatchCodeWriter.Result first = SchemaFixtures.quietly(() -> writer.write(tables));
+        assertEquals(TABLE_COUNT * 5, first.getWrittenFiles(), first.summary());
+        List<String> ignored = Files.readAllLines(project.resolve(".mpgenerator/.gitignore"), StandardCharsets.UTF_8);
+        assertTrue(ignored.contains("*.bin") && ignored.contains("staging/"), ignored.toString());
+        Map<Path, Long> modified = lastModifiedTimes(project);
+
+        BatchCodeWriter.Result again = SchemaFixtures.quietly(() -> writer.write(tables));
+        assertEquals(0, again.getWrittenFiles(), again.summary());
+        assertEquals(TABLE_COUNT * 5, again.getSkippedFiles());
+        assertEquals(modified, lastModifiedTimes(project), "未变化的文件修改时间被改变");
+
+        int target = TABLE_COUNT / 2;
+        statements.set(target, statements.get(target).replace("字段1说明", "字段1的新说明"));
+        List<TableInfo> changedTables = TableFieldExtractor.parseAll(String.join("\n", statements));
+        BatchCodeWriter.Result changed = SchemaFixtures.quietly(() -> writer.write(changedTables));
+        assertEquals(1, changed.getWrittenFiles(), changed.summary());
+
+        Path mapper = project.resolve("src/main/java/com/example/mapper/TTable0Mapper.java");
+        Files.write(mapper, "// edited\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        BatchCodeWriter.Result restored = SchemaFixtures.quietly(() -> writer.write(changedTables));
+        assertEquals(1, restored.getWrittenFiles(), restored.summary());
+        assertFalse(new String(Files.readAllBytes(mapper), StandardCharsets.UTF_8).contains("// edited"), "手动修改的文件未被恢复");
+
+        Files.delete(project.resolve(".mpgenerator/manifest.bin"));
+        BatchCodeWriter.Result withoutManifest = SchemaFixtures.quietly(() -> writer.write(changedTables));
+        assertEquals(0, withoutManifest.getWrittenFiles(), withoutManifest.summary());
+    }
+
+    /**
+     * 一张表的任何一个文件生成失败时，这张表已有的文件全部保持原来的内容，暂存区被清理
+     */
+    @Test
+    void failedTableKeepsExistingFiles() throws Exception {
+        Path project = dir.resolve("project");
+        GenerationConfig config = SchemaFixtures.config(project);
+        List<String> statements = SchemaFixtures.createTableStatements(TABLE_COUNT);
+        List<TableInfo> tables = TableFieldExtractor.parseAll(String.join("\n", statements));
+        SchemaFixtures.quietly(() -> new BatchCodeWriter(config).write(tables));
+        Map<String, String> expected = SchemaFixtures.readSources(project);
+
+        // 所有表的实体类都会变化，但 Controller 因缺少包路径而生成失败
+        List<String> changedStatements = new ArrayList<>();
+        for (String statement : statements) {
+            changedStatements.add(statement.replace("column_1", "column_one"));
+        }
+        List<TableInfo> changedTables = TableFieldExtractor.parseAll(String.join("\n", changedStatements));
+        GenerationConfig withoutController = new GenerationConfig(project.toString(), config.getEntityOrdomainPackage(),
+                config.getMapperPackage(), config.getServicePackage(), config.getImplPackage(), null, 0);
+        BatchCodeWriter.Result failed = SchemaFixtures.quietly(() -> new BatchCodeWriter(withoutController).write(changedTables));
+        assertEquals(TABLE_COUNT, failed.getFailures().size(), failed.summary());
+        assertEquals(0, failed.getWrittenFiles());
+        assertEquals(expected, SchemaFixtures.readSources(project), "生成失败后已有的文件被改变");
+        assertTrue(isEmpty(project.resolve(".mpgenerator/staging")), "暂存区未清理");
+
+        // 一张表的 Controller 位置被目录占用，只有这张表保持不变
+        Path controller = project.resolve("src/main/java/com/example/controller/TTable7Controller.java");
+        Path entity = project.resolve("src/main/java/com/example/entity/TTable7.java");
+        byte[] entityBefore = Files.readAllBytes(entity);
+        Files.delete(controller);
+        Files.createDirectories(controller);
+        BatchCodeWriter.Result isolated = SchemaFixtures.quietly(() -> new BatchCodeWriter(config).write(changedTables));
+        assertEquals(1, isolated.getFailures().size(), isolated.summary());
+        assertEquals("t_table_7", isolated.getFailures().get(0).getTableName());
+        assertArrayEquals(entityBefore, Files.readAllBytes(entity), "失败的表的实体类被改变");
+        assertTrue(new String(Files.readAllBytes(project.resolve("src/main/java/com/example/entity/TTable8.java")), StandardCharsets.UTF_8)
+                .contains("columnOne"), "其他表未写入");
+        assertTrue(isEmpty(project.resolve(".mpgenerator/staging")), "暂存区未清理");
+    }
+
+    private static Map<Path, Long> lastModifiedTimes(Path project) throws Exception {
+        Map<Path, Long> times = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(project.resolve("src"))) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(path)) {
+                    times.put(path, Files.getLastModifiedTime(path).toMillis());
+                }
+            }
+        }
+        return times;
+    }
+
+    private static boolean isEmpty(Path directory) throws Exception {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return !entries.findAny().isPresent();
+        }
+    }
+}
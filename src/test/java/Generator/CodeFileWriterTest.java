@@ -0,0 +1,80 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import Global.GenerationConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.SchemaDiff;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeFileWriterTest {
+
+    private static final int TABLE_COUNT = 40;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 用预览的结果写入时，文件的字节与预览的内容完全相同（覆盖已被修改的文件）
+     */
+    @Test
+    void writesPreviewedBytes() throws Exception {
+        GenerationConfig config = SchemaFixtures.config(dir);
+        for (TableInfo table : TableFieldExtractor.parseAll(SchemaFixtures.createSchema(TABLE_COUNT))) {
+            GenerationResult result = GenerationResult.render(new GenerationContext(table, config));
+            for (GenerationResult.Artifact artifact : result.getArtifacts()) {
+                Files.createDirectories(fileOf(artifact).getParent());
+                Files.write(fileOf(artifact), new byte[]{'x'});
+            }
+            SchemaFixtures.quietly(() -> {
+                CodeFileWriter.writeAllCodeFiles(result);
+                return null;
+            });
+            for (GenerationResult.Artifact artifact : result.getArtifacts()) {
+                assertArrayEquals(artifact.getBytes(), Files.readAllBytes(fileOf(artifact)), artifact.getFileName());
+            }
+        }
+    }
+
+    /**
+     * 首次生成全部表；没有变化时不重新生成；修改一个字段注释后只重新生成这张表，其他表的文件不被重写
+     */
+    @Test
+    void writesOnlyChangedTables() throws Exception {
+        GenerationConfig config = SchemaFixtures.config(dir);
+        List<String> statements = SchemaFixtures.createTableStatements(TABLE_COUNT);
+        List<TableInfo> tables = TableFieldExtractor.parseAll(String.join("\n", statements));
+
+        SchemaDiff full = SchemaFixtures.quietly(() -> CodeFileWriter.writeChangedCodeFiles(tables, config));
+        assertEquals(TABLE_COUNT, full.getRegenerated().size(), full.summary());
+        SchemaDiff unchanged = SchemaFixtures.quietly(() -> CodeFileWriter.writeChangedCodeFiles(tables, config));
+        assertTrue(unchanged.getRegenerated().isEmpty(), unchanged.summary());
+
+        int target = TABLE_COUNT / 2;
+        Path entity = dir.resolve("src/main/java/com/example/entity/TTable" + target + ".java");
+        Path untouched = dir.resolve("src/main/java/com/example/entity/TTable0.java");
+        long untouchedModified = Files.getLastModifiedTime(untouched).toMillis();
+        String before = new String(Files.readAllBytes(entity), StandardCharsets.UTF_8);
+        statements.set(target, statements.get(target).replace("字段1说明", "字段1的新说明"));
+        List<TableInfo> changedTables = TableFieldExtractor.parseAll(String.join("\n", statements));
+        SchemaDiff changed = SchemaFixtures.quietly(() -> CodeFileWriter.writeChangedCodeFiles(changedTables, config));
+        assertEquals(1, changed.getRegenerated().size(), changed.summary());
+        assertNotEquals(before, new String(Files.readAllBytes(entity), StandardCharsets.UTF_8), "修改的表未重新生成");
+        assertEquals(untouchedModified, Files.getLastModifiedTime(untouched).toMillis(), "未修改的表被重新写入");
+    }
+
+    private Path fileOf(GenerationResult.Artifact artifact) {
+        return dir.resolve("src/main/java").resolve(artifact.getPackagePath()).resolve(artifact.getFileName());
+    }
+}
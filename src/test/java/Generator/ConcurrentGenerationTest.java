@@ -0,0 +1,129 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import Global.GenerationConfig;
+import Global.GlobalTableInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.FieldProcessorUtils;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+import utils.TypeConverterUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多个线程同时用两套配置生成代码，同时另一个线程不停地通过旧接口修改 GlobalTableInfo，
+ * 每个生成结果都与单线程依次生成的相同，没有串表或串配置
+ */
+class ConcurrentGenerationTest {
+
+    private static final int TABLE_COUNT = 60;
+    private static final int THREADS = 4;
+    private static final int ROUNDS = 300;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void generationIsIsolatedFromGlobalState() throws Exception {
+        GenerationConfig[] configs = {
+                new GenerationConfig(dir.resolve("project-a").toString(), "com.a.entity", "com.a.mapper",
+                        "com.a.service", "com.a.service.impl", "com.a.controller", 0),
+                new GenerationConfig(dir.resolve("project-b").toString(), "org.b.domain", "org.b.dao",
+                        "org.b.biz", "org.b.biz.impl", "org.b.web", 0)
+        };
+        List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(TABLE_COUNT));
+        List<List<String[]>> expected = new ArrayList<>();
+        for (GenerationConfig config : configs) {
+            List<String[]> perTable = new ArrayList<>(tables.size());
+            for (TableInfo table : tables) {
+                perTable.add(SchemaFixtures.renderSeparately(new GenerationContext(table, config)));
+            }
+            expected.add(perTable);
+        }
+        // 单线程写入的结果作为两个项目同时写入的参照
+        List<java.util.Map<String, String>> expectedFiles = new ArrayList<>();
+        for (int c = 0; c < configs.length; c++) {
+            Path reference = dir.resolve("reference-" + c);
+            GenerationConfig config = configs[c].withProjectPath(reference.toString());
+            SchemaFixtures.quietly(() -> new BatchCodeWriter(config, 1).write(tables));
+            expectedFiles.add(SchemaFixtures.readSources(reference));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread mutator = new Thread(() -> mutateGlobals(tables, running), "global-mutator");
+        mutator.setDaemon(true);
+        mutator.start();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int r = 0; r < ROUNDS; r++) {
+                        int c = random.nextInt(configs.length);
+                        int i = random.nextInt(tables.size());
+                        assertArrayEquals(expected.get(c).get(i), SchemaFixtures.renderSeparately(new GenerationContext(tables.get(i), configs[c])),
+                                tables.get(i).getTableName());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // 两个项目同时批量写入文件，每个项目中的文件只属于自己的配置
+            List<Future<BatchCodeWriter.Result>> writes = new ArrayList<>();
+            SchemaFixtures.quietly(() -> {
+                for (GenerationConfig config : configs) {
+                    writes.add(executor.submit((Callable<BatchCodeWriter.Result>) () -> new BatchCodeWriter(config, 2).write(tables)));
+                }
+                for (Future<BatchCodeWriter.Result> write : writes) {
+                    assertTrue(write.get().getFailures().isEmpty(), write.get().summary());
+                }
+                return null;
+            });
+        } finally {
+            running.set(false);
+            mutator.join();
+            executor.shutdownNow();
+        }
+        for (int c = 0; c < configs.length; c++) {
+            assertEquals(expectedFiles.get(c), SchemaFixtures.readSources(dir.resolve(c == 0 ? "project-a" : "project-b")));
+        }
+    }
+
+    /**
+     * 不停地通过旧接口修改全局变量，直到 running 为 false
+     */
+    private static void mutateGlobals(List<TableInfo> tables, AtomicBoolean running) {
+        GlobalTableInfo global = GlobalTableInfo.getInstance();
+        Random random = new Random(42);
+        while (running.get()) {
+            TableFieldExtractor.setGlobalVariables(tables.get(random.nextInt(tables.size())));
+            FieldProcessorUtils.processGlobalTableInfo();
+            TypeConverterUtils.processGlobalTableInfo();
+            String prefix = "com.mutated" + random.nextInt(100);
+            global.entityOrdomainPackage = prefix + ".entity";
+            global.mapperPackage = prefix + ".mapper";
+            global.servicePackage = prefix + ".service";
+            global.implPackage = prefix + ".impl";
+            global.controllerPackage = random.nextBoolean() ? null : prefix + ".controller";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.ParseCache;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaWatcherTest {
+
+    private static final int FILE_COUNT = 5;
+    private static final int TABLES_PER_FILE = 4;
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 修改一个文件中一张表的字段注释，只重新生成这张表，实体类包含新的注释
+     */
+    @Test
+    void regeneratesOnlyChangedTable() throws Exception {
+        Path sqlDir = Files.createDirectories(dir.resolve("sql"));
+        Path project = dir.resolve("project");
+        List<String> statements = SchemaFixtures.createTableStatements(FILE_COUNT * TABLES_PER_FILE);
+        for (int f = 0; f < FILE_COUNT; f++) {
+            writeFile(sqlDir, statements, f);
+        }
+        ParseCache cache = new ParseCache(dir.resolve("cache.bin"), ParseCache.DEFAULT_MAX_ENTRIES);
+        BlockingQueue<List<TableInfo>> batches = new LinkedBlockingQueue<>();
+        try (SchemaWatcher watcher = new SchemaWatcher(sqlDir, SchemaFixtures.config(project), DEBOUNCE_MILLIS, cache)) {
+            watcher.setListener(batches::add);
+            SchemaFixtures.quietly(watcher::scan);
+            Thread thread = new Thread(watcher::run);
+            thread.setDaemon(true);
+            thread.start();
+
+            for (int round = 0; round < 3; round++) {
+                int file = round * 2 % FILE_COUNT;
+                int table = file * TABLES_PER_FILE + round % TABLES_PER_FILE;
+                statements.set(table, statements.get(table).replace("主键ID", "主键ID revision_" + round));
+                writeFile(sqlDir, statements, file);
+                List<TableInfo> regenerated = batches.poll(10, TimeUnit.SECONDS);
+                assertNotNull(regenerated, "第 " + round + " 次修改后没有重新生成");
+                assertEquals(1, regenerated.size());
+                assertEquals("t_table_" + table, regenerated.get(0).getTableName());
+                Path entity = project.resolve("src/main/java/com/example/entity/TTable" + table + ".java");
+                assertTrue(new String(Files.readAllBytes(entity), StandardCharsets.UTF_8).contains("revision_" + round), "实体类未更新");
+            }
+        }
+        // 监听器推迟了缓存的保存，在删除临时目录之前写入
+        cache.save();
+    }
+
+    private static void writeFile(Path sqlDir, List<String> statements, int file) throws IOException {
+        String content = String.join("\n", statements.subList(file * TABLES_PER_FILE, (file + 1) * TABLES_PER_FILE));
+        Files.write(sqlDir.resolve("schema_" + file + ".sql"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,102 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.DumpFileParser;
+import utils.ParseCache;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingPipelineTest {
+
+    private static final int TABLE_COUNT = 100;
+    private static final int MAX_IN_FLIGHT = 8;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 流水线写入的文件与先解析全部表再批量写入的相同，无法解析的语句被跳过并报告
+     */
+    @Test
+    void matchesBatchWriter() throws Exception {
+        Path schema = SchemaFixtures.writeSchemaWithBrokenStatement(dir.resolve("schema.sql"), TABLE_COUNT);
+        List<TableInfo> tables = DumpFileParser.parseFileRecovering(schema).getTables();
+        BatchCodeWriter.Result batch = SchemaFixtures.quietly(() -> new BatchCodeWriter(SchemaFixtures.config(dir.resolve("batch")), 2).write(tables));
+        StreamingPipeline.Result streamed = SchemaFixtures.quietly(() -> new StreamingPipeline(SchemaFixtures.config(dir.resolve("pipeline")),
+                MAX_IN_FLIGHT, 1, 1, null).run(schema));
+        assertTrue(batch.getFailures().isEmpty(), batch.summary());
+        assertTrue(streamed.getFailures().isEmpty(), streamed.summary());
+        assertEquals(1, streamed.getDiagnostics().size(), streamed.summary());
+        assertEquals(TABLE_COUNT + 1, streamed.getTableCount(), streamed.summary());
+        assertTrue(streamed.getPeakInFlight() <= MAX_IN_FLIGHT, "同时在流水线中的表超过上限: " + streamed.getPeakInFlight());
+        assertEquals(SchemaFixtures.readSources(dir.resolve("batch")), SchemaFixtures.readSources(dir.resolve("pipeline")));
+    }
+
+    /**
+     * 解析线程中抛出的 Error 记为这张表失败，流水线照常结束
+     */
+    @Test
+    void errorInParserFailsOneTable() throws Exception {
+        Path schema = SchemaFixtures.writeSchemaWithBrokenStatement(dir.resolve("schema.sql"), TABLE_COUNT);
+        StreamingPipeline.Result failing = SchemaFixtures.quietly(() -> new StreamingPipeline(SchemaFixtures.config(dir.resolve("error")),
+                MAX_IN_FLIGHT, 1, 1, new FailingCache(dir.resolve("error.cache"), "t_table_3")).run(schema));
+        assertEquals(1, failing.getFailures().size(), failing.summary());
+        assertInstanceOf(AssertionError.class, failing.getFailures().get(0).getError());
+    }
+
+    /**
+     * 文件末尾单独的 CREATE INDEX 语句也体现在生成的代码中，文件输入和流输入都与批量写入的相同
+     */
+    @Test
+    void appliesTrailingIndexStatements() throws Exception {
+        String schema = SchemaFixtures.createSchemaWithIndexStatements(TABLE_COUNT);
+        Path sqlFile = dir.resolve("schema.sql");
+        Files.write(sqlFile, schema.getBytes(StandardCharsets.UTF_8));
+        List<TableInfo> tables = TableFieldExtractor.parseAll(schema);
+        SchemaFixtures.quietly(() -> new BatchCodeWriter(SchemaFixtures.config(dir.resolve("batch")), 2).write(tables));
+        StreamingPipeline.Result streamed = SchemaFixtures.quietly(() -> new StreamingPipeline(SchemaFixtures.config(dir.resolve("pipeline")),
+                16, 1, 1, null).run(sqlFile));
+        StreamingPipeline.Result fromStream = SchemaFixtures.quietly(() -> {
+            try (InputStream in = new ByteArrayInputStream(schema.getBytes(StandardCharsets.UTF_8))) {
+                return new StreamingPipeline(SchemaFixtures.config(dir.resolve("stdin")), 16, 1, 1, null).run(in);
+            }
+        });
+        assertTrue(streamed.getFailures().isEmpty() && streamed.getDiagnostics().isEmpty(), streamed.summary());
+        assertTrue(fromStream.getFailures().isEmpty(), fromStream.summary());
+        assertEquals(SchemaFixtures.readSources(dir.resolve("batch")), SchemaFixtures.readSources(dir.resolve("pipeline")), "文件输入");
+        assertEquals(SchemaFixtures.readSources(dir.resolve("batch")), SchemaFixtures.readSources(dir.resolve("stdin")), "流输入");
+    }
+
+    /**
+     * 解析指定的表时抛出 Error，模拟解析线程中未预料的错误
+     */
+    private static final class FailingCache extends ParseCache {
+        private final String marker;
+
+        FailingCache(Path cacheFile, String tableName) {
+            super(cacheFile, 16);
+            this.marker = "CREATE TABLE " + tableName + " (";
+        }
+
+        @Override
+        public TableInfo parse(CharSequence sql, int from, int to) {
+            if (sql.subSequence(from, to).toString().contains(marker)) {
+                throw new AssertionError("模拟的错误");
+            }
+            return super.parse(sql, from, to);
+        }
+    }
+}
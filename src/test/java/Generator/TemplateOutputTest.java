@@ -0,0 +1,35 @@
+package Generator;
+
+import Benchmark.LegacyTemplates;
+import Benchmark.SchemaFixtures;
+import Global.GlobalTableInfo;
+import org.junit.jupiter.api.Test;
+import utils.SchemaModel;
+import utils.TableColumns;
+import utils.TableFieldExtractor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TemplateOutputTest {
+
+    /**
+     * 编译后的模板与逐行 String.format 拼接（模板化之前的实现）输出完全相同
+     */
+    @Test
+    void templatesMatchStringFormat() {
+        GlobalTableInfo config = GlobalTableInfo.getInstance();
+        config.entityOrdomainPackage = "com.example.entity";
+        config.mapperPackage = "com.example.mapper";
+        config.servicePackage = "com.example.service";
+        config.implPackage = "com.example.service.impl";
+        config.controllerPackage = "com.example.controller";
+        SchemaModel model = SchemaModel.of(TableFieldExtractor.parseAll(SchemaFixtures.createSchema(200)));
+        entityGenerator entityGenerator = new entityGenerator();
+        ControllerGenerator controllerGenerator = new ControllerGenerator();
+        for (int t = 0; t < model.getTableCount(); t++) {
+            TableColumns table = model.getTable(t);
+            assertEquals(LegacyTemplates.entity(table, config), entityGenerator.generateEntityContent(table, config), table.getTableName());
+            assertEquals(LegacyTemplates.controller(table, config), controllerGenerator.generateControllerContent(table, config), table.getTableName());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Generator;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TableFieldExtractor;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipCodeWriterTest {
+
+    private static final int TABLE_COUNT = 50;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 压缩包中的文件与写入项目目录的文件完全相同
+     */
+    @Test
+    void archiveMatchesProjectFiles() throws Exception {
+        List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(TABLE_COUNT));
+        Path project = dir.resolve("project");
+        BatchCodeWriter.Result loose = SchemaFixtures.quietly(() -> new BatchCodeWriter(SchemaFixtures.config(project)).write(tables));
+        assertTrue(loose.getFailures().isEmpty(), loose.summary());
+
+        Path archive = dir.resolve("out/generated-sources.zip");
+        ZipCodeWriter.Result zipped = SchemaFixtures.quietly(() -> new ZipCodeWriter(SchemaFixtures.config(null)).write(tables, archive));
+        assertTrue(zipped.getFailures().isEmpty(), zipped.summary());
+        assertEquals(TABLE_COUNT * 5, zipped.getFileCount());
+        assertEquals(SchemaFixtures.readSources(project), readArchive(archive));
+    }
+
+    /**
+     * 压缩包中的文件路径 -> 内容（按 ISO-8859-1 逐字节转换）
+     */
+    private static Map<String, String> readArchive(Path archive) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        bytes.write(buffer, 0, n);
+                    }
+                    files.put(entry.getName(), new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1));
+                }
+            }
+        }
+        return files;
+    }
+}
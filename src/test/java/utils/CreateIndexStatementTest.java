@@ -0,0 +1,103 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 单独的 CREATE INDEX 语句：每种解析方式得到的表和索引都与 TableFieldExtractor.parseAll(String) 相同
+ */
+class CreateIndexStatementTest {
+
+    private static final int TABLE_COUNT = 120;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyParserAppliesIndexStatements() throws Exception {
+        String schema = SchemaFixtures.createSchemaWithIndexStatements(TABLE_COUNT);
+        List<TableInfo> expected = TableFieldExtractor.parseAll(schema);
+        assertTrue(countIndexes(expected) > countIndexes(TableFieldExtractor.parseAll(SchemaFixtures.createSchema(TABLE_COUNT))),
+                "参照结果中没有补充单独的索引语句");
+
+        Path sqlFile = dir.resolve("schema.sql");
+        Files.write(sqlFile, schema.getBytes(StandardCharsets.UTF_8));
+        Path gzipFile = dir.resolve("schema.sql.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipFile))) {
+            out.write(schema.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, List<TableInfo>> results = new LinkedHashMap<>();
+        results.put("parseAllRecovering(String)", TableFieldExtractor.parseAllRecovering(schema).getTables());
+        try (InputStream in = new ByteArrayInputStream(schema.getBytes(StandardCharsets.UTF_8))) {
+            results.put("parseAll(InputStream)", TableFieldExtractor.parseAll(in));
+        }
+        try (InputStream in = Files.newInputStream(gzipFile)) {
+            List<TableInfo> tables = new ArrayList<>();
+            StreamingSchemaParser.parse(in, null, tables::add, null);
+            results.put("StreamingSchemaParser(.gz)", tables);
+        }
+        results.put("DumpFileParser", DumpFileParser.parseFile(sqlFile, null));
+        List<TableInfo> recovered = new ArrayList<>();
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        DumpFileParser.parseFile(sqlFile, null, recovered::add, diagnostics::add);
+        assertEquals(0, diagnostics.size(), "容错解析报告了错误: " + diagnostics);
+        results.put("DumpFileParser(容错)", recovered);
+        try (ParallelSchemaParser parser = new ParallelSchemaParser(2, null)) {
+            results.put("ParallelSchemaParser", parser.parse(schema));
+            results.put("ParallelSchemaParser(文件)", parser.parseFileRecovering(sqlFile).getTables());
+        }
+        IncrementalSqlParser incremental = new IncrementalSqlParser();
+        incremental.reset(schema);
+        results.put("IncrementalSqlParser", incremental.getTables());
+
+        for (Map.Entry<String, List<TableInfo>> result : results.entrySet()) {
+            assertEquals(SchemaFixtures.describe(expected), SchemaFixtures.describe(result.getValue()), result.getKey());
+        }
+    }
+
+    /**
+     * 增量解析：删除末尾的一条索引语句后，复用的建表结果不应残留它的索引
+     */
+    @Test
+    void incrementalUpdateDropsRemovedIndex() {
+        String schema = SchemaFixtures.createSchemaWithIndexStatements(TABLE_COUNT);
+        IncrementalSqlParser incremental = new IncrementalSqlParser();
+        incremental.reset(schema);
+
+        String removed = "CREATE INDEX idx_tail_0 ON t_table_0 (column_2);\n";
+        int offset = schema.indexOf(removed);
+        assertTrue(offset >= 0, "末尾的索引语句不存在");
+        String edited = schema.substring(0, offset) + schema.substring(offset + removed.length());
+        incremental.update(edited, offset, 0, removed.length());
+        assertEquals(SchemaFixtures.describe(TableFieldExtractor.parseAll(edited)), SchemaFixtures.describe(incremental.getTables()));
+
+        incremental.update(schema, offset, removed.length(), 0);
+        assertEquals(SchemaFixtures.describe(TableFieldExtractor.parseAll(schema)), SchemaFixtures.describe(incremental.getTables()));
+    }
+
+    private static int countIndexes(List<TableInfo> tables) {
+        int count = 0;
+        for (TableInfo table : tables) {
+            count += table.getIndexes().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DumpFileParserTest {
+
+    private static final int TABLE_COUNT = 30;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 边解压边解析带大量 INSERT 数据的 .sql.gz 导出，得到的表与只解析建表语句的相同
+     */
+    @Test
+    void compressedDumpWithDataGivesSameTables() throws Exception {
+        StringBuilder schema = new StringBuilder();
+        Path dump = dir.resolve("dump.sql.gz");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(dump)), StandardCharsets.UTF_8))) {
+            for (int t = 0; t < TABLE_COUNT; t++) {
+                String statement = SchemaFixtures.createTableStatement(t, 12);
+                schema.append(statement).append('\n');
+                out.write("DROP TABLE IF EXISTS `t_table_" + t + "`;\n");
+                out.write(statement);
+                out.write("\nINSERT INTO `t_table_" + t + "` VALUES ");
+                for (int row = 0; row < 200; row++) {
+                    out.write((row == 0 ? "(" : ",(") + row + ",'用户" + row + ";备注 \\' 转义 CREATE TABLE x (',"
+                            + row * 7 % 1000 + ",'2024-01-01 00:00:00')");
+                }
+                out.write(";\n");
+            }
+        }
+
+        List<TableInfo> tables = new ArrayList<>();
+        DumpFileParser.parseFile(dump, null, tables::add);
+        assertEquals(SchemaFixtures.describe(TableFieldExtractor.parseAll(schema.toString())), SchemaFixtures.describe(tables));
+    }
+}
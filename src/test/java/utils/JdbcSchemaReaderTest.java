@@ -0,0 +1,70 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.IndexInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JdbcSchemaReaderTest {
+
+    private static final String URL = "jdbc:h2:mem:reader;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    /**
+     * 在嵌入式 H2（MySQL 兼容模式）中建表后读取，表名、注释、字段名、字段注释和索引与解析建表语句的结果相同。
+     * 字段类型经过数据库转换（如 int unsigned 在 H2 中变为 integer），不做对比
+     */
+    @Test
+    void matchesParsedStatements() throws Exception {
+        List<String> statements = SchemaFixtures.createTableStatements(60);
+        StringBuilder schema = new StringBuilder();
+        for (int t = 0; t < statements.size(); t++) {
+            // H2 中索引名在整个库内唯一，给每张表的索引加上表序号
+            statements.set(t, statements.get(t).replace("KEY idx_column_1", "KEY idx_" + t + "_column_1"));
+            schema.append(statements.get(t)).append('\n');
+        }
+        List<TableInfo> expected = new ArrayList<>(TableFieldExtractor.parseAll(schema));
+        // 数据库按表名排序返回
+        expected.sort((a, b) -> a.getTableName().compareTo(b.getTableName()));
+
+        List<TableInfo> actual;
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+            }
+            actual = new JdbcSchemaReader(connection).readTables(null);
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int t = 0; t < expected.size(); t++) {
+            TableInfo e = expected.get(t);
+            TableInfo a = actual.get(t);
+            assertEquals(e.getTableName(), a.getTableName());
+            assertEquals(e.getTableComment(), a.getTableComment(), e.getTableName());
+            assertEquals(e.getFields().size(), a.getFields().size(), e.getTableName());
+            for (int f = 0; f < e.getFields().size(); f++) {
+                FieldInfo ef = e.getFields().get(f);
+                FieldInfo af = a.getFields().get(f);
+                assertEquals(ef.getFieldName(), af.getFieldName(), e.getTableName());
+                assertEquals(ef.getComment(), af.getComment(), e.getTableName() + "." + ef.getFieldName());
+            }
+            assertEquals(e.getIndexes().size(), a.getIndexes().size(), e.getTableName());
+            for (int i = 0; i < e.getIndexes().size(); i++) {
+                IndexInfo ei = e.getIndexes().get(i);
+                IndexInfo ai = a.getIndexes().get(i);
+                assertEquals(ei.getIndexName(), ai.getIndexName(), e.getTableName());
+                assertEquals(ei.isUnique(), ai.isUnique(), ei.getIndexName());
+                assertEquals(ei.getColumnNames(), ai.getColumnNames(), ei.getIndexName());
+            }
+        }
+    }
+}
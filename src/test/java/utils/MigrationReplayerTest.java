@@ -0,0 +1,93 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationReplayerTest {
+
+    private static final int TABLE_COUNT = 40;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 利用快照只重放新增的脚本，结果与不使用快照的完整重放相同
+     */
+    @Test
+    void snapshotReplaysOnlyNewScripts() throws Exception {
+        Path migrations = Files.createDirectories(dir.resolve("migrations"));
+        int scriptCount = TABLE_COUNT * 6;
+        for (int version = 1; version <= scriptCount; version++) {
+            SchemaFixtures.writeMigrationScript(migrations, version, TABLE_COUNT);
+        }
+        MigrationReplayer replayer = new MigrationReplayer(dir.resolve("replay.snapshot"));
+        MigrationReplayer.Result cold = replayer.replayDirectory(migrations);
+        assertEquals(scriptCount, cold.getReplayedCount());
+        assertEquals(0, replayer.replayDirectory(migrations).getReplayedCount());
+
+        SchemaFixtures.writeMigrationScript(migrations, scriptCount + 1, TABLE_COUNT);
+        MigrationReplayer.Result tail = replayer.replayDirectory(migrations);
+        assertEquals(1, tail.getReplayedCount());
+
+        MigrationReplayer.Result expected = new MigrationReplayer(null).replayDirectory(migrations);
+        assertTrue(expected.getDiagnostics().isEmpty(), "存在无法应用的语句: " + expected.getDiagnostics());
+        assertEquals(TABLE_COUNT, expected.getTables().size());
+        assertEquals(SchemaFixtures.describe(expected.getTables()), SchemaFixtures.describe(tail.getTables()));
+    }
+
+    /**
+     * 每个迁移目录的默认快照文件不同，同一目录的不同写法得到同一个文件，都在当前目录下
+     */
+    @Test
+    void snapshotFileIsKeyedByDirectory() {
+        Path a = dir.resolve("a/db/migration");
+        Path b = dir.resolve("b/db/migration");
+        assertNotEquals(MigrationReplayer.snapshotFileFor(a), MigrationReplayer.snapshotFileFor(b));
+        assertEquals(MigrationReplayer.snapshotFileFor(a), MigrationReplayer.snapshotFileFor(dir.resolve("a/db/../db/migration")));
+        assertEquals(null, MigrationReplayer.snapshotFileFor(a).getParent());
+        assertTrue(MigrationReplayer.snapshotFileFor(a).toString().startsWith(MigrationReplayer.SNAPSHOT_FILE_PREFIX));
+    }
+
+    /**
+     * 快照中的脚本数量损坏时丢弃快照完整重放；任意一个字节被改写时都不抛出异常
+     */
+    @Test
+    void corruptSnapshotFallsBackToFullReplay() throws Exception {
+        Path migrations = Files.createDirectories(dir.resolve("migrations"));
+        int scriptCount = 4;
+        for (int version = 1; version <= scriptCount; version++) {
+            SchemaFixtures.writeMigrationScript(migrations, version, 3);
+        }
+        Path snapshotFile = dir.resolve("replay.snapshot");
+        MigrationReplayer replayer = new MigrationReplayer(snapshotFile);
+        List<String> expected = SchemaFixtures.describe(replayer.replayDirectory(migrations).getTables());
+        byte[] valid = Files.readAllBytes(snapshotFile);
+
+        // 文件头 16 字节之后是脚本数量
+        for (int value : new int[]{-1, Integer.MAX_VALUE, 1 << 20}) {
+            byte[] corrupt = valid.clone();
+            ByteBuffer.wrap(corrupt).putInt(16, value);
+            Files.write(snapshotFile, corrupt);
+            MigrationReplayer.Result result = replayer.replayDirectory(migrations);
+            assertEquals(scriptCount, result.getReplayedCount(), "脚本数量为 " + value);
+            assertEquals(expected, SchemaFixtures.describe(result.getTables()));
+            assertEquals(0, replayer.replayDirectory(migrations).getReplayedCount(), "损坏的快照没有被重写");
+        }
+        for (int offset = 0; offset < valid.length; offset++) {
+            byte[] corrupt = valid.clone();
+            corrupt[offset] = (byte) (corrupt[offset] ^ 0x80);
+            Files.write(snapshotFile, corrupt);
+            replayer.replayDirectory(migrations);
+        }
+    }
+}
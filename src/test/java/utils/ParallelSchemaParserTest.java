@@ -0,0 +1,42 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelSchemaParserTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 不同工作线程数的并行解析结果与顺序解析的表顺序和内容相同
+     */
+    @Test
+    void matchesSequentialParse() throws Exception {
+        String schema = SchemaFixtures.createSchema(500);
+        List<String> expected = SchemaFixtures.describe(TableFieldExtractor.parseAll(schema));
+        Path file = dir.resolve("schema.sql");
+        Files.write(file, schema.getBytes(StandardCharsets.UTF_8));
+        Path gzipFile = dir.resolve("schema.sql.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipFile))) {
+            out.write(schema.getBytes(StandardCharsets.UTF_8));
+        }
+        for (int threads : new int[]{1, 2, 4}) {
+            try (ParallelSchemaParser parser = new ParallelSchemaParser(threads, null)) {
+                assertEquals(expected, SchemaFixtures.describe(parser.parse(schema)), threads + " 个线程");
+                assertEquals(expected, SchemaFixtures.describe(parser.parseFile(file)), threads + " 个线程（文件）");
+                assertEquals(expected, SchemaFixtures.describe(parser.parseFile(gzipFile)), threads + " 个线程（.gz 文件）");
+            }
+        }
+    }
+}
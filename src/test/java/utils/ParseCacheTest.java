@@ -0,0 +1,118 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 新的缓存实例加载缓存文件后不再解析，返回的结果与直接解析的相同
+     */
+    @Test
+    void warmCacheReturnsSameTablesWithoutParsing() {
+        List<String> statements = SchemaFixtures.createTableStatements(300);
+        Path cacheFile = dir.resolve("cache.bin");
+        ParseCache cold = new ParseCache(cacheFile, ParseCache.DEFAULT_MAX_ENTRIES);
+        List<TableInfo> expected = parseAll(cold, statements);
+        assertEquals(statements.size(), cold.getMisses());
+        cold.save();
+
+        ParseCache warm = new ParseCache(cacheFile, ParseCache.DEFAULT_MAX_ENTRIES);
+        List<TableInfo> actual = parseAll(warm, statements);
+        assertEquals(0, warm.getMisses());
+        assertEquals(statements.size(), warm.getHits());
+        assertEquals(SchemaFixtures.describe(expected), SchemaFixtures.describe(actual));
+    }
+
+    /**
+     * 只差在行注释结束的换行上的两条语句不能共用缓存结果：换行被去掉后，下一行的字段也成了注释
+     */
+    @Test
+    void lineCommentBreakIsSignificant() {
+        ParseCache cache = new ParseCache(dir.resolve("cache.bin"), 16);
+        String twoFields = "CREATE TABLE `t_comment` (\n  -- 备注\n  `id` bigint,\n  `name` varchar(20)\n);";
+        String oneField = "CREATE TABLE `t_comment` (\n  -- 备注 `id` bigint,\n  `name` varchar(20)\n);";
+        cache.parse(twoFields, 0, twoFields.length());
+        assertEquals(TableFieldExtractor.parseCreateTable(oneField).getFields().size(),
+                cache.parse(oneField, 0, oneField.length()).getFields().size());
+    }
+
+    /**
+     * 条目数量、字段数量为负数或远超文件大小时丢弃整个缓存文件，不抛出异常，下次保存时重写
+     */
+    @Test
+    void corruptCountsDiscardTheFile() throws Exception {
+        String statement = SchemaFixtures.createTableStatement(0, 3);
+        TableInfo table = TableFieldExtractor.parseCreateTable(statement);
+        Path cacheFile = dir.resolve("cache.bin");
+        ParseCache cache = new ParseCache(cacheFile, 16);
+        cache.parse(statement, 0, statement.length());
+        cache.save();
+        byte[] valid = Files.readAllBytes(cacheFile);
+        // 文件头 12 字节之后是条目数量；第一个条目的键、语句长度和校验值之后是表名、注释和字段数量
+        int entryCount = 12;
+        int fieldCount = 16 + 8 + 4 + 8 + utfLength(table.getTableName()) + utfLength(table.getTableComment());
+        for (int offset : new int[]{entryCount, fieldCount}) {
+            for (int value : new int[]{-1, Integer.MAX_VALUE, 1 << 20}) {
+                byte[] corrupt = valid.clone();
+                ByteBuffer.wrap(corrupt).putInt(offset, value);
+                Files.write(cacheFile, corrupt);
+                ParseCache reloaded = new ParseCache(cacheFile, 16);
+                assertEquals(0, reloaded.size(), "偏移 " + offset + " 处的数量为 " + value);
+                assertEquals(SchemaFixtures.describe(java.util.Collections.singletonList(table)),
+                        SchemaFixtures.describe(java.util.Collections.singletonList(reloaded.parse(statement, 0, statement.length()))));
+                reloaded.save();
+                assertEquals(1, new ParseCache(cacheFile, 16).size(), "损坏的文件没有被重写");
+            }
+        }
+    }
+
+    /**
+     * 缓存文件中任意一个字节被改写，加载时都不抛出异常
+     */
+    @Test
+    void anyCorruptByteIsTolerated() throws Exception {
+        List<String> statements = SchemaFixtures.createTableStatements(2);
+        Path cacheFile = dir.resolve("cache.bin");
+        ParseCache cache = new ParseCache(cacheFile, 16);
+        parseAll(cache, statements);
+        cache.save();
+        byte[] valid = Files.readAllBytes(cacheFile);
+        for (int offset = 0; offset < valid.length; offset++) {
+            byte[] corrupt = valid.clone();
+            corrupt[offset] = (byte) (corrupt[offset] ^ 0x80);
+            Files.write(cacheFile, corrupt);
+            assertEquals(statements.size(), parseAll(new ParseCache(cacheFile, 16), statements).size());
+        }
+    }
+
+    private static int utfLength(String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(value);
+        return bytes.size();
+    }
+
+    private static List<TableInfo> parseAll(ParseCache cache, List<String> statements) {
+        List<TableInfo> tables = new ArrayList<>(statements.size());
+        for (String statement : statements) {
+            tables.add(cache.parse(statement, 0, statement.length()));
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,41 @@
+package utils;
+
+import Benchmark.SchemaFixtures;
+import Generator.ControllerGenerator;
+import Generator.MapperGenerator;
+import Generator.entityGenerator;
+import Global.GlobalTableInfo;
+import org.junit.jupiter.api.Test;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchemaModelTest {
+
+    /**
+     * 列式 SchemaModel 与 List&lt;TableInfo&gt; 生成的代码相同
+     */
+    @Test
+    void generatesSameCodeAsTableList() {
+        GlobalTableInfo config = GlobalTableInfo.getInstance();
+        config.entityOrdomainPackage = "com.example.entity";
+        config.mapperPackage = "com.example.mapper";
+        config.servicePackage = "com.example.service";
+        config.controllerPackage = "com.example.controller";
+        List<TableInfo> tables = TableFieldExtractor.parseAll(SchemaFixtures.createSchema(300));
+        SchemaModel model = SchemaModel.of(tables);
+        assertEquals(tables.size(), model.getTableCount());
+
+        entityGenerator entity = new entityGenerator();
+        MapperGenerator mapper = new MapperGenerator();
+        ControllerGenerator controller = new ControllerGenerator();
+        for (int t = 0; t < tables.size(); t++) {
+            TableColumns columns = model.getTable(t);
+            assertEquals(entity.generateEntityContent(tables.get(t), config), entity.generateEntityContent(columns, config));
+            assertEquals(mapper.generateMapperContent(tables.get(t), config), mapper.generateMapperContent(columns, config));
+            assertEquals(controller.generateControllerContent(tables.get(t), config), controller.generateControllerContent(columns, config));
+        }
+    }
+}
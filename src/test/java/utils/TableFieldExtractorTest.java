@@ -0,0 +1,60 @@
+package utils;
+
+import Benchmark.LegacyRegexParser;
+import Benchmark.SchemaFixtures;
+import org.junit.jupiter.api.Test;
+import utils.TableFieldExtractor.FieldInfo;
+import utils.TableFieldExtractor.TableInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableFieldExtractorTest {
+
+    /**
+     * 单遍词法分析与旧版逐行正则提取出的字段名和注释相同
+     */
+    @Test
+    void lexerMatchesLegacyRegexParser() {
+        for (String statement : SchemaFixtures.createTableStatements(200)) {
+            List<FieldInfo> expected = LegacyRegexParser.extractFields(LegacyRegexParser.extractCreateTableBlock(statement));
+            List<FieldInfo> actual = TableFieldExtractor.parseCreateTable(statement).getFields();
+            assertEquals(expected.size(), actual.size(), statement);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getFieldName(), actual.get(i).getFieldName());
+                assertEquals(expected.get(i).getComment(), actual.get(i).getComment());
+            }
+        }
+    }
+
+    @Test
+    void parsesFixtureStatement() {
+        TableInfo table = TableFieldExtractor.parseCreateTable(SchemaFixtures.createTableStatement(3, 5));
+        assertEquals("t_table_3", table.getTableName());
+        assertEquals("表3", table.getTableComment());
+        assertEquals(7, table.getFields().size());
+        assertEquals("id", table.getFields().get(0).getFieldName());
+        assertEquals("主键ID", table.getFields().get(0).getComment());
+        assertEquals("column_4", table.getFields().get(4).getFieldName());
+        assertEquals("update_time", table.getFields().get(6).getFieldName());
+        assertEquals(2, table.getIndexes().size());
+        assertEquals("PRIMARY", table.getIndexes().get(0).getIndexName());
+        assertEquals("idx_column_1", table.getIndexes().get(1).getIndexName());
+    }
+
+    /**
+     * 从字符串和从输入流解析同一份 schema 的结果相同
+     */
+    @Test
+    void streamAndStringGiveSameTables() throws Exception {
+        String schema = SchemaFixtures.createSchema(100);
+        try (InputStream in = new ByteArrayInputStream(schema.getBytes(StandardCharsets.UTF_8))) {
+            assertEquals(SchemaFixtures.describe(TableFieldExtractor.parseAll(schema)),
+                    SchemaFixtures.describe(TableFieldExtractor.parseAll(in)));
+        }
+    }
+}